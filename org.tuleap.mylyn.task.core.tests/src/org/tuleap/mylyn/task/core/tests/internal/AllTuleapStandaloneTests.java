@@ -16,11 +16,28 @@ import junit.textui.TestRunner;
 
 import org.junit.runner.RunWith;
 import org.junit.runners.Suite;
+import org.tuleap.mylyn.task.core.tests.internal.client.rest.CircuitBreakerTest;
+import org.tuleap.mylyn.task.core.tests.internal.client.rest.ContentEncodingsTest;
+import org.tuleap.mylyn.task.core.tests.internal.client.rest.JsonResponseIteratorTest;
+import org.tuleap.mylyn.task.core.tests.internal.client.rest.PageSizeAdvisorTest;
+import org.tuleap.mylyn.task.core.tests.internal.client.rest.PaginatedPrefetchTest;
+import org.tuleap.mylyn.task.core.tests.internal.client.rest.PaginationCheckpointTest;
+import org.tuleap.mylyn.task.core.tests.internal.client.rest.RecordReplayTest;
+import org.tuleap.mylyn.task.core.tests.internal.client.rest.RequestThrottleTest;
+import org.tuleap.mylyn.task.core.tests.internal.client.rest.RestMetricsTest;
 import org.tuleap.mylyn.task.core.tests.internal.client.rest.RestOperationsTest;
 import org.tuleap.mylyn.task.core.tests.internal.client.rest.RestResourceTest;
+import org.tuleap.mylyn.task.core.tests.internal.client.rest.RestTracerTest;
+import org.tuleap.mylyn.task.core.tests.internal.client.rest.RetryPolicyTest;
+import org.tuleap.mylyn.task.core.tests.internal.client.rest.SingleFlightTest;
+import org.tuleap.mylyn.task.core.tests.internal.client.rest.TokenRenewalTest;
+import org.tuleap.mylyn.task.core.tests.internal.client.rest.TuleapConnectionPoolTest;
 import org.tuleap.mylyn.task.core.tests.internal.client.rest.TuleapRestClientQueryTest;
 import org.tuleap.mylyn.task.core.tests.internal.client.rest.TuleapRestClientTest;
+import org.tuleap.mylyn.task.core.tests.internal.client.rest.TuleapRestConnectorTest;
 import org.tuleap.mylyn.task.core.tests.internal.client.rest.TuleapRestResourceFactoryTest;
+import org.tuleap.mylyn.task.core.tests.internal.client.rest.UrlConnectionRestConnectorTest;
+import org.tuleap.mylyn.task.core.tests.internal.client.rest.ValidationCacheTest;
 import org.tuleap.mylyn.task.core.tests.internal.converter.ArtifactTaskDataConverterTest;
 import org.tuleap.mylyn.task.core.tests.internal.data.TuleapArtifactMapperTests;
 import org.tuleap.mylyn.task.core.tests.internal.data.TuleapTaskIdTests;
@@ -30,6 +47,8 @@ import org.tuleap.mylyn.task.core.tests.internal.model.TuleapTrackerConfiguratio
 import org.tuleap.mylyn.task.core.tests.internal.model.TuleapWorkflowTests;
 import org.tuleap.mylyn.task.core.tests.internal.parser.ArtifactLinkAdapterTest;
 import org.tuleap.mylyn.task.core.tests.internal.parser.DateIso8601AdapterTest;
+import org.tuleap.mylyn.task.core.tests.internal.parser.Iso8601CodecTest;
+import org.tuleap.mylyn.task.core.tests.internal.parser.StringPoolTest;
 import org.tuleap.mylyn.task.core.tests.internal.parser.TuleapArtifactDeserializerTest;
 import org.tuleap.mylyn.task.core.tests.internal.parser.TuleapChangesetDeserializerTests;
 import org.tuleap.mylyn.task.core.tests.internal.parser.TuleapFileDeserializerTest;
@@ -47,6 +66,7 @@ import org.tuleap.mylyn.task.core.tests.internal.serializer.LiteralFieldValueSer
 import org.tuleap.mylyn.task.core.tests.internal.serializer.TuleapArtifactSerializerTest;
 import org.tuleap.mylyn.task.core.tests.internal.serializer.TuleapArtifactWithCommentSerializerTest;
 import org.tuleap.mylyn.task.core.tests.internal.server.ServerResponseTest;
+import org.tuleap.mylyn.task.core.tests.internal.util.IntKeyedMapTest;
 
 /**
  * The stand alone unit tests suite (run as standard junit test).
@@ -57,11 +77,28 @@ import org.tuleap.mylyn.task.core.tests.internal.server.ServerResponseTest;
 @RunWith(Suite.class)
 @Suite.SuiteClasses({
 		// client.rest
+		CircuitBreakerTest.class,
+		ContentEncodingsTest.class,
+		JsonResponseIteratorTest.class,
+		RequestThrottleTest.class,
+		RestMetricsTest.class,
 		RestOperationsTest.class,
 		RestResourceTest.class,
+		RestTracerTest.class,
+		RecordReplayTest.class,
+		PaginatedPrefetchTest.class,
+		PageSizeAdvisorTest.class,
+		PaginationCheckpointTest.class,
+		RetryPolicyTest.class,
+		SingleFlightTest.class,
+		TokenRenewalTest.class,
+		TuleapConnectionPoolTest.class,
 		TuleapRestClientTest.class,
 		TuleapRestClientQueryTest.class,
+		TuleapRestConnectorTest.class,
+		UrlConnectionRestConnectorTest.class,
 		TuleapRestResourceFactoryTest.class,
+		ValidationCacheTest.class,
 		// converter
 		ArtifactTaskDataConverterTest.class,
 		// data
@@ -73,7 +110,9 @@ import org.tuleap.mylyn.task.core.tests.internal.server.ServerResponseTest;
 		TuleapTrackerConfigurationTests.class,
 		TuleapWorkflowTests.class,
 		// parser
-		ArtifactLinkAdapterTest.class, DateIso8601AdapterTest.class, TuleapArtifactDeserializerTest.class,
+		ArtifactLinkAdapterTest.class, DateIso8601AdapterTest.class, Iso8601CodecTest.class,
+		StringPoolTest.class,
+		TuleapArtifactDeserializerTest.class,
 		TuleapChangesetDeserializerTests.class, TuleapFileDeserializerTest.class, TuleapJsonParserTest.class,
 		TuleapProjectDeserializerTest.class, TuleapTrackerDeserializerTest.class,
 		TuleapTrackerReportDeserializerTest.class,
@@ -85,7 +124,9 @@ import org.tuleap.mylyn.task.core.tests.internal.server.ServerResponseTest;
 		BoundFieldValueSerializerTest.class, LiteralFieldValueSerializerTest.class,
 		TuleapArtifactSerializerTest.class, TuleapArtifactWithCommentSerializerTest.class,
 		// server
-		ServerResponseTest.class, })
+		ServerResponseTest.class,
+		// util
+		IntKeyedMapTest.class, })
 public final class AllTuleapStandaloneTests {
 
 	/**
@@ -0,0 +1,139 @@
+/*******************************************************************************
+ * Copyright (c) 2014 Obeo.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.tuleap.mylyn.task.core.tests.internal.client.rest;
+
+import com.google.common.collect.Maps;
+import com.google.gson.Gson;
+
+import org.apache.commons.httpclient.HttpMethod;
+import org.eclipse.core.runtime.CoreException;
+import org.junit.After;
+import org.junit.Test;
+import org.tuleap.mylyn.task.core.internal.client.rest.CircuitBreaker;
+import org.tuleap.mylyn.task.core.internal.client.rest.CircuitBreaker.State;
+import org.tuleap.mylyn.task.core.internal.client.rest.RestOperation;
+import org.tuleap.mylyn.task.core.internal.client.rest.RetryPolicy;
+import org.tuleap.mylyn.task.core.internal.client.rest.ServerResponse;
+import org.tuleap.mylyn.task.core.internal.client.rest.TuleapRestConnector;
+import org.tuleap.mylyn.task.core.tests.internal.TestLogger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests of {@link CircuitBreaker}.
+ *
+ * @author <a href="mailto:laurent.delaigue@obeo.fr">Laurent Delaigue</a>
+ */
+public class CircuitBreakerTest {
+
+	@Test
+	public void testOpensAfterConsecutiveFailures() {
+		CircuitBreaker breaker = new CircuitBreaker("https://tuleap.example.com:443", 3, 60000L);
+		breaker.record(500);
+		breaker.record(TuleapRestConnector.IO_ERROR_STATUS_CODE);
+		// A success resets the count of consecutive failures
+		breaker.record(404);
+		breaker.record(500);
+		breaker.record(503);
+		assertEquals(State.CLOSED, breaker.getState());
+		assertTrue(breaker.allowRequest());
+		breaker.record(429);
+		assertEquals(State.OPEN, breaker.getState());
+		assertFalse(breaker.allowRequest());
+	}
+
+	@Test
+	public void testHalfOpenLetsOneTrialRequestThrough() {
+		CircuitBreaker breaker = new CircuitBreaker("https://tuleap.example.com:443", 1, 0L);
+		breaker.recordFailure();
+		assertEquals(State.OPEN, breaker.getState());
+		assertTrue(breaker.allowRequest());
+		assertEquals(State.HALF_OPEN, breaker.getState());
+		assertFalse(breaker.allowRequest());
+		breaker.recordFailure();
+		assertEquals(State.OPEN, breaker.getState());
+		assertTrue(breaker.allowRequest());
+		breaker.recordSuccess();
+		assertEquals(State.CLOSED, breaker.getState());
+		assertTrue(breaker.allowRequest());
+	}
+
+	@Test
+	public void testSharedPerHost() {
+		CircuitBreaker breaker = CircuitBreaker.forUrl("https://tuleap.example.com/plugins/tracker");
+		assertSame(breaker, CircuitBreaker.forUrl("HTTPS://tuleap.example.com:443"));
+		assertFalse(breaker == CircuitBreaker.forUrl("https://other.example.com"));
+	}
+
+	@Test
+	public void testOperationIsRejectedWhenOpen() {
+		CircuitBreaker breaker = new CircuitBreaker("https://tuleap.example.com:443", 1, 60000L);
+		MockRestConnector connector = new MockRestConnector();
+		connector.setResponse(new ServerResponse(500, "", Maps.<String, String> newHashMap()));
+		RestOperation operation = RestOperation.get("/api/projects", connector, new Gson(), new TestLogger())
+				.withCircuitBreaker(breaker);
+		assertEquals(500, operation.run().getStatus());
+		try {
+			operation.checkedRun();
+			fail("A CoreException was expected");
+		} catch (CoreException e) {
+			assertTrue(e.getMessage().contains("https://tuleap.example.com:443"));
+		}
+		assertEquals(CircuitBreaker.CIRCUIT_OPEN_STATUS_CODE, operation.run().getStatus());
+		assertEquals(1, connector.getRequestsSent().size());
+	}
+
+	@Test
+	public void testRetriedOperationCountsAsOneFailure() {
+		CircuitBreaker breaker = new CircuitBreaker("https://tuleap.example.com:443", 2, 60000L);
+		MockRestConnector connector = new MockRestConnector();
+		connector.setResponse(new ServerResponse(500, "", Maps.<String, String> newHashMap()));
+		RestOperation operation = RestOperation.get("/api/projects", connector, new Gson(), new TestLogger())
+				.withCircuitBreaker(breaker).withRetryPolicy(new RetryPolicy(3, 0L, 0L));
+		assertEquals(500, operation.run().getStatus());
+		assertEquals(3, connector.getInvocationsCount());
+		assertEquals(State.CLOSED, breaker.getState());
+		assertEquals(500, operation.run().getStatus());
+		assertEquals(State.OPEN, breaker.getState());
+	}
+
+	@Test
+	public void testTrialRequestThatThrowsOpensTheCircuit() {
+		CircuitBreaker breaker = new CircuitBreaker("https://tuleap.example.com:443", 1, 0L);
+		breaker.recordFailure();
+		MockRestConnector connector = new MockRestConnector() {
+			@Override
+			public ServerResponse sendRequest(HttpMethod method) {
+				throw new IllegalStateException();
+			}
+		};
+		RestOperation operation = RestOperation.get("/api/projects", connector, new Gson(), new TestLogger())
+				.withCircuitBreaker(breaker);
+		try {
+			operation.run();
+			fail("An IllegalStateException was expected");
+		} catch (IllegalStateException e) {
+			// Expected
+		}
+		assertEquals(State.OPEN, breaker.getState());
+		// The next trial request is let through
+		assertTrue(breaker.allowRequest());
+	}
+
+	@After
+	public void tearDown() {
+		CircuitBreaker.resetAll();
+	}
+}
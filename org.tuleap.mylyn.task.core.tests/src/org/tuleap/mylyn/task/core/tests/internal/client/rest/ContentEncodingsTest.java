@@ -0,0 +1,93 @@
+/*******************************************************************************
+ * Copyright (c) 2014 Obeo.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.tuleap.mylyn.task.core.tests.internal.client.rest;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.Test;
+import org.tuleap.mylyn.task.core.internal.client.rest.ContentEncodings;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests of {@link ContentEncodings}.
+ *
+ * @author <a href="mailto:laurent.delaigue@obeo.fr">Laurent Delaigue</a>
+ */
+public class ContentEncodingsTest {
+
+	private static final String CONTENT = "[{\"id\":1,\"label\":\"Bugs\"},"
+			+ "{\"id\":2,\"label\":\"\u00c9pop\u00e9es\"}]";
+
+	@Test
+	public void testIdentity() throws IOException {
+		byte[] bytes = CONTENT.getBytes("UTF-8");
+		assertEquals(CONTENT, ContentEncodings.read(ContentEncodings.decode(new ByteArrayInputStream(bytes),
+				null), "UTF-8"));
+		assertEquals(CONTENT, ContentEncodings.read(ContentEncodings.decode(new ByteArrayInputStream(bytes),
+				"identity"), "UTF-8"));
+	}
+
+	@Test
+	public void testGzip() throws IOException {
+		ByteArrayOutputStream bos = new ByteArrayOutputStream();
+		GZIPOutputStream out = new GZIPOutputStream(bos);
+		out.write(CONTENT.getBytes("UTF-8"));
+		out.close();
+		assertEquals(CONTENT, ContentEncodings.read(ContentEncodings.decode(new ByteArrayInputStream(bos
+				.toByteArray()), "GZIP"), "UTF-8"));
+	}
+
+	@Test
+	public void testZlibDeflate() throws IOException {
+		assertEquals(CONTENT, ContentEncodings.read(ContentEncodings.decode(new ByteArrayInputStream(
+				deflate(false)), "deflate"), "UTF-8"));
+	}
+
+	/**
+	 * Some servers send raw deflate data without the zlib wrapper.
+	 */
+	@Test
+	public void testRawDeflate() throws IOException {
+		assertEquals(CONTENT, ContentEncodings.read(ContentEncodings.decode(new ByteArrayInputStream(
+				deflate(true)), "deflate"), "UTF-8"));
+	}
+
+	/**
+	 * Responses without content, such as 204 ones, may still declare a content encoding.
+	 */
+	@Test
+	public void testEmptyBody() throws IOException {
+		assertEquals("", ContentEncodings.read(ContentEncodings.decode(new ByteArrayInputStream(new byte[0]),
+				"gzip"), "UTF-8"));
+		assertEquals("", ContentEncodings.read(ContentEncodings.decode(new ByteArrayInputStream(new byte[0]),
+				"deflate"), "UTF-8"));
+	}
+
+	@Test
+	public void testNullStream() throws IOException {
+		assertEquals("", ContentEncodings.read(null, "UTF-8"));
+	}
+
+	private byte[] deflate(boolean raw) throws IOException {
+		ByteArrayOutputStream bos = new ByteArrayOutputStream();
+		DeflaterOutputStream out = new DeflaterOutputStream(bos, new Deflater(Deflater.DEFAULT_COMPRESSION,
+				raw));
+		out.write(CONTENT.getBytes("UTF-8"));
+		out.close();
+		return bos.toByteArray();
+	}
+}
@@ -0,0 +1,328 @@
+/*******************************************************************************
+ * Copyright (c) 2014 Obeo.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.tuleap.mylyn.task.core.tests.internal.client.rest;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonIOException;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import org.eclipse.core.runtime.IStatus;
+import org.junit.Before;
+import org.junit.Test;
+import org.tuleap.mylyn.task.core.internal.client.rest.JsonResponseIterator;
+import org.tuleap.mylyn.task.core.internal.client.rest.JsonResponsePaginatedIterator;
+import org.tuleap.mylyn.task.core.internal.client.rest.PaginationException;
+import org.tuleap.mylyn.task.core.internal.client.rest.RestOperation;
+import org.tuleap.mylyn.task.core.internal.client.rest.RestResource;
+import org.tuleap.mylyn.task.core.internal.client.rest.ServerResponse;
+import org.tuleap.mylyn.task.core.internal.client.rest.StreamingServerResponse;
+import org.tuleap.mylyn.task.core.internal.client.rest.TypedJsonResponseIterator;
+import org.tuleap.mylyn.task.core.internal.model.data.TuleapReference;
+import org.tuleap.mylyn.task.core.tests.internal.TestLogger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests of {@link JsonResponseIterator} and {@link TypedJsonResponseIterator} on streaming responses.
+ *
+ * @author <a href="mailto:laurent.delaigue@obeo.fr">Laurent Delaigue</a>
+ */
+public class JsonResponseIteratorTest {
+
+	private int closeCount;
+
+	@Test
+	public void testArrayIsReadElementByElement() throws Exception {
+		JsonResponseIterator it = new JsonResponseIterator(streaming("[{\"id\":1},{\"id\":2},3]"));
+		assertTrue(it.hasNext());
+		assertEquals(1, it.next().getAsJsonObject().get("id").getAsInt());
+		assertEquals(0, closeCount);
+		assertEquals(2, it.next().getAsJsonObject().get("id").getAsInt());
+		JsonElement last = it.next();
+		assertEquals(3, last.getAsInt());
+		assertFalse(it.hasNext());
+		assertEquals(1, closeCount);
+		try {
+			it.next();
+			fail("NoSuchElementException expected");
+		} catch (NoSuchElementException e) {
+			// expected
+		}
+		assertEquals(1, closeCount);
+	}
+
+	@Test
+	public void testEmptyArray() throws Exception {
+		JsonResponseIterator it = new JsonResponseIterator(streaming("[]"));
+		assertFalse(it.hasNext());
+		assertEquals(1, closeCount);
+	}
+
+	@Test
+	public void testNotAnArray() throws Exception {
+		JsonResponseIterator it = new JsonResponseIterator(streaming("{\"id\":1}"));
+		assertTrue(it.hasNext());
+		assertEquals(1, it.next().getAsJsonObject().get("id").getAsInt());
+		assertFalse(it.hasNext());
+		assertEquals(1, closeCount);
+	}
+
+	@Test
+	public void testEmptyBody() throws Exception {
+		JsonResponseIterator it = new JsonResponseIterator(streaming(""));
+		assertTrue(it.hasNext());
+		assertTrue(it.next().isJsonNull());
+		assertFalse(it.hasNext());
+	}
+
+	@Test
+	public void testInMemoryResponse() {
+		JsonResponseIterator it = new JsonResponseIterator(new ServerResponse(ServerResponse.STATUS_OK,
+				"[1,2]", Maps.<String, String> newHashMap()));
+		assertEquals(1, it.next().getAsInt());
+		assertEquals(2, it.next().getAsInt());
+		assertFalse(it.hasNext());
+	}
+
+	@Test
+	public void testStreamingBodyCanBeBuffered() throws Exception {
+		ServerResponse response = streaming("[1,2]");
+		assertEquals("[1,2]", response.getBody());
+		assertEquals(1, closeCount);
+		// Once buffered, the body can be read again
+		assertEquals("[1,2]", response.getBody());
+		JsonResponseIterator it = new JsonResponseIterator(response);
+		assertEquals(1, it.next().getAsInt());
+		assertEquals(1, closeCount);
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testStreamingBodyCanBeStreamedOnlyOnce() throws Exception {
+		ServerResponse response = streaming("[1,2]");
+		response.getReader();
+		response.getInputStream();
+	}
+
+	@Test
+	public void testTypedElementsAreDecodedFromTheStream() throws Exception {
+		TypedJsonResponseIterator<TuleapReference> it = new TypedJsonResponseIterator<TuleapReference>(
+				streaming("[{\"id\":1,\"uri\":\"a/1\"},{\"id\":2,\"uri\":\"a/2\"}]"), new Gson()
+						.getAdapter(TuleapReference.class));
+		TuleapReference first = it.next();
+		assertEquals(1, first.getId());
+		assertEquals("a/1", first.getUri());
+		assertEquals(0, closeCount);
+		assertEquals(2, it.next().getId());
+		assertFalse(it.hasNext());
+		assertEquals(1, closeCount);
+		assertEquals(2, it.getCount());
+	}
+
+	@Test
+	public void testTypedEmptyBody() throws Exception {
+		TypedJsonResponseIterator<TuleapReference> it = new TypedJsonResponseIterator<TuleapReference>(
+				streaming(""), new Gson().getAdapter(TuleapReference.class));
+		assertFalse(it.hasNext());
+		assertEquals(1, closeCount);
+	}
+
+	@Test(expected = JsonSyntaxException.class)
+	public void testTypedUnexpectedStructure() throws Exception {
+		TypedJsonResponseIterator<TuleapReference> it = new TypedJsonResponseIterator<TuleapReference>(
+				streaming("[[1]]"), new Gson().getAdapter(TuleapReference.class));
+		it.next();
+	}
+
+	@Test
+	public void testTypedDecodingFailureReleasesTheResponse() throws Exception {
+		TypedJsonResponseIterator<Integer> it = new TypedJsonResponseIterator<Integer>(streaming("[1,2,3]"),
+				new FailingAdapter(2));
+		assertEquals(Integer.valueOf(1), it.next());
+		assertEquals(0, closeCount);
+		try {
+			it.next();
+			fail("IllegalArgumentException expected");
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+		assertEquals(1, closeCount);
+		assertFalse(it.hasNext());
+		assertEquals(1, closeCount);
+	}
+
+	@Test
+	public void testTypedDecodingFailureOfSingleElementReleasesTheResponse() throws Exception {
+		try {
+			new TypedJsonResponseIterator<Integer>(streaming("2"), new FailingAdapter(2));
+			fail("IllegalArgumentException expected");
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+		assertEquals(1, closeCount);
+	}
+
+	@Test
+	public void testMalformedBodyReleasesTheResponse() throws Exception {
+		JsonResponseIterator it = new JsonResponseIterator(streaming("[{\"id\":1},{\"id\":}]"));
+		assertTrue(it.hasNext());
+		it.next();
+		assertEquals(0, closeCount);
+		try {
+			it.next();
+			fail("JsonSyntaxException expected");
+		} catch (JsonSyntaxException e) {
+			// expected
+		}
+		assertEquals(1, closeCount);
+	}
+
+	@Test
+	public void testPaginatedMalformedBodyReleasesTheResponse() throws Exception {
+		Map<String, String> headers = Maps.newHashMap();
+		headers.put(RestResource.HEADER_X_PAGINATION_SIZE, "2"); //$NON-NLS-1$
+		JsonResponsePaginatedIterator<JsonElement> it = new JsonResponsePaginatedIterator<JsonElement>(
+				operation(), streaming("[1,}", headers), new Gson().getAdapter(JsonElement.class));
+		try {
+			while (it.hasNext()) {
+				it.next();
+			}
+			fail("PaginationException expected");
+		} catch (PaginationException e) {
+			assertEquals(1, e.getOffset());
+		}
+		assertEquals(1, closeCount);
+	}
+
+	@Test
+	public void testPaginatedConnectionLostInTheMiddleOfTheArray() throws Exception {
+		Map<String, String> headers = Maps.newHashMap();
+		headers.put(RestResource.HEADER_X_PAGINATION_SIZE, "5"); //$NON-NLS-1$
+		JsonResponsePaginatedIterator<JsonElement> it = new JsonResponsePaginatedIterator<JsonElement>(
+				operation(), LostConnectionStream.response(headers, "[1,2,3,", releaser()), new Gson()
+						.getAdapter(JsonElement.class));
+		List<JsonElement> elements = Lists.newArrayList();
+		try {
+			while (it.hasNext()) {
+				elements.add(it.next());
+			}
+			fail("PaginationException expected");
+		} catch (PaginationException e) {
+			// The iteration can resume from the first element that has not been provided
+			assertEquals(elements.size(), e.getOffset());
+			assertEquals(IStatus.ERROR, e.getStatus().getSeverity());
+		}
+		assertEquals(3, elements.size());
+		assertFalse(it.hasNext());
+		assertEquals(1, closeCount);
+	}
+
+	@Test
+	public void testTypedConnectionLostInTheMiddleOfTheArray() throws Exception {
+		TypedJsonResponseIterator<JsonElement> it = new TypedJsonResponseIterator<JsonElement>(
+				LostConnectionStream.response(Maps.<String, String> newHashMap(), "[1,2,", releaser()),
+				new Gson().getAdapter(JsonElement.class));
+		assertEquals(1, it.next().getAsInt());
+		assertEquals(2, it.next().getAsInt());
+		try {
+			it.hasNext();
+			fail("JsonIOException expected");
+		} catch (JsonIOException e) {
+			// expected
+		}
+		assertEquals(1, closeCount);
+	}
+
+	@Test
+	public void testInvalidPaginationHeaderReleasesTheResponse() throws Exception {
+		Map<String, String> headers = Maps.newHashMap();
+		headers.put(RestResource.HEADER_X_PAGINATION_SIZE, "many"); //$NON-NLS-1$
+		try {
+			new JsonResponsePaginatedIterator<JsonElement>(operation(), streaming("[1,2]", headers),
+					new Gson().getAdapter(JsonElement.class));
+			fail("IllegalArgumentException expected");
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+		assertEquals(1, closeCount);
+	}
+
+	private RestOperation operation() {
+		return RestOperation.get("/api/trackers/1/artifacts", new MockRestConnector(), new Gson(),
+				new TestLogger());
+	}
+
+	private ServerResponse streaming(String body) throws UnsupportedEncodingException {
+		return streaming(body, Maps.<String, String> newHashMap());
+	}
+
+	private ServerResponse streaming(String body, Map<String, String> headers)
+			throws UnsupportedEncodingException {
+		return new StreamingServerResponse(ServerResponse.STATUS_OK, headers, new ByteArrayInputStream(body
+				.getBytes("UTF-8")), "UTF-8", releaser());
+	}
+
+	private Closeable releaser() {
+		return new Closeable() {
+			@Override
+			public void close() {
+				closeCount++;
+			}
+		};
+	}
+
+	@Before
+	public void setUp() {
+		closeCount = 0;
+	}
+
+	/**
+	 * Adapter that fails to decode a given integer.
+	 */
+	private static final class FailingAdapter extends TypeAdapter<Integer> {
+
+		private final int failingValue;
+
+		private FailingAdapter(int failingValue) {
+			this.failingValue = failingValue;
+		}
+
+		@Override
+		public void write(JsonWriter out, Integer value) throws IOException {
+			out.value(value);
+		}
+
+		@Override
+		public Integer read(JsonReader in) throws IOException {
+			int value = in.nextInt();
+			if (value == failingValue) {
+				throw new IllegalArgumentException("Unexpected value " + value);
+			}
+			return Integer.valueOf(value);
+		}
+	}
+}
@@ -0,0 +1,80 @@
+/*******************************************************************************
+ * Copyright (c) 2014 Obeo.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.tuleap.mylyn.task.core.tests.internal.client.rest;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UnsupportedEncodingException;
+import java.util.Map;
+
+import org.tuleap.mylyn.task.core.internal.client.rest.ServerResponse;
+import org.tuleap.mylyn.task.core.internal.client.rest.StreamingServerResponse;
+
+/**
+ * Stream of a body whose connection is lost after a given part of the body has been received.
+ *
+ * @author <a href="mailto:laurent.delaigue@obeo.fr">Laurent Delaigue</a>
+ */
+public class LostConnectionStream extends InputStream {
+
+	private final InputStream received;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param receivedPart
+	 *            The part of the body received before the connection is lost
+	 * @throws UnsupportedEncodingException
+	 *             If UTF-8 is not supported
+	 */
+	public LostConnectionStream(String receivedPart) throws UnsupportedEncodingException {
+		this.received = new ByteArrayInputStream(receivedPart.getBytes("UTF-8")); //$NON-NLS-1$
+	}
+
+	@Override
+	public int read() throws IOException {
+		int b = received.read();
+		if (b < 0) {
+			throw new IOException("Connection reset"); //$NON-NLS-1$
+		}
+		return b;
+	}
+
+	@Override
+	public int read(byte[] b, int off, int len) throws IOException {
+		int n = received.read(b, off, len);
+		if (n < 0) {
+			throw new IOException("Connection reset"); //$NON-NLS-1$
+		}
+		return n;
+	}
+
+	/**
+	 * Creates a successful streaming response whose connection is lost while its body is read.
+	 *
+	 * @param headers
+	 *            The headers of the response
+	 * @param receivedPart
+	 *            The part of the body received before the connection is lost
+	 * @param connectionReleaser
+	 *            Called when the response is closed
+	 * @return The response.
+	 * @throws UnsupportedEncodingException
+	 *             If UTF-8 is not supported
+	 */
+	public static ServerResponse response(Map<String, String> headers, String receivedPart,
+			Closeable connectionReleaser) throws UnsupportedEncodingException {
+		return new StreamingServerResponse(ServerResponse.STATUS_OK, headers, new LostConnectionStream(
+				receivedPart), "UTF-8", connectionReleaser); //$NON-NLS-1$
+	}
+}
@@ -11,11 +11,16 @@
 package org.tuleap.mylyn.task.core.tests.internal.client.rest;
 
 import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
 
 import org.apache.commons.httpclient.Header;
 import org.apache.commons.httpclient.HttpMethod;
@@ -23,6 +28,7 @@ import org.apache.commons.httpclient.methods.EntityEnclosingMethod;
 import org.apache.commons.httpclient.methods.RequestEntity;
 import org.apache.commons.httpclient.methods.StringRequestEntity;
 import org.tuleap.mylyn.task.core.internal.client.rest.IRestConnector;
+import org.tuleap.mylyn.task.core.internal.client.rest.JsonRequestEntity;
 import org.tuleap.mylyn.task.core.internal.client.rest.RestResourceFactory;
 import org.tuleap.mylyn.task.core.internal.client.rest.ServerResponse;
 
@@ -54,6 +60,27 @@ public class MockRestConnector implements IRestConnector {
 		return response;
 	}
 
+	@Override
+	public ServerResponse sendStreamingRequest(HttpMethod method) {
+		return sendRequest(method);
+	}
+
+	@Override
+	public ListenableFuture<ServerResponse> sendRequestAsync(HttpMethod method) {
+		return Futures.immediateFuture(sendRequest(method));
+	}
+
+	@Override
+	public <T> ListenableFuture<T> submit(Callable<T> task) {
+		try {
+			return Futures.immediateFuture(task.call());
+			// CHECKSTYLE:OFF
+		} catch (Exception e) {
+			// CHECKSTYLE:ON
+			return Futures.immediateFailedFuture(e);
+		}
+	}
+
 	protected ServerRequest getServerRequest(HttpMethod method) {
 		Map<String, String> header = new LinkedHashMap<String, String>();
 		for (Header h : method.getRequestHeaders()) {
@@ -65,6 +92,16 @@ public class MockRestConnector implements IRestConnector {
 				return new ServerRequest(method.getName(), method.getPath(), header, method.getQueryString(),
 						((StringRequestEntity)entity).getContent());
 			}
+			if (entity instanceof JsonRequestEntity && !((JsonRequestEntity)entity).isCompressed()) {
+				ByteArrayOutputStream out = new ByteArrayOutputStream();
+				try {
+					entity.writeRequest(out);
+					return new ServerRequest(method.getName(), method.getPath(), header, method
+							.getQueryString(), out.toString("UTF-8"));
+				} catch (IOException e) {
+					throw new IllegalStateException(e);
+				}
+			}
 		}
 		return new ServerRequest(method.getName(), method.getPath(), header, method.getQueryString());
 	}
@@ -0,0 +1,111 @@
+/*******************************************************************************
+ * Copyright (c) 2014 Obeo.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.tuleap.mylyn.task.core.tests.internal.client.rest;
+
+import com.google.common.collect.LinkedHashMultimap;
+import com.google.common.collect.Multimap;
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.Test;
+import org.tuleap.mylyn.task.core.internal.client.rest.PageSizeAdvisor;
+import org.tuleap.mylyn.task.core.internal.client.rest.RestOperation;
+import org.tuleap.mylyn.task.core.internal.client.rest.RestResource;
+import org.tuleap.mylyn.task.core.internal.client.rest.ServerResponse;
+import org.tuleap.mylyn.task.core.tests.internal.TestLogger;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests of {@link PageSizeAdvisor}.
+ *
+ * @author <a href="mailto:laurent.delaigue@obeo.fr">Laurent Delaigue</a>
+ */
+public class PageSizeAdvisorTest {
+
+	private static final String KEY = "GET /projects";
+
+	@Test
+	public void testDefaultPageSize() {
+		PageSizeAdvisor advisor = new PageSizeAdvisor(1000L);
+		assertEquals(RestResource.DEFAULT_PAGINATION_LIMIT, advisor.getPageSize(KEY));
+		// The maximum limit is needed before asking for more elements
+		advisor.recordPage(KEY, 10, 100L);
+		assertEquals(RestResource.DEFAULT_PAGINATION_LIMIT, advisor.getPageSize(KEY));
+	}
+
+	@Test
+	public void testMaxLimit() {
+		PageSizeAdvisor advisor = new PageSizeAdvisor(1000L);
+		advisor.recordMaxLimit(KEY, 100);
+		assertEquals(100, advisor.getPageSize(KEY));
+		// Small elements
+		advisor.recordPage(KEY, 100, 500L);
+		assertEquals(100, advisor.getPageSize(KEY));
+	}
+
+	@Test
+	public void testLargeElements() {
+		PageSizeAdvisor advisor = new PageSizeAdvisor(1000L);
+		advisor.recordMaxLimit(KEY, 100);
+		advisor.recordPage(KEY, 10, 500L);
+		assertEquals(20, advisor.getPageSize(KEY));
+		// Very large elements
+		advisor.recordPage(KEY, 1, 100000L);
+		assertEquals(PageSizeAdvisor.MIN_PAGE_SIZE, advisor.getPageSize(KEY));
+		// The maximum limit is never exceeded
+		advisor.recordMaxLimit(KEY, 5);
+		assertEquals(5, advisor.getPageSize(KEY));
+	}
+
+	@Test
+	public void testKey() {
+		Multimap<String, String> parameters = LinkedHashMultimap.create();
+		parameters.put(RestResource.LIMIT, "50");
+		parameters.put(RestResource.OFFSET, "100");
+		parameters.put(RestResource.QUERY, "{\"title\":\"abc\"}");
+		parameters.put("values", "all");
+		assertEquals("GET /trackers/{id}/artifacts?values=all", PageSizeAdvisor.key(
+				"https://tuleap.example.com/api/v1/trackers/12/artifacts", parameters));
+		assertEquals("GET /projects", PageSizeAdvisor.key("https://tuleap.example.com/api/v1/projects",
+				LinkedHashMultimap.<String, String> create()));
+	}
+
+	@Test
+	public void testLearnedLimitIsUsedForTheFirstRequest() {
+		MockRestConnector connector = new MockRestConnector();
+		Map<String, String> headers = new LinkedHashMap<String, String>();
+		headers.put(RestResource.HEADER_X_PAGINATION_SIZE, "2");
+		headers.put(RestResource.HEADER_X_PAGINATION_LIMIT_MAX, "100");
+		connector.setResponse(new ServerResponse(ServerResponse.STATUS_OK, "[{\"id\":1},{\"id\":2}]",
+				headers));
+		PageSizeAdvisor advisor = new PageSizeAdvisor(PageSizeAdvisor.DEFAULT_TARGET_PAGE_LENGTH);
+		String url = "https://tuleap.example.com/api/v1/projects";
+
+		int count = 0;
+		for (JsonElement e : RestOperation.get(url, connector, new Gson(), new TestLogger())
+				.withPageSizeAdvisor(advisor).iterable()) {
+			count++;
+		}
+		assertEquals(2, count);
+		assertEquals("limit=50", connector.getRequestsSent().get(0).queryString);
+
+		for (JsonElement e : RestOperation.get(url, connector, new Gson(), new TestLogger())
+				.withPageSizeAdvisor(advisor).iterable()) {
+			count++;
+		}
+		assertEquals(4, count);
+		assertEquals("limit=100", connector.getRequestsSent().get(1).queryString);
+	}
+}
@@ -0,0 +1,248 @@
+/*******************************************************************************
+ * Copyright (c) 2014 Obeo.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.tuleap.mylyn.task.core.tests.internal.client.rest;
+
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.httpclient.HttpMethod;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.tuleap.mylyn.task.core.internal.client.rest.JsonResponsePaginatedIterator;
+import org.tuleap.mylyn.task.core.internal.client.rest.RestOperation;
+import org.tuleap.mylyn.task.core.internal.client.rest.RestResource;
+import org.tuleap.mylyn.task.core.internal.client.rest.ServerResponse;
+import org.tuleap.mylyn.task.core.tests.internal.TestLogger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests of the prefetching of the pages by {@link JsonResponsePaginatedIterator}.
+ *
+ * @author <a href="mailto:laurent.delaigue@obeo.fr">Laurent Delaigue</a>
+ */
+public class PaginatedPrefetchTest {
+
+	private static final int SIZE = 7;
+
+	private static final int PAGE_SIZE = 2;
+
+	private ListeningExecutorService executor;
+
+	private PagingConnector connector;
+
+	@Test
+	public void testElementsAreProvidedInOrder() {
+		executor = MoreExecutors.listeningDecorator(Executors.newFixedThreadPool(3));
+		connector = new PagingConnector(executor, null);
+		List<String> values = Lists.newArrayList();
+		for (JsonElement e : operation(2).iterable()) {
+			values.add(e.getAsJsonObject().get("a").getAsString());
+		}
+		assertEquals(Lists.newArrayList("0", "1", "2", "3", "4", "5", "6"), values);
+		List<Integer> offsets = connector.getOffsets();
+		Collections.sort(offsets);
+		assertEquals(Lists.newArrayList(0, 2, 4, 6), offsets);
+	}
+
+	@Test
+	public void testPagesAreFetchedAhead() {
+		connector = new PagingConnector(MoreExecutors.sameThreadExecutor(), null);
+		Iterator<JsonElement> iterator = operation(2).iterable().iterator();
+		// The first page and the 2 following ones
+		assertEquals(Lists.newArrayList(0, 2, 4), connector.getOffsets());
+		iterator.next();
+		iterator.next();
+		iterator.next();
+		assertEquals(Lists.newArrayList(0, 2, 4, 6), connector.getOffsets());
+	}
+
+	@Test
+	public void testWithoutPrefetch() {
+		connector = new PagingConnector(MoreExecutors.sameThreadExecutor(), null);
+		Iterator<JsonElement> iterator = operation(0).iterable().iterator();
+		assertEquals(Lists.newArrayList(0), connector.getOffsets());
+		int count = 0;
+		while (iterator.hasNext()) {
+			assertEquals(Integer.toString(count++), iterator.next().getAsJsonObject().get("a")
+					.getAsString());
+		}
+		assertEquals(SIZE, count);
+		assertEquals(Lists.newArrayList(0, 2, 4, 6), connector.getOffsets());
+	}
+
+	@Test
+	public void testUnexpectedPageSize() {
+		connector = new PagingConnector(MoreExecutors.sameThreadExecutor(), null);
+		// Without limit headers, the pages are expected to contain 50 elements
+		connector.setLimitHeaders(false);
+		RestOperation op = RestOperation.get("some/url", connector, new Gson(), new TestLogger())
+				.withPrefetchLimit(2);
+		Iterator<JsonElement> iterator = op.iterable().iterator();
+		assertEquals(Lists.newArrayList(0), connector.getOffsets());
+		int count = 0;
+		while (iterator.hasNext()) {
+			assertEquals(Integer.toString(count++), iterator.next().getAsJsonObject().get("a")
+					.getAsString());
+		}
+		assertEquals(SIZE, count);
+		assertEquals(Lists.newArrayList(0, 2, 4, 6), connector.getOffsets());
+	}
+
+	@Test
+	public void testCancelledMonitorStopsIteration() {
+		connector = new PagingConnector(MoreExecutors.sameThreadExecutor(), null);
+		NullProgressMonitor monitor = new NullProgressMonitor();
+		Iterator<JsonElement> iterator = operation(2).withProgressMonitor(monitor).iterable().iterator();
+		iterator.next();
+		iterator.next();
+		monitor.setCanceled(true);
+		try {
+			iterator.next();
+			fail("The iteration should have been cancelled");
+		} catch (OperationCanceledException e) {
+			// Expected
+		}
+		assertFalse(iterator.hasNext());
+	}
+
+	@Test
+	public void testCancelledIterationDoesNotSendPendingRequests() throws InterruptedException {
+		CountDownLatch latch = new CountDownLatch(1);
+		executor = MoreExecutors.listeningDecorator(Executors.newSingleThreadExecutor());
+		connector = new PagingConnector(executor, latch);
+		JsonResponsePaginatedIterator<?> iterator = (JsonResponsePaginatedIterator<?>)operation(3).iterable()
+				.iterator();
+		assertTrue(iterator.hasNext());
+		// Waits for the request of the second page, which is blocked until the latch is released
+		long deadline = System.currentTimeMillis() + 5000L;
+		while (connector.getOffsets().size() < 2 && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10L);
+		}
+		iterator.cancel();
+		assertFalse(iterator.hasNext());
+		latch.countDown();
+		executor.shutdown();
+		assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+		// The page being fetched when the iteration is cancelled is not interrupted, the others are not sent
+		assertEquals(Lists.newArrayList(0, 2), connector.getOffsets());
+	}
+
+	private RestOperation operation(int prefetchLimit) {
+		return RestOperation.get("some/url", connector, new Gson(), new TestLogger()).withQueryParameter(
+				RestResource.LIMIT, Integer.toString(PAGE_SIZE)).withPrefetchLimit(prefetchLimit);
+	}
+
+	@Before
+	public void setUp() {
+		executor = null;
+	}
+
+	@After
+	public void tearDown() {
+		if (executor != null) {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Connector that serves a list of {@link #SIZE} elements, {@link #PAGE_SIZE} per page, and records the
+	 * offsets requested.
+	 */
+	private static class PagingConnector extends MockRestConnector {
+
+		private final ListeningExecutorService asyncExecutor;
+
+		private final CountDownLatch latch;
+
+		private final List<Integer> offsets = Lists.newArrayList();
+
+		private boolean limitHeaders = true;
+
+		public PagingConnector(ListeningExecutorService asyncExecutor, CountDownLatch latch) {
+			this.asyncExecutor = asyncExecutor;
+			this.latch = latch;
+		}
+
+		@Override
+		public ServerResponse sendRequest(HttpMethod method) {
+			int offset = 0;
+			String query = method.getQueryString();
+			if (query != null) {
+				for (String s : query.split("&")) {
+					if (s.startsWith("offset=")) {
+						offset = Integer.parseInt(s.substring("offset=".length()));
+					}
+				}
+			}
+			synchronized (offsets) {
+				offsets.add(Integer.valueOf(offset));
+			}
+			if (latch != null && offset > 0) {
+				try {
+					latch.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+			StringBuilder body = new StringBuilder("[");
+			for (int i = offset; i < Math.min(offset + PAGE_SIZE, SIZE); i++) {
+				if (i > offset) {
+					body.append(',');
+				}
+				body.append("{\"a\":\"").append(i).append("\"}");
+			}
+			body.append(']');
+			Map<String, String> headers = new LinkedHashMap<String, String>();
+			headers.put(RestResource.HEADER_X_PAGINATION_SIZE, Integer.toString(SIZE));
+			if (limitHeaders) {
+				headers.put(RestResource.HEADER_X_PAGINATION_LIMIT_MAX, Integer.toString(PAGE_SIZE));
+				headers.put(RestResource.HEADER_X_PAGINATION_LIMIT, Integer.toString(PAGE_SIZE));
+			}
+			return new ServerResponse(ServerResponse.STATUS_OK, body.toString(), headers);
+		}
+
+		@Override
+		public <T> ListenableFuture<T> submit(Callable<T> task) {
+			return asyncExecutor.submit(task);
+		}
+
+		public void setLimitHeaders(boolean limitHeaders) {
+			this.limitHeaders = limitHeaders;
+		}
+
+		public List<Integer> getOffsets() {
+			synchronized (offsets) {
+				return Lists.newArrayList(offsets);
+			}
+		}
+	}
+}
@@ -0,0 +1,338 @@
+/*******************************************************************************
+ * Copyright (c) 2014 Obeo.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.tuleap.mylyn.task.core.tests.internal.client.rest;
+
+import com.google.common.collect.LinkedHashMultimap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Multimap;
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+
+import java.io.Closeable;
+import java.io.UnsupportedEncodingException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.httpclient.HttpMethod;
+import org.junit.Before;
+import org.junit.Test;
+import org.tuleap.mylyn.task.core.internal.client.rest.PaginationCheckpoints;
+import org.tuleap.mylyn.task.core.internal.client.rest.PaginationException;
+import org.tuleap.mylyn.task.core.internal.client.rest.RestOperation;
+import org.tuleap.mylyn.task.core.internal.client.rest.RestResource;
+import org.tuleap.mylyn.task.core.internal.client.rest.ServerResponse;
+import org.tuleap.mylyn.task.core.internal.model.data.TuleapArtifact;
+import org.tuleap.mylyn.task.core.internal.parser.TuleapArtifactAdapter;
+import org.tuleap.mylyn.task.core.internal.parser.TuleapGsonProvider;
+import org.tuleap.mylyn.task.core.tests.internal.TestLogger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests of the resumption of paginated lists with {@link PaginationCheckpoints}.
+ *
+ * @author <a href="mailto:laurent.delaigue@obeo.fr">Laurent Delaigue</a>
+ */
+public class PaginationCheckpointTest {
+
+	private static final int PAGE_SIZE = 2;
+
+	private PagingConnector connector;
+
+	private PaginationCheckpoints checkpoints;
+
+	@Test
+	public void testFailedIterationResumesFromTheFailedPage() {
+		connector.failAt(4);
+		List<String> values = Lists.newArrayList();
+		try {
+			iterate(values);
+			fail("The iteration should have failed");
+		} catch (PaginationException e) {
+			assertEquals(4, e.getOffset());
+		}
+		assertEquals(Lists.newArrayList("0", "1", "2", "3"), values);
+		assertEquals(1, checkpoints.size());
+
+		connector.failAt(-1);
+		values.clear();
+		iterate(values);
+		assertEquals(Lists.newArrayList("0", "1", "2", "3", "4", "5", "6"), values);
+		// Only the missing pages are retrieved again
+		assertEquals(Lists.newArrayList(0, 2, 4, 4, 6), connector.getOffsets());
+		assertEquals(0, checkpoints.size());
+	}
+
+	@Test
+	public void testConnectionLostInTheMiddleOfAPageResumesFromTheLostElement() {
+		connector.loseConnectionAt(4, 1);
+		List<String> values = Lists.newArrayList();
+		try {
+			iterate(values);
+			fail("The iteration should have failed");
+		} catch (PaginationException e) {
+			assertEquals(5, e.getOffset());
+		}
+		assertEquals(Lists.newArrayList("0", "1", "2", "3", "4"), values);
+		assertEquals(1, checkpoints.size());
+
+		connector.loseConnectionAt(-1, 0);
+		values.clear();
+		iterate(values);
+		assertEquals(Lists.newArrayList("0", "1", "2", "3", "4", "5", "6"), values);
+		// The retrieval resumes from the element that was being read
+		assertEquals(Lists.newArrayList(0, 2, 4, 5), connector.getOffsets());
+		assertEquals(0, checkpoints.size());
+	}
+
+	@Test
+	public void testSeveralFailures() {
+		connector.failAt(2);
+		List<String> values = Lists.newArrayList();
+		try {
+			iterate(values);
+			fail("The iteration should have failed");
+		} catch (PaginationException e) {
+			assertEquals(2, e.getOffset());
+		}
+		connector.failAt(6);
+		values.clear();
+		try {
+			iterate(values);
+			fail("The iteration should have failed");
+		} catch (PaginationException e) {
+			assertEquals(6, e.getOffset());
+		}
+		assertEquals(Lists.newArrayList("0", "1", "2", "3", "4", "5"), values);
+
+		connector.failAt(-1);
+		values.clear();
+		iterate(values);
+		assertEquals(Lists.newArrayList("0", "1", "2", "3", "4", "5", "6"), values);
+		assertEquals(Lists.newArrayList(0, 2, 2, 4, 6, 6), connector.getOffsets());
+	}
+
+	@Test
+	public void testCheckpointIsKeptWhileTheServerStillFails() {
+		connector.failAt(4);
+		List<String> values = Lists.newArrayList();
+		try {
+			iterate(values);
+			fail("The iteration should have failed");
+		} catch (PaginationException e) {
+			assertEquals(4, e.getOffset());
+		}
+		values.clear();
+		try {
+			iterate(values);
+			fail("The iteration should have failed");
+		} catch (PaginationException e) {
+			assertEquals(4, e.getOffset());
+		}
+		// The list is not silently provided empty nor retrieved again from the start
+		assertEquals(0, values.size());
+		assertEquals(Lists.newArrayList(0, 2, 4, 4), connector.getOffsets());
+		assertEquals(1, checkpoints.size());
+
+		connector.failAt(-1);
+		iterate(values);
+		assertEquals(Lists.newArrayList("0", "1", "2", "3", "4", "5", "6"), values);
+		assertEquals(Lists.newArrayList(0, 2, 4, 4, 4, 6), connector.getOffsets());
+		assertEquals(0, checkpoints.size());
+	}
+
+	@Test
+	public void testListThatHasChangedIsRetrievedAgain() {
+		connector.failAt(4);
+		List<String> values = Lists.newArrayList();
+		try {
+			iterate(values);
+			fail("The iteration should have failed");
+		} catch (PaginationException e) {
+			// Expected
+		}
+		connector.failAt(-1);
+		connector.setSize(8);
+		values.clear();
+		iterate(values);
+		assertEquals(Lists.newArrayList("0", "1", "2", "3", "4", "5", "6", "7"), values);
+		assertEquals(Lists.newArrayList(0, 2, 4, 4, 0, 2, 4, 6), connector.getOffsets());
+		assertEquals(0, checkpoints.size());
+	}
+
+	@Test
+	public void testOtherQueriesDoNotUseTheCheckpoint() {
+		connector.failAt(4);
+		try {
+			iterate(Lists.<String> newArrayList());
+			fail("The iteration should have failed");
+		} catch (PaginationException e) {
+			// Expected
+		}
+		connector.failAt(-1);
+		List<String> values = Lists.newArrayList();
+		for (JsonElement e : operation().withQueryParameter(RestResource.QUERY, "{}").iterable()) {
+			values.add(e.getAsJsonObject().get("a").getAsString());
+		}
+		assertEquals(7, values.size());
+		assertEquals(Lists.newArrayList(0, 2, 4, 0, 2, 4, 6), connector.getOffsets());
+		assertEquals(1, checkpoints.size());
+	}
+
+	@Test
+	public void testExpiredCheckpointIsIgnored() throws InterruptedException {
+		checkpoints = new PaginationCheckpoints(1L);
+		connector.failAt(4);
+		try {
+			iterate(Lists.<String> newArrayList());
+			fail("The iteration should have failed");
+		} catch (PaginationException e) {
+			// Expected
+		}
+		Thread.sleep(10L);
+		connector.failAt(-1);
+		List<String> values = Lists.newArrayList();
+		iterate(values);
+		assertEquals(7, values.size());
+		assertEquals(Lists.newArrayList(0, 2, 4, 0, 2, 4, 6), connector.getOffsets());
+	}
+
+	@Test
+	public void testResumptionWithAnEqualAdapter() {
+		Gson gson = TuleapGsonProvider.defaultGson();
+		connector.failAt(4);
+		List<TuleapArtifact> artifacts = Lists.newArrayList();
+		try {
+			for (TuleapArtifact artifact : operation().iterable(new TuleapArtifactAdapter(gson,
+					new int[] {1 }))) {
+				artifacts.add(artifact);
+			}
+			fail("The iteration should have failed");
+		} catch (PaginationException e) {
+			// Expected
+		}
+		connector.failAt(-1);
+		artifacts.clear();
+		// The adapter of each retrieval is a new one
+		for (TuleapArtifact artifact : operation().iterable(
+				new TuleapArtifactAdapter(gson, new int[] {1 }))) {
+			artifacts.add(artifact);
+		}
+		assertEquals(7, artifacts.size());
+		assertEquals(Lists.newArrayList(0, 2, 4, 4, 6), connector.getOffsets());
+	}
+
+	@Test
+	public void testKey() {
+		Multimap<String, String> parameters = LinkedHashMultimap.create();
+		parameters.put(RestResource.LIMIT, "50");
+		parameters.put(RestResource.OFFSET, "100");
+		parameters.put(RestResource.QUERY, "{\"title\":\"abc\"}");
+		parameters.put("values", "all");
+		assertEquals("GET some/url?query={\"title\":\"abc\"}&values=all", PaginationCheckpoints.key("GET",
+				"some/url", parameters));
+	}
+
+	private void iterate(List<String> values) {
+		for (JsonElement e : operation().iterable()) {
+			values.add(e.getAsJsonObject().get("a").getAsString());
+		}
+	}
+
+	private RestOperation operation() {
+		return RestOperation.get("some/url", connector, new Gson(), new TestLogger()).withQueryParameter(
+				RestResource.LIMIT, Integer.toString(PAGE_SIZE)).withPaginationCheckpoints(checkpoints);
+	}
+
+	@Before
+	public void setUp() {
+		connector = new PagingConnector();
+		checkpoints = new PaginationCheckpoints(PaginationCheckpoints.DEFAULT_TIME_TO_LIVE);
+	}
+
+	/**
+	 * Connector that serves a list, {@link #PAGE_SIZE} elements per page, that fails on a given offset and
+	 * records the offsets requested.
+	 */
+	private static class PagingConnector extends MockRestConnector {
+
+		private final List<Integer> offsets = Lists.newArrayList();
+
+		private int size = 7;
+
+		private int failingOffset = -1;
+
+		private int lostOffset = -1;
+
+		private int receivedBeforeLoss;
+
+		@Override
+		public ServerResponse sendRequest(HttpMethod method) {
+			int offset = 0;
+			String query = method.getQueryString();
+			if (query != null) {
+				for (String s : query.split("&")) {
+					if (s.startsWith("offset=")) {
+						offset = Integer.parseInt(s.substring("offset=".length()));
+					}
+				}
+			}
+			offsets.add(Integer.valueOf(offset));
+			Map<String, String> headers = new LinkedHashMap<String, String>();
+			if (offset == failingOffset) {
+				return new ServerResponse(ServerResponse.STATUS_INTERNAL_SERVER_ERROR, "", headers);
+			}
+			headers.put(RestResource.HEADER_X_PAGINATION_SIZE, Integer.toString(size));
+			headers.put(RestResource.HEADER_X_PAGINATION_LIMIT_MAX, Integer.toString(PAGE_SIZE));
+			headers.put(RestResource.HEADER_X_PAGINATION_LIMIT, Integer.toString(PAGE_SIZE));
+			StringBuilder body = new StringBuilder("[");
+			for (int i = offset; i < Math.min(offset + PAGE_SIZE, size); i++) {
+				if (offset == lostOffset && i == offset + receivedBeforeLoss) {
+					try {
+						return LostConnectionStream.response(headers, body.toString(), new Closeable() {
+							@Override
+							public void close() {
+								// Nothing to release
+							}
+						});
+					} catch (UnsupportedEncodingException e) {
+						throw new IllegalStateException(e);
+					}
+				}
+				if (i > offset) {
+					body.append(',');
+				}
+				body.append("{\"a\":\"").append(i).append("\"}");
+			}
+			body.append(']');
+			return new ServerResponse(ServerResponse.STATUS_OK, body.toString(), headers);
+		}
+
+		public void failAt(int offset) {
+			failingOffset = offset;
+		}
+
+		public void loseConnectionAt(int offset, int received) {
+			lostOffset = offset;
+			receivedBeforeLoss = received;
+		}
+
+		public void setSize(int size) {
+			this.size = size;
+		}
+
+		public List<Integer> getOffsets() {
+			return offsets;
+		}
+	}
+}
@@ -0,0 +1,177 @@
+/*******************************************************************************
+ * Copyright (c) 2014 Obeo.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.tuleap.mylyn.task.core.tests.internal.client.rest;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.httpclient.methods.GetMethod;
+import org.apache.commons.httpclient.methods.PostMethod;
+import org.apache.commons.httpclient.methods.StringRequestEntity;
+import org.eclipse.mylyn.tasks.core.TaskRepository;
+import org.eclipse.mylyn.tasks.core.TaskRepositoryLocationFactory;
+import org.junit.Before;
+import org.junit.Test;
+import org.tuleap.mylyn.task.core.internal.client.rest.RecordingRestConnector;
+import org.tuleap.mylyn.task.core.internal.client.rest.ReplayRestConnector;
+import org.tuleap.mylyn.task.core.internal.client.rest.RestArchive;
+import org.tuleap.mylyn.task.core.internal.client.rest.RestExchange;
+import org.tuleap.mylyn.task.core.internal.client.rest.ServerResponse;
+import org.tuleap.mylyn.task.core.tests.internal.TestLogger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests of {@link RecordingRestConnector}, {@link RestArchive} and {@link ReplayRestConnector}.
+ *
+ * @author <a href="mailto:laurent.delaigue@obeo.fr">Laurent Delaigue</a>
+ */
+public class RecordReplayTest {
+
+	private ByteArrayOutputStream bytes;
+
+	private RestArchive archive;
+
+	private MockListRestConnector server;
+
+	private RecordingRestConnector recorder;
+
+	@Test
+	public void testRecordedExchanges() throws Exception {
+		Map<String, String> headers = new LinkedHashMap<String, String>();
+		headers.put("X-PAGINATION-SIZE", "2");
+		server.addServerResponse(new ServerResponse(200,
+				"{\"user_id\":101,\"token\":\"abc\",\"uri\":\"tokens/abc\"}", headers));
+		server.addServerResponse(new ServerResponse(404, "", null));
+
+		PostMethod post = new PostMethod("/api/v1/tokens");
+		post.setRequestEntity(new StringRequestEntity("{\"username\":\"admin\",\"password\":\"secret\"}",
+				"application/json", "UTF-8"));
+		post.setRequestHeader("X-Auth-Token", "abc");
+		post.setRequestHeader("Accept", "application/json");
+		assertEquals(200, recorder.sendRequest(post).getStatus());
+		GetMethod get = new GetMethod("/api/v1/projects");
+		get.setQueryString("limit=10");
+		assertEquals(404, recorder.sendRequest(get).getStatus());
+		archive.close();
+
+		List<RestExchange> exchanges = RestArchive.read(new ByteArrayInputStream(bytes.toByteArray()));
+		assertEquals(2, exchanges.size());
+		RestExchange first = exchanges.get(0);
+		assertEquals("POST /api/v1/tokens", first.getRequestKey());
+		assertEquals("{\"username\":\"admin\",\"password\":\"(hidden in debug)\"}", first.getRequestBody());
+		assertEquals(Collections.singletonMap("Accept", "application/json"), first.getRequestHeaders());
+		assertEquals(200, first.getStatus());
+		assertEquals("{\"user_id\":\"(not recorded)\",\"token\":\"(not recorded)\","
+				+ "\"uri\":\"(not recorded)\"}", first.getResponseBody());
+		assertEquals(headers, first.getResponseHeaders());
+		RestExchange second = exchanges.get(1);
+		assertEquals("GET /api/v1/projects?limit=10", second.getRequestKey());
+		assertNull(second.getRequestBody());
+		assertEquals(404, second.getStatus());
+		assertTrue(second.getResponseHeaders().isEmpty());
+	}
+
+	@Test
+	public void testStreamingResponseIsRecordedWhenClosed() throws Exception {
+		server.addServerResponse(new ServerResponse(200, "[{\"id\":1}]", null));
+		ServerResponse response = recorder.sendStreamingRequest(new GetMethod("/api/v1/trackers/1"));
+		Reader reader = response.getReader();
+		char[] buffer = new char[100];
+		int n = reader.read(buffer);
+		assertEquals("[{\"id\":1}]", new String(buffer, 0, n));
+		assertTrue(RestArchive.read(new ByteArrayInputStream(bytes.toByteArray())).isEmpty());
+		response.close();
+		List<RestExchange> exchanges = RestArchive.read(new ByteArrayInputStream(bytes.toByteArray()));
+		assertEquals(1, exchanges.size());
+		assertEquals("[{\"id\":1}]", exchanges.get(0).getResponseBody());
+	}
+
+	@Test
+	public void testTruncatedArchive() throws Exception {
+		server.addServerResponse(new ServerResponse(200, "a", null));
+		server.addServerResponse(new ServerResponse(200, "b", null));
+		recorder.sendRequest(new GetMethod("/api/v1/a"));
+		recorder.sendRequest(new GetMethod("/api/v1/b"));
+		byte[] recorded = bytes.toByteArray();
+		byte[] truncated = Arrays.copyOf(recorded, recorded.length - 3);
+		List<RestExchange> exchanges = RestArchive.read(new ByteArrayInputStream(truncated));
+		assertEquals(1, exchanges.size());
+		assertEquals("a", exchanges.get(0).getResponseBody());
+	}
+
+	@Test(expected = IOException.class)
+	public void testInvalidArchive() throws Exception {
+		RestArchive.read(new ByteArrayInputStream("{\"id\":1}".getBytes("UTF-8")));
+	}
+
+	@Test
+	public void testReplay() {
+		List<RestExchange> exchanges = Arrays.asList(exchange("/api/v1/a", "a1", 5L), exchange("/api/v1/b",
+				"b", 5L), exchange("/api/v1/a", "a2", 5L));
+		ReplayRestConnector replay = new ReplayRestConnector(new TaskRepositoryLocationFactory()
+				.createWebLocation(new TaskRepository("tuleap", "https://tuleap.example.com")),
+				new TestLogger(), exchanges);
+		replay.setLatencyScale(0d);
+		assertEquals("a1", replay.sendRequest(new GetMethod("/api/v1/a")).getBody());
+		assertEquals("a2", replay.sendRequest(new GetMethod("/api/v1/a")).getBody());
+		// The last response is repeated
+		assertEquals("a2", replay.sendRequest(new GetMethod("/api/v1/a")).getBody());
+		assertEquals("b", replay.sendStreamingRequest(new GetMethod("/api/v1/b")).getBody());
+		assertEquals(0L, replay.getMissCount());
+		assertEquals(404, replay.sendRequest(new GetMethod("/api/v1/c")).getStatus());
+		assertEquals(1L, replay.getMissCount());
+		replay.rewind();
+		assertEquals("a1", replay.sendRequest(new GetMethod("/api/v1/a")).getBody());
+		assertEquals(0L, replay.getMissCount());
+	}
+
+	@Test
+	public void testReplayLatencyScale() {
+		final List<Long> delays = new ArrayList<Long>();
+		ReplayRestConnector replay = new ReplayRestConnector(new TaskRepositoryLocationFactory()
+				.createWebLocation(new TaskRepository("tuleap", "https://tuleap.example.com")),
+				new TestLogger(), Collections.singletonList(exchange("/api/v1/a", "a", 50L))) {
+			@Override
+			protected void sleep(long delay) {
+				delays.add(Long.valueOf(delay));
+			}
+		};
+		replay.sendRequest(new GetMethod("/api/v1/a"));
+		replay.setLatencyScale(2d);
+		replay.sendRequest(new GetMethod("/api/v1/a"));
+		replay.setLatencyScale(0d);
+		replay.sendRequest(new GetMethod("/api/v1/a"));
+		assertEquals(Arrays.asList(Long.valueOf(50L), Long.valueOf(100L), Long.valueOf(0L)), delays);
+	}
+
+	private RestExchange exchange(String path, String body, long elapsed) {
+		return new RestExchange("GET", path, null, null, null, 200, null, body, elapsed);
+	}
+
+	@Before
+	public void setUp() throws IOException {
+		bytes = new ByteArrayOutputStream();
+		archive = new RestArchive(bytes);
+		server = new MockListRestConnector();
+		recorder = new RecordingRestConnector(server, archive, "test", new TestLogger());
+	}
+}
@@ -0,0 +1,140 @@
+/*******************************************************************************
+ * Copyright (c) 2014 Obeo.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.tuleap.mylyn.task.core.tests.internal.client.rest;
+
+import com.google.common.collect.Lists;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+import org.tuleap.mylyn.task.core.internal.client.rest.RequestThrottle;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests of {@link RequestThrottle}.
+ *
+ * @author <a href="mailto:laurent.delaigue@obeo.fr">Laurent Delaigue</a>
+ */
+public class RequestThrottleTest {
+
+	@Test
+	public void testBurst() {
+		// A token every 100 seconds, none is earned during the test
+		RequestThrottle throttle = new RequestThrottle(0.01d, 3);
+		for (int i = 0; i < 3; i++) {
+			assertTrue(throttle.tryAcquire());
+		}
+		assertFalse(throttle.tryAcquire());
+	}
+
+	@Test
+	public void testRateAfterBurst() throws InterruptedException {
+		RequestThrottle throttle = new RequestThrottle(20d, 3);
+		while (throttle.tryAcquire()) {
+			// Empties the burst
+		}
+		long start = System.nanoTime();
+		// 2 more requests at 20 per second need about 100 milliseconds
+		throttle.acquire(false);
+		throttle.acquire(false);
+		assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 80L);
+	}
+
+	@Test
+	public void testConfigureCapsTheTokens() {
+		RequestThrottle throttle = new RequestThrottle(1d, 10);
+		throttle.configure(1d, 2);
+		assertTrue(throttle.tryAcquire());
+		assertTrue(throttle.tryAcquire());
+		assertFalse(throttle.tryAcquire());
+	}
+
+	@Test
+	public void testForegroundGoesFirst() throws InterruptedException {
+		// The background request waits half a second for its token, the foreground one comes meanwhile
+		final RequestThrottle throttle = new RequestThrottle(2d, 1);
+		assertTrue(throttle.tryAcquire());
+		final List<String> order = Collections.synchronizedList(Lists.<String> newArrayList());
+		Thread background = new Thread() {
+			@Override
+			public void run() {
+				try {
+					throttle.acquire(false);
+					order.add("background");
+				} catch (InterruptedException e) {
+					// Test failure
+				}
+			}
+		};
+		background.start();
+		waitUntilWaiting(background);
+		Thread foreground = new Thread() {
+			@Override
+			public void run() {
+				RequestThrottle.setForeground(true);
+				try {
+					throttle.acquire();
+					order.add("foreground");
+				} catch (InterruptedException e) {
+					// Test failure
+				}
+			}
+		};
+		foreground.start();
+		foreground.join(5000);
+		background.join(5000);
+		assertFalse(foreground.isAlive());
+		assertFalse(background.isAlive());
+		assertEquals(2, order.size());
+		assertEquals("foreground", order.get(0));
+		assertEquals("background", order.get(1));
+	}
+
+	@Test
+	public void testForegroundFlag() {
+		assertFalse(RequestThrottle.isForeground());
+		boolean previous = RequestThrottle.setForeground(true);
+		assertFalse(previous);
+		assertTrue(RequestThrottle.isForeground());
+		assertTrue(RequestThrottle.setForeground(previous));
+		assertFalse(RequestThrottle.isForeground());
+	}
+
+	@Test
+	public void testSharedPerRepository() {
+		RequestThrottle throttle = RequestThrottle.forUrl("https://tuleap.example.com/a");
+		assertSame(throttle, RequestThrottle.forUrl("https://tuleap.example.com/a"));
+		assertNotSame(throttle, RequestThrottle.forUrl("https://tuleap.example.com/b"));
+	}
+
+	private void waitUntilWaiting(Thread thread) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 2000;
+		while (thread.getState() != Thread.State.TIMED_WAITING && thread.getState() != Thread.State.WAITING
+				&& System.currentTimeMillis() < deadline) {
+			Thread.sleep(5);
+		}
+		assertTrue(thread.getState() == Thread.State.TIMED_WAITING
+				|| thread.getState() == Thread.State.WAITING);
+	}
+
+	@After
+	public void tearDown() {
+		RequestThrottle.resetAll();
+	}
+}
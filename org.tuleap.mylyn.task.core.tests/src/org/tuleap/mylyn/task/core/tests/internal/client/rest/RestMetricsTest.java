@@ -0,0 +1,134 @@
+/*******************************************************************************
+ * Copyright (c) 2014 Obeo.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.tuleap.mylyn.task.core.tests.internal.client.rest;
+
+import com.google.common.collect.Maps;
+import com.google.gson.Gson;
+
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.tuleap.mylyn.task.core.internal.client.rest.LatencyHistogram;
+import org.tuleap.mylyn.task.core.internal.client.rest.RestEndpointStatistics;
+import org.tuleap.mylyn.task.core.internal.client.rest.RestMetrics;
+import org.tuleap.mylyn.task.core.internal.client.rest.RestOperation;
+import org.tuleap.mylyn.task.core.internal.client.rest.ServerResponse;
+import org.tuleap.mylyn.task.core.tests.internal.TestLogger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Tests of {@link RestMetrics}.
+ *
+ * @author <a href="mailto:laurent.delaigue@obeo.fr">Laurent Delaigue</a>
+ */
+public class RestMetricsTest {
+
+	private RestMetrics metrics;
+
+	@Test
+	public void testTemplate() {
+		assertEquals("GET /artifacts/{id}/changesets", RestMetrics.template("GET",
+				"/api/v1/artifacts/123/changesets"));
+		assertEquals("GET /trackers/{id}/artifacts", RestMetrics.template("GET",
+				"/api/v1/trackers/12/artifacts?query=abc"));
+		assertEquals("DELETE /tokens/{id}", RestMetrics.template("DELETE",
+				"/api/v1/tokens/0123456789abcdef0123456789abcdef"));
+		assertEquals("GET /projects", RestMetrics.template("GET", "/api/v1/projects/"));
+		assertEquals("OPTIONS /", RestMetrics.template("OPTIONS", "/api/v1"));
+		assertEquals("GET /user_groups/{id}/users", RestMetrics.template("GET",
+				"/tuleap/api/v1/user_groups/1013/users"));
+		// Identifiers that do not look like numbers
+		assertEquals("GET /user_groups/{id}/users", RestMetrics.template("GET",
+				"/api/v1/user_groups/101_3/users"));
+		assertEquals("GET /projects/{id}/trackers", RestMetrics.template("GET",
+				"/api/v1/projects/my-project/trackers"));
+	}
+
+	@Test
+	public void testEndpointsAreBounded() {
+		for (int i = 0; i < RestMetrics.MAX_ENDPOINTS * 2; i++) {
+			metrics.recordOperation("GET", "/api/v1/endpoint_" + i, 10L, 200);
+		}
+		assertEquals(RestMetrics.MAX_ENDPOINTS, metrics.getStatistics().size());
+		assertEquals(1L, metrics.getStatistics("GET /endpoint_0").getOperationCount());
+		assertEquals(RestMetrics.MAX_ENDPOINTS + 1L, metrics.getStatistics(RestMetrics.OTHER_TEMPLATE)
+				.getOperationCount());
+	}
+
+	@Test
+	public void testHistogram() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		assertEquals(0L, histogram.getPercentile(50));
+		for (int i = 0; i < 9; i++) {
+			histogram.record(20L);
+		}
+		histogram.record(4000L);
+		assertEquals(10L, histogram.getCount());
+		assertEquals(418L, histogram.getMean());
+		assertEquals(25L, histogram.getPercentile(50));
+		assertEquals(25L, histogram.getPercentile(90));
+		assertEquals(4000L, histogram.getPercentile(99));
+		assertEquals(4000L, histogram.getMax());
+		long[] counts = histogram.getBucketCounts();
+		assertEquals(LatencyHistogram.getBucketBounds().length + 1, counts.length);
+		assertEquals(9L, counts[1]);
+	}
+
+	@Test
+	public void testRequests() {
+		metrics.recordRequest("GET", "/api/v1/artifacts/1", 12L, 0L, 300L, 200);
+		metrics.recordRequest("GET", "/api/v1/artifacts/2", 30L, 0L, 100L, 404);
+		metrics.recordRequest("PUT", "/api/v1/artifacts/2", 30L, 1000L, -1L, 1001);
+		List<RestEndpointStatistics> statistics = metrics.getStatistics();
+		assertEquals(2, statistics.size());
+		RestEndpointStatistics get = statistics.get(0);
+		assertEquals("GET /artifacts/{id}", get.getTemplate());
+		assertEquals(2L, get.getRequestCount());
+		assertEquals(1L, get.getRequestErrors());
+		assertEquals(400L, get.getBytesIn());
+		assertEquals(0L, get.getBytesOut());
+		assertEquals(30L, get.getRequestLatency().getMax());
+		assertEquals(0L, get.getOperationCount());
+		RestEndpointStatistics put = metrics.getStatistics("PUT /artifacts/{id}");
+		assertEquals(1000L, put.getBytesOut());
+		assertEquals(0L, put.getBytesIn());
+		assertEquals(1L, put.getRequestErrors());
+		metrics.reset();
+		assertNull(metrics.getStatistics("PUT /artifacts/{id}"));
+	}
+
+	@Test
+	public void testOperationsAreRecorded() {
+		MockRestConnector connector = new MockRestConnector();
+		connector.setResponse(new ServerResponse(200, "{}", Maps.<String, String> newHashMap()));
+		Gson gson = new Gson();
+		TestLogger logger = new TestLogger();
+		RestOperation.get("/api/v1/artifacts/12/changesets", connector, gson, logger).withMetrics(metrics)
+				.run();
+		RestOperation.get("/api/v1/artifacts/13/changesets", connector, gson, logger).withMetrics(metrics)
+				.run();
+		connector.setResponse(new ServerResponse(500, "", Maps.<String, String> newHashMap()));
+		RestOperation.get("/api/v1/artifacts/14/changesets", connector, gson, logger).withMetrics(metrics)
+				.run();
+		RestEndpointStatistics statistics = metrics.getStatistics("GET /artifacts/{id}/changesets");
+		assertEquals(3L, statistics.getOperationCount());
+		assertEquals(1L, statistics.getOperationErrors());
+		assertEquals(3L, statistics.getOperationLatency().getCount());
+	}
+
+	@Before
+	public void setUp() {
+		metrics = new RestMetrics();
+	}
+}
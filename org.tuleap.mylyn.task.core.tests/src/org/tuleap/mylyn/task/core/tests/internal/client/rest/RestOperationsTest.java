@@ -10,29 +10,42 @@
  *******************************************************************************/
 package org.tuleap.mylyn.task.core.tests.internal.client.rest;
 
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.gson.Gson;
 import com.google.gson.JsonElement;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
 
 import org.apache.commons.httpclient.HttpMethod;
+import org.apache.commons.httpclient.methods.EntityEnclosingMethod;
 import org.eclipse.core.runtime.AssertionFailedException;
 import org.eclipse.core.runtime.CoreException;
 import org.junit.Before;
 import org.junit.Test;
+import org.tuleap.mylyn.task.core.internal.client.rest.ContentEncodings;
+import org.tuleap.mylyn.task.core.internal.client.rest.GzipRequestEntity;
 import org.tuleap.mylyn.task.core.internal.client.rest.IAuthenticator;
+import org.tuleap.mylyn.task.core.internal.client.rest.JsonRequestEntity;
 import org.tuleap.mylyn.task.core.internal.client.rest.RestOperation;
 import org.tuleap.mylyn.task.core.internal.client.rest.RestOperationIterable;
 import org.tuleap.mylyn.task.core.internal.client.rest.RestResource;
 import org.tuleap.mylyn.task.core.internal.client.rest.ServerResponse;
 import org.tuleap.mylyn.task.core.internal.model.TuleapToken;
+import org.tuleap.mylyn.task.core.internal.model.data.TuleapReference;
 import org.tuleap.mylyn.task.core.tests.internal.TestLogger;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 /**
  * Tests of {@link RestOperation}.
@@ -175,6 +188,37 @@ public class RestOperationsTest {
 		assertFalse(iterator.hasNext());
 	}
 
+	@Test
+	public void testTypedIterableWithPagination() {
+		MockPaginatingRestConnector paginatingConnector = new MockPaginatingRestConnector();
+		RestOperation op = RestOperation.get("some/url", paginatingConnector, gson, logger);
+		Map<String, String> responseHeaders = Maps.newLinkedHashMap();
+		responseHeaders.put(RestResource.HEADER_X_PAGINATION_SIZE, "3");
+		responseHeaders.put(RestResource.HEADER_X_PAGINATION_LIMIT, "2");
+		ServerResponse response = new ServerResponse(ServerResponse.STATUS_OK,
+				"[{'id':1,'uri':'a/1'},{'id':2,'uri':'a/2'}]", responseHeaders);
+		ServerResponse response2 = new ServerResponse(ServerResponse.STATUS_OK, "[{'id':3,'uri':'a/3'}]",
+				responseHeaders);
+		paginatingConnector.setResponse(response);
+		paginatingConnector.putResponse(0, response);
+		paginatingConnector.putResponse(2, response2);
+
+		Iterable<TuleapReference> iterable = op.iterable(TuleapReference.class);
+		List<Integer> ids = Lists.newArrayList();
+		for (TuleapReference reference : iterable) {
+			ids.add(Integer.valueOf(reference.getId()));
+		}
+		assertEquals(Lists.newArrayList(1, 2, 3), ids);
+		assertEquals(2, paginatingConnector.getInvocationsCount());
+		// The iterable can be iterated again, from the first page
+		ids.clear();
+		for (TuleapReference reference : iterable) {
+			ids.add(Integer.valueOf(reference.getId()));
+		}
+		assertEquals(Lists.newArrayList(1, 2, 3), ids);
+		assertEquals(4, paginatingConnector.getInvocationsCount());
+	}
+
 	/**
 	 * Checks that invoking run() on {@link RestOperation}s attempt to login automatically when they receive a
 	 * 401 UNAUTHORIZED response.
@@ -196,6 +240,11 @@ public class RestOperationsTest {
 			public TuleapToken getToken() {
 				return token;
 			}
+
+			@Override
+			public void renewToken(TuleapToken rejectedToken) throws CoreException {
+				// Stub
+			}
 		};
 		listConnector.addServerResponse(response401);
 		listConnector.addServerResponse(response200);
@@ -250,6 +299,11 @@ public class RestOperationsTest {
 			public TuleapToken getToken() {
 				return token;
 			}
+
+			@Override
+			public void renewToken(TuleapToken rejectedToken) throws CoreException {
+				// Stub
+			}
 		};
 		listConnector.addServerResponse(response401);
 		listConnector.addServerResponse(response401);
@@ -287,6 +341,11 @@ public class RestOperationsTest {
 			public TuleapToken getToken() {
 				return token;
 			}
+
+			@Override
+			public void renewToken(TuleapToken rejectedToken) throws CoreException {
+				// Stub
+			}
 		};
 		listConnector.addServerResponse(response401);
 		listConnector.addServerResponse(response200);
@@ -344,6 +403,11 @@ public class RestOperationsTest {
 			public TuleapToken getToken() {
 				return token;
 			}
+
+			@Override
+			public void renewToken(TuleapToken rejectedToken) throws CoreException {
+				// Stub
+			}
 		};
 		listConnector.addServerResponse(response401);
 		listConnector.addServerResponse(response401);
@@ -398,6 +462,111 @@ public class RestOperationsTest {
 		assertEquals("OPTIONS /the/full/url", op.toString());
 	}
 
+	/**
+	 * Checks that large bodies are compressed only when compression is enabled, and that small bodies are
+	 * never compressed.
+	 */
+	@Test
+	public void testBodyCompression() throws Exception {
+		StringBuilder b = new StringBuilder("{\"values\":[");
+		for (int i = 0; i < 1000; i++) {
+			b.append("{\"field_id\":").append(i).append(",\"value\":\"some value\"},");
+		}
+		b.append("{}]}");
+		String largeBody = b.toString();
+
+		RestOperation op = RestOperation.put("some/url", connector, gson, logger).withBody(largeBody);
+		EntityEnclosingMethod m = (EntityEnclosingMethod)op.createMethod();
+		assertFalse(m.getRequestEntity() instanceof GzipRequestEntity);
+		assertNull(m.getRequestHeader("Content-Encoding"));
+
+		op.withBodyCompression(true);
+		m = (EntityEnclosingMethod)op.createMethod();
+		assertTrue(m.getRequestEntity() instanceof GzipRequestEntity);
+		assertEquals("gzip", m.getRequestHeader("Content-Encoding").getValue());
+		assertTrue(m.getRequestEntity().getContentLength() < largeBody.length());
+		assertTrue(m.getRequestEntity().isRepeatable());
+		ByteArrayOutputStream os = new ByteArrayOutputStream();
+		m.getRequestEntity().writeRequest(os);
+		InputStream decoded = ContentEncodings.decode(new ByteArrayInputStream(os.toByteArray()), "gzip");
+		assertEquals(largeBody, ContentEncodings.read(decoded, "UTF-8"));
+
+		op.withBody("{}");
+		m = (EntityEnclosingMethod)op.createMethod();
+		assertFalse(m.getRequestEntity() instanceof GzipRequestEntity);
+		assertNull(m.getRequestHeader("Content-Encoding"));
+	}
+
+	/**
+	 * Checks that an object body is serialized in the request stream, repeatably, and compressed if large.
+	 */
+	@Test
+	public void testObjectBody() throws Exception {
+		List<String> values = Lists.newArrayList();
+		for (int i = 0; i < 1000; i++) {
+			values.add("value " + i);
+		}
+		String json = gson.toJson(values);
+		RestOperation op = RestOperation.put("some/url", connector, gson, logger)
+				.withBody(values, List.class);
+		EntityEnclosingMethod m = (EntityEnclosingMethod)op.createMethod();
+		assertTrue(m.getRequestEntity() instanceof JsonRequestEntity);
+		assertNull(m.getRequestHeader("Content-Encoding"));
+		assertTrue(m.getRequestEntity().isRepeatable());
+		assertEquals(json.getBytes("UTF-8").length, m.getRequestEntity().getContentLength());
+		for (int i = 0; i < 2; i++) {
+			ByteArrayOutputStream os = new ByteArrayOutputStream();
+			m.getRequestEntity().writeRequest(os);
+			assertEquals(json, os.toString("UTF-8"));
+		}
+
+		op.withBodyCompression(true);
+		m = (EntityEnclosingMethod)op.createMethod();
+		assertEquals("gzip", m.getRequestHeader("Content-Encoding").getValue());
+		assertTrue(((JsonRequestEntity)m.getRequestEntity()).isCompressed());
+		assertTrue(m.getRequestEntity().getContentLength() < json.length());
+		ByteArrayOutputStream os = new ByteArrayOutputStream();
+		m.getRequestEntity().writeRequest(os);
+		InputStream decoded = ContentEncodings.decode(new ByteArrayInputStream(os.toByteArray()), "gzip");
+		assertEquals(json, ContentEncodings.read(decoded, "UTF-8"));
+
+		// Small bodies are not compressed
+		op.withBody(Lists.newArrayList("a"), List.class);
+		m = (EntityEnclosingMethod)op.createMethod();
+		assertFalse(((JsonRequestEntity)m.getRequestEntity()).isCompressed());
+		assertNull(m.getRequestHeader("Content-Encoding"));
+	}
+
+	/**
+	 * Checks that the asynchronous run behaves like the synchronous one.
+	 */
+	@Test
+	public void testRunAsync() throws Exception {
+		RestOperation op = RestOperation.get("some/url", connector, gson, logger);
+		ServerResponse response = new ServerResponse(ServerResponse.STATUS_OK, "body", Maps
+				.<String, String> newHashMap());
+		connector.setResponse(response);
+		assertEquals(response, op.runAsync().get());
+		assertEquals(response, op.checkedRunAsync().get());
+		assertEquals(2, connector.getInvocationsCount());
+	}
+
+	/**
+	 * Checks that the asynchronous checked run fails with a CoreException on server errors.
+	 */
+	@Test
+	public void testCheckedRunAsyncWithError() throws Exception {
+		RestOperation op = RestOperation.get("some/url", connector, gson, logger);
+		connector.setResponse(new ServerResponse(ServerResponse.STATUS_NOT_FOUND, "", Maps
+				.<String, String> newHashMap()));
+		try {
+			op.checkedRunAsync().get();
+			fail("An ExecutionException should have been thrown");
+		} catch (ExecutionException e) {
+			assertTrue(e.getCause() instanceof CoreException);
+		}
+	}
+
 	/**
 	 * Set up the tests.
 	 */
@@ -0,0 +1,174 @@
+/*******************************************************************************
+ * Copyright (c) 2014 Obeo.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.tuleap.mylyn.task.core.tests.internal.client.rest;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.httpclient.methods.GetMethod;
+import org.apache.commons.httpclient.methods.PostMethod;
+import org.apache.commons.httpclient.methods.StringRequestEntity;
+import org.eclipse.core.runtime.ILog;
+import org.eclipse.core.runtime.ILogListener;
+import org.eclipse.core.runtime.IStatus;
+import org.junit.Before;
+import org.junit.Test;
+import org.osgi.framework.Bundle;
+import org.tuleap.mylyn.task.core.internal.client.rest.RestTracer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests of {@link RestTracer}.
+ *
+ * @author <a href="mailto:laurent.delaigue@obeo.fr">Laurent Delaigue</a>
+ */
+public class RestTracerTest {
+
+	private BlockingLogger logger;
+
+	@Test
+	public void testSampling() {
+		RestTracer tracer = new RestTracer(logger);
+		tracer.configure(0.25d, 100);
+		int sampled = 0;
+		for (int i = 0; i < 8; i++) {
+			if (tracer.trace(new GetMethod("/api/v1/trackers/1"), 200, 10L, 0L, 20L, "{}")) {
+				sampled++;
+			}
+		}
+		assertEquals(2, sampled);
+		// The errors are always traced
+		assertTrue(tracer.trace(new GetMethod("/api/v1/trackers/2"), 404, 10L, 0L, 20L, "{}"));
+		tracer.configure(0d, 100);
+		assertFalse(tracer.trace(new GetMethod("/api/v1/trackers/1"), 200, 10L, 0L, 20L, "{}"));
+		tracer.flush();
+		assertEquals(3, logger.statuses.size());
+		assertEquals(IStatus.ERROR, logger.statuses.get(2).getSeverity());
+	}
+
+	@Test
+	public void testRecordIsTruncatedAndMasked() throws Exception {
+		RestTracer tracer = new RestTracer(logger);
+		tracer.configure(1d, 40);
+		PostMethod post = new PostMethod("/api/v1/tokens");
+		post.setQueryString("a=b");
+		post.setRequestEntity(new StringRequestEntity("{\"username\":\"admin\",\"password\":\"secret\"}",
+				"application/json", "UTF-8"));
+		StringBuilder response = new StringBuilder();
+		for (int i = 0; i < 100; i++) {
+			response.append('x');
+		}
+		tracer.trace(post, 200, 12L, 41L, 100L, response.toString());
+		tracer.flush();
+		assertEquals(1, logger.statuses.size());
+		String message = logger.statuses.get(0).getMessage();
+		assertTrue(message.startsWith("POST /api/v1/tokens?a=b -> 200 (12 ms, 41 bytes out, 100 bytes in"));
+		assertFalse(message.contains("secret"));
+		assertTrue(message.contains("\"password\":\"(hidden in debug)"));
+		assertTrue(message.contains("... (60 more characters)"));
+		assertEquals(IStatus.INFO, logger.statuses.get(0).getSeverity());
+	}
+
+	@Test
+	public void testMaskPasswords() {
+		assertEquals("{\"password\" : \"(hidden in debug)\", \"a\":\"b\"}", RestTracer
+				.maskPasswords("{\"password\" : \"p\\\"wd\", \"a\":\"b\"}"));
+		// A password cut by the truncation is masked too
+		assertEquals("{\"password\":\"(hidden in debug)", RestTracer.maskPasswords("{\"password\":\"sec"));
+		assertEquals("abc", RestTracer.truncate("abc", 3));
+		assertEquals("ab... (1 more characters)", RestTracer.truncate("abc", 2));
+	}
+
+	@Test
+	public void testWrittenInBackground() throws InterruptedException {
+		RestTracer tracer = new RestTracer(logger);
+		logger.release.countDown();
+		tracer.trace(new GetMethod("/api/v1/projects"), 200, 10L, 0L, 20L, "[]");
+		long deadline = System.currentTimeMillis() + 2000;
+		while (logger.statuses.isEmpty() && System.currentTimeMillis() < deadline) {
+			Thread.sleep(5);
+		}
+		assertEquals(1, logger.statuses.size());
+	}
+
+	@Test
+	public void testOldestTracesAreDropped() throws InterruptedException {
+		RestTracer tracer = new RestTracer(logger, 2);
+		logger.blocked = true;
+		tracer.trace(new GetMethod("/api/v1/trackers/1"), 200, 10L, 0L, 20L, "1");
+		// Wait for the writer to be blocked in the log
+		long deadline = System.currentTimeMillis() + 2000;
+		while (tracer.getPendingCount() > 0 && System.currentTimeMillis() < deadline) {
+			Thread.sleep(5);
+		}
+		for (int i = 2; i <= 4; i++) {
+			tracer.trace(new GetMethod("/api/v1/trackers/" + i), 200, 10L, 0L, 20L, String.valueOf(i));
+		}
+		assertEquals(2, tracer.getPendingCount());
+		logger.release.countDown();
+		tracer.flush();
+		assertEquals(4, logger.statuses.size());
+		assertTrue(logger.statuses.get(0).getMessage().startsWith("GET /api/v1/trackers/1 "));
+		assertEquals(IStatus.WARNING, logger.statuses.get(1).getSeverity());
+		assertTrue(logger.statuses.get(2).getMessage().startsWith("GET /api/v1/trackers/3 "));
+		assertTrue(logger.statuses.get(3).getMessage().startsWith("GET /api/v1/trackers/4 "));
+	}
+
+	@Before
+	public void setUp() {
+		logger = new BlockingLogger();
+	}
+
+	/**
+	 * Thread-safe logger that can block the writer.
+	 */
+	private static class BlockingLogger implements ILog {
+
+		private final List<IStatus> statuses = Collections.synchronizedList(new ArrayList<IStatus>());
+
+		private final CountDownLatch release = new CountDownLatch(1);
+
+		private volatile boolean blocked;
+
+		@Override
+		public void log(IStatus status) {
+			if (blocked) {
+				try {
+					release.await(2, TimeUnit.SECONDS);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+			statuses.add(status);
+		}
+
+		@Override
+		public void addLogListener(ILogListener listener) {
+			// Nothing
+		}
+
+		@Override
+		public Bundle getBundle() {
+			return null;
+		}
+
+		@Override
+		public void removeLogListener(ILogListener listener) {
+			// Nothing
+		}
+	}
+}
@@ -0,0 +1,198 @@
+/*******************************************************************************
+ * Copyright (c) 2014 Obeo.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.tuleap.mylyn.task.core.tests.internal.client.rest;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.gson.Gson;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.httpclient.util.DateUtil;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.junit.Before;
+import org.junit.Test;
+import org.tuleap.mylyn.task.core.internal.client.rest.RestOperation;
+import org.tuleap.mylyn.task.core.internal.client.rest.RestOperation.Method;
+import org.tuleap.mylyn.task.core.internal.client.rest.RetryPolicy;
+import org.tuleap.mylyn.task.core.internal.client.rest.ServerResponse;
+import org.tuleap.mylyn.task.core.internal.client.rest.TuleapRestConnector;
+import org.tuleap.mylyn.task.core.tests.internal.TestLogger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests of {@link RetryPolicy} and of its use by {@link RestOperation}.
+ *
+ * @author <a href="mailto:laurent.delaigue@obeo.fr">Laurent Delaigue</a>
+ */
+public class RetryPolicyTest {
+
+	private MockListRestConnector connector;
+
+	private RecordingRetryPolicy policy;
+
+	@Test
+	public void testRetriedStatuses() {
+		RetryPolicy p = new RetryPolicy();
+		assertTrue(p.shouldRetry(Method.GET, response(TuleapRestConnector.IO_ERROR_STATUS_CODE), 1));
+		assertTrue(p.shouldRetry(Method.GET, response(500), 1));
+		assertTrue(p.shouldRetry(Method.GET, response(502), 2));
+		assertFalse(p.shouldRetry(Method.GET, response(502), 3));
+		assertFalse(p.shouldRetry(Method.GET, response(404), 1));
+		assertFalse(p.shouldRetry(Method.GET, response(200), 1));
+	}
+
+	@Test
+	public void testNonIdempotentMethodsAreOnlyRetriedWhenRefused() {
+		RetryPolicy p = new RetryPolicy();
+		assertFalse(p.shouldRetry(Method.POST, response(TuleapRestConnector.IO_ERROR_STATUS_CODE), 1));
+		assertFalse(p.shouldRetry(Method.PUT, response(500), 1));
+		// A 503 can come from a proxy after the request has been processed
+		assertFalse(p.shouldRetry(Method.PUT, response(RetryPolicy.STATUS_SERVICE_UNAVAILABLE), 1));
+		assertFalse(p.shouldRetry(Method.POST, response(RetryPolicy.STATUS_SERVICE_UNAVAILABLE, "1"), 1));
+		assertFalse(p.shouldRetry(Method.POST, response(RetryPolicy.STATUS_TOO_MANY_REQUESTS), 1));
+		// Only a 429 with Retry-After tells that the request has not been processed
+		assertTrue(p.shouldRetry(Method.POST, response(RetryPolicy.STATUS_TOO_MANY_REQUESTS, "1"), 1));
+		assertTrue(p.shouldRetry(Method.PUT, response(RetryPolicy.STATUS_TOO_MANY_REQUESTS, "1"), 1));
+		assertTrue(p.shouldRetry(Method.GET, response(RetryPolicy.STATUS_TOO_MANY_REQUESTS), 1));
+		assertTrue(p.shouldRetry(Method.DELETE, response(500), 1));
+	}
+
+	@Test
+	public void testExponentialDelayWithJitter() {
+		RetryPolicy p = new RetryPolicy(10, 100L, 1000L);
+		for (int i = 0; i < 20; i++) {
+			long first = p.getDelay(response(500), 1);
+			assertTrue(first >= 50L && first <= 100L);
+			long third = p.getDelay(response(500), 3);
+			assertTrue(third >= 200L && third <= 400L);
+			long capped = p.getDelay(response(500), 8);
+			assertTrue(capped >= 500L && capped <= 1000L);
+		}
+	}
+
+	@Test
+	public void testRetryAfter() {
+		assertEquals(-1L, RetryPolicy.getRetryAfter(response(503), 0L));
+		assertEquals(2000L, RetryPolicy.getRetryAfter(response(503, "2"), 0L));
+		assertEquals(-1L, RetryPolicy.getRetryAfter(response(503, "soon"), 0L));
+		long now = 1400000000000L;
+		String date = DateUtil.formatDate(new Date(now + 5000L));
+		assertEquals(5000L, RetryPolicy.getRetryAfter(response(503, date), now));
+		// The delay requested by the server is capped
+		RetryPolicy p = new RetryPolicy(3, 100L, 1000L);
+		assertEquals(1000L, p.getDelay(response(503, "120"), 1));
+		assertEquals(0L, p.getDelay(response(429, "0"), 1));
+	}
+
+	@Test
+	public void testOperationIsRetried() {
+		connector.addServerResponse(response(TuleapRestConnector.IO_ERROR_STATUS_CODE)).addServerResponse(
+				response(503, "1")).addServerResponse(new ServerResponse(200, "{}", headers()));
+		ServerResponse result = RestOperation.get("/api/trackers/1", connector, new Gson(),
+				new TestLogger()).withRetryPolicy(policy).run();
+		assertEquals(200, result.getStatus());
+		assertEquals(3, connector.getRequestsSent().size());
+		assertEquals(2, policy.delays.size());
+		assertEquals(Long.valueOf(1000L), policy.delays.get(1));
+	}
+
+	@Test
+	public void testOperationGivesUpAfterMaxAttempts() {
+		connector.addServerResponse(response(500)).addServerResponse(response(500)).addServerResponse(
+				response(500)).addServerResponse(new ServerResponse(200, "{}", headers()));
+		ServerResponse result = RestOperation.get("/api/trackers/1", connector, new Gson(),
+				new TestLogger()).withRetryPolicy(policy).run();
+		assertEquals(500, result.getStatus());
+		assertEquals(3, connector.getRequestsSent().size());
+	}
+
+	@Test
+	public void testCancellationStopsTheWaitBeforeTheRetry() {
+		final NullProgressMonitor monitor = new NullProgressMonitor();
+		RecordingRetryPolicy cancellingPolicy = new RecordingRetryPolicy() {
+			@Override
+			protected void sleep(long delay) {
+				super.sleep(delay);
+				// The user cancels the operation while it waits for the server
+				monitor.setCanceled(true);
+			}
+		};
+		connector.addServerResponse(response(503, "30")).addServerResponse(
+				new ServerResponse(200, "{}", headers()));
+		ServerResponse result = RestOperation.get("/api/trackers/1", connector, new Gson(),
+				new TestLogger()).withRetryPolicy(cancellingPolicy).withProgressMonitor(monitor).run();
+		assertEquals(503, result.getStatus());
+		assertEquals(1, connector.getRequestsSent().size());
+		// Only a short part of the 30 seconds asked for by the server has been waited
+		assertEquals(1, cancellingPolicy.delays.size());
+		assertTrue(cancellingPolicy.delays.get(0).longValue() < 1000L);
+	}
+
+	@Test
+	public void testCancelledOperationIsNotRetried() {
+		NullProgressMonitor monitor = new NullProgressMonitor();
+		monitor.setCanceled(true);
+		connector.addServerResponse(response(500)).addServerResponse(new ServerResponse(200, "{}", headers()));
+		ServerResponse result = RestOperation.get("/api/trackers/1", connector, new Gson(),
+				new TestLogger()).withRetryPolicy(policy).withProgressMonitor(monitor).run();
+		assertEquals(500, result.getStatus());
+		assertEquals(1, connector.getRequestsSent().size());
+		assertEquals(0, policy.delays.size());
+	}
+
+	@Test
+	public void testPostIsNotRetriedAfterServerError() {
+		connector.addServerResponse(response(500)).addServerResponse(new ServerResponse(200, "{}", headers()));
+		ServerResponse result = RestOperation.post("/api/artifacts", connector, new Gson(), new TestLogger())
+				.withRetryPolicy(policy).run();
+		assertEquals(500, result.getStatus());
+		assertEquals(1, connector.getRequestsSent().size());
+	}
+
+	private ServerResponse response(int status) {
+		return new ServerResponse(status, "", headers());
+	}
+
+	private ServerResponse response(int status, String retryAfter) {
+		Map<String, String> headers = headers();
+		headers.put("Retry-After", retryAfter);
+		return new ServerResponse(status, "", headers);
+	}
+
+	private Map<String, String> headers() {
+		return Maps.newHashMap();
+	}
+
+	@Before
+	public void setUp() {
+		connector = new MockListRestConnector();
+		policy = new RecordingRetryPolicy();
+	}
+
+	/**
+	 * Retry policy that records the delays instead of waiting.
+	 */
+	private static class RecordingRetryPolicy extends RetryPolicy {
+
+		private final List<Long> delays = Lists.newArrayList();
+
+		@Override
+		protected void sleep(long delay) {
+			delays.add(Long.valueOf(delay));
+		}
+	}
+}
@@ -0,0 +1,242 @@
+/*******************************************************************************
+ * Copyright (c) 2014 Obeo.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.tuleap.mylyn.task.core.tests.internal.client.rest;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.junit.Before;
+import org.junit.Test;
+import org.tuleap.mylyn.task.core.internal.client.rest.SingleFlight;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests of {@link SingleFlight}.
+ *
+ * @author <a href="mailto:laurent.delaigue@obeo.fr">Laurent Delaigue</a>
+ */
+public class SingleFlightTest {
+
+	private SingleFlight singleFlight;
+
+	private AtomicInteger calls;
+
+	private CountDownLatch release;
+
+	@Test
+	public void testConcurrentCallsAreShared() throws Exception {
+		final Object result = new Object();
+		Worker leader = new Worker() {
+			@Override
+			protected void work() throws Exception {
+				assertSame(result, singleFlight.execute("/trackers/1", blockingCall(result)));
+			}
+		};
+		leader.start();
+		waitForInFlightCall();
+		Worker follower = new Worker() {
+			@Override
+			protected void work() throws Exception {
+				assertSame(result, singleFlight.execute("/trackers/1", blockingCall(new Object())));
+			}
+		};
+		follower.start();
+		waitForWaiter();
+		release.countDown();
+		leader.finish();
+		follower.finish();
+		assertEquals(1, calls.get());
+		assertEquals(0, singleFlight.getInFlightCount());
+		assertEquals(0, singleFlight.getWaiterCount());
+	}
+
+	@Test
+	public void testFailureIsShared() throws Exception {
+		Worker leader = new Worker() {
+			@Override
+			protected void work() throws Exception {
+				try {
+					singleFlight.execute("/trackers/2", failingCall());
+					fail("A CoreException was expected");
+				} catch (CoreException e) {
+					assertEquals("not found", e.getMessage());
+				}
+			}
+		};
+		leader.start();
+		waitForInFlightCall();
+		Worker follower = new Worker() {
+			@Override
+			protected void work() throws Exception {
+				try {
+					singleFlight.execute("/trackers/2", failingCall());
+					fail("A CoreException was expected");
+				} catch (CoreException e) {
+					assertEquals("not found", e.getMessage());
+				}
+			}
+		};
+		follower.start();
+		waitForWaiter();
+		release.countDown();
+		leader.finish();
+		follower.finish();
+		assertEquals(1, calls.get());
+	}
+
+	@Test
+	public void testErrorIsShared() throws Exception {
+		Worker leader = new Worker() {
+			@Override
+			protected void work() throws Exception {
+				try {
+					singleFlight.execute("/trackers/4", errorCall());
+					fail("An AssertionError was expected");
+				} catch (AssertionError e) {
+					assertEquals("broken", e.getMessage());
+				}
+			}
+		};
+		leader.start();
+		waitForInFlightCall();
+		Worker follower = new Worker() {
+			@Override
+			protected void work() throws Exception {
+				try {
+					singleFlight.execute("/trackers/4", errorCall());
+					fail("An AssertionError was expected");
+				} catch (AssertionError e) {
+					assertEquals("broken", e.getMessage());
+				}
+			}
+		};
+		follower.start();
+		waitForWaiter();
+		release.countDown();
+		leader.finish();
+		follower.finish();
+		assertEquals(1, calls.get());
+		assertEquals(0, singleFlight.getInFlightCount());
+	}
+
+	@Test
+	public void testSequentialCallsAreNotShared() throws CoreException {
+		release.countDown();
+		singleFlight.execute("/trackers/3", blockingCall("a"));
+		assertEquals("b", singleFlight.execute("/trackers/3", blockingCall("b")));
+		assertEquals(2, calls.get());
+		try {
+			singleFlight.execute("/trackers/3", failingCall());
+			fail("A CoreException was expected");
+		} catch (CoreException e) {
+			assertEquals("not found", e.getMessage());
+		}
+	}
+
+	private void waitForInFlightCall() throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 2000;
+		while (singleFlight.getInFlightCount() == 0 && System.currentTimeMillis() < deadline) {
+			Thread.sleep(5);
+		}
+		assertEquals(1, singleFlight.getInFlightCount());
+	}
+
+	private void waitForWaiter() throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 2000;
+		while (singleFlight.getWaiterCount() == 0 && System.currentTimeMillis() < deadline) {
+			Thread.sleep(5);
+		}
+		assertEquals(1, singleFlight.getWaiterCount());
+	}
+
+	private <T> Callable<T> blockingCall(final T result) {
+		return new Callable<T>() {
+			@Override
+			public T call() throws Exception {
+				calls.incrementAndGet();
+				release.await(2, TimeUnit.SECONDS);
+				return result;
+			}
+		};
+	}
+
+	private Callable<Object> failingCall() {
+		return new Callable<Object>() {
+			@Override
+			public Object call() throws Exception {
+				calls.incrementAndGet();
+				release.await(2, TimeUnit.SECONDS);
+				throw new CoreException(new Status(IStatus.ERROR, "test", "not found"));
+			}
+		};
+	}
+
+	private Callable<Object> errorCall() {
+		return new Callable<Object>() {
+			@Override
+			public Object call() throws Exception {
+				calls.incrementAndGet();
+				release.await(2, TimeUnit.SECONDS);
+				throw new AssertionError("broken");
+			}
+		};
+	}
+
+	/**
+	 * Thread whose failures are rethrown in the test thread when it is finished.
+	 */
+	private abstract static class Worker extends Thread {
+
+		private final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+
+		protected abstract void work() throws Exception;
+
+		@Override
+		public void run() {
+			try {
+				work();
+				// CHECKSTYLE:OFF (The assertion errors of the worker must fail the test too)
+			} catch (Throwable t) {
+				// CHECKSTYLE:ON
+				failure.set(t);
+			}
+		}
+
+		public void finish() throws Exception {
+			join(2000);
+			assertFalse(isAlive());
+			Throwable t = failure.get();
+			if (t instanceof Exception) {
+				throw (Exception)t;
+			}
+			if (t instanceof Error) {
+				throw (Error)t;
+			}
+		}
+	}
+
+	@Before
+	public void setUp() {
+		singleFlight = new SingleFlight();
+		calls = new AtomicInteger();
+		release = new CountDownLatch(1);
+	}
+}
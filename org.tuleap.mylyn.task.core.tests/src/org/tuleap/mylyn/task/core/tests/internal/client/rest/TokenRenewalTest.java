@@ -0,0 +1,182 @@
+/*******************************************************************************
+ * Copyright (c) 2014 Obeo.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.tuleap.mylyn.task.core.tests.internal.client.rest;
+
+import com.google.common.collect.Maps;
+import com.google.gson.Gson;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.httpclient.HttpMethod;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.mylyn.commons.net.AuthenticationCredentials;
+import org.eclipse.mylyn.commons.net.AuthenticationType;
+import org.eclipse.mylyn.tasks.core.TaskRepository;
+import org.junit.Before;
+import org.junit.Test;
+import org.tuleap.mylyn.task.core.internal.client.rest.RestOperation;
+import org.tuleap.mylyn.task.core.internal.client.rest.RestResourceFactory;
+import org.tuleap.mylyn.task.core.internal.client.rest.ServerResponse;
+import org.tuleap.mylyn.task.core.internal.client.rest.TuleapRestClient;
+import org.tuleap.mylyn.task.core.internal.model.TuleapToken;
+import org.tuleap.mylyn.task.core.internal.parser.TuleapGsonProvider;
+import org.tuleap.mylyn.task.core.internal.util.ITuleapConstants;
+import org.tuleap.mylyn.task.core.tests.internal.TestLogger;
+import org.tuleap.mylyn.task.core.tests.internal.client.rest.MockRestConnector.ServerRequest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests of the renewal of the authentication tokens by {@link TuleapRestClient} and {@link RestOperation}.
+ *
+ * @author <a href="mailto:laurent.delaigue@obeo.fr">Laurent Delaigue</a>
+ */
+public class TokenRenewalTest {
+
+	private static final int THREADS = 4;
+
+	private TokenConnector connector;
+
+	private Gson gson;
+
+	private TestLogger logger;
+
+	private TuleapRestClient client;
+
+	@Test
+	public void testConcurrentRejectionsLogInOnce() throws Exception {
+		client.login();
+		assertEquals("token-1", client.getToken().getToken());
+		connector.rejected = new CountDownLatch(THREADS);
+		final AtomicInteger successes = new AtomicInteger();
+		Thread[] threads = new Thread[THREADS];
+		for (int i = 0; i < THREADS; i++) {
+			threads[i] = new Thread() {
+				@Override
+				public void run() {
+					if (get().run().isOk()) {
+						successes.incrementAndGet();
+					}
+				}
+			};
+			threads[i].start();
+		}
+		for (Thread thread : threads) {
+			thread.join(5000);
+		}
+		assertEquals(THREADS, successes.get());
+		assertEquals(2, connector.logins.get());
+		assertEquals("token-2", client.getToken().getToken());
+	}
+
+	@Test
+	public void testExpiredTokenIsRenewedBeforeSending() throws CoreException {
+		client.setTokenLifetime(1L);
+		client.login();
+		assertTrue(client.getToken().isExpired(System.currentTimeMillis()));
+		connector.resetRequestsSent();
+		assertTrue(get().run().isOk());
+		List<ServerRequest> requests = connector.getRequestsSent();
+		assertEquals(2, requests.size());
+		assertEquals("POST", requests.get(0).method);
+		assertEquals("GET", requests.get(1).method);
+		assertEquals("token-2", requests.get(1).headers.get("X-Auth-Token"));
+	}
+
+	@Test
+	public void testRejectedTokenShortensLifetime() throws CoreException {
+		client.login();
+		TuleapToken token = client.getToken();
+		assertFalse(token.isExpired(System.currentTimeMillis()));
+		assertEquals(TuleapRestClient.DEFAULT_TOKEN_LIFETIME, client.getTokenLifetime());
+		connector.rejected = new CountDownLatch(0);
+		assertTrue(get().run().isOk());
+		assertEquals(TuleapRestClient.MIN_TOKEN_LIFETIME, client.getTokenLifetime());
+		// The token is not renewed again by a request that has used the old token
+		client.renewToken(token);
+		assertEquals(2, connector.logins.get());
+	}
+
+	@Test
+	public void testTokenExpiration() {
+		TuleapToken token = new TuleapToken();
+		assertFalse(token.isExpired(System.currentTimeMillis()));
+		token.setExpirationTime(1000L);
+		assertFalse(token.isExpired(999L));
+		assertTrue(token.isExpired(1000L));
+		// The expiration is not serialized
+		assertFalse(gson.toJson(token).contains("1000"));
+	}
+
+	private RestOperation get() {
+		return RestOperation.get("/api/v12.3/trackers/1", connector, gson, logger).withAuthenticator(client);
+	}
+
+	@Before
+	public void setUp() {
+		connector = new TokenConnector();
+		gson = TuleapGsonProvider.defaultGson();
+		logger = new TestLogger();
+		RestResourceFactory factory = new RestResourceFactory("v12.3", connector, gson, logger);
+		TaskRepository repository = new TaskRepository(ITuleapConstants.CONNECTOR_KIND, "https://test/url");
+		repository.setCredentials(AuthenticationType.REPOSITORY, new AuthenticationCredentials("admin",
+				"password"), true);
+		client = new TuleapRestClient(factory, gson, repository);
+	}
+
+	/**
+	 * Connector that delivers a new token for each login, and rejects the first token once all the expected
+	 * requests have been received.
+	 */
+	private class TokenConnector extends MockRestConnector {
+
+		private final AtomicInteger logins = new AtomicInteger();
+
+		private volatile CountDownLatch rejected;
+
+		@Override
+		public ServerResponse sendRequest(HttpMethod method) {
+			ServerRequest request = getServerRequest(method);
+			synchronized (requestsSent) {
+				requestsSent.add(request);
+			}
+			if ("POST".equals(request.method)) {
+				TuleapToken token = new TuleapToken();
+				token.setUserId("101");
+				token.setToken("token-" + logins.incrementAndGet());
+				try {
+					// A slow login lets the other requests pile up behind it
+					Thread.sleep(50);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				return new ServerResponse(200, gson.toJson(token), Maps.<String, String> newHashMap());
+			}
+			CountDownLatch latch = rejected;
+			if (latch != null && "token-1".equals(request.headers.get("X-Auth-Token"))) {
+				latch.countDown();
+				try {
+					latch.await(2, TimeUnit.SECONDS);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				return new ServerResponse(ServerResponse.STATUS_UNAUTHORIZED, "",
+						Maps.<String, String> newHashMap());
+			}
+			return new ServerResponse(200, "{}", Maps.<String, String> newHashMap());
+		}
+	}
+}
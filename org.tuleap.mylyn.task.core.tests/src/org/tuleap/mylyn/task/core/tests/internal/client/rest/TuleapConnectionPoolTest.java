@@ -0,0 +1,86 @@
+/*******************************************************************************
+ * Copyright (c) 2014 Obeo.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.tuleap.mylyn.task.core.tests.internal.client.rest;
+
+import org.apache.commons.httpclient.HttpClient;
+import org.junit.After;
+import org.junit.Test;
+import org.tuleap.mylyn.task.core.internal.client.rest.TuleapConnectionPool;
+import org.tuleap.mylyn.task.core.internal.client.rest.TuleapConnectionPoolStatistics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Tests of {@link TuleapConnectionPool}.
+ *
+ * @author <a href="mailto:laurent.delaigue@obeo.fr">Laurent Delaigue</a>
+ */
+public class TuleapConnectionPoolTest {
+
+	/**
+	 * Repositories of the same host must share the same pool.
+	 */
+	@Test
+	public void testPoolSharedByHost() {
+		TuleapConnectionPool pool = TuleapConnectionPool.forUrl("https://tuleap.example.com/tuleap"); //$NON-NLS-1$
+		assertSame(pool, TuleapConnectionPool.forUrl("https://TULEAP.example.com:443/other")); //$NON-NLS-1$
+		assertEquals("https://tuleap.example.com:443", pool.getHostKey()); //$NON-NLS-1$
+	}
+
+	/**
+	 * Different schemes or ports must not share their pools.
+	 */
+	@Test
+	public void testPoolNotSharedAcrossPorts() {
+		TuleapConnectionPool pool = TuleapConnectionPool.forUrl("https://tuleap.example.com"); //$NON-NLS-1$
+		assertNotSame(pool, TuleapConnectionPool.forUrl("https://tuleap.example.com:8443")); //$NON-NLS-1$
+		assertNotSame(pool, TuleapConnectionPool.forUrl("http://tuleap.example.com")); //$NON-NLS-1$
+	}
+
+	/**
+	 * The limits of the pool must survive the configuration of the clients and be reported in the
+	 * statistics.
+	 */
+	@Test
+	public void testStatistics() {
+		TuleapConnectionPool pool = TuleapConnectionPool.forUrl("https://tuleap.example.com"); //$NON-NLS-1$
+		HttpClient client = pool.createHttpClient("test"); //$NON-NLS-1$
+		assertEquals(TuleapConnectionPool.DEFAULT_MAX_CONNECTIONS_PER_ROUTE, client
+				.getHttpConnectionManager().getParams().getDefaultMaxConnectionsPerHost());
+		TuleapConnectionPoolStatistics stats = pool.getStatistics();
+		assertEquals(TuleapConnectionPool.DEFAULT_MAX_CONNECTIONS_PER_ROUTE, stats
+				.getMaxConnectionsPerRoute());
+		assertEquals(TuleapConnectionPool.DEFAULT_MAX_TOTAL_CONNECTIONS, stats.getMaxTotalConnections());
+		assertEquals(0, stats.getOpenConnections());
+		assertEquals(0, stats.getActiveRequests());
+		assertEquals(0L, stats.getExecutedRequests());
+	}
+
+	/**
+	 * After a shutdown, new pools are created.
+	 */
+	@Test
+	public void testShutdownAll() {
+		TuleapConnectionPool pool = TuleapConnectionPool.forUrl("https://tuleap.example.com"); //$NON-NLS-1$
+		TuleapConnectionPool.shutdownAll();
+		assertNotSame(pool, TuleapConnectionPool.forUrl("https://tuleap.example.com")); //$NON-NLS-1$
+	}
+
+	/**
+	 * Releases the pools created by the tests.
+	 */
+	@After
+	public void tearDown() {
+		TuleapConnectionPool.shutdownAll();
+	}
+}
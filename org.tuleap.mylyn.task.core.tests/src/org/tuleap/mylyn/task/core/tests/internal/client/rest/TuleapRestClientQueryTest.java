@@ -28,6 +28,7 @@ import org.junit.runner.RunWith;
 import org.junit.runners.Parameterized;
 import org.junit.runners.Parameterized.Parameters;
 import org.tuleap.mylyn.task.core.internal.client.ITuleapQueryConstants;
+import org.tuleap.mylyn.task.core.internal.client.rest.RestResource;
 import org.tuleap.mylyn.task.core.internal.client.rest.RestResourceFactory;
 import org.tuleap.mylyn.task.core.internal.client.rest.ServerResponse;
 import org.tuleap.mylyn.task.core.internal.client.rest.TuleapRestClient;
@@ -48,6 +49,7 @@ import org.tuleap.mylyn.task.core.tests.internal.TestLogger;
 import org.tuleap.mylyn.task.core.tests.internal.client.rest.MockRestConnector.ServerRequest;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 import static org.tuleap.mylyn.task.core.tests.internal.client.rest.TuleapRestClientTest.READ_CREATE_UPDATE;
@@ -128,6 +130,27 @@ public class TuleapRestClientQueryTest {
 		assertTrue(qs.indexOf("query=" + expectedJson) >= 0);
 	}
 
+	@Test
+	public void testCount() throws Exception {
+		IRepositoryQuery query = new RepositoryQuery("test", "handle");
+		query.setAttribute(ITuleapQueryConstants.QUERY_KIND, ITuleapQueryConstants.QUERY_KIND_CUSTOM);
+		query.setAttribute(ITuleapQueryConstants.QUERY_CUSTOM_CRITERIA, queryJson);
+
+		connector.setResponse(new ServerResponse(200, "[]", Collections.singletonMap(
+				RestResource.HEADER_X_PAGINATION_SIZE, "12")));
+
+		assertEquals(12, client.countArtifactsFromQuery(query, tracker, null));
+
+		List<ServerRequest> requestsSent = connector.getRequestsSent();
+		assertEquals(1, requestsSent.size());
+		ServerRequest req = requestsSent.get(0);
+		assertEquals("/api/v12.3/trackers/111/artifacts", req.url);
+		String qs = URLDecoder.decode(req.queryString, "utf-8");
+		assertFalse(qs.indexOf("values=all") >= 0);
+		assertTrue(qs.indexOf("limit=1") >= 0);
+		assertTrue(qs.indexOf("query=" + expectedJson) >= 0);
+	}
+
 	// CHECKSTYLE:OFF inner blocks are useful here and too many instructions doen't matter
 	@Parameters(name = "{index}: {0}")
 	public static List<Object[]> data() {
@@ -13,6 +13,7 @@ package org.tuleap.mylyn.task.core.tests.internal.client.rest;
 import com.google.common.collect.Maps;
 import com.google.gson.Gson;
 
+import java.io.Closeable;
 import java.text.ParseException;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -49,7 +50,10 @@ import org.tuleap.mylyn.task.core.tests.internal.client.rest.MockRestConnector.S
 import org.tuleap.mylyn.task.core.tests.internal.parser.ParserUtil;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 /**
  * Tests of {@link TuleapRestClient}.
@@ -164,6 +168,24 @@ public class TuleapRestClientTest {
 		assertEquals("GET", request.method); //$NON-NLS-1$
 	}
 
+	@Test
+	public void testConnectionLostWhileRetrievingProjects() throws Exception {
+		Map<String, String> respHeaders = Maps.newHashMap();
+		connector.setResponse(LostConnectionStream.response(respHeaders,
+				"[{\"id\":1,\"label\":\"Project 1\"},{\"id\":2,", new Closeable() { //$NON-NLS-1$
+					@Override
+					public void close() {
+						// Nothing to release
+					}
+				}));
+		try {
+			client.getProjects(null);
+			fail("CoreException expected"); //$NON-NLS-1$
+		} catch (CoreException e) {
+			assertEquals(IStatus.ERROR, e.getStatus().getSeverity());
+		}
+	}
+
 	@Test
 	public void testRetrieveProjectTrackers() throws CoreException, ParseException {
 		String jsonTrackers = ParserUtil.loadFile("/trackers/trackers_part_1.json");
@@ -200,6 +222,80 @@ public class TuleapRestClientTest {
 		assertEquals("GET", request.method); //$NON-NLS-1$
 	}
 
+	@Test
+	public void testArtifactListResumesWithinTheRetrieval() throws CoreException {
+		MockListRestConnector listConnector = new MockListRestConnector();
+		listConnector.addServerResponse(artifactPage(1)).addServerResponse(
+				new ServerResponse(ServerResponse.STATUS_INTERNAL_SERVER_ERROR, "", headers())) //$NON-NLS-1$
+				.addServerResponse(artifactPage(2));
+		List<TuleapArtifact> artifacts = listClient(listConnector).getTrackerReportArtifacts(10, null);
+
+		assertEquals(2, artifacts.size());
+		assertEquals(2, artifacts.get(1).getId().intValue());
+		List<ServerRequest> requestsSent = listConnector.getRequestsSent();
+		assertEquals(3, requestsSent.size());
+		// Only the page that failed is retrieved again
+		assertTrue(requestsSent.get(2).queryString.contains("offset=1")); //$NON-NLS-1$
+	}
+
+	@Test
+	public void testArtifactListIsNotResumedByTheNextRetrieval() throws CoreException {
+		MockListRestConnector listConnector = new MockListRestConnector();
+		listConnector.addServerResponse(artifactPage(1));
+		for (int i = 0; i < 3; i++) {
+			listConnector.addServerResponse(new ServerResponse(ServerResponse.STATUS_INTERNAL_SERVER_ERROR,
+					"", headers())); //$NON-NLS-1$
+		}
+		TuleapRestClient listClient = listClient(listConnector);
+		try {
+			listClient.getTrackerReportArtifacts(10, null);
+			fail("CoreException expected"); //$NON-NLS-1$
+		} catch (CoreException e) {
+			// The page still fails after the last resumption
+		}
+		assertEquals(4, listConnector.getRequestsSent().size());
+
+		// The artifacts may have been modified since, they are all retrieved again
+		listConnector.addServerResponse(artifactPage(1)).addServerResponse(artifactPage(2));
+		List<TuleapArtifact> artifacts = listClient.getTrackerReportArtifacts(10, null);
+		assertEquals(2, artifacts.size());
+		List<ServerRequest> requestsSent = listConnector.getRequestsSent();
+		assertEquals(6, requestsSent.size());
+		assertFalse(requestsSent.get(4).queryString.contains("offset=1")); //$NON-NLS-1$
+	}
+
+	@Test
+	public void testCountTrackerReportArtifacts() throws CoreException {
+		Map<String, String> respHeaders = Maps.newHashMap();
+		respHeaders.put(RestResource.ALLOW, "OPTIONS,GET"); //$NON-NLS-1$
+		respHeaders.put(RestResource.ACCESS_CONTROL_ALLOW_METHODS, "OPTIONS,GET"); //$NON-NLS-1$
+		respHeaders.put(RestResource.HEADER_X_PAGINATION_SIZE, "42"); //$NON-NLS-1$
+		ServerResponse response = new ServerResponse(ServerResponse.STATUS_OK, "[{\"id\":1}]", respHeaders);
+		connector.setResponse(response);
+		assertEquals(42, client.countTrackerReportArtifacts(10, null));
+
+		// Only one element is asked for, without its values
+		List<ServerRequest> requestsSent = connector.getRequestsSent();
+		assertEquals(1, requestsSent.size());
+		ServerRequest request = requestsSent.get(0);
+		assertEquals("/api/v12.3/tracker_reports/10/artifacts", request.url); //$NON-NLS-1$
+		assertEquals("GET", request.method); //$NON-NLS-1$
+		assertEquals("limit=1", request.queryString); //$NON-NLS-1$
+
+		// The count is kept for a while
+		assertEquals(42, client.countTrackerReportArtifacts(10, null));
+		assertEquals(1, connector.getRequestsSent().size());
+	}
+
+	@Test(expected = CoreException.class)
+	public void testCountWithoutPagination() throws CoreException {
+		Map<String, String> respHeaders = Maps.newHashMap();
+		respHeaders.put(RestResource.ALLOW, "OPTIONS,GET"); //$NON-NLS-1$
+		respHeaders.put(RestResource.ACCESS_CONTROL_ALLOW_METHODS, "OPTIONS,GET"); //$NON-NLS-1$
+		connector.setResponse(new ServerResponse(ServerResponse.STATUS_OK, "[]", respHeaders));
+		client.countTrackerReportArtifacts(11, null);
+	}
+
 	@Test
 	public void testRetrieveArtifact() throws CoreException, ParseException {
 		String artifact = ParserUtil.loadFile("/artifacts/artifact-0.json");
@@ -543,6 +639,28 @@ public class TuleapRestClientTest {
 		assertEquals("/some/uri", client.getToken().getUri());
 	}
 
+	private TuleapRestClient listClient(MockListRestConnector listConnector) {
+		RestResourceFactory factory = new RestResourceFactory(apiVersion, listConnector, gson, new TestLogger());
+		listConnector.setResourceFactory(factory);
+		return new TuleapRestClient(factory, gson, repository);
+	}
+
+	/**
+	 * Creates a page of a list of 2 artifacts, 1 artifact per page.
+	 */
+	private ServerResponse artifactPage(int id) {
+		Map<String, String> respHeaders = headers();
+		respHeaders.put(RestResource.HEADER_X_PAGINATION_SIZE, "2"); //$NON-NLS-1$
+		respHeaders.put(RestResource.HEADER_X_PAGINATION_LIMIT, "1"); //$NON-NLS-1$
+		respHeaders.put(RestResource.HEADER_X_PAGINATION_LIMIT_MAX, "1"); //$NON-NLS-1$
+		String body = "[{\"id\":" + id + "}]"; //$NON-NLS-1$ //$NON-NLS-2$
+		return new ServerResponse(ServerResponse.STATUS_OK, body, respHeaders);
+	}
+
+	private Map<String, String> headers() {
+		return Maps.newHashMap();
+	}
+
 	@Before
 	public void setUp() {
 		connector = new MockRestConnector();
@@ -0,0 +1,92 @@
+/*******************************************************************************
+ * Copyright (c) 2014 Obeo.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.tuleap.mylyn.task.core.tests.internal.client.rest;
+
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ListenableFuture;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.mylyn.commons.net.AbstractWebLocation;
+import org.eclipse.mylyn.tasks.core.TaskRepository;
+import org.eclipse.mylyn.tasks.core.TaskRepositoryLocationFactory;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.tuleap.mylyn.task.core.internal.client.rest.TuleapConnectionPool;
+import org.tuleap.mylyn.task.core.internal.client.rest.TuleapRestConnector;
+import org.tuleap.mylyn.task.core.tests.internal.TestLogger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests of {@link TuleapRestConnector} that do not need a server.
+ *
+ * @author <a href="mailto:laurent.delaigue@obeo.fr">Laurent Delaigue</a>
+ */
+public class TuleapRestConnectorTest {
+
+	private TuleapRestConnector connector;
+
+	/**
+	 * Asynchronous tasks must never exceed the limit of requests in flight.
+	 */
+	@Test
+	public void testMaxInFlightRequests() throws Exception {
+		connector.setMaxInFlightRequests(2);
+		final AtomicInteger running = new AtomicInteger();
+		final AtomicInteger maxRunning = new AtomicInteger();
+		final CountDownLatch started = new CountDownLatch(2);
+		final CountDownLatch release = new CountDownLatch(1);
+		List<ListenableFuture<Integer>> futures = Lists.newArrayList();
+		for (int i = 0; i < 6; i++) {
+			final int index = i;
+			futures.add(connector.submit(new Callable<Integer>() {
+				@Override
+				public Integer call() throws Exception {
+					int current = running.incrementAndGet();
+					synchronized (maxRunning) {
+						maxRunning.set(Math.max(maxRunning.get(), current));
+					}
+					started.countDown();
+					release.await(5, TimeUnit.SECONDS);
+					running.decrementAndGet();
+					return Integer.valueOf(index);
+				}
+			}));
+		}
+		assertTrue(started.await(5, TimeUnit.SECONDS));
+		// The other tasks wait for a slot
+		assertEquals(2, running.get());
+		release.countDown();
+		for (int i = 0; i < 6; i++) {
+			assertEquals(Integer.valueOf(i), futures.get(i).get(5, TimeUnit.SECONDS));
+		}
+		assertTrue(maxRunning.get() <= 2);
+	}
+
+	@Before
+	public void setUp() {
+		TaskRepository repository = new TaskRepository("tuleap", "https://tuleap.example.com");
+		AbstractWebLocation location = new TaskRepositoryLocationFactory().createWebLocation(repository);
+		connector = new TuleapRestConnector(location, new TestLogger());
+	}
+
+	@After
+	public void tearDown() {
+		TuleapConnectionPool.shutdownAll();
+	}
+}
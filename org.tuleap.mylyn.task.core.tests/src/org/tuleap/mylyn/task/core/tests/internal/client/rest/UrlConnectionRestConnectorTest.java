@@ -0,0 +1,318 @@
+/*******************************************************************************
+ * Copyright (c) 2014 Obeo.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.tuleap.mylyn.task.core.tests.internal.client.rest;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Proxy;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.commons.httpclient.methods.DeleteMethod;
+import org.apache.commons.httpclient.methods.GetMethod;
+import org.apache.commons.httpclient.methods.PutMethod;
+import org.apache.commons.httpclient.methods.StringRequestEntity;
+import org.eclipse.mylyn.commons.net.AbstractWebLocation;
+import org.eclipse.mylyn.commons.net.AuthenticationCredentials;
+import org.eclipse.mylyn.commons.net.AuthenticationType;
+import org.eclipse.mylyn.tasks.core.TaskRepository;
+import org.eclipse.mylyn.tasks.core.TaskRepositoryLocationFactory;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.tuleap.mylyn.task.core.internal.client.rest.RestMetrics;
+import org.tuleap.mylyn.task.core.internal.client.rest.ServerResponse;
+import org.tuleap.mylyn.task.core.internal.client.rest.UrlConnectionRestConnector;
+import org.tuleap.mylyn.task.core.tests.internal.TestLogger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests of {@link UrlConnectionRestConnector} against a local HTTP server.
+ *
+ * @author <a href="mailto:laurent.delaigue@obeo.fr">Laurent Delaigue</a>
+ */
+public class UrlConnectionRestConnectorTest {
+
+	private EchoServer server;
+
+	private UrlConnectionRestConnector connector;
+
+	@Test
+	public void testGetCompressedResponse() {
+		GetMethod get = new GetMethod("/api/v1/projects");
+		get.setQueryString("limit=10&offset=0");
+		ServerResponse response = connector.sendRequest(get);
+		assertEquals(200, response.getStatus());
+		assertEquals("GET /api/v1/projects?limit=10&offset=0 application/json ", response.getBody());
+		// The server has changed the case of the header
+		assertEquals("42", response.getHeaders().get("X-PAGINATION-SIZE"));
+	}
+
+	@Test
+	public void testPutBody() throws Exception {
+		PutMethod put = new PutMethod("/api/v1/artifacts/1");
+		put.setRequestEntity(new StringRequestEntity("{\"a\":\"é\"}", "application/json", "UTF-8"));
+		ServerResponse response = connector.sendRequest(put);
+		assertEquals(200, response.getStatus());
+		assertEquals("PUT /api/v1/artifacts/1 application/json; charset=UTF-8 {\"a\":\"é\"}", response
+				.getBody());
+	}
+
+	@Test
+	public void testErrorBody() {
+		ServerResponse response = connector.sendRequest(new DeleteMethod("/api/v1/error"));
+		assertEquals(404, response.getStatus());
+		assertEquals("DELETE /api/v1/error application/json ", response.getBody());
+	}
+
+	@Test
+	public void testStreamingRequestIsRecordedWhenClosed() throws Exception {
+		RestMetrics metrics = new RestMetrics();
+		connector.setMetrics(metrics);
+		ServerResponse response = connector.sendStreamingRequest(new GetMethod("/api/v1/trackers"));
+		assertEquals(200, response.getStatus());
+		assertEquals(0, metrics.getStatistics().size());
+		InputStream in = response.getInputStream();
+		ByteArrayOutputStream bos = new ByteArrayOutputStream();
+		int b = in.read();
+		while (b >= 0) {
+			bos.write(b);
+			b = in.read();
+		}
+		response.close();
+		assertEquals("GET /api/v1/trackers application/json ", bos.toString("UTF-8"));
+		assertEquals(1L, metrics.getStatistics().get(0).getRequestCount());
+	}
+
+	@Test
+	public void testConnectionRefused() throws Exception {
+		server.close();
+		ServerResponse response = connector.sendRequest(new GetMethod("/api/v1/projects"));
+		assertEquals(UrlConnectionRestConnector.IO_ERROR_STATUS_CODE, response.getStatus());
+	}
+
+	@Test
+	public void testHttpCredentials() {
+		AbstractWebLocation location = location(AuthenticationType.HTTP);
+		assertTrue(UrlConnectionRestConnector.supports(location));
+		connector = new UrlConnectionRestConnector(location, new TestLogger()) {
+			@Override
+			protected boolean isDebugMode() {
+				return false;
+			}
+		};
+		ServerResponse response = connector.sendRequest(new GetMethod("/api/v1/projects"));
+		// "jdoe:secret" encoded in base 64
+		assertEquals("GET /api/v1/projects application/json Basic amRvZTpzZWNyZXQ= ", response.getBody());
+	}
+
+	@Test
+	public void testProxyCredentialsAreNotSupported() {
+		assertFalse(UrlConnectionRestConnector.supports(location(AuthenticationType.PROXY)));
+	}
+
+	private AbstractWebLocation location(final AuthenticationType credentialsType) {
+		return new AbstractWebLocation("http://127.0.0.1:" + server.getPort()) {
+			@Override
+			public AuthenticationCredentials getCredentials(AuthenticationType type) {
+				if (type == credentialsType) {
+					return new AuthenticationCredentials("jdoe", "secret");
+				}
+				return null;
+			}
+
+			@Override
+			public Proxy getProxyForHost(String host, String proxyType) {
+				return null;
+			}
+		};
+	}
+
+	@Before
+	public void setUp() throws IOException {
+		server = new EchoServer();
+		TaskRepository repository = new TaskRepository("tuleap", "http://127.0.0.1:" + server.getPort());
+		AbstractWebLocation location = new TaskRepositoryLocationFactory().createWebLocation(repository);
+		connector = new UrlConnectionRestConnector(location, new TestLogger()) {
+			@Override
+			protected boolean isDebugMode() {
+				return false;
+			}
+		};
+	}
+
+	@After
+	public void tearDown() {
+		server.close();
+	}
+
+	/**
+	 * Local HTTP/1.1 server, on a plain server socket, that answers with the method, the URI, the content
+	 * type, the authorization if any and the body of the request, compressed with gzip. The path
+	 * /api/v1/error answers with a 404 status. The connections are kept alive, and the request bodies must
+	 * have a Content-Length.
+	 */
+	private static final class EchoServer implements Runnable {
+
+		private final ServerSocket serverSocket;
+
+		private final List<Socket> sockets = new ArrayList<Socket>();
+
+		private EchoServer() throws IOException {
+			serverSocket = new ServerSocket(0, 0, InetAddress.getByName("127.0.0.1"));
+			Thread thread = new Thread(this, "EchoServer");
+			thread.setDaemon(true);
+			thread.start();
+		}
+
+		private int getPort() {
+			return serverSocket.getLocalPort();
+		}
+
+		@Override
+		public void run() {
+			try {
+				while (true) {
+					final Socket socket = serverSocket.accept();
+					synchronized (sockets) {
+						sockets.add(socket);
+					}
+					Thread thread = new Thread(new Runnable() {
+						@Override
+						public void run() {
+							serve(socket);
+						}
+					}, "EchoServer connection");
+					thread.setDaemon(true);
+					thread.start();
+				}
+			} catch (IOException e) {
+				// The server has been closed
+			}
+		}
+
+		private void serve(Socket socket) {
+			try {
+				InputStream in = new BufferedInputStream(socket.getInputStream());
+				OutputStream out = socket.getOutputStream();
+				String requestLine = readLine(in);
+				while (requestLine != null && requestLine.length() > 0) {
+					Map<String, String> headers = new TreeMap<String, String>(String.CASE_INSENSITIVE_ORDER);
+					String line = readLine(in);
+					while (line != null && line.length() > 0) {
+						int colon = line.indexOf(':');
+						headers.put(line.substring(0, colon).trim(), line.substring(colon + 1).trim());
+						line = readLine(in);
+					}
+					respond(out, requestLine, headers, readBody(in, headers.get("Content-Length")));
+					requestLine = readLine(in);
+				}
+			} catch (IOException e) {
+				// The connection has been closed
+			} finally {
+				try {
+					socket.close();
+				} catch (IOException e) {
+					// Already closed
+				}
+			}
+		}
+
+		private void respond(OutputStream out, String requestLine, Map<String, String> headers,
+				byte[] body) throws IOException {
+			String[] parts = requestLine.split(" ");
+			ByteArrayOutputStream echo = new ByteArrayOutputStream();
+			echo.write((parts[0] + ' ' + parts[1] + ' ' + headers.get("Content-Type") + ' ')
+					.getBytes("UTF-8"));
+			String authorization = headers.get("Authorization");
+			if (authorization != null) {
+				echo.write((authorization + ' ').getBytes("UTF-8"));
+			}
+			echo.write(body);
+			ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+			GZIPOutputStream gzos = new GZIPOutputStream(compressed);
+			gzos.write(echo.toByteArray());
+			gzos.close();
+			String status = "200 OK";
+			if (parts[1].startsWith("/api/v1/error")) {
+				status = "404 Not Found";
+			}
+			String head = "HTTP/1.1 " + status + "\r\n" //
+					+ "Content-Type: application/json; charset=UTF-8\r\n" //
+					+ "Content-Encoding: gzip\r\n" //
+					+ "X-Pagination-Size: 42\r\n" //
+					+ "Content-Length: " + compressed.size() + "\r\n\r\n";
+			out.write(head.getBytes("ISO-8859-1"));
+			out.write(compressed.toByteArray());
+			out.flush();
+		}
+
+		private byte[] readBody(InputStream in, String contentLength) throws IOException {
+			ByteArrayOutputStream body = new ByteArrayOutputStream();
+			if (contentLength != null) {
+				int remaining = Integer.parseInt(contentLength);
+				while (remaining > 0) {
+					int b = in.read();
+					if (b < 0) {
+						throw new IOException("Truncated body");
+					}
+					body.write(b);
+					remaining--;
+				}
+			}
+			return body.toByteArray();
+		}
+
+		private String readLine(InputStream in) throws IOException {
+			ByteArrayOutputStream line = new ByteArrayOutputStream();
+			int b = in.read();
+			if (b < 0) {
+				return null;
+			}
+			while (b >= 0 && b != '\n') {
+				if (b != '\r') {
+					line.write(b);
+				}
+				b = in.read();
+			}
+			return line.toString("ISO-8859-1");
+		}
+
+		private void close() {
+			try {
+				serverSocket.close();
+			} catch (IOException e) {
+				// Already closed
+			}
+			synchronized (sockets) {
+				for (Socket socket : sockets) {
+					try {
+						socket.close();
+					} catch (IOException e) {
+						// Already closed
+					}
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,132 @@
+/*******************************************************************************
+ * Copyright (c) 2014 Obeo.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.tuleap.mylyn.task.core.tests.internal.client.rest;
+
+import com.google.common.collect.Maps;
+import com.google.gson.Gson;
+
+import java.io.File;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.tuleap.mylyn.task.core.internal.client.rest.RestOperation;
+import org.tuleap.mylyn.task.core.internal.client.rest.ServerResponse;
+import org.tuleap.mylyn.task.core.internal.client.rest.ValidationCache;
+import org.tuleap.mylyn.task.core.tests.internal.TestLogger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Tests of {@link ValidationCache} and of its use by {@link RestOperation}.
+ *
+ * @author <a href="mailto:laurent.delaigue@obeo.fr">Laurent Delaigue</a>
+ */
+public class ValidationCacheTest {
+
+	private MockRestConnector connector;
+
+	private TestLogger logger;
+
+	private Gson gson;
+
+	@Test
+	public void testResponseWithoutValidatorIsNotCached() {
+		ValidationCache cache = new ValidationCache();
+		cache.put("/api/trackers/1", new ServerResponse(200, "{}", Maps.<String, String> newHashMap()));
+		assertEquals(0, cache.size());
+		cache.put("/api/trackers/1", response("{}", "\"v1\""));
+		assertEquals(1, cache.size());
+		assertEquals("\"v1\"", cache.get("/api/trackers/1").getEtag());
+	}
+
+	@Test
+	public void testEvictionByNumberOfEntries() {
+		ValidationCache cache = new ValidationCache(2, 1000);
+		cache.put("a", response("{}", "1"));
+		cache.put("b", response("{}", "2"));
+		// a becomes the most recently used
+		cache.get("a");
+		cache.put("c", response("{}", "3"));
+		assertEquals(2, cache.size());
+		assertNotNull(cache.get("a"));
+		assertNull(cache.get("b"));
+		assertNotNull(cache.get("c"));
+	}
+
+	@Test
+	public void testEvictionBySize() {
+		ValidationCache cache = new ValidationCache(10, 10);
+		cache.put("a", response("12345", "1"));
+		cache.put("b", response("12345", "2"));
+		assertEquals(2, cache.size());
+		cache.put("c", response("1", "3"));
+		assertNull(cache.get("a"));
+		// Bodies larger than the cache are never cached
+		cache.put("d", response("12345678901", "4"));
+		assertNull(cache.get("d"));
+	}
+
+	@Test
+	public void testSaveAndLoad() throws Exception {
+		File file = File.createTempFile("validation", ".cache");
+		file.deleteOnExit();
+		ValidationCache cache = new ValidationCache();
+		cache.put("/api/projects?limit=50", response("[{\"id\":1}]", "\"p1\""));
+		cache.save(file);
+		ValidationCache loaded = ValidationCache.load(file);
+		assertEquals(1, loaded.size());
+		assertEquals("[{\"id\":1}]", loaded.get("/api/projects?limit=50").toResponse().getBody());
+		assertEquals(0, ValidationCache.load(new File(file.getParentFile(), "does-not-exist")).size());
+	}
+
+	/**
+	 * The second GET must be conditional and the cached body must be replayed on 304.
+	 */
+	@Test
+	public void testNotModifiedResponseIsReplayed() {
+		ValidationCache cache = new ValidationCache();
+		connector.setResponse(response("{\"id\":12}", "\"t12\""));
+		ServerResponse first = RestOperation.get("/api/trackers/12", connector, gson, logger)
+				.withValidationCache(cache).run();
+		assertEquals("{\"id\":12}", first.getBody());
+		assertFalse(connector.getRequestsSent().get(0).headers.containsKey("If-None-Match"));
+
+		connector.setResponse(new ServerResponse(ServerResponse.STATUS_NOT_MODIFIED, "", Maps
+				.<String, String> newHashMap()));
+		ServerResponse second = RestOperation.get("/api/trackers/12", connector, gson, logger)
+				.withValidationCache(cache).run();
+		assertEquals("\"t12\"", connector.getRequestsSent().get(1).headers.get("If-None-Match"));
+		assertEquals(ServerResponse.STATUS_OK, second.getStatus());
+		assertEquals("{\"id\":12}", second.getBody());
+
+		// Another query string is another entry
+		RestOperation.get("/api/trackers/12", connector, gson, logger).withQueryParameter("limit", "10")
+				.withValidationCache(cache).run();
+		assertFalse(connector.getRequestsSent().get(2).headers.containsKey("If-None-Match"));
+	}
+
+	private ServerResponse response(String body, String etag) {
+		Map<String, String> headers = Maps.newHashMap();
+		headers.put("Etag", etag);
+		return new ServerResponse(ServerResponse.STATUS_OK, body, headers);
+	}
+
+	@Before
+	public void setUp() {
+		connector = new MockRestConnector();
+		logger = new TestLogger();
+		gson = new Gson();
+	}
+}
@@ -0,0 +1,108 @@
+/*******************************************************************************
+ * Copyright (c) 2014 Obeo.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.tuleap.mylyn.task.core.tests.internal.parser;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.TimeZone;
+
+import org.junit.Test;
+import org.tuleap.mylyn.task.core.internal.parser.Iso8601Codec;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests of {@link Iso8601Codec}.
+ *
+ * @author <a href="mailto:laurent.delaigue@obeo.fr">Laurent Delaigue</a>
+ */
+public class Iso8601CodecTest {
+
+	@Test
+	public void testParseTimestampsLikeSimpleDateFormat() throws ParseException {
+		SimpleDateFormat utc = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'");
+		utc.setTimeZone(TimeZone.getTimeZone("UTC"));
+		SimpleDateFormat offset = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ssZ");
+		// Every 37 hours and 13 seconds from 1899 to 2101, to go through leap years and month ends
+		long step = 37L * 3600L * 1000L + 13001L;
+		for (long time = -2240524800000L; time < 4133980800000L; time += step) {
+			Date date = new Date(time);
+			String text = utc.format(date);
+			assertEquals(text, date, Iso8601Codec.parse(text));
+			String withoutMillis = text.substring(0, 19);
+			Date expected = new Date(time - time % 1000L - (time % 1000L < 0 ? 1000L : 0L));
+			assertEquals(text, expected, Iso8601Codec.parse(withoutMillis + "Z"));
+			assertEquals(text, offset.parse(withoutMillis + "-0530"), Iso8601Codec.parse(withoutMillis
+					+ "-05:30"));
+			assertEquals(text, offset.parse(withoutMillis + "+1100"), Iso8601Codec.parse(withoutMillis
+					+ ".000+11:00"));
+		}
+	}
+
+	@Test
+	public void testParseDateLikeSimpleDateFormat() throws ParseException {
+		SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd");
+		String[] dates = {"1900-01-01", "1970-01-01", "2000-02-29", "2013-03-31", "2013-10-27", "2014-02-28",
+				"2100-12-31", };
+		for (String date : dates) {
+			assertEquals(date, format.parse(date), Iso8601Codec.parse(date));
+		}
+	}
+
+	@Test
+	public void testParseFractionOfSecond() throws ParseException {
+		assertEquals(new Date(1388481255500L), Iso8601Codec.parse("2013-12-31T09:14:15.5Z"));
+		assertEquals(new Date(1388481255123L), Iso8601Codec.parse("2013-12-31T09:14:15.123456+00:00"));
+	}
+
+	@Test
+	public void testFormat() throws ParseException {
+		SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd");
+		long step = 11L * 3600L * 1000L + 7L;
+		for (long time = -2240524800000L; time < 4133980800000L; time += step) {
+			Date date = new Date(time);
+			assertEquals(format.format(date), Iso8601Codec.formatDate(date));
+			String timestamp = Iso8601Codec.formatTimestamp(date);
+			assertEquals(date, Iso8601Codec.parse(timestamp));
+		}
+		assertEquals("2013-12-31T09:14:15.005Z", Iso8601Codec.formatTimestamp(new Date(1388481255005L)));
+	}
+
+	@Test
+	public void testCachedTimestampsAreNotShared() throws ParseException {
+		Date first = Iso8601Codec.parse("2014-02-03T16:04:24+01:00");
+		Date second = Iso8601Codec.parse("2014-02-03T16:04:24+01:00");
+		assertEquals(first, second);
+		assertNotSame(first, second);
+		first.setTime(0L);
+		assertEquals(new Date(1391439864000L), Iso8601Codec.parse("2014-02-03T16:04:24+01:00"));
+	}
+
+	@Test
+	public void testInvalidDates() {
+		String[] invalid = {"", "2014", "2014-2-28", "2014-02-30", "2013-02-29", "2014-13-01", "2014/02/28",
+				"2014-02-28T", "2014-02-28T09:14", "2014-02-28T24:00:00Z", "2014-02-28T09:60:00Z",
+				"2014-02-28T09:14:15", "2014-02-28T09:14:15.Z", "2014-02-28T09:14:15+0",
+				"2014-02-28T09:14:15+01:", "2014-02-28T09:14:15+01:00Z", "2014-02-28T09:14:15ZZ",
+				"2014-02-28T09:14:15 +01:00", };
+		for (String text : invalid) {
+			try {
+				Iso8601Codec.parse(text);
+				fail(text + " should not be parsed");
+			} catch (ParseException e) {
+				// Expected
+			}
+		}
+	}
+}
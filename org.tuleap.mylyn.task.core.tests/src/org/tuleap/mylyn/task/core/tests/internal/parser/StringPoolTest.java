@@ -0,0 +1,127 @@
+/*******************************************************************************
+ * Copyright (c) 2014 Obeo.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.tuleap.mylyn.task.core.tests.internal.parser;
+
+import com.google.gson.Gson;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.tuleap.mylyn.task.core.internal.model.config.TuleapServer;
+import org.tuleap.mylyn.task.core.internal.model.config.TuleapTracker;
+import org.tuleap.mylyn.task.core.internal.model.config.TuleapUser;
+import org.tuleap.mylyn.task.core.internal.model.config.field.AbstractTuleapSelectBox;
+import org.tuleap.mylyn.task.core.internal.model.data.LiteralFieldValue;
+import org.tuleap.mylyn.task.core.internal.model.data.TuleapArtifact;
+import org.tuleap.mylyn.task.core.internal.parser.TuleapGsonProvider;
+import org.tuleap.mylyn.task.core.internal.util.StringPool;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Tests of the sharing of strings through a {@link StringPool}.
+ *
+ * @author <a href="mailto:laurent.delaigue@obeo.fr">Laurent Delaigue</a>
+ */
+public class StringPoolTest {
+
+	private static final String ARTIFACT = "{\"id\":%d,\"label\":\"Some label\",\"uri\":\"artifacts/%d\","
+			+ "\"values\":[{\"field_id\":1,\"value\":\"In progress\"}]}";
+
+	private static final String USER = "{\"id\":%d,\"username\":\"jdoe\",\"real_name\":\"John Doe\","
+			+ "\"email\":\"jdoe@example.com\",\"ldap_id\":\"\"}";
+
+	private StringPool pool;
+
+	@Test
+	public void testGet() {
+		StringPool shortStrings = new StringPool(8);
+		String a = shortStrings.get(new String("abc"));
+		assertSame(a, shortStrings.get(new String("abc")));
+		assertEquals("abc", a);
+		assertNull(shortStrings.get(null));
+		String tooLong = new String("abcdefghi");
+		assertSame(tooLong, shortStrings.get(tooLong));
+	}
+
+	@Test
+	public void testArtifactsShareTheirStrings() {
+		Gson gson = TuleapGsonProvider.defaultGson(pool);
+		TuleapArtifact first = gson.fromJson(String.format(ARTIFACT, 1, 1), TuleapArtifact.class);
+		TuleapArtifact second = gson.fromJson(String.format(ARTIFACT, 2, 2), TuleapArtifact.class);
+		assertSame(first.getLabel(), second.getLabel());
+		assertSame(((LiteralFieldValue)first.getFieldValue(1)).getFieldValue(), ((LiteralFieldValue)second
+				.getFieldValue(1)).getFieldValue());
+		assertEquals("artifacts/2", second.getUri());
+
+		// Without pool, the strings are not shared
+		gson = TuleapGsonProvider.defaultGson();
+		first = gson.fromJson(String.format(ARTIFACT, 1, 1), TuleapArtifact.class);
+		second = gson.fromJson(String.format(ARTIFACT, 2, 2), TuleapArtifact.class);
+		assertNotSame(first.getLabel(), second.getLabel());
+	}
+
+	@Test
+	public void testUsersShareTheirStrings() {
+		Gson gson = TuleapGsonProvider.defaultGson(pool);
+		TuleapUser first = gson.fromJson(String.format(USER, 1), TuleapUser.class);
+		TuleapUser second = gson.fromJson(String.format(USER, 2), TuleapUser.class);
+		assertSame(first.getUserName(), second.getUserName());
+		assertSame(first.getEmail(), second.getEmail());
+		assertSame(first.getRealName(), second.getRealName());
+		assertEquals(2, second.getId());
+	}
+
+	@Test
+	public void testTrackersShareTheirStrings() {
+		Gson gson = TuleapGsonProvider.defaultGson(pool);
+		String json = ParserUtil.loadFile("/trackers/tracker-5.json");
+		TuleapTracker first = gson.fromJson(json, TuleapTracker.class);
+		TuleapTracker second = gson.fromJson(json, TuleapTracker.class);
+		assertSame(first.getUri(), second.getUri());
+		AbstractTuleapSelectBox status = first.getStatusField();
+		AbstractTuleapSelectBox otherStatus = second.getStatusField();
+		assertSame(status.getLabel(), otherStatus.getLabel());
+		assertSame(status.getItems().iterator().next().getLabel(), otherStatus.getItems().iterator().next()
+				.getLabel());
+	}
+
+	@Test
+	public void testServerSharesTheStringsOfItsUsers() {
+		String url = "https://tuleap.example.com/string-pool-test";
+		TuleapServer server = new TuleapServer(url);
+		assertSame(StringPool.forUrl(url), server.getStringPool());
+		TuleapUser first = new TuleapUser(new String("jdoe"), new String("John Doe"), 1, new String(
+				"jdoe@example.com"), null);
+		server.register(first);
+		TuleapUser second = new TuleapUser(new String("jdoe"), new String("John Doe"), 2, new String(
+				"jdoe@example.com"), null);
+		server.register(second);
+		assertSame(server.getUser(1).getUserName(), server.getUser(2).getUserName());
+		assertSame(server.getUser(1).getEmail(), server.getUser(2).getEmail());
+		assertEquals(2, server.getUser(2).getId());
+
+		// Users whose strings are already pooled are registered as they are
+		TuleapUser pooled = server.getUser(1);
+		TuleapUser third = new TuleapUser(pooled.getUserName(), pooled.getRealName(), 3, pooled.getEmail(),
+				null);
+		server.register(third);
+		assertSame(third, server.getUser(3));
+		StringPool.resetAll();
+	}
+
+	@Before
+	public void setUp() {
+		pool = new StringPool(StringPool.DEFAULT_MAX_LENGTH);
+	}
+}
@@ -12,6 +12,7 @@ package org.tuleap.mylyn.task.core.tests.internal.parser;
 
 import com.google.gson.Gson;
 
+import java.io.IOException;
 import java.text.ParseException;
 import java.util.Arrays;
 import java.util.Iterator;
@@ -25,12 +26,15 @@ import org.tuleap.mylyn.task.core.internal.model.data.AttachmentFieldValue;
 import org.tuleap.mylyn.task.core.internal.model.data.AttachmentValue;
 import org.tuleap.mylyn.task.core.internal.model.data.BoundFieldValue;
 import org.tuleap.mylyn.task.core.internal.model.data.LiteralFieldValue;
+import org.tuleap.mylyn.task.core.internal.model.data.OpenListFieldValue;
 import org.tuleap.mylyn.task.core.internal.model.data.TuleapArtifact;
 import org.tuleap.mylyn.task.core.internal.parser.DateIso8601Adapter;
+import org.tuleap.mylyn.task.core.internal.parser.TuleapArtifactAdapter;
 import org.tuleap.mylyn.task.core.internal.parser.TuleapGsonProvider;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 
 /**
  * Tests of the JSON deserialization of TuleapArtifact.
@@ -369,4 +373,55 @@ public class TuleapArtifactDeserializerTest {
 		assertEquals(0, artifact.getFieldValues().size());
 	}
 
+	@Test
+	public void testDeserializeArtifactWithMembersInAnyOrder() {
+		String json = "{\"values\":[{\"bind_value_ids\":[\"a\",\"b\"],\"field_id\":1},"
+				+ "{\"unknown\":{\"x\":[1,2]},\"links\":[{\"uri\":\"artifacts/3\",\"id\":3}],"
+				+ "\"field_id\":2},{\"value\":12.50,\"field_id\":3},{\"bind_value_id\":7,"
+				+ "\"field_id\":4}],\"unknown\":[{}],\"tracker\":{\"id\":15,\"uri\":\"trackers/15\"},"
+				+ "\"id\":\"9\",\"submitted_by\":{\"id\":102},\"submitted_on\":\"not a date\"}";
+		TuleapArtifact artifact = gson.fromJson(json, TuleapArtifact.class);
+		assertNotNull(artifact);
+
+		assertEquals(Integer.valueOf(9), artifact.getId());
+		assertEquals(15, artifact.getTracker().getId());
+		assertEquals(0, artifact.getSubmittedBy());
+		assertNull(artifact.getSubmittedOn());
+
+		assertEquals(4, artifact.getFieldValues().size());
+		assertEquals(Arrays.asList("a", "b"), ((OpenListFieldValue)artifact.getFieldValue(1)).getValueIds());
+		int[] links = ((ArtifactLinkFieldValue)artifact.getFieldValue(2)).getLinks();
+		assertEquals(1, links.length);
+		assertEquals(3, links[0]);
+		assertEquals("12.50", ((LiteralFieldValue)artifact.getFieldValue(3)).getFieldValue());
+		assertEquals(Arrays.asList(Integer.valueOf(7)), ((BoundFieldValue)artifact.getFieldValue(4))
+				.getValueIds());
+	}
+
+	@Test
+	public void testDeserializeArtifactWithProjection() throws IOException, ParseException {
+		String json = "{\"id\":9,\"last_modified_date\":\"2014-02-03T16:04:24+01:00\",\"values\":["
+				+ "{\"field_id\":1,\"value\":\"Title\"},"
+				+ "{\"field_id\":2,\"value\":\"A long description\"},"
+				+ "{\"field_id\":3,\"file_descriptions\":[{\"id\":1,\"name\":\"a.txt\"}]},"
+				+ "{\"bind_value_ids\":[7],\"field_id\":4},"
+				+ "{\"value\":\"Skipped after it is read\",\"field_id\":5},"
+				+ "{\"field_id\":6,\"bind_value_ids\":[101,102]}]}";
+		TuleapArtifact artifact = new TuleapArtifactAdapter(gson, new int[] {6, 1, 4 }).fromJson(json);
+		assertNotNull(artifact);
+
+		assertEquals(Integer.valueOf(9), artifact.getId());
+		assertEquals(DateIso8601Adapter.parseIso8601Date("2014-02-03T16:04:24+01:00"), artifact
+				.getLastModifiedDate());
+		assertEquals(3, artifact.getFieldValues().size());
+		assertEquals("Title", ((LiteralFieldValue)artifact.getFieldValue(1)).getFieldValue());
+		assertNull(artifact.getFieldValue(2));
+		assertNull(artifact.getFieldValue(3));
+		assertEquals(Arrays.asList(Integer.valueOf(7)), ((BoundFieldValue)artifact.getFieldValue(4))
+				.getValueIds());
+		assertNull(artifact.getFieldValue(5));
+		assertEquals(Arrays.asList(Integer.valueOf(101), Integer.valueOf(102)), ((BoundFieldValue)artifact
+				.getFieldValue(6)).getValueIds());
+	}
+
 }
@@ -645,4 +645,51 @@ public class TuleapTrackerDeserializerTest {
 		assertEquals("localhost:3001/plugins/tracker/?tracker=5", sixthTrackerConfiguration.getUrl()); //$NON-NLS-1$
 		assertEquals("trackers/5", sixthTrackerConfiguration.getUri()); //$NON-NLS-1$
 	}
+
+	/**
+	 * Test the parsing of a tracker whose semantics and workflow come before its fields.
+	 */
+	@Test
+	public void testSemanticsAndWorkflowBeforeFields() {
+		String json = "{\"semantics\":{\"title\":{\"field_id\":1},\"status\":{\"field_id\":2,"
+				+ "\"value_ids\":[21]},\"contributor\":{\"field_id\":3}},\"workflow\":{\"field_id\":2,"
+				+ "\"transitions\":[{\"from_id\":null,\"to_id\":20},{\"from_id\":20,\"to_id\":21}]},"
+				+ "\"id\":7,\"uri\":\"trackers/7\",\"html_url\":\"/plugins/tracker/?tracker=7\","
+				+ "\"label\":\"Bugs\",\"fields\":[{\"field_id\":1,\"type\":\"string\",\"label\":\"Title\","
+				+ "\"name\":\"title\",\"permissions\":[\"read\",\"create\"]},{\"values\":[{\"id\":20,"
+				+ "\"label\":\"New\"},{\"id\":21,\"label\":\"Open\"},{\"id\":22,\"label\":\"Closed\"}],"
+				+ "\"field_id\":2,\"type\":\"sb\",\"label\":\"Status\",\"name\":\"status\","
+				+ "\"permissions\":[\"read\"],\"bindings\":{\"type\":\"static\"}},{\"field_id\":3,"
+				+ "\"type\":\"msb\",\"label\":\"Assigned to\",\"name\":\"assigned_to\","
+				+ "\"permissions\":[\"read\"],\"values\":null,\"bindings\":{\"type\":\"users\"}}],"
+				+ "\"resources\":[{\"type\":\"reports\",\"uri\":\"trackers/7/tracker_reports\"}]}";
+		TuleapTracker tracker = gson.fromJson(json, TuleapTracker.class);
+
+		assertEquals(7, tracker.getIdentifier());
+		assertEquals("Bugs", tracker.getLabel()); //$NON-NLS-1$
+		assertEquals("trackers/7", tracker.getUri()); //$NON-NLS-1$
+		assertEquals(3, tracker.getFields().size());
+
+		TuleapString title = tracker.getTitleField();
+		assertNotNull(title);
+		assertEquals(1, title.getIdentifier());
+		assertTrue(title.isSubmitable());
+
+		TuleapSelectBox status = (TuleapSelectBox)tracker.getStatusField();
+		assertNotNull(status);
+		assertEquals(2, status.getIdentifier());
+		assertEquals("static", status.getBinding()); //$NON-NLS-1$
+		assertEquals(1, status.getOpenStatus().size());
+		assertEquals(21, status.getOpenStatus().get(0).getIdentifier());
+		assertTrue(tracker.hasClosedStatusMeaning(22));
+		assertEquals(1, status.getWorkflow().accessibleStates(
+				ITuleapConstants.CONFIGURABLE_FIELD_NONE_BINDING_ID).size());
+		Collection<TuleapSelectBoxItem> statesFrom20 = status.getWorkflow().accessibleStates(20);
+		assertEquals(1, statesFrom20.size());
+		assertEquals(21, statesFrom20.iterator().next().getIdentifier());
+
+		assertNotNull(tracker.getContributorField());
+		assertEquals(3, tracker.getContributorField().getIdentifier());
+		assertEquals(1, tracker.getTrackerResources().length);
+	}
 }
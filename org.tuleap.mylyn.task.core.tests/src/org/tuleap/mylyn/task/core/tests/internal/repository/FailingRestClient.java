@@ -152,6 +152,11 @@ public class FailingRestClient extends TuleapRestClient {
 		fail("Should not be called.");
 	}
 
+	@Override
+	public void renewToken(TuleapToken rejectedToken) throws CoreException {
+		fail("Should not be called.");
+	}
+
 	@Override
 	public void updateArtifact(TuleapArtifactWithComment artifact, IProgressMonitor monitor)
 			throws CoreException {
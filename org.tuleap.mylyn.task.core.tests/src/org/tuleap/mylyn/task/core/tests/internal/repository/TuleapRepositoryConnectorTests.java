@@ -252,6 +252,97 @@ public class TuleapRepositoryConnectorTests {
 				projectRef.getId(), trackerRef.getId(), artifactId).toString()));
 	}
 
+	/**
+	 * Test the execution of a report query that retrieves the values of the semantic fields only.
+	 */
+	@Test
+	public void testPerformQueryReportWithProjection() {
+		TuleapReference projectRef = new TuleapReference(979, "projects/979");
+		TuleapReference trackerRef = new TuleapReference(42, "trackers/42");
+		int artifactId = 121;
+
+		final TuleapServer tuleapServer = new TuleapServer("https://tuleap.net");
+
+		TuleapProject tuleapProject = new TuleapProject("", projectRef.getId());
+		final TuleapTracker trackerConfiguration = new TuleapTracker(trackerRef.getId(), null, null, null,
+				null, new Date());
+		tuleapProject.addTracker(trackerConfiguration);
+
+		tuleapServer.addProject(tuleapProject);
+
+		final TuleapArtifact tuleapArtifact = new TuleapArtifact(artifactId, projectRef, "", "", "",
+				new Date(), new Date());
+		tuleapArtifact.setTracker(trackerRef);
+
+		final TuleapClientManager tuleapClientManager = new TuleapClientManager() {
+			@Override
+			public TuleapRestClient getRestClient(TaskRepository taskRepository) {
+				return new TuleapRestClient(new RestResourceFactory("v3.14", new TuleapRestConnector(
+						location, new TestLogger()), gson, new TestLogger()), gson, taskRepository) {
+					@Override
+					public List<TuleapArtifact> getTrackerReportArtifacts(int trackerReportId,
+							IProgressMonitor monitor) {
+						fail("The complete artifacts should not be retrieved");
+						return null;
+					}
+
+					@Override
+					public List<TuleapArtifact> getTrackerReportArtifactSummaries(int trackerReportId,
+							TuleapTracker tracker, IProgressMonitor monitor) {
+						assertEquals(100, trackerReportId);
+						assertSame(trackerConfiguration, tracker);
+						return Lists.newArrayList(tuleapArtifact);
+					}
+
+					@Override
+					public List<TuleapElementComment> getArtifactComments(int artId, TuleapServer server,
+							IProgressMonitor monitor) throws CoreException {
+						fail("The comments should not be retrieved");
+						return null;
+					}
+				};
+			}
+		};
+
+		TuleapRepositoryConnector tuleapRepositoryConnector = new TuleapRepositoryConnector() {
+			@Override
+			public TuleapServer getServer(TaskRepository repo) {
+				return tuleapServer;
+			}
+
+			@Override
+			public TuleapTracker refreshTracker(TaskRepository taskRepository, TuleapTracker tracker,
+					IProgressMonitor monitor) throws CoreException {
+				return tracker;
+			}
+
+			@Override
+			public TuleapClientManager getClientManager() {
+				return tuleapClientManager;
+			}
+		};
+
+		TaskRepository taskRepository = new TaskRepository(ITuleapConstants.CONNECTOR_KIND,
+				"https://tuleap.net");
+		taskRepository.setProperty(ITuleapConstants.PROPERTY_QUERY_PROJECTION, "true");
+
+		TuleapTaskDataCollector collector = new TuleapTaskDataCollector();
+
+		IRepositoryQuery query = new RepositoryQuery(ITuleapConstants.CONNECTOR_KIND, "");
+		query.setAttribute(ITuleapQueryConstants.QUERY_KIND, ITuleapQueryConstants.QUERY_KIND_REPORT);
+		query.setAttribute(ITuleapQueryConstants.QUERY_TRACKER_ID, String.valueOf(trackerRef.getId()));
+		query.setAttribute(ITuleapQueryConstants.QUERY_REPORT_ID, "100");
+
+		tuleapRepositoryConnector.performQuery(taskRepository, query, collector, null,
+				new NullProgressMonitor());
+
+		assertThat(collector.getTaskData().size(), is(1));
+		TaskData taskData = collector.getTaskData().iterator().next();
+		assertThat(taskData.getTaskId(), is(TuleapTaskId.forArtifact(projectRef.getId(), trackerRef.getId(),
+				artifactId).toString()));
+		assertTrue(taskData.isPartial());
+	}
+
 	/**
 	 * Test the execution of a query to retrieve all the artifacts from a given tracker.
 	 */
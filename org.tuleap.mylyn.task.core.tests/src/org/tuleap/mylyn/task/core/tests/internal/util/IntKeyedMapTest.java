@@ -0,0 +1,94 @@
+/*******************************************************************************
+ * Copyright (c) 2014 Obeo.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.tuleap.mylyn.task.core.tests.internal.util;
+
+import java.util.Iterator;
+
+import org.junit.Test;
+import org.tuleap.mylyn.task.core.internal.util.IntKeyedMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests of {@link IntKeyedMap}.
+ *
+ * @author <a href="mailto:laurent.delaigue@obeo.fr">Laurent Delaigue</a>
+ */
+public class IntKeyedMapTest {
+
+	@Test
+	public void testPutAndGet() {
+		IntKeyedMap<String> map = new IntKeyedMap<String>();
+		assertEquals(0, map.size());
+		assertNull(map.get(0));
+		assertNull(map.put(554, "a"));
+		assertNull(map.put(-3, "b"));
+		assertNull(map.put(0, "c"));
+		assertEquals(3, map.size());
+		assertEquals("a", map.get(554));
+		assertEquals("b", map.get(-3));
+		assertEquals("c", map.get(0));
+		assertTrue(map.containsKey(-3));
+		assertFalse(map.containsKey(3));
+		assertNull(map.get(3));
+
+		assertEquals("a", map.put(554, "d"));
+		assertEquals(3, map.size());
+		assertEquals("d", map.get(554));
+	}
+
+	@Test
+	public void testGrow() {
+		IntKeyedMap<Integer> map = new IntKeyedMap<Integer>();
+		// Keys that collide in small tables
+		for (int i = 0; i < 1000; i++) {
+			assertNull(map.put(i << 16, Integer.valueOf(i)));
+		}
+		assertEquals(1000, map.size());
+		for (int i = 0; i < 1000; i++) {
+			assertEquals(Integer.valueOf(i), map.get(i << 16));
+		}
+		assertFalse(map.containsKey(1));
+	}
+
+	@Test
+	public void testValuesInInsertionOrder() {
+		IntKeyedMap<String> map = new IntKeyedMap<String>();
+		int[] keys = {556, 557, 554, 559, 12, 1 };
+		for (int key : keys) {
+			map.put(key, String.valueOf(key));
+		}
+		map.put(554, "replaced");
+		Iterator<String> it = map.values().iterator();
+		assertEquals("556", it.next());
+		assertEquals("557", it.next());
+		assertEquals("replaced", it.next());
+		assertEquals("559", it.next());
+		assertEquals("12", it.next());
+		assertEquals("1", it.next());
+		assertFalse(it.hasNext());
+		try {
+			it.remove();
+			fail("The values cannot be removed");
+		} catch (UnsupportedOperationException e) {
+			// Expected
+		}
+
+		// The view reflects the later mappings
+		map.put(2, "2");
+		assertEquals(7, map.values().size());
+		assertTrue(map.values().contains("2"));
+	}
+}
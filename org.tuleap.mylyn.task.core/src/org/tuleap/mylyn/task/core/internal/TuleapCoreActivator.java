@@ -17,7 +17,14 @@ import org.eclipse.core.runtime.Platform;
 import org.eclipse.core.runtime.Plugin;
 import org.eclipse.core.runtime.Status;
 import org.osgi.framework.BundleContext;
+import org.tuleap.mylyn.task.core.internal.client.rest.CircuitBreaker;
+import org.tuleap.mylyn.task.core.internal.client.rest.PageSizeAdvisor;
+import org.tuleap.mylyn.task.core.internal.client.rest.PaginationCheckpoints;
+import org.tuleap.mylyn.task.core.internal.client.rest.RequestThrottle;
+import org.tuleap.mylyn.task.core.internal.client.rest.RestArchive;
+import org.tuleap.mylyn.task.core.internal.client.rest.TuleapConnectionPool;
 import org.tuleap.mylyn.task.core.internal.repository.TuleapRepositoryConnector;
+import org.tuleap.mylyn.task.core.internal.util.StringPool;
 import org.tuleap.mylyn.task.core.internal.util.TuleapCoreKeys;
 import org.tuleap.mylyn.task.core.internal.util.TuleapCoreMessages;
 
@@ -75,6 +82,13 @@ public class TuleapCoreActivator extends Plugin {
 			connector.stop();
 			connector = null;
 		}
+		TuleapConnectionPool.shutdownAll();
+		CircuitBreaker.resetAll();
+		RequestThrottle.resetAll();
+		PageSizeAdvisor.resetAll();
+		PaginationCheckpoints.resetAll();
+		StringPool.resetAll();
+		RestArchive.closeAll();
 
 		plugin = null;
 		super.stop(context);
@@ -101,6 +115,16 @@ public class TuleapCoreActivator extends Plugin {
 		return configFile;
 	}
 
+	/**
+	 * Returns the path to the folder containing the caches of validated server responses.
+	 * 
+	 * @return The path to the folder containing the caches of validated server responses.
+	 */
+	public IPath getValidationCachesPath() {
+		IPath stateLocation = Platform.getStateLocation(getBundle());
+		return stateLocation.append("validationCaches"); //$NON-NLS-1$
+	}
+
 	/**
 	 * Trace an Exception in the error log.
 	 * 
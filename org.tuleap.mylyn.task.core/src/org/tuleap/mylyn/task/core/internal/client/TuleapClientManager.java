@@ -12,22 +12,46 @@ package org.tuleap.mylyn.task.core.internal.client;
 
 import com.google.gson.Gson;
 
-import java.util.ArrayList;
+import java.io.File;
+import java.io.IOException;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
+import org.apache.commons.codec.digest.DigestUtils;
 import org.eclipse.core.runtime.ILog;
+import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Platform;
+import org.eclipse.core.runtime.Status;
 import org.eclipse.mylyn.commons.net.AbstractWebLocation;
 import org.eclipse.mylyn.tasks.core.IRepositoryListener;
 import org.eclipse.mylyn.tasks.core.TaskRepository;
 import org.eclipse.mylyn.tasks.core.TaskRepositoryLocationFactory;
 import org.tuleap.mylyn.task.core.internal.TuleapCoreActivator;
+import org.tuleap.mylyn.task.core.internal.client.rest.AbstractRestConnector;
+import org.tuleap.mylyn.task.core.internal.client.rest.CircuitBreaker;
+import org.tuleap.mylyn.task.core.internal.client.rest.IRestConnector;
+import org.tuleap.mylyn.task.core.internal.client.rest.JsonResponsePaginatedIterator;
+import org.tuleap.mylyn.task.core.internal.client.rest.PageSizeAdvisor;
+import org.tuleap.mylyn.task.core.internal.client.rest.RecordingRestConnector;
+import org.tuleap.mylyn.task.core.internal.client.rest.ReplayRestConnector;
+import org.tuleap.mylyn.task.core.internal.client.rest.RequestThrottle;
+import org.tuleap.mylyn.task.core.internal.client.rest.RestArchive;
+import org.tuleap.mylyn.task.core.internal.client.rest.RestMetrics;
 import org.tuleap.mylyn.task.core.internal.client.rest.RestResourceFactory;
+import org.tuleap.mylyn.task.core.internal.client.rest.RestTracer;
+import org.tuleap.mylyn.task.core.internal.client.rest.RetryPolicy;
+import org.tuleap.mylyn.task.core.internal.client.rest.TuleapConnectionPool;
+import org.tuleap.mylyn.task.core.internal.client.rest.TuleapConnectionPoolStatistics;
 import org.tuleap.mylyn.task.core.internal.client.rest.TuleapRestClient;
 import org.tuleap.mylyn.task.core.internal.client.rest.TuleapRestConnector;
+import org.tuleap.mylyn.task.core.internal.client.rest.UrlConnectionRestConnector;
+import org.tuleap.mylyn.task.core.internal.client.rest.ValidationCache;
 import org.tuleap.mylyn.task.core.internal.parser.TuleapGsonProvider;
+import org.tuleap.mylyn.task.core.internal.util.ITuleapConstants;
+import org.tuleap.mylyn.task.core.internal.util.StringPool;
+import org.tuleap.mylyn.task.core.internal.util.TuleapCoreKeys;
+import org.tuleap.mylyn.task.core.internal.util.TuleapCoreMessages;
 
 /**
  * The Tuleap client manager will create new clients for a given Mylyn tasks repository or find existing ones.
@@ -38,14 +62,19 @@ import org.tuleap.mylyn.task.core.internal.parser.TuleapGsonProvider;
 public class TuleapClientManager implements IRepositoryListener {
 
 	/**
-	 * The rest connectors to dispose.
+	 * The REST client cache.
 	 */
-	private List<TuleapRestConnector> restConnectors = new ArrayList<TuleapRestConnector>();
+	private Map<TaskRepository, TuleapRestClient> restClientCache = new HashMap<TaskRepository, TuleapRestClient>();
 
 	/**
-	 * The REST client cache.
+	 * The caches of validated responses, by repository URL. They survive the re-creation of the clients.
 	 */
-	private Map<TaskRepository, TuleapRestClient> restClientCache = new HashMap<TaskRepository, TuleapRestClient>();
+	private Map<String, ValidationCache> validationCaches = new HashMap<String, ValidationCache>();
+
+	/**
+	 * The metrics of the REST calls, by repository URL. They survive the re-creation of the clients.
+	 */
+	private Map<String, RestMetrics> restMetrics = new HashMap<String, RestMetrics>();
 
 	/**
 	 * Returns the REST client for the given task repository. The reference to the created client should not
@@ -64,6 +93,36 @@ public class TuleapClientManager implements IRepositoryListener {
 		return this.restClientCache.get(taskRepository);
 	}
 
+	/**
+	 * Provides the statistics of the pool of connections used for the given task repository.
+	 *
+	 * @param taskRepository
+	 *            The task repository
+	 * @return A snapshot of the statistics of the connection pool of the repository's host.
+	 */
+	public TuleapConnectionPoolStatistics getConnectionPoolStatistics(TaskRepository taskRepository) {
+		return TuleapConnectionPool.forUrl(taskRepository.getRepositoryUrl()).getStatistics();
+	}
+
+	/**
+	 * Provides the metrics of the REST calls made for the given task repository, by endpoint.
+	 *
+	 * @param taskRepository
+	 *            The task repository
+	 * @return The metrics of the repository, never <code>null</code>.
+	 */
+	public RestMetrics getRestMetrics(TaskRepository taskRepository) {
+		String url = taskRepository.getRepositoryUrl();
+		synchronized (restMetrics) {
+			RestMetrics metrics = restMetrics.get(url);
+			if (metrics == null) {
+				metrics = new RestMetrics();
+				restMetrics.put(url, metrics);
+			}
+			return metrics;
+		}
+	}
+
 	/**
 	 * {@inheritDoc}
 	 *
@@ -87,17 +146,243 @@ public class TuleapClientManager implements IRepositoryListener {
 
 		ILog logger = Platform.getLog(Platform.getBundle(TuleapCoreActivator.PLUGIN_ID));
 
-		Gson gson = TuleapGsonProvider.defaultGson();
-		TuleapRestConnector tuleapRestConnector = new TuleapRestConnector(webLocation, logger);
+		// The strings read from the repository are shared by all its clients
+		Gson gson = TuleapGsonProvider.defaultGson(StringPool.forUrl(taskRepository.getRepositoryUrl()));
+		AbstractRestConnector tuleapRestConnector = createConnector(taskRepository, webLocation, logger);
+		tuleapRestConnector.setMaxInFlightRequests(getPositiveIntProperty(taskRepository,
+				ITuleapConstants.PROPERTY_MAX_IN_FLIGHT_REQUESTS,
+				AbstractRestConnector.DEFAULT_MAX_IN_FLIGHT_REQUESTS));
+		RestMetrics metrics = getRestMetrics(taskRepository);
+		tuleapRestConnector.setMetrics(metrics);
+		double samplingRate = getDoubleProperty(taskRepository, ITuleapConstants.PROPERTY_TRACE_SAMPLING_RATE,
+				RestTracer.DEFAULT_SAMPLING_RATE);
+		if (samplingRate < 0d || samplingRate > 1d) {
+			samplingRate = RestTracer.DEFAULT_SAMPLING_RATE;
+		}
+		tuleapRestConnector.getTracer().configure(samplingRate, getPositiveIntProperty(taskRepository,
+				ITuleapConstants.PROPERTY_TRACE_MAX_BODY_LENGTH, RestTracer.DEFAULT_MAX_BODY_LENGTH));
 
-		restConnectors.add(tuleapRestConnector);
+		IRestConnector restConnector = tuleapRestConnector;
+		String archivePath = taskRepository.getProperty(ITuleapConstants.PROPERTY_REST_ARCHIVE);
+		if (archivePath != null && archivePath.length() > 0
+				&& !(tuleapRestConnector instanceof ReplayRestConnector)) {
+			try {
+				restConnector = new RecordingRestConnector(tuleapRestConnector, RestArchive.forFile(new File(
+						archivePath)), archivePath, logger);
+			} catch (IOException e) {
+				logger.log(new Status(IStatus.ERROR, TuleapCoreActivator.PLUGIN_ID, TuleapCoreMessages
+						.getString(TuleapCoreKeys.cannotRecordRestExchanges, archivePath), e));
+			}
+		}
 
 		RestResourceFactory restResourceFactory = new RestResourceFactory(RestResourceFactory.BEST_VERSION,
-				tuleapRestConnector, gson, TuleapCoreActivator.getDefault().getLog());
-		TuleapRestClient tuleapRestClient = new TuleapRestClient(restResourceFactory, gson, taskRepository);
+				restConnector, gson, TuleapCoreActivator.getDefault().getLog());
+		int maxAttempts = getPositiveIntProperty(taskRepository,
+				ITuleapConstants.PROPERTY_MAX_REQUEST_ATTEMPTS, RetryPolicy.DEFAULT_MAX_ATTEMPTS);
+		restResourceFactory.withMetrics(metrics);
+		restResourceFactory.withRetryPolicy(new RetryPolicy(maxAttempts, RetryPolicy.DEFAULT_BASE_DELAY,
+				RetryPolicy.DEFAULT_MAX_DELAY));
+		if (!Boolean.FALSE.toString().equals(
+				taskRepository.getProperty(ITuleapConstants.PROPERTY_CIRCUIT_BREAKER))) {
+			// The circuit breaker is shared by all the repositories of the same host
+			restResourceFactory.withCircuitBreaker(CircuitBreaker.forUrl(taskRepository.getRepositoryUrl()));
+		}
+		restResourceFactory.withThrottle(getThrottle(taskRepository));
+		restResourceFactory.withPrefetchLimit(getIntProperty(taskRepository,
+				ITuleapConstants.PROPERTY_PAGE_PREFETCH, 0,
+				JsonResponsePaginatedIterator.DEFAULT_PREFETCH_LIMIT));
+		if (!Boolean.FALSE.toString().equals(
+				taskRepository.getProperty(ITuleapConstants.PROPERTY_ADAPTIVE_PAGE_SIZE))) {
+			// What is learned about the lists is shared by all the repositories of the same host
+			restResourceFactory.withPageSizeAdvisor(PageSizeAdvisor.forUrl(taskRepository
+					.getRepositoryUrl()));
+		}
+		TuleapRestClient tuleapRestClient = new TuleapRestClient(restResourceFactory, gson, taskRepository,
+				getValidationCache(taskRepository.getRepositoryUrl()));
+		int tokenLifetime = getPositiveIntProperty(taskRepository, ITuleapConstants.PROPERTY_TOKEN_LIFETIME,
+				(int)TimeUnit.MILLISECONDS.toMinutes(TuleapRestClient.DEFAULT_TOKEN_LIFETIME));
+		tuleapRestClient.setTokenLifetime(TimeUnit.MINUTES.toMillis(tokenLifetime));
 		this.restClientCache.put(taskRepository, tuleapRestClient);
 	}
 
+	/**
+	 * Creates the connector selected by the properties of the given repository.
+	 *
+	 * @param taskRepository
+	 *            The task repository
+	 * @param webLocation
+	 *            The location of the repository
+	 * @param logger
+	 *            The logger
+	 * @return The connector that sends the requests of the repository.
+	 */
+	private AbstractRestConnector createConnector(TaskRepository taskRepository,
+			AbstractWebLocation webLocation, ILog logger) {
+		String connectorType = taskRepository.getProperty(ITuleapConstants.PROPERTY_REST_CONNECTOR);
+		if (ITuleapConstants.REST_CONNECTOR_URLCONNECTION.equals(connectorType)) {
+			if (UrlConnectionRestConnector.supports(webLocation)) {
+				return new UrlConnectionRestConnector(webLocation, logger);
+			}
+			logger.log(new Status(IStatus.WARNING, TuleapCoreActivator.PLUGIN_ID, TuleapCoreMessages
+					.getString(TuleapCoreKeys.urlConnectionUnsupported, taskRepository.getRepositoryUrl())));
+		}
+		if (ITuleapConstants.REST_CONNECTOR_REPLAY.equals(connectorType)) {
+			String archivePath = taskRepository.getProperty(ITuleapConstants.PROPERTY_REST_ARCHIVE);
+			try {
+				ReplayRestConnector replay = new ReplayRestConnector(webLocation, logger, RestArchive
+						.read(new File(archivePath)));
+				double scale = getDoubleProperty(taskRepository,
+						ITuleapConstants.PROPERTY_REPLAY_LATENCY_SCALE,
+						ReplayRestConnector.DEFAULT_LATENCY_SCALE);
+				if (scale >= 0d) {
+					replay.setLatencyScale(scale);
+				}
+				return replay;
+				// CHECKSTYLE:OFF (A missing path, file or an invalid archive are treated equally)
+			} catch (Exception e) {
+				// CHECKSTYLE:ON
+				logger.log(new Status(IStatus.ERROR, TuleapCoreActivator.PLUGIN_ID, TuleapCoreMessages
+						.getString(TuleapCoreKeys.cannotReplayRestArchive, archivePath), e));
+			}
+		}
+		// The connector uses the connection pool shared by all the repositories of the same host
+		return new TuleapRestConnector(webLocation, logger);
+	}
+
+	/**
+	 * Provides the throttle shared by all the clients of the given repository, configured with the rate and
+	 * the burst of the repository properties. The throttling is disabled unless a rate is set.
+	 *
+	 * @param taskRepository
+	 *            The task repository
+	 * @return The throttle of the repository, or <code>null</code> if the throttling is disabled.
+	 */
+	private RequestThrottle getThrottle(TaskRepository taskRepository) {
+		double rate = getDoubleProperty(taskRepository, ITuleapConstants.PROPERTY_REQUEST_RATE, 0d);
+		if (rate <= 0d) {
+			return null;
+		}
+		int burst = getPositiveIntProperty(taskRepository, ITuleapConstants.PROPERTY_REQUEST_BURST,
+				RequestThrottle.DEFAULT_BURST);
+		RequestThrottle throttle = RequestThrottle.forUrl(taskRepository.getRepositoryUrl());
+		throttle.configure(rate, burst);
+		return throttle;
+	}
+
+	/**
+	 * Reads a decimal property of the given repository.
+	 *
+	 * @param taskRepository
+	 *            The task repository
+	 * @param key
+	 *            The key of the property
+	 * @param defaultValue
+	 *            The value to use if the property is not set or is invalid
+	 * @return The value of the property, or the default value.
+	 */
+	private double getDoubleProperty(TaskRepository taskRepository, String key, double defaultValue) {
+		String value = taskRepository.getProperty(key);
+		if (value != null) {
+			try {
+				return Double.parseDouble(value.trim());
+			} catch (NumberFormatException e) {
+				// Keep the default value
+			}
+		}
+		return defaultValue;
+	}
+
+	/**
+	 * Reads a strictly positive integer property of the given repository.
+	 *
+	 * @param taskRepository
+	 *            The task repository
+	 * @param key
+	 *            The key of the property
+	 * @param defaultValue
+	 *            The value to use if the property is not set or is invalid
+	 * @return The value of the property, or the default value.
+	 */
+	private int getPositiveIntProperty(TaskRepository taskRepository, String key, int defaultValue) {
+		return getIntProperty(taskRepository, key, 1, defaultValue);
+	}
+
+	/**
+	 * Reads an integer property of the given repository.
+	 *
+	 * @param taskRepository
+	 *            The task repository
+	 * @param key
+	 *            The key of the property
+	 * @param minValue
+	 *            The minimum valid value
+	 * @param defaultValue
+	 *            The value to use if the property is not set or is invalid
+	 * @return The value of the property, or the default value.
+	 */
+	private int getIntProperty(TaskRepository taskRepository, String key, int minValue, int defaultValue) {
+		String value = taskRepository.getProperty(key);
+		if (value != null) {
+			try {
+				int result = Integer.parseInt(value.trim());
+				if (result >= minValue) {
+					return result;
+				}
+			} catch (NumberFormatException e) {
+				// Keep the default value
+			}
+		}
+		return defaultValue;
+	}
+
+	/**
+	 * Provides the cache of validated responses of the given repository, loading it from the disk the first
+	 * time it is needed.
+	 *
+	 * @param repositoryUrl
+	 *            The URL of the repository
+	 * @return The cache to use for this repository, never <code>null</code>.
+	 */
+	private ValidationCache getValidationCache(String repositoryUrl) {
+		synchronized (validationCaches) {
+			ValidationCache cache = validationCaches.get(repositoryUrl);
+			if (cache == null) {
+				cache = ValidationCache.load(getValidationCacheFile(repositoryUrl));
+				validationCaches.put(repositoryUrl, cache);
+			}
+			return cache;
+		}
+	}
+
+	/**
+	 * Provides the file in which the cache of validated responses of the given repository is saved.
+	 *
+	 * @param repositoryUrl
+	 *            The URL of the repository
+	 * @return The file of the cache, or <code>null</code> if the caches cannot be saved.
+	 */
+	private File getValidationCacheFile(String repositoryUrl) {
+		if (TuleapCoreActivator.getDefault() == null) {
+			return null;
+		}
+		return TuleapCoreActivator.getDefault().getValidationCachesPath().append(
+				DigestUtils.md5Hex(repositoryUrl)).toFile();
+	}
+
+	/**
+	 * Saves the caches of validated responses on the disk.
+	 */
+	public void saveValidationCaches() {
+		synchronized (validationCaches) {
+			for (Map.Entry<String, ValidationCache> entry : validationCaches.entrySet()) {
+				File file = getValidationCacheFile(entry.getKey());
+				if (file != null) {
+					entry.getValue().save(file);
+				}
+			}
+		}
+	}
+
 	/**
 	 * {@inheritDoc}
 	 *
@@ -109,6 +394,25 @@ public class TuleapClientManager implements IRepositoryListener {
 		this.restClientCache.remove(taskRepository);
 	}
 
+	/**
+	 * Discards the cache of validated responses of the given repository, in memory and on the disk.
+	 *
+	 * @param repositoryUrl
+	 *            The URL of the repository
+	 */
+	public void clearValidationCache(String repositoryUrl) {
+		synchronized (validationCaches) {
+			ValidationCache cache = validationCaches.remove(repositoryUrl);
+			if (cache != null) {
+				cache.clear();
+			}
+			File file = getValidationCacheFile(repositoryUrl);
+			if (file != null && file.exists()) {
+				file.delete();
+			}
+		}
+	}
+
 	/**
 	 * {@inheritDoc}
 	 *
@@ -132,5 +436,11 @@ public class TuleapClientManager implements IRepositoryListener {
 		// Force the re-creation of the clients if the repository changes
 		this.repositoryAdded(taskRepository);
 		this.repositoryRemoved(taskRepository);
+		if (oldUrl != null) {
+			this.clearValidationCache(oldUrl);
+			synchronized (restMetrics) {
+				restMetrics.remove(oldUrl);
+			}
+		}
 	}
 }
@@ -0,0 +1,349 @@
+/*******************************************************************************
+ * Copyright (c) 2014 Obeo.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.tuleap.mylyn.task.core.internal.client.rest;
+
+import com.google.common.io.CountingInputStream;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.concurrent.Callable;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.httpclient.HttpMethod;
+import org.apache.commons.httpclient.methods.EntityEnclosingMethod;
+import org.apache.commons.httpclient.methods.RequestEntity;
+import org.eclipse.core.runtime.Assert;
+import org.eclipse.core.runtime.ILog;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Platform;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.preferences.IEclipsePreferences;
+import org.eclipse.core.runtime.preferences.InstanceScope;
+import org.eclipse.mylyn.commons.net.AbstractWebLocation;
+import org.osgi.framework.Bundle;
+import org.osgi.framework.Version;
+import org.tuleap.mylyn.task.core.internal.TuleapCoreActivator;
+import org.tuleap.mylyn.task.core.internal.util.ITuleapConstants;
+import org.tuleap.mylyn.task.core.internal.util.TuleapCoreKeys;
+import org.tuleap.mylyn.task.core.internal.util.TuleapCoreMessages;
+
+/**
+ * Behavior shared by the connectors that send the requests to a Tuleap server, whatever the HTTP library
+ * they use: the asynchronous execution of the requests, the metrics, the traces of the debug mode and the
+ * headers sent with all the requests.
+ *
+ * @author <a href="mailto:laurent.delaigue@obeo.fr">Laurent Delaigue</a>
+ */
+public abstract class AbstractRestConnector implements IRestConnector {
+
+	/**
+	 * Status code used to indicate an IO error during REST communication.
+	 */
+	public static final int IO_ERROR_STATUS_CODE = 1001;
+
+	/**
+	 * Default maximum number of asynchronous requests in flight for one repository, which matches the
+	 * default number of connections per route of the connection pool.
+	 */
+	public static final int DEFAULT_MAX_IN_FLIGHT_REQUESTS = 4;
+
+	/**
+	 * UTF-8 encoding.
+	 */
+	protected static final String ENCODING_UTF8 = "UTF-8"; //$NON-NLS-1$
+
+	/**
+	 * Delay, in seconds, after which idle threads of the asynchronous executor are stopped.
+	 */
+	private static final long THREAD_KEEP_ALIVE = 30L;
+
+	/**
+	 * The serverUrl of the server.
+	 */
+	protected final AbstractWebLocation location;
+
+	/**
+	 * The logger.
+	 */
+	protected final ILog logger;
+
+	/**
+	 * The metrics of the requests sent by this connector.
+	 */
+	private RestMetrics metrics = new RestMetrics();
+
+	/**
+	 * The tracer of the requests, created when the first request is traced in debug mode.
+	 */
+	private RestTracer tracer;
+
+	/**
+	 * The threads used to send asynchronous requests, whose number bounds the requests in flight.
+	 */
+	private final ThreadPoolExecutor asyncThreads;
+
+	/**
+	 * The executor of asynchronous requests.
+	 */
+	private final ListeningExecutorService asyncExecutor;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param location
+	 *            The abstract web location, to support proxies.
+	 * @param logger
+	 *            The logger.
+	 */
+	protected AbstractRestConnector(AbstractWebLocation location, ILog logger) {
+		this.location = location;
+		this.logger = logger;
+		final String threadName = "Tuleap REST " + location.getUrl(); //$NON-NLS-1$
+		this.asyncThreads = new ThreadPoolExecutor(DEFAULT_MAX_IN_FLIGHT_REQUESTS,
+				DEFAULT_MAX_IN_FLIGHT_REQUESTS, THREAD_KEEP_ALIVE, TimeUnit.SECONDS,
+				new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+					@Override
+					public Thread newThread(Runnable r) {
+						Thread thread = new Thread(r, threadName);
+						thread.setDaemon(true);
+						return thread;
+					}
+				});
+		this.asyncThreads.allowCoreThreadTimeOut(true);
+		this.asyncExecutor = MoreExecutors.listeningDecorator(asyncThreads);
+	}
+
+	/**
+	 * Sets the maximum number of asynchronous requests in flight for the repository of this connector.
+	 *
+	 * @param maxInFlightRequests
+	 *            The maximum number of requests in flight, must be strictly positive.
+	 */
+	public void setMaxInFlightRequests(int maxInFlightRequests) {
+		Assert.isLegal(maxInFlightRequests > 0);
+		if (maxInFlightRequests > asyncThreads.getMaximumPoolSize()) {
+			asyncThreads.setMaximumPoolSize(maxInFlightRequests);
+			asyncThreads.setCorePoolSize(maxInFlightRequests);
+		} else {
+			asyncThreads.setCorePoolSize(maxInFlightRequests);
+			asyncThreads.setMaximumPoolSize(maxInFlightRequests);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @see org.tuleap.mylyn.task.core.internal.client.rest.IRestConnector#sendRequestAsync(org.apache.commons.httpclient.HttpMethod)
+	 */
+	@Override
+	public ListenableFuture<ServerResponse> sendRequestAsync(final HttpMethod method) {
+		return submit(new Callable<ServerResponse>() {
+			@Override
+			public ServerResponse call() {
+				return sendRequest(method);
+			}
+		});
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @see org.tuleap.mylyn.task.core.internal.client.rest.IRestConnector#submit(java.util.concurrent.Callable)
+	 */
+	@Override
+	public <T> ListenableFuture<T> submit(Callable<T> task) {
+		return asyncExecutor.submit(task);
+	}
+
+	/**
+	 * Records the metrics of a request, and traces it in debug mode.
+	 *
+	 * @param method
+	 *            The method that has been sent
+	 * @param start
+	 *            The time when the request was sent, in nanoseconds
+	 * @param rawBody
+	 *            The body of the response as received, <code>null</code> if there is none
+	 * @param status
+	 *            The status of the response
+	 * @param debug
+	 *            Whether the request must be traced
+	 * @param responseBody
+	 *            The body of the response, <code>null</code> if it is streamed
+	 */
+	protected void recordRequest(HttpMethod method, long start, CountingInputStream rawBody, int status,
+			boolean debug, String responseBody) {
+		long bytesOut = 0L;
+		if (method instanceof EntityEnclosingMethod) {
+			RequestEntity entity = ((EntityEnclosingMethod)method).getRequestEntity();
+			if (entity != null) {
+				bytesOut = entity.getContentLength();
+			}
+		}
+		long bytesIn = 0L;
+		if (rawBody != null) {
+			bytesIn = rawBody.getCount();
+		}
+		long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+		metrics.recordRequest(method.getName(), method.getPath(), elapsed, bytesOut, bytesIn, status);
+		if (debug) {
+			getTracer().trace(method, status, elapsed, bytesOut, bytesIn, responseBody);
+		}
+	}
+
+	/**
+	 * Indicates whether the debug mode is activated in the preferences.
+	 *
+	 * @return <code>true</code> if REST calls must be logged.
+	 */
+	protected boolean isDebugMode() {
+		boolean debug = false;
+		IEclipsePreferences node = InstanceScope.INSTANCE.getNode(ITuleapConstants.TULEAP_PREFERENCE_NODE);
+		if (node != null) {
+			debug = node.getBoolean(ITuleapConstants.TULEAP_PREFERENCE_DEBUG_MODE, false);
+		}
+		return debug;
+	}
+
+	/**
+	 * Sets the headers common to all the requests on the given method.
+	 *
+	 * @param method
+	 *            The method to send
+	 */
+	protected void setCommonHeaders(HttpMethod method) {
+		method.setRequestHeader("Accept", "application/json"); //$NON-NLS-1$ //$NON-NLS-2$
+		method.setRequestHeader("Accept-Charset", "UTF-8"); //$NON-NLS-1$ //$NON-NLS-2$
+		method.setRequestHeader(ContentEncodings.HEADER_ACCEPT_ENCODING, ContentEncodings.ACCEPTED_ENCODINGS);
+		method.setRequestHeader("Content-Type", "application/json"); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	/**
+	 * Logs an IO error and creates the response that represents it.
+	 *
+	 * @param method
+	 *            The method that failed
+	 * @param e
+	 *            The error
+	 * @return A response with the {@link #IO_ERROR_STATUS_CODE} status.
+	 */
+	protected ServerResponse ioError(HttpMethod method, IOException e) {
+		logger.log(new Status(IStatus.ERROR, TuleapCoreActivator.PLUGIN_ID, TuleapCoreMessages.getString(
+				TuleapCoreKeys.ioError, method.getName() + ' ' + method.getPath(), e.getMessage())));
+		return new ServerResponse(IO_ERROR_STATUS_CODE, "", Collections //$NON-NLS-1$
+				.<String, String> emptyMap());
+	}
+
+	/**
+	 * Metrics getter.
+	 *
+	 * @return The metrics of the requests sent by this connector.
+	 */
+	public RestMetrics getMetrics() {
+		return metrics;
+	}
+
+	/**
+	 * Sets the metrics in which the requests sent by this connector are recorded, so that they can be
+	 * shared with the operations and outlive this connector.
+	 *
+	 * @param someMetrics
+	 *            The metrics to use
+	 */
+	public void setMetrics(RestMetrics someMetrics) {
+		Assert.isNotNull(someMetrics);
+		this.metrics = someMetrics;
+	}
+
+	/**
+	 * Tracer getter.
+	 *
+	 * @return The tracer of the requests sent by this connector in debug mode.
+	 */
+	public synchronized RestTracer getTracer() {
+		if (tracer == null) {
+			tracer = new RestTracer(logger);
+		}
+		return tracer;
+	}
+
+	/**
+	 * Sets the tracer of the requests sent by this connector in debug mode.
+	 *
+	 * @param aTracer
+	 *            The tracer to use
+	 */
+	public synchronized void setTracer(RestTracer aTracer) {
+		Assert.isNotNull(aTracer);
+		this.tracer = aTracer;
+	}
+
+	/**
+	 * Returns the user agent to use for the connection.
+	 *
+	 * @return The user agent to use for the connection
+	 */
+	protected String getUserAgent() {
+		// Mylyn Connector for Tuleap v2.0.0; Eclipse v3.8; Windows 7 6.1; Java v1.7.0_17 Oracle Corporation
+		StringBuilder stringBuilder = new StringBuilder();
+		stringBuilder.append("Mylyn Connector for Tuleap"); //$NON-NLS-1$
+
+		Bundle bundle = Platform.getBundle(TuleapCoreActivator.PLUGIN_ID);
+		if (bundle != null) {
+			Version version = bundle.getVersion();
+			if (version != null) {
+				stringBuilder.append(" v"); //$NON-NLS-1$
+				stringBuilder.append(version.getMajor());
+				stringBuilder.append('.');
+				stringBuilder.append(version.getMinor());
+				stringBuilder.append('.');
+				stringBuilder.append(version.getMicro());
+			}
+		}
+
+		final String separator = "; "; //$NON-NLS-1$
+
+		bundle = Platform.getBundle("org.eclipse.core.runtime"); //$NON-NLS-1$
+		if (bundle != null) {
+			Version version = bundle.getVersion();
+			if (version != null) {
+				stringBuilder.append(separator);
+				stringBuilder.append(" Eclipse v"); //$NON-NLS-1$
+				stringBuilder.append(version.getMajor());
+				stringBuilder.append('.');
+				stringBuilder.append(version.getMinor());
+				stringBuilder.append('.');
+				stringBuilder.append(version.getMicro());
+			}
+		}
+
+		stringBuilder.append(separator);
+
+		stringBuilder.append(System.getProperty("os.name")); //$NON-NLS-1$
+		stringBuilder.append(' ');
+		stringBuilder.append(System.getProperty("os.version")); //$NON-NLS-1$
+
+		stringBuilder.append(separator);
+
+		stringBuilder.append(" Java v"); //$NON-NLS-1$
+		stringBuilder.append(System.getProperty("java.version")); //$NON-NLS-1$
+		stringBuilder.append(' ');
+		stringBuilder.append(System.getProperty("java.vendor")); //$NON-NLS-1$
+
+		return stringBuilder.toString();
+	}
+}
@@ -0,0 +1,233 @@
+/*******************************************************************************
+ * Copyright (c) 2014 Obeo.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.tuleap.mylyn.task.core.internal.client.rest;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.eclipse.core.runtime.Assert;
+
+/**
+ * Circuit breaker shared by all the repositories of a host. After a number of consecutive failures, the
+ * circuit opens and requests are rejected without being sent for a while, so that the synchronizations do
+ * not hammer a server that is down or overloaded. Once the delay has elapsed, one trial request is let
+ * through: the circuit closes if it succeeds, and opens again if it fails.
+ * <p>
+ * An operation counts as one request, whatever the number of attempts made by its retry policy, and as a
+ * failure if it does not complete.
+ * </p>
+ *
+ * @author <a href="mailto:laurent.delaigue@obeo.fr">Laurent Delaigue</a>
+ */
+public final class CircuitBreaker {
+
+	/**
+	 * Status of the responses of the requests rejected because the circuit is open.
+	 */
+	public static final int CIRCUIT_OPEN_STATUS_CODE = 1002;
+
+	/**
+	 * Default number of consecutive failures that open the circuit.
+	 */
+	public static final int DEFAULT_FAILURE_THRESHOLD = 5;
+
+	/**
+	 * Default delay during which the circuit stays open, in milliseconds.
+	 */
+	public static final long DEFAULT_OPEN_DELAY = 30000L;
+
+	/**
+	 * The circuit breakers, by host key.
+	 */
+	private static final Map<String, CircuitBreaker> BREAKERS = new HashMap<String, CircuitBreaker>();
+
+	/**
+	 * The key of the host.
+	 */
+	private final String hostKey;
+
+	/**
+	 * The number of consecutive failures that open the circuit.
+	 */
+	private final int failureThreshold;
+
+	/**
+	 * The delay during which the circuit stays open.
+	 */
+	private final long openDelay;
+
+	/**
+	 * The state of the circuit.
+	 */
+	private State state = State.CLOSED;
+
+	/**
+	 * The number of consecutive failures.
+	 */
+	private int consecutiveFailures;
+
+	/**
+	 * The time when the circuit opened.
+	 */
+	private long openedAt;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param hostKey
+	 *            The key of the host
+	 * @param failureThreshold
+	 *            The number of consecutive failures that open the circuit
+	 * @param openDelay
+	 *            The delay during which the circuit stays open, in milliseconds
+	 */
+	public CircuitBreaker(String hostKey, int failureThreshold, long openDelay) {
+		Assert.isNotNull(hostKey);
+		Assert.isLegal(failureThreshold > 0);
+		this.hostKey = hostKey;
+		this.failureThreshold = failureThreshold;
+		this.openDelay = openDelay;
+	}
+
+	/**
+	 * Provides the circuit breaker shared by all the repositories of the host of the given repository URL,
+	 * creating it if necessary.
+	 *
+	 * @param repositoryUrl
+	 *            The URL of the repository
+	 * @return The circuit breaker to use for this URL, never <code>null</code>.
+	 */
+	public static CircuitBreaker forUrl(String repositoryUrl) {
+		String key = TuleapConnectionPool.hostKey(repositoryUrl);
+		synchronized (BREAKERS) {
+			CircuitBreaker breaker = BREAKERS.get(key);
+			if (breaker == null) {
+				breaker = new CircuitBreaker(key, DEFAULT_FAILURE_THRESHOLD, DEFAULT_OPEN_DELAY);
+				BREAKERS.put(key, breaker);
+			}
+			return breaker;
+		}
+	}
+
+	/**
+	 * Forgets all the circuit breakers. Circuit breakers requested afterwards are re-created closed.
+	 */
+	public static void resetAll() {
+		synchronized (BREAKERS) {
+			BREAKERS.clear();
+		}
+	}
+
+	/**
+	 * Indicates whether a request can be sent. When the open delay has elapsed, only one trial request is
+	 * allowed until its outcome is recorded.
+	 *
+	 * @return <code>true</code> if the request can be sent, <code>false</code> if it must be rejected.
+	 */
+	public synchronized boolean allowRequest() {
+		switch (state) {
+			case OPEN:
+				if (currentTime() - openedAt >= openDelay) {
+					state = State.HALF_OPEN;
+					return true;
+				}
+				return false;
+			case HALF_OPEN:
+				// A trial request is in flight
+				return false;
+			default:
+				return true;
+		}
+	}
+
+	/**
+	 * Records a successful request, which closes the circuit.
+	 */
+	public synchronized void recordSuccess() {
+		consecutiveFailures = 0;
+		state = State.CLOSED;
+	}
+
+	/**
+	 * Records a failed request, which opens the circuit if the trial request failed or if there have been
+	 * too many consecutive failures.
+	 */
+	public synchronized void recordFailure() {
+		consecutiveFailures++;
+		if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+			state = State.OPEN;
+			openedAt = currentTime();
+		}
+	}
+
+	/**
+	 * Records the outcome of a request from the status of its response.
+	 *
+	 * @param status
+	 *            The status of the response
+	 */
+	public void record(int status) {
+		if (RetryPolicy.isFailure(status)) {
+			recordFailure();
+		} else {
+			recordSuccess();
+		}
+	}
+
+	/**
+	 * State getter.
+	 *
+	 * @return The state of the circuit.
+	 */
+	public synchronized State getState() {
+		return state;
+	}
+
+	/**
+	 * Host key getter.
+	 *
+	 * @return The key of the host of this circuit breaker.
+	 */
+	public String getHostKey() {
+		return hostKey;
+	}
+
+	/**
+	 * Provides the current time.
+	 *
+	 * @return The current time in milliseconds.
+	 */
+	private long currentTime() {
+		return System.currentTimeMillis();
+	}
+
+	/**
+	 * The states of a circuit.
+	 *
+	 * @author <a href="mailto:laurent.delaigue@obeo.fr">Laurent Delaigue</a>
+	 */
+	public enum State {
+		/**
+		 * Requests are sent.
+		 */
+		CLOSED,
+
+		/**
+		 * Requests are rejected.
+		 */
+		OPEN,
+
+		/**
+		 * A trial request has been sent, the other requests are rejected until its outcome is known.
+		 */
+		HALF_OPEN;
+	}
+}
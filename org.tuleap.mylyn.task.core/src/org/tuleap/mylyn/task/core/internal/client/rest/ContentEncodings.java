@@ -0,0 +1,187 @@
+/*******************************************************************************
+ * Copyright (c) 2014 Obeo.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.tuleap.mylyn.task.core.internal.client.rest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PushbackInputStream;
+import java.io.Reader;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Utility methods to deal with the HTTP content encodings (compression) supported by the connector.
+ *
+ * @author <a href="mailto:laurent.delaigue@obeo.fr">Laurent Delaigue</a>
+ */
+public final class ContentEncodings {
+
+	/**
+	 * The Accept-Encoding header.
+	 */
+	public static final String HEADER_ACCEPT_ENCODING = "Accept-Encoding"; //$NON-NLS-1$
+
+	/**
+	 * The Content-Encoding header.
+	 */
+	public static final String HEADER_CONTENT_ENCODING = "Content-Encoding"; //$NON-NLS-1$
+
+	/**
+	 * The gzip encoding.
+	 */
+	public static final String GZIP = "gzip"; //$NON-NLS-1$
+
+	/**
+	 * The deflate encoding.
+	 */
+	public static final String DEFLATE = "deflate"; //$NON-NLS-1$
+
+	/**
+	 * The value of the Accept-Encoding header sent with each request.
+	 */
+	public static final String ACCEPTED_ENCODINGS = GZIP + ", " + DEFLATE; //$NON-NLS-1$
+
+	/**
+	 * Size of the buffer used to read response bodies.
+	 */
+	private static final int BUFFER_SIZE = 8192;
+
+	/**
+	 * Mask to extract the compression method of a zlib header.
+	 */
+	private static final int ZLIB_METHOD_MASK = 0x0F;
+
+	/**
+	 * The deflate compression method in a zlib header.
+	 */
+	private static final int ZLIB_METHOD_DEFLATE = 8;
+
+	/**
+	 * The checksum modulo of zlib headers.
+	 */
+	private static final int ZLIB_HEADER_CHECK = 31;
+
+	/**
+	 * Constructor.
+	 */
+	private ContentEncodings() {
+		// Prevent instantiation
+	}
+
+	/**
+	 * Wraps the given stream so that it is decompressed on the fly according to the given content encoding.
+	 *
+	 * @param in
+	 *            The raw stream, as received from the server.
+	 * @param contentEncoding
+	 *            The value of the Content-Encoding header of the response, can be <code>null</code>.
+	 * @return A stream that provides the decoded bytes, which is the given stream if no decoding is needed.
+	 *         An empty body, such as the one of a 204 response, is decoded as an empty stream.
+	 * @throws IOException
+	 *             If the compressed stream is invalid.
+	 */
+	public static InputStream decode(InputStream in, String contentEncoding) throws IOException {
+		if (contentEncoding == null) {
+			return in;
+		}
+		String encoding = contentEncoding.trim().toLowerCase(Locale.ENGLISH);
+		if (GZIP.equals(encoding) || "x-gzip".equals(encoding)) { //$NON-NLS-1$
+			return gunzip(in);
+		}
+		if (DEFLATE.equals(encoding)) {
+			return inflate(in);
+		}
+		return in;
+	}
+
+	/**
+	 * Decompresses a gzip stream, unless it is empty since there is no gzip header to read then.
+	 *
+	 * @param in
+	 *            The gzipped stream
+	 * @return The decompressing stream, or an empty stream.
+	 * @throws IOException
+	 *             If the gzip header is invalid.
+	 */
+	private static InputStream gunzip(InputStream in) throws IOException {
+		PushbackInputStream pushback = new PushbackInputStream(in, 1);
+		int first = pushback.read();
+		if (first < 0) {
+			return pushback;
+		}
+		pushback.unread(first);
+		return new GZIPInputStream(pushback, BUFFER_SIZE);
+	}
+
+	/**
+	 * Some servers send deflate content without the zlib wrapper, so the header is inspected to know
+	 * whether the raw deflate format must be used.
+	 *
+	 * @param in
+	 *            The deflated stream
+	 * @return The inflating stream.
+	 * @throws IOException
+	 *             If the stream cannot be read.
+	 */
+	private static InputStream inflate(InputStream in) throws IOException {
+		PushbackInputStream pushback = new PushbackInputStream(in, 2);
+		byte[] header = new byte[2];
+		int read = 0;
+		while (read < 2) {
+			int n = pushback.read(header, read, 2 - read);
+			if (n < 0) {
+				break;
+			}
+			read += n;
+		}
+		if (read == 0) {
+			// Nothing to inflate
+			return pushback;
+		}
+		pushback.unread(header, 0, read);
+		boolean zlib = read == 2 && (header[0] & ZLIB_METHOD_MASK) == ZLIB_METHOD_DEFLATE
+				&& (((header[0] & 0xFF) << 8) | (header[1] & 0xFF)) % ZLIB_HEADER_CHECK == 0;
+		return new InflaterInputStream(pushback, new Inflater(!zlib), BUFFER_SIZE);
+	}
+
+	/**
+	 * Reads the whole decoded content of the given stream as a String.
+	 *
+	 * @param in
+	 *            The stream to read, can be <code>null</code>, in which case an empty String is returned.
+	 * @param charset
+	 *            The charset of the content.
+	 * @return The content of the stream, never <code>null</code>.
+	 * @throws IOException
+	 *             If the stream cannot be read.
+	 */
+	public static String read(InputStream in, String charset) throws IOException {
+		if (in == null) {
+			return ""; //$NON-NLS-1$
+		}
+		Reader reader = new InputStreamReader(in, charset);
+		try {
+			StringBuilder b = new StringBuilder();
+			char[] buffer = new char[BUFFER_SIZE];
+			int n = reader.read(buffer);
+			while (n >= 0) {
+				b.append(buffer, 0, n);
+				n = reader.read(buffer);
+			}
+			return b.toString();
+		} finally {
+			reader.close();
+		}
+	}
+}
@@ -0,0 +1,125 @@
+/*******************************************************************************
+ * Copyright (c) 2014 Obeo.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.tuleap.mylyn.task.core.internal.client.rest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.commons.httpclient.methods.RequestEntity;
+import org.eclipse.core.runtime.Assert;
+
+/**
+ * Repeatable request entity that sends a String content compressed with gzip. The content is compressed
+ * once, when the entity is created, so that the entity can be sent again (after a new login for instance)
+ * without compressing it again. It must be sent with a <code>Content-Encoding: gzip</code> header.
+ *
+ * @author <a href="mailto:laurent.delaigue@obeo.fr">Laurent Delaigue</a>
+ */
+public class GzipRequestEntity implements RequestEntity {
+
+	/**
+	 * The uncompressed content.
+	 */
+	private final String content;
+
+	/**
+	 * The compressed bytes to send.
+	 */
+	private final byte[] compressed;
+
+	/**
+	 * The content type, with its charset.
+	 */
+	private final String contentType;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param content
+	 *            The content to compress and send
+	 * @param mimeType
+	 *            The mime type of the content
+	 * @param charset
+	 *            The charset to use to encode the content
+	 * @throws UnsupportedEncodingException
+	 *             If the given charset is not supported.
+	 */
+	public GzipRequestEntity(String content, String mimeType, String charset)
+			throws UnsupportedEncodingException {
+		Assert.isNotNull(content);
+		this.content = content;
+		this.contentType = mimeType + "; charset=" + charset; //$NON-NLS-1$
+		byte[] bytes = content.getBytes(charset);
+		ByteArrayOutputStream bos = new ByteArrayOutputStream(bytes.length / 4 + 32);
+		try {
+			GZIPOutputStream gzos = new GZIPOutputStream(bos);
+			gzos.write(bytes);
+			gzos.close();
+		} catch (IOException e) {
+			// Cannot happen with a ByteArrayOutputStream
+			throw new IllegalStateException(e);
+		}
+		this.compressed = bos.toByteArray();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @see org.apache.commons.httpclient.methods.RequestEntity#isRepeatable()
+	 */
+	@Override
+	public boolean isRepeatable() {
+		return true;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @see org.apache.commons.httpclient.methods.RequestEntity#writeRequest(java.io.OutputStream)
+	 */
+	@Override
+	public void writeRequest(OutputStream out) throws IOException {
+		out.write(compressed);
+		out.flush();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @see org.apache.commons.httpclient.methods.RequestEntity#getContentLength()
+	 */
+	@Override
+	public long getContentLength() {
+		return compressed.length;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @see org.apache.commons.httpclient.methods.RequestEntity#getContentType()
+	 */
+	@Override
+	public String getContentType() {
+		return contentType;
+	}
+
+	/**
+	 * The uncompressed content, useful for debugging purposes.
+	 *
+	 * @return The uncompressed content.
+	 */
+	public String getContent() {
+		return content;
+	}
+}
@@ -35,4 +35,17 @@ public interface IAuthenticator {
 	 *         invoked.
 	 */
 	TuleapToken getToken();
+
+	/**
+	 * Logs in again to replace a token that has been rejected by the server or that has expired, unless
+	 * this token has already been replaced. Concurrent callers wait for a single login and share its
+	 * outcome.
+	 *
+	 * @param rejectedToken
+	 *            The token that must be replaced, <code>null</code> if the request has been sent without
+	 *            token
+	 * @throws CoreException
+	 *             if the provided credentials are invalid.
+	 */
+	void renewToken(TuleapToken rejectedToken) throws CoreException;
 }
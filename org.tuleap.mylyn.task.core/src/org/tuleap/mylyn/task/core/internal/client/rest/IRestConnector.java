@@ -10,6 +10,10 @@
  *******************************************************************************/
 package org.tuleap.mylyn.task.core.internal.client.rest;
 
+import com.google.common.util.concurrent.ListenableFuture;
+
+import java.util.concurrent.Callable;
+
 import org.apache.commons.httpclient.HttpMethod;
 
 /**
@@ -29,4 +33,40 @@ public interface IRestConnector {
 	 */
 	ServerResponse sendRequest(HttpMethod method);
 
+	/**
+	 * Send a request and return a response whose body is read from the connection only when it is
+	 * consumed, with {@link ServerResponse#getReader()} or {@link ServerResponse#getInputStream()}. The caller
+	 * must {@link ServerResponse#close() close} the response once it is done with it.
+	 * 
+	 * @param method
+	 *            HTTP method to use (OPTIONS, GET, POST, PUT, ...) including URL, query parameters and
+	 *            request headers
+	 * @return The received server response, whose body has not been read yet.
+	 */
+	ServerResponse sendStreamingRequest(HttpMethod method);
+
+	/**
+	 * Send a request without blocking the caller. The request is sent as soon as the number of requests in
+	 * flight for the repository of this connector allows it.
+	 * 
+	 * @param method
+	 *            HTTP method to use (OPTIONS, GET, POST, PUT, ...) including URL, query parameters and
+	 *            request headers
+	 * @return The future received server response, as is.
+	 */
+	ListenableFuture<ServerResponse> sendRequestAsync(HttpMethod method);
+
+	/**
+	 * Runs a task that sends requests with this connector without blocking the caller. The task counts as
+	 * one request in flight for the repository of this connector while it runs. A task must not block on
+	 * the result of another task submitted to the same connector.
+	 * 
+	 * @param <T>
+	 *            The type of the result of the task
+	 * @param task
+	 *            The task to run
+	 * @return The future result of the task.
+	 */
+	<T> ListenableFuture<T> submit(Callable<T> task);
+
 }
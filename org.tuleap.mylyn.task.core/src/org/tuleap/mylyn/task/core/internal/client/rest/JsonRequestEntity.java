@@ -0,0 +1,223 @@
+/*******************************************************************************
+ * Copyright (c) 2014 Obeo.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.tuleap.mylyn.task.core.internal.client.rest;
+
+import com.google.common.io.CountingOutputStream;
+import com.google.gson.Gson;
+import com.google.gson.JsonIOException;
+
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UnsupportedEncodingException;
+import java.io.Writer;
+import java.lang.reflect.Type;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.commons.httpclient.methods.RequestEntity;
+import org.eclipse.core.runtime.Assert;
+
+/**
+ * Repeatable request entity that serializes a model object in JSON directly in the request stream, so that
+ * no string holding the whole body is built. The object is serialized each time the entity is written, and
+ * once more when the entity is created to compute its length without keeping the bytes, so it must not be
+ * modified while the request is sent.
+ * <p>
+ * When a compression threshold is given and the body is large enough, the body is compressed with gzip once,
+ * when the entity is created, and only the compressed bytes are kept. It must then be sent with a
+ * <code>Content-Encoding: gzip</code> header.
+ * </p>
+ *
+ * @author <a href="mailto:laurent.delaigue@obeo.fr">Laurent Delaigue</a>
+ */
+public class JsonRequestEntity implements RequestEntity {
+
+	/**
+	 * The JSON serializer.
+	 */
+	private final Gson gson;
+
+	/**
+	 * The object to send.
+	 */
+	private final Object source;
+
+	/**
+	 * The type to use to serialize the object.
+	 */
+	private final Type sourceType;
+
+	/**
+	 * The charset of the body.
+	 */
+	private final String charset;
+
+	/**
+	 * The content type, with its charset.
+	 */
+	private final String contentType;
+
+	/**
+	 * The length of the body to send, in bytes.
+	 */
+	private final long contentLength;
+
+	/**
+	 * The compressed body, <code>null</code> if the body is not compressed.
+	 */
+	private final byte[] compressed;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param gson
+	 *            The JSON serializer
+	 * @param source
+	 *            The object to send
+	 * @param sourceType
+	 *            The type to use to serialize the object
+	 * @param mimeType
+	 *            The mime type of the content
+	 * @param charset
+	 *            The charset to use to encode the content
+	 * @param compressionThreshold
+	 *            The minimum length of the body, in bytes, for it to be compressed, -1 to never compress it
+	 * @throws UnsupportedEncodingException
+	 *             If the given charset is not supported.
+	 */
+	public JsonRequestEntity(Gson gson, Object source, Type sourceType, String mimeType, String charset,
+			int compressionThreshold) throws UnsupportedEncodingException {
+		Assert.isNotNull(gson);
+		Assert.isNotNull(source);
+		Assert.isNotNull(sourceType);
+		this.gson = gson;
+		this.source = source;
+		this.sourceType = sourceType;
+		this.charset = charset;
+		this.contentType = mimeType + "; charset=" + charset; //$NON-NLS-1$
+		try {
+			CountingOutputStream counter = new CountingOutputStream(new OutputStream() {
+				@Override
+				public void write(int b) {
+					// Only counted
+				}
+
+				@Override
+				public void write(byte[] b, int off, int len) {
+					// Only counted
+				}
+			});
+			serialize(counter);
+			if (compressionThreshold >= 0 && counter.getCount() >= compressionThreshold) {
+				ByteArrayOutputStream bos = new ByteArrayOutputStream((int)(counter.getCount() / 4) + 32);
+				GZIPOutputStream gzos = new GZIPOutputStream(bos);
+				serialize(gzos);
+				gzos.close();
+				this.compressed = bos.toByteArray();
+				this.contentLength = compressed.length;
+			} else {
+				this.compressed = null;
+				this.contentLength = counter.getCount();
+			}
+		} catch (UnsupportedEncodingException e) {
+			throw e;
+		} catch (IOException e) {
+			// Cannot happen with in-memory streams
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Serializes the object in the given stream, without closing it.
+	 *
+	 * @param out
+	 *            The stream
+	 * @throws IOException
+	 *             If the stream cannot be written.
+	 */
+	private void serialize(OutputStream out) throws IOException {
+		Writer writer = new BufferedWriter(new OutputStreamWriter(out, charset));
+		try {
+			gson.toJson(source, sourceType, writer);
+		} catch (JsonIOException e) {
+			if (e.getCause() instanceof IOException) {
+				throw (IOException)e.getCause();
+			}
+			throw e;
+		}
+		writer.flush();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @see org.apache.commons.httpclient.methods.RequestEntity#isRepeatable()
+	 */
+	@Override
+	public boolean isRepeatable() {
+		return true;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @see org.apache.commons.httpclient.methods.RequestEntity#writeRequest(java.io.OutputStream)
+	 */
+	@Override
+	public void writeRequest(OutputStream out) throws IOException {
+		if (compressed != null) {
+			out.write(compressed);
+		} else {
+			serialize(out);
+		}
+		out.flush();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @see org.apache.commons.httpclient.methods.RequestEntity#getContentLength()
+	 */
+	@Override
+	public long getContentLength() {
+		return contentLength;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @see org.apache.commons.httpclient.methods.RequestEntity#getContentType()
+	 */
+	@Override
+	public String getContentType() {
+		return contentType;
+	}
+
+	/**
+	 * Indicates whether the body is compressed.
+	 *
+	 * @return <code>true</code> if the body is compressed with gzip.
+	 */
+	public boolean isCompressed() {
+		return compressed != null;
+	}
+
+	/**
+	 * The object sent, useful for debugging purposes.
+	 *
+	 * @return The object sent.
+	 */
+	public Object getSource() {
+		return source;
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2013 Obeo.
+ * Copyright (c) 2014 Obeo.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,25 +10,25 @@
  *******************************************************************************/
 package org.tuleap.mylyn.task.core.internal.client.rest;
 
-import com.google.common.collect.Iterators;
+import com.google.gson.Gson;
 import com.google.gson.JsonElement;
-import com.google.gson.JsonParser;
-
-import java.util.Iterator;
-
-import org.eclipse.core.runtime.Assert;
+import com.google.gson.TypeAdapter;
 
 /**
  * Iterates over JsonElements in a JsonArray received in a ServerResponse, when no pagination is involved.
+ * The elements are read one by one from the body of the response, so that the whole array never needs to be
+ * held in memory. If the body is not a JSON array, the iterator provides the body as a single element, which
+ * is a JsonNull if the body is empty. The response is closed as soon as all its elements have been read.
  *
  * @author <a href="mailto:laurent.delaigue@obeo.fr">Laurent Delaigue</a>
  */
-public class JsonResponseIterator implements Iterator<JsonElement> {
+public class JsonResponseIterator extends TypedJsonResponseIterator<JsonElement> {
 
 	/**
-	 * The JSON array over which to iterate, replaced each time a new page is retrieved.
+	 * The adapter that reads the elements as JSON trees.
 	 */
-	private Iterator<JsonElement> iterator;
+	public static final TypeAdapter<JsonElement> JSON_ELEMENT_ADAPTER = new Gson()
+			.getAdapter(JsonElement.class);
 
 	/**
 	 * Constructor.
@@ -37,43 +37,6 @@ public class JsonResponseIterator implements Iterator<JsonElement> {
 	 *            The first response received from the server.
 	 */
 	public JsonResponseIterator(ServerResponse response) {
-		Assert.isNotNull(response);
-		JsonParser parser = new JsonParser();
-		JsonElement jsonElement = parser.parse(response.getBody());
-		if (jsonElement.isJsonArray()) {
-			iterator = jsonElement.getAsJsonArray().iterator();
-		} else {
-			iterator = Iterators.singletonIterator(jsonElement);
-		}
-	}
-
-	/**
-	 * {@inheritDoc}
-	 *
-	 * @see java.util.Iterator#hasNext()
-	 */
-	@Override
-	public boolean hasNext() {
-		return iterator.hasNext();
-	}
-
-	/**
-	 * {@inheritDoc}
-	 *
-	 * @see java.util.Iterator#next()
-	 */
-	@Override
-	public JsonElement next() {
-		return iterator.next();
-	}
-
-	/**
-	 * {@inheritDoc}
-	 *
-	 * @see java.util.Iterator#remove()
-	 */
-	@Override
-	public void remove() {
-		throw new UnsupportedOperationException();
+		super(response, JSON_ELEMENT_ADAPTER);
 	}
 }
@@ -10,24 +10,55 @@
  *******************************************************************************/
 package org.tuleap.mylyn.task.core.internal.client.rest;
 
+import com.google.common.base.Throwables;
 import com.google.common.collect.Maps;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonParser;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
 
+import java.util.Collection;
 import java.util.Iterator;
+import java.util.LinkedList;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.eclipse.core.runtime.Assert;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.OperationCanceledException;
 import org.tuleap.mylyn.task.core.internal.util.TuleapCoreKeys;
 import org.tuleap.mylyn.task.core.internal.util.TuleapCoreMessages;
 
 /**
  * Handles the pagination of a REST dialog.
+ * <p>
+ * When the operation has a prefetch limit, the following pages are fetched ahead, concurrently, as soon as
+ * the size of the list is known, up to the limit. The elements are still provided in order, each page being
+ * taken when the previous one has been consumed. A page whose request has not started yet when it is needed
+ * is fetched by the consumer itself, so that the iteration never waits for a free thread of the connector.
+ * The prefetched pages are cancelled when the iteration is {@link #cancel() cancelled}, when the monitor of
+ * the operation is cancelled or when the consumer is interrupted.
+ * </p>
+ * <p>
+ * The iteration starts at the offset of the operation, if any. When a page cannot be retrieved, the
+ * iteration is cancelled and a {@link PaginationException} tells the offset of the first missing element,
+ * from which a later iteration can resume. This is also the case when the body of a page cannot be read
+ * until its end, for instance because the connection has been lost while the page was streamed.
+ * </p>
  *
+ * @param <T>
+ *            The type of the elements
  * @author <a href="mailto:laurent.delaigue@obeo.fr">Laurent Delaigue</a>
  */
-public class JsonResponsePaginatedIterator implements Iterator<JsonElement> {
+public class JsonResponsePaginatedIterator<T> implements Iterator<T> {
+
+	/**
+	 * Default maximum number of pages fetched ahead, one less than the default number of requests in flight
+	 * so that the other requests of the repository are not delayed.
+	 */
+	public static final int DEFAULT_PREFETCH_LIMIT = AbstractRestConnector.DEFAULT_MAX_IN_FLIGHT_REQUESTS - 1;
 
 	/**
 	 * The number of elements in the list of elements to iterate over. Corresponds to the
@@ -68,9 +99,40 @@ public class JsonResponsePaginatedIterator implements Iterator<JsonElement> {
 	private ServerResponse currentResponse;
 
 	/**
-	 * The JSON array over which to iterate, replaced each time a new page is retrieved.
+	 * The iterator over the elements of the current page, replaced each time a new page is retrieved.
+	 */
+	private TypedJsonResponseIterator<T> iterator;
+
+	/**
+	 * The adapter that decodes each element.
+	 */
+	private final TypeAdapter<T> adapter;
+
+	/**
+	 * The key of the list in the page size advisor of the operation, <code>null</code> if the operation has
+	 * no advisor.
+	 */
+	private final String pageSizeKey;
+
+	/**
+	 * The maximum number of pages fetched ahead, 0 to fetch the pages one at a time.
+	 */
+	private final int prefetchLimit;
+
+	/**
+	 * The pages fetched ahead, in the order of their offsets.
+	 */
+	private final LinkedList<Page> pages = new LinkedList<Page>();
+
+	/**
+	 * The offset of the next page to fetch ahead, -1 while it is unknown.
+	 */
+	private int nextPageOffset = -1;
+
+	/**
+	 * Whether the iteration has been cancelled.
 	 */
-	private Iterator<JsonElement> iterator;
+	private boolean cancelled;
 
 	/**
 	 * Constructor.
@@ -79,27 +141,107 @@ public class JsonResponsePaginatedIterator implements Iterator<JsonElement> {
 	 *            The REST operation to perform, several times if there is pagination involved.
 	 * @param firstResponse
 	 *            The first response received from the server.
+	 * @param adapter
+	 *            The adapter that decodes each element.
 	 */
-	public JsonResponsePaginatedIterator(RestOperation operation, ServerResponse firstResponse) {
+	public JsonResponsePaginatedIterator(RestOperation operation, ServerResponse firstResponse,
+			TypeAdapter<T> adapter) {
 		Assert.isNotNull(operation);
 		Assert.isNotNull(firstResponse);
+		Assert.isNotNull(adapter);
 		this.operation = operation;
+		this.adapter = adapter;
 		this.headers = Maps.newHashMap();
 		this.headers.putAll(operation.requestHeaders);
 		this.body = operation.body;
 		this.currentResponse = firstResponse;
+		this.prefetchLimit = operation.prefetchLimit;
+		if (operation.pageSizeAdvisor != null) {
+			pageSizeKey = PageSizeAdvisor.key(operation.fullUrl, operation.requestParameters);
+		} else {
+			pageSizeKey = null;
+		}
 		extractCounters(firstResponse);
+		currentOffset = getFirstOffset();
+		if (prefetchLimit > 0) {
+			int firstPageSize = getFirstPageSize(firstResponse);
+			if (firstPageSize > 0) {
+				nextPageOffset = currentOffset + firstPageSize;
+				schedulePages();
+			}
+		}
+	}
+
+	/**
+	 * Provides the offset of the first element, which has been asked for by the operation.
+	 *
+	 * @return The offset of the operation, {@link RestResource#DEFAULT_PAGINATION_OFFSET} if it has none.
+	 */
+	private int getFirstOffset() {
+		Collection<String> offsets = operation.requestParameters.get(RestResource.OFFSET);
+		if (!offsets.isEmpty()) {
+			try {
+				return Math.max(Integer.parseInt(offsets.iterator().next()),
+						RestResource.DEFAULT_PAGINATION_OFFSET);
+			} catch (NumberFormatException e) {
+				// Start from the beginning
+			}
+		}
+		return RestResource.DEFAULT_PAGINATION_OFFSET;
+	}
+
+	/**
+	 * Computes the number of elements of the first page, from the limit the server has applied or else from
+	 * the limit that has been asked for.
+	 *
+	 * @param response
+	 *            The first response
+	 * @return The number of elements of the first page, -1 if it is unknown until the page is consumed.
+	 */
+	private int getFirstPageSize(ServerResponse response) {
+		String limit = response.getHeaders().get(RestResource.HEADER_X_PAGINATION_LIMIT);
+		if (limit == null) {
+			Collection<String> limits = operation.requestParameters.get(RestResource.LIMIT);
+			if (!limits.isEmpty()) {
+				limit = limits.iterator().next();
+			}
+		}
+		if (limit != null) {
+			try {
+				return Math.min(Integer.parseInt(limit), nbElementsPerPageMax);
+			} catch (NumberFormatException e) {
+				// Unknown
+			}
+		}
+		return -1;
 	}
 
 	/**
 	 * Extracts the counters from the given response and reinitializes the iterator used to iterate over
-	 * available elements.
+	 * available elements. The response is closed if its headers are invalid.
 	 *
 	 * @param response
 	 *            The server response containing the headers to extract.
 	 */
 	private void extractCounters(ServerResponse response) {
-		Map<String, String> responseHeaders = currentResponse.getHeaders();
+		try {
+			readCounters(response);
+		} catch (RuntimeException e) {
+			// The body will not be read, its connection must be released
+			response.close();
+			throw e;
+		}
+		iterator = new TypedJsonResponseIterator<T>(response, adapter);
+	}
+
+	/**
+	 * Reads the counters from the headers of the given response.
+	 *
+	 * @param response
+	 *            The server response containing the headers to extract.
+	 */
+	private void readCounters(ServerResponse response) {
+		Map<String, String> responseHeaders = response.getHeaders();
 		String xPaginationSize = responseHeaders.get(RestResource.HEADER_X_PAGINATION_SIZE);
 		if (xPaginationSize == null) {
 			throw new IllegalArgumentException(TuleapCoreMessages
@@ -115,6 +257,9 @@ public class JsonResponsePaginatedIterator implements Iterator<JsonElement> {
 		if (xPaginationLimitMax != null) {
 			try {
 				nbElementsPerPageMax = Integer.parseInt(xPaginationLimitMax);
+				if (pageSizeKey != null) {
+					operation.pageSizeAdvisor.recordMaxLimit(pageSizeKey, nbElementsPerPageMax);
+				}
 			} catch (NumberFormatException e) {
 				// Use default value
 				nbElementsPerPageMax = RestResource.DEFAULT_PAGINATION_LIMIT;
@@ -123,7 +268,6 @@ public class JsonResponsePaginatedIterator implements Iterator<JsonElement> {
 			// Use default value
 			nbElementsPerPageMax = RestResource.DEFAULT_PAGINATION_LIMIT;
 		}
-		iterator = new JsonParser().parse(currentResponse.getBody()).getAsJsonArray().iterator();
 	}
 
 	/**
@@ -133,7 +277,7 @@ public class JsonResponsePaginatedIterator implements Iterator<JsonElement> {
 	 */
 	@Override
 	public boolean hasNext() {
-		return currentOffset < nbElements;
+		return !cancelled && currentOffset < nbElements;
 	}
 
 	/**
@@ -142,18 +286,160 @@ public class JsonResponsePaginatedIterator implements Iterator<JsonElement> {
 	 * @see java.util.Iterator#next()
 	 */
 	@Override
-	public JsonElement next() {
-		if (currentOffset >= nbElements) {
+	public T next() {
+		if (!hasNext()) {
 			throw new NoSuchElementException();
 		}
-		if (!iterator.hasNext()) {
-			currentResponse = operation.withHeaders(headers).withBody(body).withQueryParameter(
-					RestResource.OFFSET, Integer.toString(currentOffset)).withQueryParameter(
-							RestResource.LIMIT, Integer.toString(nbElementsPerPageMax)).run();
-			extractCounters(currentResponse);
+		try {
+			return nextElement();
+		} catch (RuntimeException e) {
+			// The iteration cannot go on, release the current page and those fetched ahead
+			cancel();
+			throw e;
+		}
+	}
+
+	/**
+	 * Provides the next element, fetching the next page if the current one has been consumed.
+	 *
+	 * @return The next element.
+	 */
+	private T nextElement() {
+		int offset = currentOffset;
+		try {
+			if (!iterator.hasNext()) {
+				checkCanceled();
+				if (prefetchLimit > 0) {
+					currentResponse = nextPrefetchedPage();
+				} else {
+					currentResponse = operation.withHeaders(headers).withBody(body).withQueryParameter(
+							RestResource.OFFSET, Integer.toString(currentOffset)).withQueryParameter(
+							RestResource.LIMIT, Integer.toString(getPageSize())).runStreaming();
+				}
+				checkPage(currentResponse);
+				extractCounters(currentResponse);
+				schedulePages();
+			}
+			T element = iterator.next();
+			currentOffset++;
+			if (pageSizeKey != null && !iterator.hasNext()) {
+				operation.pageSizeAdvisor.recordPage(pageSizeKey, iterator.getCount(), iterator.getLength());
+			}
+			return element;
+		} catch (JsonParseException e) {
+			// The connection has been lost or the body is malformed while the page was read, the element
+			// at the offset has not been provided and the iteration can resume from there
+			throw new PaginationException(offset, operation.bodyError(e));
+		}
+	}
+
+	/**
+	 * Stops the iteration if the page that starts at the current offset could not be retrieved.
+	 *
+	 * @param response
+	 *            The response of the page
+	 */
+	private void checkPage(ServerResponse response) {
+		try {
+			operation.checkServerError(response);
+		} catch (CoreException e) {
+			cancel();
+			throw new PaginationException(currentOffset, e);
+		}
+	}
+
+	/**
+	 * Size getter.
+	 *
+	 * @return The number of elements of the list, as announced by the server with the latest page.
+	 */
+	public int getSize() {
+		return nbElements;
+	}
+
+	/**
+	 * Provides the number of elements to ask for in the next pages.
+	 *
+	 * @return The size advised by the page size advisor of the operation, if any, without exceeding the
+	 *         maximum allowed by the server.
+	 */
+	private int getPageSize() {
+		if (pageSizeKey == null) {
+			return nbElementsPerPageMax;
+		}
+		return Math.min(operation.pageSizeAdvisor.getPageSize(pageSizeKey), nbElementsPerPageMax);
+	}
+
+	/**
+	 * Provides the page that starts at the current offset, fetched ahead if possible.
+	 *
+	 * @return The response of the page.
+	 */
+	private ServerResponse nextPrefetchedPage() {
+		Page page = pages.peek();
+		if (page == null || page.offset != currentOffset) {
+			// The size of the first page was unknown, or different from the expected one
+			cancelPages();
+			nextPageOffset = currentOffset;
+			schedulePages();
+			page = pages.peek();
+		}
+		pages.poll();
+		try {
+			return page.get();
+		} catch (OperationCanceledException e) {
+			cancel();
+			throw e;
+		}
+	}
+
+	/**
+	 * Fetches the following pages ahead, up to the prefetch limit.
+	 */
+	private void schedulePages() {
+		while (!cancelled && pages.size() < prefetchLimit && nextPageOffset >= 0
+				&& nextPageOffset < nbElements) {
+			int pageSize = getPageSize();
+			RestOperation pageOperation = operation.copy().withQueryParameter(RestResource.OFFSET,
+					Integer.toString(nextPageOffset)).withQueryParameter(RestResource.LIMIT,
+					Integer.toString(pageSize));
+			AtomicBoolean claim = new AtomicBoolean();
+			pages.add(new Page(nextPageOffset, pageOperation, claim, pageOperation.runAsync(claim)));
+			nextPageOffset += pageSize;
+		}
+	}
+
+	/**
+	 * Cancels the iteration if the monitor of the operation has been cancelled.
+	 */
+	private void checkCanceled() {
+		if (operation.monitor != null && operation.monitor.isCanceled()) {
+			cancel();
+			throw new OperationCanceledException();
+		}
+	}
+
+	/**
+	 * Cancels the pages fetched ahead that have not been sent yet, and forgets the other ones.
+	 */
+	private void cancelPages() {
+		for (Page page : pages) {
+			page.claim.set(true);
+			page.future.cancel(false);
+		}
+		pages.clear();
+	}
+
+	/**
+	 * Stops the iteration: the pages fetched ahead are cancelled and the current response is closed. The
+	 * iterator has no next element afterwards.
+	 */
+	public void cancel() {
+		cancelled = true;
+		cancelPages();
+		if (currentResponse != null) {
+			currentResponse.close();
 		}
-		currentOffset++;
-		return iterator.next();
 	}
 
 	/**
@@ -165,4 +451,76 @@ public class JsonResponsePaginatedIterator implements Iterator<JsonElement> {
 	public void remove() {
 		throw new UnsupportedOperationException();
 	}
+
+	/**
+	 * A page fetched ahead.
+	 *
+	 * @author <a href="mailto:laurent.delaigue@obeo.fr">Laurent Delaigue</a>
+	 */
+	private static final class Page {
+
+		/**
+		 * The offset of the first element of the page.
+		 */
+		private final int offset;
+
+		/**
+		 * The operation that fetches the page.
+		 */
+		private final RestOperation operation;
+
+		/**
+		 * The flag set by whoever sends the request of the page first, the executor or the iterator.
+		 */
+		private final AtomicBoolean claim;
+
+		/**
+		 * The future response of the page.
+		 */
+		private final ListenableFuture<ServerResponse> future;
+
+		/**
+		 * Constructor.
+		 *
+		 * @param offset
+		 *            The offset of the first element of the page
+		 * @param operation
+		 *            The operation that fetches the page
+		 * @param claim
+		 *            The flag set by whoever sends the request of the page first
+		 * @param future
+		 *            The future response of the page
+		 */
+		private Page(int offset, RestOperation operation, AtomicBoolean claim,
+				ListenableFuture<ServerResponse> future) {
+			this.offset = offset;
+			this.operation = operation;
+			this.claim = claim;
+			this.future = future;
+		}
+
+		/**
+		 * Provides the response of the page, waiting for it if it is being fetched, or fetching it in the
+		 * current thread if its request has not been sent yet.
+		 *
+		 * @return The response of the page.
+		 */
+		private ServerResponse get() {
+			if (claim.compareAndSet(false, true)) {
+				// The executor has not started the request, which must not be sent twice
+				future.cancel(false);
+				return operation.runStreaming();
+			}
+			try {
+				return future.get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new OperationCanceledException();
+			} catch (CancellationException e) {
+				throw new OperationCanceledException();
+			} catch (ExecutionException e) {
+				throw Throwables.propagate(e.getCause());
+			}
+		}
+	}
 }
@@ -0,0 +1,188 @@
+/*******************************************************************************
+ * Copyright (c) 2014 Obeo.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.tuleap.mylyn.task.core.internal.client.rest;
+
+import java.util.Arrays;
+
+/**
+ * Histogram of latencies with fixed buckets, from 10 milliseconds to 30 seconds. This class is not
+ * thread-safe, its users are expected to synchronize the updates and to hand out {@link #copy() copies}.
+ *
+ * @author <a href="mailto:laurent.delaigue@obeo.fr">Laurent Delaigue</a>
+ */
+public final class LatencyHistogram {
+
+	/**
+	 * Upper bounds of the buckets, in milliseconds. The last bucket counts the latencies greater than the
+	 * last bound.
+	 */
+	private static final long[] BOUNDS = {10L, 25L, 50L, 100L, 250L, 500L, 1000L, 2500L, 5000L, 10000L,
+			30000L, };
+
+	/**
+	 * The number of latencies in each bucket.
+	 */
+	private final long[] counts;
+
+	/**
+	 * The number of recorded latencies.
+	 */
+	private long count;
+
+	/**
+	 * The sum of the recorded latencies.
+	 */
+	private long total;
+
+	/**
+	 * The greatest recorded latency.
+	 */
+	private long max;
+
+	/**
+	 * Constructor of an empty histogram.
+	 */
+	public LatencyHistogram() {
+		this.counts = new long[BOUNDS.length + 1];
+	}
+
+	/**
+	 * Copy constructor.
+	 *
+	 * @param other
+	 *            The histogram to copy
+	 */
+	private LatencyHistogram(LatencyHistogram other) {
+		this.counts = Arrays.copyOf(other.counts, other.counts.length);
+		this.count = other.count;
+		this.total = other.total;
+		this.max = other.max;
+	}
+
+	/**
+	 * Records a latency.
+	 *
+	 * @param millis
+	 *            The latency, in milliseconds
+	 */
+	public void record(long millis) {
+		int i = 0;
+		while (i < BOUNDS.length && millis > BOUNDS[i]) {
+			i++;
+		}
+		counts[i]++;
+		count++;
+		total += millis;
+		max = Math.max(max, millis);
+	}
+
+	/**
+	 * Creates a copy of this histogram.
+	 *
+	 * @return A new histogram with the same values.
+	 */
+	public LatencyHistogram copy() {
+		return new LatencyHistogram(this);
+	}
+
+	/**
+	 * Count getter.
+	 *
+	 * @return The number of recorded latencies.
+	 */
+	public long getCount() {
+		return count;
+	}
+
+	/**
+	 * Total getter.
+	 *
+	 * @return The sum of the recorded latencies, in milliseconds.
+	 */
+	public long getTotal() {
+		return total;
+	}
+
+	/**
+	 * Max getter.
+	 *
+	 * @return The greatest recorded latency, in milliseconds.
+	 */
+	public long getMax() {
+		return max;
+	}
+
+	/**
+	 * Computes the mean latency.
+	 *
+	 * @return The mean latency in milliseconds, 0 if no latency has been recorded.
+	 */
+	public long getMean() {
+		if (count == 0) {
+			return 0L;
+		}
+		return total / count;
+	}
+
+	/**
+	 * Estimates a percentile of the latencies, as the upper bound of the bucket that contains it.
+	 *
+	 * @param percentile
+	 *            The percentile, between 0 and 100
+	 * @return The upper bound of the bucket of the percentile in milliseconds, or the greatest latency if it
+	 *         is in the last bucket, 0 if no latency has been recorded.
+	 */
+	public long getPercentile(double percentile) {
+		if (count == 0) {
+			return 0L;
+		}
+		long rank = (long)Math.ceil(count * percentile / 100d);
+		long seen = 0;
+		for (int i = 0; i < BOUNDS.length; i++) {
+			seen += counts[i];
+			if (seen >= rank) {
+				return Math.min(BOUNDS[i], max);
+			}
+		}
+		return max;
+	}
+
+	/**
+	 * Upper bounds of the buckets.
+	 *
+	 * @return A copy of the upper bounds of the buckets, in milliseconds. The last bucket, which has no
+	 *         upper bound, is not represented.
+	 */
+	public static long[] getBucketBounds() {
+		return Arrays.copyOf(BOUNDS, BOUNDS.length);
+	}
+
+	/**
+	 * Bucket counts getter.
+	 *
+	 * @return A copy of the number of latencies in each bucket, the last one counting the latencies greater
+	 *         than the last bound.
+	 */
+	public long[] getBucketCounts() {
+		return Arrays.copyOf(counts, counts.length);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return "mean=" + getMean() + "ms p50=" + getPercentile(50) + "ms p95=" //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+				+ getPercentile(95) + "ms max=" + max + "ms"; //$NON-NLS-1$ //$NON-NLS-2$
+	}
+}
@@ -0,0 +1,226 @@
+/*******************************************************************************
+ * Copyright (c) 2014 Obeo.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.tuleap.mylyn.task.core.internal.client.rest;
+
+import com.google.common.collect.Multimap;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.eclipse.core.runtime.Assert;
+
+/**
+ * Chooses the number of elements to ask for in each page of the paginated lists of a server. The advisor
+ * learns, for each kind of list, the maximum limit accepted by the server ({@code X-PAGINATION-LIMIT-MAX})
+ * and the average length of the elements, and asks for as many elements as fit in the target length of a
+ * page, without exceeding the maximum limit. Lists of small elements, such as projects, are therefore
+ * fetched in few large pages, while lists of large elements, such as artifacts with all their values, are
+ * fetched in smaller pages. The limit learned for a list is used from the first request of its next
+ * iteration.
+ * <p>
+ * A kind of list is identified by the template of its resource, in which the identifiers are replaced, and
+ * by its query parameters except the pagination and the query criteria, so that {@code values=all} lists
+ * are distinguished. The advisors are shared by all the repositories of a host. This class is thread-safe.
+ * </p>
+ *
+ * @author <a href="mailto:laurent.delaigue@obeo.fr">Laurent Delaigue</a>
+ */
+public final class PageSizeAdvisor {
+
+	/**
+	 * Default target length of a page, in characters.
+	 */
+	public static final long DEFAULT_TARGET_PAGE_LENGTH = 256L * 1024L;
+
+	/**
+	 * Minimum number of elements asked for in a page.
+	 */
+	public static final int MIN_PAGE_SIZE = 10;
+
+	/**
+	 * Weight of the last page in the average length of the elements.
+	 */
+	private static final double SMOOTHING = 0.3d;
+
+	/**
+	 * The advisors, by host key.
+	 */
+	private static final Map<String, PageSizeAdvisor> ADVISORS = new HashMap<String, PageSizeAdvisor>();
+
+	/**
+	 * The target length of a page, in characters.
+	 */
+	private final long targetPageLength;
+
+	/**
+	 * What has been learned about each kind of list, by key.
+	 */
+	private final Map<String, ListStatistics> lists = new HashMap<String, ListStatistics>();
+
+	/**
+	 * Constructor.
+	 *
+	 * @param targetPageLength
+	 *            The target length of a page, in characters
+	 */
+	public PageSizeAdvisor(long targetPageLength) {
+		Assert.isLegal(targetPageLength > 0L);
+		this.targetPageLength = targetPageLength;
+	}
+
+	/**
+	 * Provides the advisor shared by all the repositories of the host of the given repository.
+	 *
+	 * @param repositoryUrl
+	 *            The URL of the repository
+	 * @return The advisor of the host, created the first time it is needed.
+	 */
+	public static PageSizeAdvisor forUrl(String repositoryUrl) {
+		String key = TuleapConnectionPool.hostKey(repositoryUrl);
+		synchronized (ADVISORS) {
+			PageSizeAdvisor advisor = ADVISORS.get(key);
+			if (advisor == null) {
+				advisor = new PageSizeAdvisor(DEFAULT_TARGET_PAGE_LENGTH);
+				ADVISORS.put(key, advisor);
+			}
+			return advisor;
+		}
+	}
+
+	/**
+	 * Forgets all the advisors. Advisors requested afterwards have learned nothing.
+	 */
+	public static void resetAll() {
+		synchronized (ADVISORS) {
+			ADVISORS.clear();
+		}
+	}
+
+	/**
+	 * Computes the key that identifies a kind of list.
+	 *
+	 * @param url
+	 *            The URL of the list
+	 * @param parameters
+	 *            The query parameters of the request
+	 * @return The template of the resource followed by the sorted query parameters, except the pagination
+	 *         and the query criteria, for instance {@code GET /trackers/{id}/artifacts?values=all}.
+	 */
+	public static String key(String url, Multimap<String, String> parameters) {
+		StringBuilder b = new StringBuilder(RestMetrics.template("GET", url)); //$NON-NLS-1$
+		Map<String, String> sorted = new TreeMap<String, String>();
+		for (Map.Entry<String, String> entry : parameters.entries()) {
+			String name = entry.getKey();
+			if (!RestResource.OFFSET.equals(name) && !RestResource.LIMIT.equals(name)
+					&& !RestResource.QUERY.equals(name)) {
+				sorted.put(name, entry.getValue());
+			}
+		}
+		char separator = '?';
+		for (Map.Entry<String, String> entry : sorted.entrySet()) {
+			b.append(separator).append(entry.getKey()).append('=').append(entry.getValue());
+			separator = '&';
+		}
+		return b.toString();
+	}
+
+	/**
+	 * Provides the number of elements to ask for in a page of a list.
+	 *
+	 * @param key
+	 *            The key of the list, see {@link #key(String, Multimap)}
+	 * @return The number of elements to ask for, {@link RestResource#DEFAULT_PAGINATION_LIMIT} if nothing
+	 *         is known about the list yet.
+	 */
+	public synchronized int getPageSize(String key) {
+		ListStatistics list = lists.get(key);
+		if (list == null || list.maxLimit <= 0) {
+			// Asking for more than the maximum limit is an error, which is unknown yet
+			return RestResource.DEFAULT_PAGINATION_LIMIT;
+		}
+		if (list.averageElementLength <= 0d) {
+			return list.maxLimit;
+		}
+		long size = Math.round(targetPageLength / list.averageElementLength);
+		return (int)Math.max(Math.min(MIN_PAGE_SIZE, list.maxLimit), Math.min(size, list.maxLimit));
+	}
+
+	/**
+	 * Records the maximum limit accepted by the server for a list.
+	 *
+	 * @param key
+	 *            The key of the list
+	 * @param maxLimit
+	 *            The value of the {@code X-PAGINATION-LIMIT-MAX} header
+	 */
+	public synchronized void recordMaxLimit(String key, int maxLimit) {
+		if (maxLimit > 0) {
+			getList(key).maxLimit = maxLimit;
+		}
+	}
+
+	/**
+	 * Records the length of a page that has been entirely read.
+	 *
+	 * @param key
+	 *            The key of the list
+	 * @param elements
+	 *            The number of elements of the page
+	 * @param length
+	 *            The length of the body of the page, in characters
+	 */
+	public synchronized void recordPage(String key, int elements, long length) {
+		if (elements > 0 && length > 0L) {
+			ListStatistics list = getList(key);
+			double elementLength = (double)length / elements;
+			if (list.averageElementLength <= 0d) {
+				list.averageElementLength = elementLength;
+			} else {
+				list.averageElementLength += SMOOTHING * (elementLength - list.averageElementLength);
+			}
+		}
+	}
+
+	/**
+	 * Provides the statistics of a list, creating them the first time.
+	 *
+	 * @param key
+	 *            The key of the list
+	 * @return The statistics of the list.
+	 */
+	private ListStatistics getList(String key) {
+		ListStatistics list = lists.get(key);
+		if (list == null) {
+			list = new ListStatistics();
+			lists.put(key, list);
+		}
+		return list;
+	}
+
+	/**
+	 * What has been learned about a kind of list.
+	 *
+	 * @author <a href="mailto:laurent.delaigue@obeo.fr">Laurent Delaigue</a>
+	 */
+	private static final class ListStatistics {
+
+		/**
+		 * The maximum limit accepted by the server, 0 if it is unknown.
+		 */
+		private int maxLimit;
+
+		/**
+		 * The average length of the elements, in characters, 0 if it is unknown.
+		 */
+		private double averageElementLength;
+	}
+}
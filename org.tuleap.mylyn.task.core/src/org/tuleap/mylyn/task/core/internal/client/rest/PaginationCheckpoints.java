@@ -0,0 +1,255 @@
+/*******************************************************************************
+ * Copyright (c) 2014 Obeo.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.tuleap.mylyn.task.core.internal.client.rest;
+
+import com.google.common.collect.Multimap;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.eclipse.core.runtime.Assert;
+
+/**
+ * Checkpoints of the paginated lists of a repository whose iteration has failed. A checkpoint holds the
+ * elements retrieved before the failure and the offset of the first missing element, so that the next
+ * iteration of the same list, on retry or on the next synchronization, only retrieves the missing pages.
+ * <p>
+ * A checkpoint is only used if the list still has the same size, and only for a limited time, after which
+ * the list is retrieved again from its first page. The checkpoints are shared by all the clients of a
+ * repository. This class is thread-safe.
+ * </p>
+ *
+ * @author <a href="mailto:laurent.delaigue@obeo.fr">Laurent Delaigue</a>
+ */
+public final class PaginationCheckpoints {
+
+	/**
+	 * Default time during which a checkpoint can be used, in milliseconds.
+	 */
+	public static final long DEFAULT_TIME_TO_LIVE = 10L * 60L * 1000L;
+
+	/**
+	 * The checkpoints, by repository URL.
+	 */
+	private static final Map<String, PaginationCheckpoints> REPOSITORIES = new HashMap<String,
+			PaginationCheckpoints>();
+
+	/**
+	 * The time during which a checkpoint can be used, in milliseconds.
+	 */
+	private final long timeToLive;
+
+	/**
+	 * The checkpoints, by key of list.
+	 */
+	private final Map<String, Checkpoint> checkpoints = new HashMap<String, Checkpoint>();
+
+	/**
+	 * Constructor.
+	 *
+	 * @param timeToLive
+	 *            The time during which a checkpoint can be used, in milliseconds
+	 */
+	public PaginationCheckpoints(long timeToLive) {
+		Assert.isLegal(timeToLive > 0L);
+		this.timeToLive = timeToLive;
+	}
+
+	/**
+	 * Provides the checkpoints of the given repository.
+	 *
+	 * @param repositoryUrl
+	 *            The URL of the repository
+	 * @return The checkpoints of the repository, created the first time they are needed.
+	 */
+	public static PaginationCheckpoints forUrl(String repositoryUrl) {
+		synchronized (REPOSITORIES) {
+			PaginationCheckpoints result = REPOSITORIES.get(repositoryUrl);
+			if (result == null) {
+				result = new PaginationCheckpoints(DEFAULT_TIME_TO_LIVE);
+				REPOSITORIES.put(repositoryUrl, result);
+			}
+			return result;
+		}
+	}
+
+	/**
+	 * Forgets all the checkpoints of all the repositories.
+	 */
+	public static void resetAll() {
+		synchronized (REPOSITORIES) {
+			REPOSITORIES.clear();
+		}
+	}
+
+	/**
+	 * Computes the key that identifies a list.
+	 *
+	 * @param method
+	 *            The HTTP method
+	 * @param url
+	 *            The URL of the list
+	 * @param parameters
+	 *            The query parameters of the request
+	 * @return The method, the URL and the sorted query parameters of the request, except the pagination.
+	 */
+	public static String key(String method, String url, Multimap<String, String> parameters) {
+		StringBuilder b = new StringBuilder(method).append(' ').append(url);
+		Map<String, String> sorted = new TreeMap<String, String>();
+		for (Map.Entry<String, String> entry : parameters.entries()) {
+			String name = entry.getKey();
+			if (!RestResource.OFFSET.equals(name) && !RestResource.LIMIT.equals(name)) {
+				sorted.put(name, entry.getValue());
+			}
+		}
+		char separator = '?';
+		for (Map.Entry<String, String> entry : sorted.entrySet()) {
+			b.append(separator).append(entry.getKey()).append('=').append(entry.getValue());
+			separator = '&';
+		}
+		return b.toString();
+	}
+
+	/**
+	 * Provides the checkpoint of a list.
+	 *
+	 * @param key
+	 *            The key of the list
+	 * @return The checkpoint of the list, <code>null</code> if there is none or if it has expired.
+	 */
+	public synchronized Checkpoint get(String key) {
+		Checkpoint checkpoint = checkpoints.get(key);
+		if (checkpoint != null && System.currentTimeMillis() - checkpoint.createdAt >= timeToLive) {
+			checkpoints.remove(key);
+			return null;
+		}
+		return checkpoint;
+	}
+
+	/**
+	 * Records the checkpoint of a list, replacing its previous one.
+	 *
+	 * @param key
+	 *            The key of the list
+	 * @param checkpoint
+	 *            The checkpoint
+	 */
+	public synchronized void put(String key, Checkpoint checkpoint) {
+		Assert.isNotNull(checkpoint);
+		checkpoints.put(key, checkpoint);
+	}
+
+	/**
+	 * Forgets the checkpoint of a list, once the list has been entirely retrieved.
+	 *
+	 * @param key
+	 *            The key of the list
+	 */
+	public synchronized void remove(String key) {
+		checkpoints.remove(key);
+	}
+
+	/**
+	 * Size getter.
+	 *
+	 * @return The number of lists that have a checkpoint.
+	 */
+	public synchronized int size() {
+		return checkpoints.size();
+	}
+
+	/**
+	 * The state of a list whose iteration has failed.
+	 *
+	 * @author <a href="mailto:laurent.delaigue@obeo.fr">Laurent Delaigue</a>
+	 */
+	public static final class Checkpoint {
+
+		/**
+		 * The size of the list, as announced by the server.
+		 */
+		private final int size;
+
+		/**
+		 * The elements retrieved before the failure.
+		 */
+		private final List<?> elements;
+
+		/**
+		 * The identifier of the decoding of the elements, so that the elements are only reused by an
+		 * iteration that decodes them in the same way.
+		 */
+		private final Object decoder;
+
+		/**
+		 * The time when the checkpoint has been created.
+		 */
+		private final long createdAt;
+
+		/**
+		 * Constructor.
+		 *
+		 * @param size
+		 *            The size of the list, as announced by the server
+		 * @param elements
+		 *            The elements retrieved before the failure, from the first one
+		 * @param decoder
+		 *            The identifier of the decoding of the elements, compared with
+		 *            {@link Object#equals(Object)}
+		 */
+		public Checkpoint(int size, List<?> elements, Object decoder) {
+			this.size = size;
+			this.elements = Collections.unmodifiableList(new ArrayList<Object>(elements));
+			this.decoder = decoder;
+			this.createdAt = System.currentTimeMillis();
+		}
+
+		/**
+		 * Offset getter.
+		 *
+		 * @return The offset of the first missing element.
+		 */
+		public int getOffset() {
+			return elements.size();
+		}
+
+		/**
+		 * Size getter.
+		 *
+		 * @return The size of the list, as announced by the server.
+		 */
+		public int getSize() {
+			return size;
+		}
+
+		/**
+		 * Elements getter.
+		 *
+		 * @return The unmodifiable list of the elements retrieved before the failure.
+		 */
+		public List<?> getElements() {
+			return elements;
+		}
+
+		/**
+		 * Decoder getter.
+		 *
+		 * @return The identifier of the decoding of the elements.
+		 */
+		public Object getDecoder() {
+			return decoder;
+		}
+	}
+}
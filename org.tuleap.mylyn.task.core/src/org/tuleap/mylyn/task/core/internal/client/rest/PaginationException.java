@@ -0,0 +1,70 @@
+/*******************************************************************************
+ * Copyright (c) 2014 Obeo.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.tuleap.mylyn.task.core.internal.client.rest;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IStatus;
+
+/**
+ * Thrown while a paginated list is iterated, when a page other than the first one cannot be retrieved. The
+ * elements of the previous pages have already been provided.
+ *
+ * @author <a href="mailto:laurent.delaigue@obeo.fr">Laurent Delaigue</a>
+ */
+public class PaginationException extends RuntimeException {
+
+	/**
+	 * Serial version UID.
+	 */
+	private static final long serialVersionUID = -3529310754406723071L;
+
+	/**
+	 * The offset of the page that cannot be retrieved.
+	 */
+	private final int offset;
+
+	/**
+	 * The status that describes the error.
+	 */
+	private final IStatus status;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param offset
+	 *            The offset of the page that cannot be retrieved
+	 * @param cause
+	 *            The error
+	 */
+	public PaginationException(int offset, CoreException cause) {
+		super(cause.getMessage(), cause);
+		this.offset = offset;
+		this.status = cause.getStatus();
+	}
+
+	/**
+	 * Offset getter.
+	 *
+	 * @return The offset of the page that cannot be retrieved.
+	 */
+	public int getOffset() {
+		return offset;
+	}
+
+	/**
+	 * Status getter.
+	 *
+	 * @return The status that describes the error.
+	 */
+	public IStatus getStatus() {
+		return status;
+	}
+}
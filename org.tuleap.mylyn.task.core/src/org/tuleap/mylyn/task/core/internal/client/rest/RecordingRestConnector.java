@@ -0,0 +1,383 @@
+/*******************************************************************************
+ * Copyright (c) 2014 Obeo.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.tuleap.mylyn.task.core.internal.client.rest;
+
+import com.google.common.util.concurrent.ListenableFuture;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Pattern;
+
+import org.apache.commons.httpclient.Header;
+import org.apache.commons.httpclient.HttpMethod;
+import org.apache.commons.httpclient.methods.EntityEnclosingMethod;
+import org.apache.commons.httpclient.methods.RequestEntity;
+import org.apache.commons.httpclient.methods.StringRequestEntity;
+import org.eclipse.core.runtime.Assert;
+import org.eclipse.core.runtime.ILog;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.tuleap.mylyn.task.core.internal.TuleapCoreActivator;
+import org.tuleap.mylyn.task.core.internal.util.TuleapCoreKeys;
+import org.tuleap.mylyn.task.core.internal.util.TuleapCoreMessages;
+
+/**
+ * Connector that sends the requests with another connector and records each request with its response and
+ * the time the server took to answer in a {@link RestArchive}, so that a real session can be replayed later
+ * with a {@link ReplayRestConnector}.
+ * <p>
+ * The body of a streaming response is recorded when the response is closed, as far as it has been read,
+ * but the time recorded is the time the server took to send the headers of the response, which does not
+ * include the time the client takes to consume the body. The passwords of the requests, the authentication
+ * headers and the tokens returned by the server are not recorded.
+ * </p>
+ *
+ * @author <a href="mailto:laurent.delaigue@obeo.fr">Laurent Delaigue</a>
+ */
+public class RecordingRestConnector implements IRestConnector {
+
+	/**
+	 * The header of the authentication token, which is not recorded.
+	 */
+	private static final String X_AUTH_TOKEN = "X-Auth-Token"; //$NON-NLS-1$
+
+	/**
+	 * The header of the authenticated user, which is not recorded.
+	 */
+	private static final String X_AUTH_USER_ID = "X-Auth-UserId"; //$NON-NLS-1$
+
+	/**
+	 * The authentication token in a response of the tokens route, also found in the uri of the token.
+	 */
+	private static final Pattern TOKEN = Pattern
+			.compile("(\"(?:token|uri)\"\\s*:\\s*\")(?:[^\"\\\\]|\\\\.)*(\"|$)"); //$NON-NLS-1$
+
+	/**
+	 * The authenticated user in a response of the tokens route, a number or a string.
+	 */
+	private static final Pattern USER_ID = Pattern
+			.compile("(\"user_id\"\\s*:\\s*)(?:\"(?:[^\"\\\\]|\\\\.)*(?:\"|$)|-?\\d+)"); //$NON-NLS-1$
+
+	/**
+	 * The replacement of a masked token.
+	 */
+	private static final String HIDDEN_TOKEN = "$1(not recorded)$2"; //$NON-NLS-1$
+
+	/**
+	 * The replacement of a masked user.
+	 */
+	private static final String HIDDEN_USER_ID = "$1\"(not recorded)\""; //$NON-NLS-1$
+
+	/**
+	 * The charset of the request bodies.
+	 */
+	private static final String UTF8 = "UTF-8"; //$NON-NLS-1$
+
+	/**
+	 * The connector that sends the requests.
+	 */
+	private final IRestConnector delegate;
+
+	/**
+	 * The archive in which the exchanges are recorded.
+	 */
+	private final RestArchive archive;
+
+	/**
+	 * The description of the archive, used in the error message.
+	 */
+	private final String archiveName;
+
+	/**
+	 * The logger.
+	 */
+	private final ILog logger;
+
+	/**
+	 * Whether a recording error has been logged, to log it only once.
+	 */
+	private final AtomicBoolean errorLogged = new AtomicBoolean();
+
+	/**
+	 * Constructor.
+	 *
+	 * @param delegate
+	 *            The connector that sends the requests
+	 * @param archive
+	 *            The archive in which the exchanges are recorded
+	 * @param archiveName
+	 *            The description of the archive, for instance the path of its file
+	 * @param logger
+	 *            The logger
+	 */
+	public RecordingRestConnector(IRestConnector delegate, RestArchive archive, String archiveName,
+			ILog logger) {
+		Assert.isNotNull(delegate);
+		Assert.isNotNull(archive);
+		Assert.isNotNull(logger);
+		this.delegate = delegate;
+		this.archive = archive;
+		this.archiveName = archiveName;
+		this.logger = logger;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @see org.tuleap.mylyn.task.core.internal.client.rest.IRestConnector#sendRequest(org.apache.commons.httpclient.HttpMethod)
+	 */
+	@Override
+	public ServerResponse sendRequest(HttpMethod method) {
+		long start = System.nanoTime();
+		ServerResponse response = delegate.sendRequest(method);
+		long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+		record(method, response.getStatus(), response.getHeaders(), response.getBody(), elapsed);
+		return response;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @see org.tuleap.mylyn.task.core.internal.client.rest.IRestConnector#sendStreamingRequest(org.apache.commons.httpclient.HttpMethod)
+	 */
+	@Override
+	public ServerResponse sendStreamingRequest(final HttpMethod method) {
+		long start = System.nanoTime();
+		final ServerResponse response = delegate.sendStreamingRequest(method);
+		// The time the client takes to consume the body is not the latency of the server
+		final long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+		String charset = UTF8;
+		if (response instanceof StreamingServerResponse) {
+			charset = ((StreamingServerResponse)response).getCharset();
+		}
+		final String bodyCharset = charset;
+		final TeeInputStream content = new TeeInputStream(response.getInputStream());
+		return new StreamingServerResponse(response.getStatus(), response.getHeaders(), content, charset,
+				new Closeable() {
+					@Override
+					public void close() throws IOException {
+						response.close();
+						record(method, response.getStatus(), response.getHeaders(), content.getCopy()
+								.toString(bodyCharset), elapsed);
+					}
+				});
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @see org.tuleap.mylyn.task.core.internal.client.rest.IRestConnector#sendRequestAsync(org.apache.commons.httpclient.HttpMethod)
+	 */
+	@Override
+	public ListenableFuture<ServerResponse> sendRequestAsync(final HttpMethod method) {
+		return delegate.submit(new Callable<ServerResponse>() {
+			@Override
+			public ServerResponse call() {
+				return sendRequest(method);
+			}
+		});
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @see org.tuleap.mylyn.task.core.internal.client.rest.IRestConnector#submit(java.util.concurrent.Callable)
+	 */
+	@Override
+	public <T> ListenableFuture<T> submit(Callable<T> task) {
+		return delegate.submit(task);
+	}
+
+	/**
+	 * Records an exchange in the archive. A recording error is logged the first time, and does not prevent
+	 * the request from succeeding.
+	 *
+	 * @param method
+	 *            The method that has been sent
+	 * @param status
+	 *            The status of the response
+	 * @param responseHeaders
+	 *            The headers of the response
+	 * @param responseBody
+	 *            The body of the response
+	 * @param elapsed
+	 *            The time the server took to answer, in milliseconds
+	 */
+	private void record(HttpMethod method, int status, Map<String, String> responseHeaders,
+			String responseBody, long elapsed) {
+		Map<String, String> requestHeaders = new LinkedHashMap<String, String>();
+		for (Header header : method.getRequestHeaders()) {
+			if (!X_AUTH_TOKEN.equalsIgnoreCase(header.getName())
+					&& !X_AUTH_USER_ID.equalsIgnoreCase(header.getName())) {
+				requestHeaders.put(header.getName(), header.getValue());
+			}
+		}
+		try {
+			archive.append(new RestExchange(method.getName(), method.getPath(), method.getQueryString(),
+					requestHeaders, getRequestBody(method), status, responseHeaders, maskTokens(method,
+							responseBody), elapsed));
+		} catch (IOException e) {
+			if (errorLogged.compareAndSet(false, true)) {
+				logger.log(new Status(IStatus.ERROR, TuleapCoreActivator.PLUGIN_ID, TuleapCoreMessages
+						.getString(TuleapCoreKeys.cannotRecordRestExchanges, archiveName), e));
+			}
+		}
+	}
+
+	/**
+	 * Provides the body of a request, with its passwords masked. Compressed bodies are only described.
+	 *
+	 * @param method
+	 *            The method
+	 * @return The body of the request, <code>null</code> if there is none.
+	 * @throws IOException
+	 *             If the body cannot be serialized.
+	 */
+	private String getRequestBody(HttpMethod method) throws IOException {
+		if (!(method instanceof EntityEnclosingMethod)) {
+			return null;
+		}
+		RequestEntity entity = ((EntityEnclosingMethod)method).getRequestEntity();
+		String body;
+		if (entity == null) {
+			return null;
+		} else if (entity instanceof StringRequestEntity) {
+			body = ((StringRequestEntity)entity).getContent();
+		} else if (entity instanceof GzipRequestEntity) {
+			body = ((GzipRequestEntity)entity).getContent();
+		} else if (entity instanceof JsonRequestEntity && !((JsonRequestEntity)entity).isCompressed()) {
+			ByteArrayOutputStream out = new ByteArrayOutputStream((int)entity.getContentLength());
+			entity.writeRequest(out);
+			body = out.toString(UTF8);
+		} else {
+			return '(' + entity.getContentType() + ", " + entity.getContentLength() //$NON-NLS-1$
+					+ " bytes)"; //$NON-NLS-1$
+		}
+		return RestTracer.maskPasswords(body);
+	}
+
+	/**
+	 * Masks the authentication token and the authenticated user in a response of the tokens route.
+	 *
+	 * @param method
+	 *            The method that has been sent
+	 * @param responseBody
+	 *            The body of its response
+	 * @return The body to record.
+	 */
+	private static String maskTokens(HttpMethod method, String responseBody) {
+		if (responseBody == null || !method.getPath().endsWith('/' + RestResource.URL.TOKENS)) {
+			return responseBody;
+		}
+		String masked = TOKEN.matcher(responseBody).replaceAll(HIDDEN_TOKEN);
+		return USER_ID.matcher(masked).replaceAll(HIDDEN_USER_ID);
+	}
+
+	/**
+	 * Stream that keeps a copy of the bytes read.
+	 *
+	 * @author <a href="mailto:laurent.delaigue@obeo.fr">Laurent Delaigue</a>
+	 */
+	private static final class TeeInputStream extends FilterInputStream {
+
+		/**
+		 * The maximum number of bytes skipped at once.
+		 */
+		private static final long SKIP_BUFFER_SIZE = 4096L;
+
+		/**
+		 * The bytes read.
+		 */
+		private final ByteArrayOutputStream copy = new ByteArrayOutputStream();
+
+		/**
+		 * Constructor.
+		 *
+		 * @param in
+		 *            The stream to read
+		 */
+		private TeeInputStream(InputStream in) {
+			super(in);
+		}
+
+		/**
+		 * {@inheritDoc}
+		 *
+		 * @see java.io.FilterInputStream#read()
+		 */
+		@Override
+		public int read() throws IOException {
+			int b = super.read();
+			if (b >= 0) {
+				copy.write(b);
+			}
+			return b;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 *
+		 * @see java.io.FilterInputStream#read(byte[], int, int)
+		 */
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			int n = super.read(b, off, len);
+			if (n > 0) {
+				copy.write(b, off, n);
+			}
+			return n;
+		}
+
+		/**
+		 * Reads the skipped bytes, so that they are copied too.
+		 *
+		 * @param n
+		 *            The number of bytes to skip
+		 * @return The number of bytes skipped.
+		 * @throws IOException
+		 *             If the stream cannot be read.
+		 * @see java.io.FilterInputStream#skip(long)
+		 */
+		@Override
+		public long skip(long n) throws IOException {
+			byte[] skipped = new byte[(int)Math.max(0L, Math.min(n, SKIP_BUFFER_SIZE))];
+			int read = read(skipped, 0, skipped.length);
+			return Math.max(0, read);
+		}
+
+		/**
+		 * {@inheritDoc}
+		 *
+		 * @see java.io.FilterInputStream#markSupported()
+		 */
+		@Override
+		public boolean markSupported() {
+			return false;
+		}
+
+		/**
+		 * Copy getter.
+		 *
+		 * @return The bytes read so far.
+		 */
+		private ByteArrayOutputStream getCopy() {
+			return copy;
+		}
+	}
+}
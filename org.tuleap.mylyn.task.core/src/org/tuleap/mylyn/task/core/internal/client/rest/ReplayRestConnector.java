@@ -0,0 +1,210 @@
+/*******************************************************************************
+ * Copyright (c) 2014 Obeo.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.tuleap.mylyn.task.core.internal.client.rest;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.httpclient.HttpMethod;
+import org.eclipse.core.runtime.Assert;
+import org.eclipse.core.runtime.ILog;
+import org.eclipse.mylyn.commons.net.AbstractWebLocation;
+
+/**
+ * Connector that answers the requests with the responses recorded in a {@link RestArchive}, without any
+ * server, to benchmark the connector offline against a real workload. The requests are matched by method,
+ * path and query string. When the same request has been recorded several times, its responses are served in
+ * the order they have been recorded, the last one being repeated once all of them have been served.
+ * <p>
+ * Each response is delayed by the time the server took to answer when it has been recorded, multiplied by
+ * the latency scale: 0 answers immediately, 2 simulates a server twice as slow. The requests that have not
+ * been recorded are answered with a 404 status and counted as misses. The metrics of the requests are
+ * recorded as with a real connector, and the asynchronous requests are bounded in the same way.
+ * </p>
+ *
+ * @author <a href="mailto:laurent.delaigue@obeo.fr">Laurent Delaigue</a>
+ */
+public class ReplayRestConnector extends AbstractRestConnector {
+
+	/**
+	 * Default latency scale, which replays the recorded latencies as is.
+	 */
+	public static final double DEFAULT_LATENCY_SCALE = 1d;
+
+	/**
+	 * The recorded exchanges, by request key.
+	 */
+	private final Map<String, List<RestExchange>> exchanges = new HashMap<String, List<RestExchange>>();
+
+	/**
+	 * The index of the next exchange to serve, by request key.
+	 */
+	private final Map<String, Integer> nextIndexes = new HashMap<String, Integer>();
+
+	/**
+	 * The factor applied to the recorded latencies.
+	 */
+	private volatile double latencyScale = DEFAULT_LATENCY_SCALE;
+
+	/**
+	 * The number of requests that have not been recorded.
+	 */
+	private final AtomicLong misses = new AtomicLong();
+
+	/**
+	 * Constructor.
+	 *
+	 * @param location
+	 *            The location of the recorded server.
+	 * @param logger
+	 *            The logger.
+	 * @param recordedExchanges
+	 *            The recorded exchanges, in the order they have been recorded.
+	 */
+	public ReplayRestConnector(AbstractWebLocation location, ILog logger, List<RestExchange> recordedExchanges) {
+		super(location, logger);
+		for (RestExchange exchange : recordedExchanges) {
+			String key = exchange.getRequestKey();
+			List<RestExchange> list = exchanges.get(key);
+			if (list == null) {
+				list = new ArrayList<RestExchange>();
+				exchanges.put(key, list);
+			}
+			list.add(exchange);
+		}
+	}
+
+	/**
+	 * Sets the factor applied to the recorded latencies.
+	 *
+	 * @param scale
+	 *            The latency scale, 0 to answer immediately
+	 */
+	public void setLatencyScale(double scale) {
+		Assert.isLegal(scale >= 0d);
+		this.latencyScale = scale;
+	}
+
+	/**
+	 * Latency scale getter.
+	 *
+	 * @return The factor applied to the recorded latencies.
+	 */
+	public double getLatencyScale() {
+		return latencyScale;
+	}
+
+	/**
+	 * Misses getter.
+	 *
+	 * @return The number of requests that have been answered with a 404 because they have not been recorded.
+	 */
+	public long getMissCount() {
+		return misses.get();
+	}
+
+	/**
+	 * Serves the recorded responses of the requests again, from the first one.
+	 */
+	public synchronized void rewind() {
+		nextIndexes.clear();
+		misses.set(0L);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @see org.tuleap.mylyn.task.core.internal.client.rest.IRestConnector#sendRequest(org.apache.commons.httpclient.HttpMethod)
+	 */
+	@Override
+	public ServerResponse sendRequest(HttpMethod method) {
+		long start = System.nanoTime();
+		RestExchange exchange = next(RestExchange.requestKey(method.getName(), method.getPath(), method
+				.getQueryString()));
+		ServerResponse response;
+		if (exchange == null) {
+			misses.incrementAndGet();
+			response = new ServerResponse(ServerResponse.STATUS_NOT_FOUND, "", Collections //$NON-NLS-1$
+					.<String, String> emptyMap());
+		} else {
+			delay(exchange.getElapsed());
+			response = new ServerResponse(exchange.getStatus(), exchange.getResponseBody(),
+					new LinkedHashMap<String, String>(exchange.getResponseHeaders()));
+		}
+		recordRequest(method, start, null, response.getStatus(), false, response.getBody());
+		return response;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @see org.tuleap.mylyn.task.core.internal.client.rest.IRestConnector#sendStreamingRequest(org.apache.commons.httpclient.HttpMethod)
+	 */
+	@Override
+	public ServerResponse sendStreamingRequest(HttpMethod method) {
+		// The recorded body is already in memory
+		return sendRequest(method);
+	}
+
+	/**
+	 * Provides the next exchange to serve for a request.
+	 *
+	 * @param key
+	 *            The key of the request
+	 * @return The exchange to serve, <code>null</code> if the request has not been recorded.
+	 */
+	private synchronized RestExchange next(String key) {
+		List<RestExchange> list = exchanges.get(key);
+		if (list == null) {
+			return null;
+		}
+		int index = 0;
+		Integer nextIndex = nextIndexes.get(key);
+		if (nextIndex != null) {
+			index = nextIndex.intValue();
+		}
+		nextIndexes.put(key, Integer.valueOf(Math.min(index + 1, list.size() - 1)));
+		return list.get(index);
+	}
+
+	/**
+	 * Waits for the scaled recorded latency.
+	 *
+	 * @param elapsed
+	 *            The recorded latency, in milliseconds
+	 */
+	private void delay(long elapsed) {
+		try {
+			sleep(Math.round(elapsed * latencyScale));
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Waits before answering a request. Can be overridden for tests.
+	 *
+	 * @param delay
+	 *            The delay to wait, in milliseconds
+	 * @throws InterruptedException
+	 *             If the thread is interrupted while waiting
+	 */
+	protected void sleep(long delay) throws InterruptedException {
+		if (delay > 0L) {
+			Thread.sleep(delay);
+		}
+	}
+}
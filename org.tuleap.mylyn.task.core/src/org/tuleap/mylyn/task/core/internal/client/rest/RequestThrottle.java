@@ -0,0 +1,245 @@
+/*******************************************************************************
+ * Copyright (c) 2014 Obeo.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.tuleap.mylyn.task.core.internal.client.rest;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.core.runtime.Assert;
+
+/**
+ * Token bucket that limits the rate of the requests sent to a repository, shared by all the jobs that
+ * synchronize this repository. The bucket holds at most a burst of tokens, and is refilled at a constant
+ * rate. Each request takes a token, and waits for one if the bucket is empty.
+ * <p>
+ * Requests sent by a thread in the foreground, such as the opening of a task by the user, take precedence:
+ * while such a request is waiting, the background requests wait even if a token is available.
+ * </p>
+ *
+ * @author <a href="mailto:laurent.delaigue@obeo.fr">Laurent Delaigue</a>
+ */
+public final class RequestThrottle {
+
+	/**
+	 * Default rate, in requests per second, of the throttles that have not been configured yet. The
+	 * repositories are only throttled when their rate is set.
+	 */
+	public static final double DEFAULT_RATE = 20d;
+
+	/**
+	 * Default burst, the maximum number of requests that can be sent at once.
+	 */
+	public static final int DEFAULT_BURST = 40;
+
+	/**
+	 * The throttles, by repository URL.
+	 */
+	private static final Map<String, RequestThrottle> THROTTLES = new HashMap<String, RequestThrottle>();
+
+	/**
+	 * Whether the requests of the current thread are in the foreground.
+	 */
+	private static final ThreadLocal<Boolean> FOREGROUND = new ThreadLocal<Boolean>();
+
+	/**
+	 * Number of nanoseconds in a second.
+	 */
+	private static final double NANOS_PER_SECOND = 1e9d;
+
+	/**
+	 * The rate, in tokens per nanosecond.
+	 */
+	private double tokensPerNano;
+
+	/**
+	 * The maximum number of tokens.
+	 */
+	private int burst;
+
+	/**
+	 * The available tokens.
+	 */
+	private double tokens;
+
+	/**
+	 * The last time the bucket has been refilled, in nanoseconds.
+	 */
+	private long lastRefill;
+
+	/**
+	 * The number of foreground requests waiting for a token.
+	 */
+	private int waitingForeground;
+
+	/**
+	 * Constructor of a full bucket.
+	 *
+	 * @param rate
+	 *            The rate, in requests per second
+	 * @param burst
+	 *            The maximum number of requests that can be sent at once
+	 */
+	public RequestThrottle(double rate, int burst) {
+		configure(rate, burst);
+		this.tokens = burst;
+		this.lastRefill = System.nanoTime();
+	}
+
+	/**
+	 * Provides the throttle shared by all the clients of the given repository URL, creating it with the
+	 * default rate and burst if necessary.
+	 *
+	 * @param repositoryUrl
+	 *            The URL of the repository
+	 * @return The throttle to use for this URL, never <code>null</code>.
+	 */
+	public static RequestThrottle forUrl(String repositoryUrl) {
+		Assert.isNotNull(repositoryUrl);
+		synchronized (THROTTLES) {
+			RequestThrottle throttle = THROTTLES.get(repositoryUrl);
+			if (throttle == null) {
+				throttle = new RequestThrottle(DEFAULT_RATE, DEFAULT_BURST);
+				THROTTLES.put(repositoryUrl, throttle);
+			}
+			return throttle;
+		}
+	}
+
+	/**
+	 * Forgets all the throttles. Throttles requested afterwards are re-created full.
+	 */
+	public static void resetAll() {
+		synchronized (THROTTLES) {
+			THROTTLES.clear();
+		}
+	}
+
+	/**
+	 * Changes the rate and the burst of this throttle.
+	 *
+	 * @param rate
+	 *            The rate, in requests per second, must be strictly positive
+	 * @param newBurst
+	 *            The maximum number of requests that can be sent at once, must be strictly positive
+	 */
+	public synchronized void configure(double rate, int newBurst) {
+		Assert.isLegal(rate > 0d && newBurst > 0);
+		refill();
+		this.tokensPerNano = rate / NANOS_PER_SECOND;
+		this.burst = newBurst;
+		this.tokens = Math.min(tokens, newBurst);
+		notifyAll();
+	}
+
+	/**
+	 * Marks the requests of the current thread as foreground or background requests.
+	 *
+	 * @param foreground
+	 *            <code>true</code> if the requests of the current thread are in the foreground
+	 * @return The previous value, to restore once the foreground work is done.
+	 */
+	public static boolean setForeground(boolean foreground) {
+		boolean previous = isForeground();
+		if (foreground) {
+			FOREGROUND.set(Boolean.TRUE);
+		} else {
+			FOREGROUND.remove();
+		}
+		return previous;
+	}
+
+	/**
+	 * Indicates whether the requests of the current thread are in the foreground.
+	 *
+	 * @return <code>true</code> if the requests of the current thread are in the foreground.
+	 */
+	public static boolean isForeground() {
+		return Boolean.TRUE.equals(FOREGROUND.get());
+	}
+
+	/**
+	 * Takes a token for a request of the current thread, waiting until one is available.
+	 *
+	 * @throws InterruptedException
+	 *             If the thread is interrupted while waiting
+	 */
+	public void acquire() throws InterruptedException {
+		acquire(isForeground());
+	}
+
+	/**
+	 * Takes a token, waiting until one is available. Background requests also wait while foreground requests
+	 * are waiting.
+	 *
+	 * @param foreground
+	 *            <code>true</code> for a foreground request
+	 * @throws InterruptedException
+	 *             If the thread is interrupted while waiting
+	 */
+	public synchronized void acquire(boolean foreground) throws InterruptedException {
+		if (foreground) {
+			waitingForeground++;
+		}
+		try {
+			refill();
+			while (tokens < 1d || (!foreground && waitingForeground > 0)) {
+				if (tokens < 1d) {
+					long nanos = (long)Math.ceil((1d - tokens) / tokensPerNano);
+					TimeUnit.NANOSECONDS.timedWait(this, Math.max(1L, nanos));
+				} else {
+					// Wait for the foreground requests to take their token
+					wait();
+				}
+				refill();
+			}
+			tokens -= 1d;
+		} finally {
+			if (foreground) {
+				waitingForeground--;
+				notifyAll();
+			}
+		}
+	}
+
+	/**
+	 * Takes a token if one is available, without waiting.
+	 *
+	 * @return <code>true</code> if a token has been taken.
+	 */
+	public synchronized boolean tryAcquire() {
+		refill();
+		if (tokens >= 1d && waitingForeground == 0) {
+			tokens -= 1d;
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Available tokens getter.
+	 *
+	 * @return The number of tokens currently available.
+	 */
+	public synchronized double getAvailableTokens() {
+		refill();
+		return tokens;
+	}
+
+	/**
+	 * Adds the tokens earned since the last refill.
+	 */
+	private void refill() {
+		long now = System.nanoTime();
+		tokens = Math.min(burst, tokens + (now - lastRefill) * tokensPerNano);
+		lastRefill = now;
+	}
+}
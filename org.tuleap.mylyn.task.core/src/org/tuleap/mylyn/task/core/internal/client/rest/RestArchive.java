@@ -0,0 +1,430 @@
+/*******************************************************************************
+ * Copyright (c) 2014 Obeo.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.tuleap.mylyn.task.core.internal.client.rest;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+
+import org.eclipse.core.runtime.Assert;
+import org.tuleap.mylyn.task.core.internal.util.TuleapCoreKeys;
+import org.tuleap.mylyn.task.core.internal.util.TuleapCoreMessages;
+
+/**
+ * Compact archive of {@link RestExchange}s, written by the {@link RecordingRestConnector} and read by the
+ * {@link ReplayRestConnector}. Each exchange is compressed and flushed on its own, so that an archive can be
+ * appended to and remains readable if the recording is interrupted: an incomplete last exchange is ignored.
+ * <p>
+ * Archives contain the data of the server, including the authentication tokens it has delivered, and must be
+ * handled accordingly. The passwords and the authentication headers of the requests are not recorded.
+ * </p>
+ *
+ * @author <a href="mailto:laurent.delaigue@obeo.fr">Laurent Delaigue</a>
+ */
+public final class RestArchive implements Closeable {
+
+	/**
+	 * The first bytes of an archive, "TRA" followed by the version of the format.
+	 */
+	private static final int MAGIC = 0x54524131;
+
+	/**
+	 * The length written instead of a <code>null</code> string or map.
+	 */
+	private static final int NULL_LENGTH = -1;
+
+	/**
+	 * The charset of the strings.
+	 */
+	private static final String UTF8 = "UTF-8"; //$NON-NLS-1$
+
+	/**
+	 * The archives opened with {@link #forFile(File)}, by absolute path.
+	 */
+	private static final Map<String, RestArchive> ARCHIVES = new HashMap<String, RestArchive>();
+
+	/**
+	 * The stream of the archive.
+	 */
+	private final DataOutputStream out;
+
+	/**
+	 * The compressor of the exchanges.
+	 */
+	private final Deflater deflater = new Deflater();
+
+	/**
+	 * Whether the archive is closed.
+	 */
+	private boolean closed;
+
+	/**
+	 * Constructor of a new archive written in the given stream.
+	 *
+	 * @param stream
+	 *            The stream to write
+	 * @throws IOException
+	 *             If the stream cannot be written.
+	 */
+	public RestArchive(OutputStream stream) throws IOException {
+		this(stream, true);
+	}
+
+	/**
+	 * Constructor.
+	 *
+	 * @param stream
+	 *            The stream to write
+	 * @param writeHeader
+	 *            Whether the stream is empty and the header must be written, or the exchanges are appended to an
+	 *            existing archive
+	 * @throws IOException
+	 *             If the stream cannot be written.
+	 */
+	private RestArchive(OutputStream stream, boolean writeHeader) throws IOException {
+		Assert.isNotNull(stream);
+		this.out = new DataOutputStream(new BufferedOutputStream(stream));
+		if (writeHeader) {
+			out.writeInt(MAGIC);
+			out.flush();
+		}
+	}
+
+	/**
+	 * Provides the archive that records the exchanges in the given file, shared by all the connectors that
+	 * record in this file. The exchanges are appended to the file if it already exists.
+	 *
+	 * @param file
+	 *            The file of the archive
+	 * @return The open archive.
+	 * @throws IOException
+	 *             If the file cannot be opened.
+	 */
+	public static RestArchive forFile(File file) throws IOException {
+		synchronized (ARCHIVES) {
+			String path = file.getAbsolutePath();
+			RestArchive archive = ARCHIVES.get(path);
+			if (archive == null || archive.isClosed()) {
+				File parent = file.getAbsoluteFile().getParentFile();
+				if (parent != null && !parent.exists()) {
+					parent.mkdirs();
+				}
+				boolean empty = file.length() == 0L;
+				archive = new RestArchive(new FileOutputStream(file, true), empty);
+				ARCHIVES.put(path, archive);
+			}
+			return archive;
+		}
+	}
+
+	/**
+	 * Closes all the archives opened with {@link #forFile(File)}.
+	 */
+	public static void closeAll() {
+		synchronized (ARCHIVES) {
+			for (RestArchive archive : ARCHIVES.values()) {
+				try {
+					archive.close();
+				} catch (IOException e) {
+					// Nothing more can be done
+				}
+			}
+			ARCHIVES.clear();
+		}
+	}
+
+	/**
+	 * Adds an exchange at the end of the archive, and flushes it.
+	 *
+	 * @param exchange
+	 *            The exchange
+	 * @throws IOException
+	 *             If the archive cannot be written or is closed.
+	 */
+	public synchronized void append(RestExchange exchange) throws IOException {
+		if (closed) {
+			throw new IOException("The archive is closed"); //$NON-NLS-1$
+		}
+		ByteArrayOutputStream raw = new ByteArrayOutputStream();
+		DataOutputStream data = new DataOutputStream(raw);
+		writeExchange(data, exchange);
+		data.flush();
+		ByteArrayOutputStream compressed = new ByteArrayOutputStream(raw.size() / 4 + 32);
+		deflater.reset();
+		DeflaterOutputStream dos = new DeflaterOutputStream(compressed, deflater);
+		raw.writeTo(dos);
+		dos.finish();
+		out.writeInt(compressed.size());
+		out.writeInt(raw.size());
+		compressed.writeTo(out);
+		out.flush();
+	}
+
+	/**
+	 * Indicates whether this archive is closed.
+	 *
+	 * @return <code>true</code> if no exchange can be added anymore.
+	 */
+	public synchronized boolean isClosed() {
+		return closed;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @see java.io.Closeable#close()
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+		if (!closed) {
+			closed = true;
+			deflater.end();
+			out.close();
+		}
+	}
+
+	/**
+	 * Reads all the exchanges of an archive file.
+	 *
+	 * @param file
+	 *            The file of the archive
+	 * @return The exchanges, in the order they have been recorded.
+	 * @throws IOException
+	 *             If the file cannot be read or is not an archive.
+	 */
+	public static List<RestExchange> read(File file) throws IOException {
+		return read(new FileInputStream(file));
+	}
+
+	/**
+	 * Reads all the exchanges of an archive, and closes the stream.
+	 *
+	 * @param stream
+	 *            The stream of the archive
+	 * @return The exchanges, in the order they have been recorded.
+	 * @throws IOException
+	 *             If the stream cannot be read or is not an archive.
+	 */
+	public static List<RestExchange> read(InputStream stream) throws IOException {
+		List<RestExchange> exchanges = new ArrayList<RestExchange>();
+		DataInputStream in = new DataInputStream(new BufferedInputStream(stream));
+		Inflater inflater = new Inflater();
+		try {
+			if (in.readInt() != MAGIC) {
+				throw new IOException(TuleapCoreMessages.getString(TuleapCoreKeys.invalidRestArchive));
+			}
+			boolean end = false;
+			while (!end) {
+				byte[] raw = readRecord(in, inflater);
+				if (raw == null) {
+					end = true;
+				} else {
+					exchanges.add(readExchange(new DataInputStream(new ByteArrayInputStream(raw))));
+				}
+			}
+		} catch (EOFException e) {
+			// Empty archive, or last exchange interrupted while it was recorded
+		} finally {
+			inflater.end();
+			in.close();
+		}
+		return exchanges;
+	}
+
+	/**
+	 * Reads and decompresses the next exchange of an archive.
+	 *
+	 * @param in
+	 *            The stream of the archive
+	 * @param inflater
+	 *            The decompressor
+	 * @return The bytes of the exchange, <code>null</code> at the end of the archive.
+	 * @throws IOException
+	 *             If the stream cannot be read, ends in the middle of the exchange or is not an archive.
+	 */
+	private static byte[] readRecord(DataInputStream in, Inflater inflater) throws IOException {
+		int compressedLength;
+		try {
+			compressedLength = in.readInt();
+		} catch (EOFException e) {
+			return null;
+		}
+		int rawLength = in.readInt();
+		if (compressedLength < 0 || rawLength < 0) {
+			throw new IOException(TuleapCoreMessages.getString(TuleapCoreKeys.invalidRestArchive));
+		}
+		byte[] compressed = new byte[compressedLength];
+		in.readFully(compressed);
+		byte[] raw = new byte[rawLength];
+		inflater.reset();
+		inflater.setInput(compressed);
+		try {
+			int n = 0;
+			while (n < rawLength && !inflater.finished()) {
+				int inflated = inflater.inflate(raw, n, rawLength - n);
+				if (inflated == 0 && inflater.needsInput()) {
+					break;
+				}
+				n += inflated;
+			}
+			if (n != rawLength) {
+				throw new IOException(TuleapCoreMessages.getString(TuleapCoreKeys.invalidRestArchive));
+			}
+		} catch (DataFormatException e) {
+			throw new IOException(TuleapCoreMessages.getString(TuleapCoreKeys.invalidRestArchive), e);
+		}
+		return raw;
+	}
+
+	/**
+	 * Writes an exchange.
+	 *
+	 * @param data
+	 *            The stream
+	 * @param exchange
+	 *            The exchange
+	 * @throws IOException
+	 *             If the stream cannot be written.
+	 */
+	private static void writeExchange(DataOutputStream data, RestExchange exchange) throws IOException {
+		writeString(data, exchange.getMethod());
+		writeString(data, exchange.getPath());
+		writeString(data, exchange.getQuery());
+		writeHeaders(data, exchange.getRequestHeaders());
+		writeString(data, exchange.getRequestBody());
+		data.writeInt(exchange.getStatus());
+		writeHeaders(data, exchange.getResponseHeaders());
+		writeString(data, exchange.getResponseBody());
+		data.writeLong(exchange.getElapsed());
+	}
+
+	/**
+	 * Reads an exchange.
+	 *
+	 * @param data
+	 *            The stream
+	 * @return The exchange.
+	 * @throws IOException
+	 *             If the stream cannot be read.
+	 */
+	private static RestExchange readExchange(DataInputStream data) throws IOException {
+		String method = readString(data);
+		String path = readString(data);
+		String query = readString(data);
+		Map<String, String> requestHeaders = readHeaders(data);
+		String requestBody = readString(data);
+		int status = data.readInt();
+		Map<String, String> responseHeaders = readHeaders(data);
+		String responseBody = readString(data);
+		long elapsed = data.readLong();
+		return new RestExchange(method, path, query, requestHeaders, requestBody, status, responseHeaders,
+				responseBody, elapsed);
+	}
+
+	/**
+	 * Writes headers.
+	 *
+	 * @param data
+	 *            The stream
+	 * @param headers
+	 *            The headers
+	 * @throws IOException
+	 *             If the stream cannot be written.
+	 */
+	private static void writeHeaders(DataOutputStream data, Map<String, String> headers) throws IOException {
+		data.writeInt(headers.size());
+		for (Map.Entry<String, String> header : headers.entrySet()) {
+			writeString(data, header.getKey());
+			writeString(data, header.getValue());
+		}
+	}
+
+	/**
+	 * Reads headers.
+	 *
+	 * @param data
+	 *            The stream
+	 * @return The headers, in the order they have been written.
+	 * @throws IOException
+	 *             If the stream cannot be read.
+	 */
+	private static Map<String, String> readHeaders(DataInputStream data) throws IOException {
+		int size = data.readInt();
+		Map<String, String> headers = new LinkedHashMap<String, String>();
+		for (int i = 0; i < size; i++) {
+			String name = readString(data);
+			headers.put(name, readString(data));
+		}
+		return headers;
+	}
+
+	/**
+	 * Writes a string of any length in UTF-8.
+	 *
+	 * @param data
+	 *            The stream
+	 * @param s
+	 *            The string, can be <code>null</code>
+	 * @throws IOException
+	 *             If the stream cannot be written.
+	 */
+	private static void writeString(DataOutputStream data, String s) throws IOException {
+		if (s == null) {
+			data.writeInt(NULL_LENGTH);
+		} else {
+			byte[] bytes = s.getBytes(UTF8);
+			data.writeInt(bytes.length);
+			data.write(bytes);
+		}
+	}
+
+	/**
+	 * Reads a string written by {@link #writeString(DataOutputStream, String)}.
+	 *
+	 * @param data
+	 *            The stream
+	 * @return The string, can be <code>null</code>.
+	 * @throws IOException
+	 *             If the stream cannot be read.
+	 */
+	private static String readString(DataInputStream data) throws IOException {
+		int length = data.readInt();
+		if (length == NULL_LENGTH) {
+			return null;
+		}
+		if (length < 0) {
+			throw new IOException(TuleapCoreMessages.getString(TuleapCoreKeys.invalidRestArchive));
+		}
+		byte[] bytes = new byte[length];
+		data.readFully(bytes);
+		return new String(bytes, UTF8);
+	}
+}
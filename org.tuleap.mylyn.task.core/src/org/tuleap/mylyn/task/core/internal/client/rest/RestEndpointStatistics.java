@@ -0,0 +1,202 @@
+/*******************************************************************************
+ * Copyright (c) 2014 Obeo.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.tuleap.mylyn.task.core.internal.client.rest;
+
+/**
+ * Snapshot of the metrics of one REST endpoint, identified by its method and normalized resource template,
+ * such as {@code GET /artifacts/{id}/changesets}. Operations are the calls of {@link RestOperation}, which
+ * include the retries and the new login if needed, whereas requests are the HTTP exchanges of the
+ * connector.
+ *
+ * @author <a href="mailto:laurent.delaigue@obeo.fr">Laurent Delaigue</a>
+ */
+public final class RestEndpointStatistics {
+
+	/**
+	 * The method and resource template.
+	 */
+	private final String template;
+
+	/**
+	 * The number of operations.
+	 */
+	private final long operationCount;
+
+	/**
+	 * The number of operations that ended with an error.
+	 */
+	private final long operationErrors;
+
+	/**
+	 * The latencies of the operations.
+	 */
+	private final LatencyHistogram operationLatency;
+
+	/**
+	 * The number of requests.
+	 */
+	private final long requestCount;
+
+	/**
+	 * The number of requests that ended with an error.
+	 */
+	private final long requestErrors;
+
+	/**
+	 * The latencies of the requests.
+	 */
+	private final LatencyHistogram requestLatency;
+
+	/**
+	 * The number of bytes sent.
+	 */
+	private final long bytesOut;
+
+	/**
+	 * The number of bytes received.
+	 */
+	private final long bytesIn;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param template
+	 *            The method and resource template
+	 * @param operationCount
+	 *            The number of operations
+	 * @param operationErrors
+	 *            The number of operations that ended with an error
+	 * @param operationLatency
+	 *            A copy of the latencies of the operations
+	 * @param requestCount
+	 *            The number of requests
+	 * @param requestErrors
+	 *            The number of requests that ended with an error
+	 * @param requestLatency
+	 *            A copy of the latencies of the requests
+	 * @param bytesOut
+	 *            The number of bytes sent
+	 * @param bytesIn
+	 *            The number of bytes received
+	 */
+	// CHECKSTYLE:OFF (Many parameters for an immutable snapshot)
+	RestEndpointStatistics(String template, long operationCount, long operationErrors,
+			LatencyHistogram operationLatency, long requestCount, long requestErrors,
+			LatencyHistogram requestLatency, long bytesOut, long bytesIn) {
+		// CHECKSTYLE:ON
+		this.template = template;
+		this.operationCount = operationCount;
+		this.operationErrors = operationErrors;
+		this.operationLatency = operationLatency;
+		this.requestCount = requestCount;
+		this.requestErrors = requestErrors;
+		this.requestLatency = requestLatency;
+		this.bytesOut = bytesOut;
+		this.bytesIn = bytesIn;
+	}
+
+	/**
+	 * Template getter.
+	 *
+	 * @return The method and resource template, for instance {@code GET /artifacts/{id}/changesets}.
+	 */
+	public String getTemplate() {
+		return template;
+	}
+
+	/**
+	 * Operation count getter.
+	 *
+	 * @return The number of operations run.
+	 */
+	public long getOperationCount() {
+		return operationCount;
+	}
+
+	/**
+	 * Operation errors getter.
+	 *
+	 * @return The number of operations whose final response is an error.
+	 */
+	public long getOperationErrors() {
+		return operationErrors;
+	}
+
+	/**
+	 * Operation latency getter.
+	 *
+	 * @return The latencies of the operations.
+	 */
+	public LatencyHistogram getOperationLatency() {
+		return operationLatency.copy();
+	}
+
+	/**
+	 * Request count getter.
+	 *
+	 * @return The number of HTTP requests sent.
+	 */
+	public long getRequestCount() {
+		return requestCount;
+	}
+
+	/**
+	 * Request errors getter.
+	 *
+	 * @return The number of HTTP requests whose response is an error or that failed.
+	 */
+	public long getRequestErrors() {
+		return requestErrors;
+	}
+
+	/**
+	 * Request latency getter.
+	 *
+	 * @return The latencies of the HTTP requests, including the reading of their response body.
+	 */
+	public LatencyHistogram getRequestLatency() {
+		return requestLatency.copy();
+	}
+
+	/**
+	 * Bytes out getter.
+	 *
+	 * @return The number of bytes of the request bodies sent, as sent on the wire.
+	 */
+	public long getBytesOut() {
+		return bytesOut;
+	}
+
+	/**
+	 * Bytes in getter.
+	 *
+	 * @return The number of bytes of the response bodies received, as received on the wire.
+	 */
+	public long getBytesIn() {
+		return bytesIn;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		StringBuilder b = new StringBuilder(template);
+		b.append(": ").append(operationCount).append(" operations (").append(operationErrors); //$NON-NLS-1$ //$NON-NLS-2$
+		b.append(" errors, ").append(operationLatency).append("), "); //$NON-NLS-1$ //$NON-NLS-2$
+		b.append(requestCount).append(" requests (").append(requestErrors); //$NON-NLS-1$
+		b.append(" errors, ").append(requestLatency).append("), "); //$NON-NLS-1$ //$NON-NLS-2$
+		b.append(bytesOut).append(" bytes out, ").append(bytesIn).append(" bytes in"); //$NON-NLS-1$ //$NON-NLS-2$
+		return b.toString();
+	}
+}
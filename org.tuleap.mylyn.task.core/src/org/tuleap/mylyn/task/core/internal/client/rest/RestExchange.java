@@ -0,0 +1,244 @@
+/*******************************************************************************
+ * Copyright (c) 2014 Obeo.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.tuleap.mylyn.task.core.internal.client.rest;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Immutable record of a request sent to a server and of its response, as stored in a {@link RestArchive}.
+ *
+ * @author <a href="mailto:laurent.delaigue@obeo.fr">Laurent Delaigue</a>
+ */
+public final class RestExchange {
+
+	/**
+	 * The HTTP method.
+	 */
+	private final String method;
+
+	/**
+	 * The path of the request.
+	 */
+	private final String path;
+
+	/**
+	 * The query string of the request, <code>null</code> if there is none.
+	 */
+	private final String query;
+
+	/**
+	 * The headers of the request.
+	 */
+	private final Map<String, String> requestHeaders;
+
+	/**
+	 * The body of the request, <code>null</code> if there is none.
+	 */
+	private final String requestBody;
+
+	/**
+	 * The status of the response.
+	 */
+	private final int status;
+
+	/**
+	 * The headers of the response.
+	 */
+	private final Map<String, String> responseHeaders;
+
+	/**
+	 * The body of the response.
+	 */
+	private final String responseBody;
+
+	/**
+	 * The time the server took to answer, in milliseconds.
+	 */
+	private final long elapsed;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param method
+	 *            The HTTP method
+	 * @param path
+	 *            The path of the request
+	 * @param query
+	 *            The query string of the request, <code>null</code> if there is none
+	 * @param requestHeaders
+	 *            The headers of the request, can be <code>null</code>
+	 * @param requestBody
+	 *            The body of the request, <code>null</code> if there is none
+	 * @param status
+	 *            The status of the response
+	 * @param responseHeaders
+	 *            The headers of the response, can be <code>null</code>
+	 * @param responseBody
+	 *            The body of the response, can be <code>null</code>
+	 * @param elapsed
+	 *            The time the server took to answer, in milliseconds
+	 */
+	// CHECKSTYLE:OFF (A record has many fields)
+	public RestExchange(String method, String path, String query, Map<String, String> requestHeaders,
+			String requestBody, int status, Map<String, String> responseHeaders, String responseBody,
+			long elapsed) {
+		// CHECKSTYLE:ON
+		this.method = method;
+		this.path = path;
+		this.query = query;
+		this.requestHeaders = copy(requestHeaders);
+		this.requestBody = requestBody;
+		this.status = status;
+		this.responseHeaders = copy(responseHeaders);
+		this.responseBody = responseBody;
+		this.elapsed = elapsed;
+	}
+
+	/**
+	 * Copies headers in an unmodifiable map.
+	 *
+	 * @param headers
+	 *            The headers, can be <code>null</code>
+	 * @return An unmodifiable copy of the headers, never <code>null</code>.
+	 */
+	private static Map<String, String> copy(Map<String, String> headers) {
+		if (headers == null || headers.isEmpty()) {
+			return Collections.emptyMap();
+		}
+		return Collections.unmodifiableMap(new LinkedHashMap<String, String>(headers));
+	}
+
+	/**
+	 * Method getter.
+	 *
+	 * @return The HTTP method.
+	 */
+	public String getMethod() {
+		return method;
+	}
+
+	/**
+	 * Path getter.
+	 *
+	 * @return The path of the request.
+	 */
+	public String getPath() {
+		return path;
+	}
+
+	/**
+	 * Query getter.
+	 *
+	 * @return The query string of the request, <code>null</code> if there is none.
+	 */
+	public String getQuery() {
+		return query;
+	}
+
+	/**
+	 * Request headers getter.
+	 *
+	 * @return The unmodifiable headers of the request.
+	 */
+	public Map<String, String> getRequestHeaders() {
+		return requestHeaders;
+	}
+
+	/**
+	 * Request body getter.
+	 *
+	 * @return The body of the request, <code>null</code> if there is none.
+	 */
+	public String getRequestBody() {
+		return requestBody;
+	}
+
+	/**
+	 * Status getter.
+	 *
+	 * @return The status of the response.
+	 */
+	public int getStatus() {
+		return status;
+	}
+
+	/**
+	 * Response headers getter.
+	 *
+	 * @return The unmodifiable headers of the response.
+	 */
+	public Map<String, String> getResponseHeaders() {
+		return responseHeaders;
+	}
+
+	/**
+	 * Response body getter.
+	 *
+	 * @return The body of the response, can be <code>null</code>.
+	 */
+	public String getResponseBody() {
+		return responseBody;
+	}
+
+	/**
+	 * Elapsed time getter.
+	 *
+	 * @return The time the server took to answer, in milliseconds.
+	 */
+	public long getElapsed() {
+		return elapsed;
+	}
+
+	/**
+	 * Computes the key that identifies the request of this exchange, used to find the recorded response of
+	 * a request when it is replayed.
+	 *
+	 * @return The method, the path and the query string of the request.
+	 */
+	public String getRequestKey() {
+		return requestKey(method, path, query);
+	}
+
+	/**
+	 * Computes the key that identifies a request.
+	 *
+	 * @param method
+	 *            The HTTP method
+	 * @param path
+	 *            The path of the request
+	 * @param query
+	 *            The query string of the request, can be <code>null</code>
+	 * @return The method, the path and the query string of the request.
+	 */
+	public static String requestKey(String method, String path, String query) {
+		StringBuilder b = new StringBuilder();
+		b.append(method).append(' ').append(path);
+		if (query != null && query.length() > 0) {
+			b.append('?').append(query);
+		}
+		return b.toString();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		StringBuilder b = new StringBuilder(getRequestKey());
+		b.append(" -> ").append(status); //$NON-NLS-1$
+		b.append(" (").append(elapsed).append(" ms)"); //$NON-NLS-1$ //$NON-NLS-2$
+		return b.toString();
+	}
+}
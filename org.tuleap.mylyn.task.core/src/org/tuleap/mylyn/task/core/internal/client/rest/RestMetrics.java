@@ -0,0 +1,315 @@
+/*******************************************************************************
+ * Copyright (c) 2014 Obeo.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.tuleap.mylyn.task.core.internal.client.rest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Metrics of the REST calls of a repository, by endpoint. Endpoints are identified by the method and the
+ * resource template, in which the identifiers are replaced by {@code {id}} and the API prefix is removed,
+ * for instance {@code GET /artifacts/{id}/changesets}. The number of endpoints is bounded, the calls of the
+ * endpoints found beyond the limit are recorded together under {@value #OTHER_TEMPLATE}. This class is
+ * thread-safe.
+ *
+ * @author <a href="mailto:laurent.delaigue@obeo.fr">Laurent Delaigue</a>
+ */
+public class RestMetrics {
+
+	/**
+	 * Replacement of the identifiers in the templates.
+	 */
+	public static final String ID_PLACEHOLDER = "{id}"; //$NON-NLS-1$
+
+	/**
+	 * Template of the calls of the endpoints found when the maximum number of endpoints has been reached.
+	 */
+	public static final String OTHER_TEMPLATE = "{other}"; //$NON-NLS-1$
+
+	/**
+	 * Maximum number of distinct endpoints.
+	 */
+	public static final int MAX_ENDPOINTS = 256;
+
+	/**
+	 * Minimum length of the non-numeric segments that are considered as identifiers, such as tokens.
+	 */
+	private static final int MIN_HEXADECIMAL_ID_LENGTH = 16;
+
+	/**
+	 * The collections of the API, whose next segment is the identifier of an element, whatever its form.
+	 */
+	private static final Set<String> COLLECTIONS = new HashSet<String>(Arrays.asList(
+			RestResource.URL.ARTIFACTS, RestResource.URL.ARTIFACT_FILES,
+			RestResource.URL.ARTIFACT_TEMPORARY_FILES, RestResource.URL.PROJECTS, RestResource.URL.TOKENS,
+			RestResource.URL.TRACKERS, RestResource.URL.TRACKER_REPORTS, RestResource.URL.USER_GROUPS,
+			RestResource.URL.USERS));
+
+	/**
+	 * The metrics of each endpoint, by template.
+	 */
+	private final Map<String, Endpoint> endpoints = new TreeMap<String, Endpoint>();
+
+	/**
+	 * Records the outcome of an operation.
+	 *
+	 * @param method
+	 *            The HTTP method
+	 * @param path
+	 *            The path of the resource
+	 * @param elapsedMillis
+	 *            The duration of the operation, in milliseconds
+	 * @param status
+	 *            The status of the final response of the operation
+	 */
+	public synchronized void recordOperation(String method, String path, long elapsedMillis, int status) {
+		Endpoint endpoint = getEndpoint(template(method, path));
+		endpoint.operationCount++;
+		if (isError(status)) {
+			endpoint.operationErrors++;
+		}
+		endpoint.operationLatency.record(elapsedMillis);
+	}
+
+	/**
+	 * Records the outcome of an HTTP request.
+	 *
+	 * @param method
+	 *            The HTTP method
+	 * @param path
+	 *            The path of the resource
+	 * @param elapsedMillis
+	 *            The duration of the exchange, including the reading of the response body, in milliseconds
+	 * @param bytesOut
+	 *            The number of bytes of the request body
+	 * @param bytesIn
+	 *            The number of bytes of the response body
+	 * @param status
+	 *            The status of the response
+	 */
+	public synchronized void recordRequest(String method, String path, long elapsedMillis, long bytesOut,
+			long bytesIn, int status) {
+		Endpoint endpoint = getEndpoint(template(method, path));
+		endpoint.requestCount++;
+		if (isError(status)) {
+			endpoint.requestErrors++;
+		}
+		endpoint.requestLatency.record(elapsedMillis);
+		endpoint.bytesOut += Math.max(0L, bytesOut);
+		endpoint.bytesIn += Math.max(0L, bytesIn);
+	}
+
+	/**
+	 * Provides a snapshot of the metrics of all the endpoints that have been called.
+	 *
+	 * @return A new list of the statistics of the endpoints, sorted by template.
+	 */
+	public synchronized List<RestEndpointStatistics> getStatistics() {
+		List<RestEndpointStatistics> result = new ArrayList<RestEndpointStatistics>(endpoints.size());
+		for (Map.Entry<String, Endpoint> entry : endpoints.entrySet()) {
+			result.add(entry.getValue().snapshot(entry.getKey()));
+		}
+		return result;
+	}
+
+	/**
+	 * Provides a snapshot of the metrics of one endpoint.
+	 *
+	 * @param template
+	 *            The template of the endpoint, for instance {@code GET /artifacts/{id}/changesets}
+	 * @return The statistics of the endpoint, or <code>null</code> if it has not been called.
+	 */
+	public synchronized RestEndpointStatistics getStatistics(String template) {
+		Endpoint endpoint = endpoints.get(template);
+		if (endpoint == null) {
+			return null;
+		}
+		return endpoint.snapshot(template);
+	}
+
+	/**
+	 * Forgets all the metrics.
+	 */
+	public synchronized void reset() {
+		endpoints.clear();
+	}
+
+	/**
+	 * Provides the metrics of the given template, creating them if necessary, or the metrics of
+	 * {@value #OTHER_TEMPLATE} if there are already too many endpoints.
+	 *
+	 * @param template
+	 *            The template
+	 * @return The metrics of the template.
+	 */
+	private Endpoint getEndpoint(String template) {
+		Endpoint endpoint = endpoints.get(template);
+		if (endpoint == null) {
+			String key = template;
+			if (endpoints.size() >= MAX_ENDPOINTS - 1) {
+				key = OTHER_TEMPLATE;
+				endpoint = endpoints.get(key);
+			}
+			if (endpoint == null) {
+				endpoint = new Endpoint();
+				endpoints.put(key, endpoint);
+			}
+		}
+		return endpoint;
+	}
+
+	/**
+	 * Indicates whether the given status is an error.
+	 *
+	 * @param status
+	 *            The status of a response
+	 * @return <code>true</code> for client and server errors, and communication failures.
+	 */
+	private static boolean isError(int status) {
+		return status >= ServerResponse.STATUS_BAD_REQUEST;
+	}
+
+	/**
+	 * Computes the template of a call. The query string and the API prefix, such as {@code /api/v1}, are
+	 * removed, and the segments that are identifiers are replaced by {@value #ID_PLACEHOLDER}. A segment is
+	 * an identifier if it follows the name of a collection of the API, or if it looks like one.
+	 *
+	 * @param method
+	 *            The HTTP method
+	 * @param path
+	 *            The path of the resource, as sent
+	 * @return The template, for instance {@code GET /artifacts/{id}/changesets}.
+	 */
+	public static String template(String method, String path) {
+		String p = path;
+		if (p == null) {
+			p = ""; //$NON-NLS-1$
+		}
+		int query = p.indexOf('?');
+		if (query >= 0) {
+			p = p.substring(0, query);
+		}
+		int api = p.indexOf(RestResourceFactory.API_PREFIX);
+		if (api >= 0) {
+			int versionEnd = p.indexOf('/', api + RestResourceFactory.API_PREFIX.length());
+			if (versionEnd < 0) {
+				p = ""; //$NON-NLS-1$
+			} else {
+				p = p.substring(versionEnd);
+			}
+		}
+		StringBuilder b = new StringBuilder(method).append(' ');
+		String[] segments = p.split("/"); //$NON-NLS-1$
+		boolean afterCollection = false;
+		for (String segment : segments) {
+			if (segment.length() > 0) {
+				b.append('/');
+				if (afterCollection || isIdentifier(segment)) {
+					b.append(ID_PLACEHOLDER);
+					afterCollection = false;
+				} else {
+					b.append(segment);
+					afterCollection = COLLECTIONS.contains(segment);
+				}
+			}
+		}
+		if (b.charAt(b.length() - 1) == ' ') {
+			b.append('/');
+		}
+		return b.toString();
+	}
+
+	/**
+	 * Indicates whether a segment of path is an identifier, which is the case of numbers and of long
+	 * hexadecimal strings.
+	 *
+	 * @param segment
+	 *            The segment
+	 * @return <code>true</code> if the segment is an identifier.
+	 */
+	private static boolean isIdentifier(String segment) {
+		boolean digits = true;
+		boolean hexadecimal = true;
+		for (int i = 0; i < segment.length() && hexadecimal; i++) {
+			char c = segment.charAt(i);
+			if (c < '0' || c > '9') {
+				digits = false;
+				hexadecimal = (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F') || c == '-';
+			}
+		}
+		return digits || (hexadecimal && segment.length() >= MIN_HEXADECIMAL_ID_LENGTH);
+	}
+
+	/**
+	 * The mutable metrics of one endpoint, guarded by the lock of the enclosing instance.
+	 *
+	 * @author <a href="mailto:laurent.delaigue@obeo.fr">Laurent Delaigue</a>
+	 */
+	private static final class Endpoint {
+
+		/**
+		 * The number of operations.
+		 */
+		private long operationCount;
+
+		/**
+		 * The number of operations that ended with an error.
+		 */
+		private long operationErrors;
+
+		/**
+		 * The latencies of the operations.
+		 */
+		private final LatencyHistogram operationLatency = new LatencyHistogram();
+
+		/**
+		 * The number of requests.
+		 */
+		private long requestCount;
+
+		/**
+		 * The number of requests that ended with an error.
+		 */
+		private long requestErrors;
+
+		/**
+		 * The latencies of the requests.
+		 */
+		private final LatencyHistogram requestLatency = new LatencyHistogram();
+
+		/**
+		 * The number of bytes sent.
+		 */
+		private long bytesOut;
+
+		/**
+		 * The number of bytes received.
+		 */
+		private long bytesIn;
+
+		/**
+		 * Creates a snapshot of these metrics.
+		 *
+		 * @param template
+		 *            The template of the endpoint
+		 * @return A new immutable snapshot.
+		 */
+		private RestEndpointStatistics snapshot(String template) {
+			return new RestEndpointStatistics(template, operationCount, operationErrors, operationLatency
+					.copy(), requestCount, requestErrors, requestLatency.copy(), bytesOut, bytesIn);
+		}
+	}
+}
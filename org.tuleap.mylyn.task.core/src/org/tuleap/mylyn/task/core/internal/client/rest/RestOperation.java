@@ -13,13 +13,20 @@ package org.tuleap.mylyn.task.core.internal.client.rest;
 import com.google.common.collect.LinkedHashMultimap;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Multimap;
+import com.google.common.util.concurrent.ListenableFuture;
 import com.google.gson.Gson;
 import com.google.gson.JsonElement;
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
 
 import java.io.UnsupportedEncodingException;
+import java.lang.reflect.Type;
 import java.util.Arrays;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.apache.commons.httpclient.HttpMethod;
 import org.apache.commons.httpclient.HttpStatus;
@@ -30,11 +37,13 @@ import org.apache.commons.httpclient.methods.GetMethod;
 import org.apache.commons.httpclient.methods.OptionsMethod;
 import org.apache.commons.httpclient.methods.PostMethod;
 import org.apache.commons.httpclient.methods.PutMethod;
+import org.apache.commons.httpclient.methods.RequestEntity;
 import org.apache.commons.httpclient.methods.StringRequestEntity;
 import org.apache.commons.lang.NotImplementedException;
 import org.eclipse.core.runtime.Assert;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.ILog;
+import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Status;
 import org.tuleap.mylyn.task.core.internal.TuleapCoreActivator;
@@ -79,6 +88,11 @@ public class RestOperation {
 	 */
 	private static final String ENCODING_UTF8 = "UTF-8"; //$NON-NLS-1$
 
+	/**
+	 * Minimum length of the body for it to be compressed, when body compression is enabled.
+	 */
+	private static final int COMPRESSION_THRESHOLD = 4096;
+
 	/**
 	 * The full URL.
 	 */
@@ -89,6 +103,76 @@ public class RestOperation {
 	 */
 	protected String body;
 
+	/**
+	 * The object to serialize in the body of the request, <code>null</code> to send the string body.
+	 */
+	protected Object bodySource;
+
+	/**
+	 * The type to use to serialize the body object.
+	 */
+	protected Type bodySourceType;
+
+	/**
+	 * The entity that serializes the body object, created once and sent again by the retries.
+	 */
+	private JsonRequestEntity jsonEntity;
+
+	/**
+	 * Flag indicating whether large bodies must be sent compressed with gzip.
+	 */
+	protected boolean compressBody;
+
+	/**
+	 * The cache of validated responses to use for GET requests, <code>null</code> if no cache must be used.
+	 */
+	protected ValidationCache validationCache;
+
+	/**
+	 * The policy used to send the request again after a failure, <code>null</code> if it must not be sent
+	 * again.
+	 */
+	protected RetryPolicy retryPolicy;
+
+	/**
+	 * The circuit breaker of the host, <code>null</code> if requests must always be sent.
+	 */
+	protected CircuitBreaker circuitBreaker;
+
+	/**
+	 * The metrics in which the operation is recorded, <code>null</code> if it must not be recorded.
+	 */
+	protected RestMetrics metrics;
+
+	/**
+	 * The throttle that limits the rate of the requests, <code>null</code> if the rate is not limited.
+	 */
+	protected RequestThrottle throttle;
+
+	/**
+	 * The maximum number of pages fetched ahead, concurrently, when the paginated result of this operation
+	 * is iterated, 0 to fetch the pages one at a time.
+	 */
+	protected int prefetchLimit;
+
+	/**
+	 * The advisor that chooses the number of elements of the pages when the paginated result of this
+	 * operation is iterated, <code>null</code> to ask for the maximum allowed by the server.
+	 */
+	protected PageSizeAdvisor pageSizeAdvisor;
+
+	/**
+	 * The checkpoints from which the iteration over the paginated result of this operation resumes after a
+	 * failure, <code>null</code> if a failed iteration must start again from the first page.
+	 */
+	protected PaginationCheckpoints checkpoints;
+
+	/**
+	 * The monitor whose cancellation stops the iteration over the result of this operation, can be
+	 * <code>null</code>.
+	 */
+	protected IProgressMonitor monitor;
+
 	/**
 	 * Authenticator to use.
 	 */
@@ -244,10 +328,18 @@ public class RestOperation {
 	public HttpMethod createMethod() {
 		HttpMethod m = method.create();
 		if (m instanceof EntityEnclosingMethod) {
-			StringRequestEntity entity;
+			RequestEntity entity;
 			try {
-				if (body == null) {
+				if (bodySource != null) {
+					entity = getJsonEntity();
+					if (jsonEntity.isCompressed()) {
+						m.setRequestHeader(ContentEncodings.HEADER_CONTENT_ENCODING, ContentEncodings.GZIP);
+					}
+				} else if (body == null) {
 					entity = new StringRequestEntity(EMPTY_BODY, CONTENT_TYPE_JSON, ENCODING_UTF8);
+				} else if (compressBody && body.length() >= COMPRESSION_THRESHOLD) {
+					entity = new GzipRequestEntity(body, CONTENT_TYPE_JSON, ENCODING_UTF8);
+					m.setRequestHeader(ContentEncodings.HEADER_CONTENT_ENCODING, ContentEncodings.GZIP);
 				} else {
 					entity = new StringRequestEntity(body, CONTENT_TYPE_JSON, ENCODING_UTF8);
 				}
@@ -271,42 +363,283 @@ public class RestOperation {
 		return m;
 	}
 
+	/**
+	 * Provides the entity that serializes the body object, created the first time the method is created.
+	 *
+	 * @return The entity of the body object.
+	 * @throws UnsupportedEncodingException
+	 *             If UTF-8 is not supported.
+	 */
+	private JsonRequestEntity getJsonEntity() throws UnsupportedEncodingException {
+		if (jsonEntity == null) {
+			int threshold = -1;
+			if (compressBody) {
+				threshold = COMPRESSION_THRESHOLD;
+			}
+			jsonEntity = new JsonRequestEntity(gson, bodySource, bodySourceType, CONTENT_TYPE_JSON,
+					ENCODING_UTF8, threshold);
+		}
+		return jsonEntity;
+	}
+
 	/**
 	 * Run this operation by sending the relevant request and returning the received response.
 	 *
 	 * @return The response received from the server after sending it the relevant request.
 	 */
 	public ServerResponse run() {
+		return run(false);
+	}
+
+	/**
+	 * Run this operation by sending the relevant request and returning the received response, whose body is
+	 * read from the connection only when it is consumed. The returned response must be
+	 * {@link ServerResponse#close() closed} once it has been consumed.
+	 *
+	 * @return The response received from the server after sending it the relevant request.
+	 */
+	public ServerResponse runStreaming() {
+		return run(true);
+	}
+
+	/**
+	 * Run this operation by sending the relevant request and returning the received response, or the cached
+	 * response if the server reports that it has not been modified.
+	 *
+	 * @param streaming
+	 *            Whether the body of the response must be streamed.
+	 * @return The response received from the server after sending it the relevant request.
+	 */
+	private ServerResponse run(boolean streaming) {
+		long start = System.nanoTime();
+		ValidationCache.Entry cached = null;
+		String cacheKey = null;
+		boolean stream = streaming;
+		if (validationCache != null && method == Method.GET) {
+			// The body must be read to be cached
+			stream = false;
+			cacheKey = getCacheKey();
+			cached = validationCache.get(cacheKey);
+			addValidators(cached);
+		}
+		ServerResponse response = resilientRun(stream);
+		if (cacheKey != null) {
+			if (cached != null && response.getStatus() == ServerResponse.STATUS_NOT_MODIFIED) {
+				response = cached.toResponse();
+			} else if (response.isOk()) {
+				validationCache.put(cacheKey, response);
+			}
+		}
+		if (metrics != null) {
+			// For streaming responses, the time to read the body is not included
+			metrics.recordOperation(method.name(), fullUrl, TimeUnit.NANOSECONDS.toMillis(System.nanoTime()
+					- start), response.getStatus());
+		}
+		return response;
+	}
+
+	/**
+	 * Sets the conditional headers for the given cache entry, or removes them if there is no entry.
+	 *
+	 * @param cached
+	 *            The cached entry, can be <code>null</code>
+	 */
+	private void addValidators(ValidationCache.Entry cached) {
+		requestHeaders.remove(ValidationCache.HEADER_IF_NONE_MATCH);
+		requestHeaders.remove(ValidationCache.HEADER_IF_MODIFIED_SINCE);
+		if (cached != null) {
+			if (cached.getEtag() != null) {
+				requestHeaders.put(ValidationCache.HEADER_IF_NONE_MATCH, cached.getEtag());
+			}
+			if (cached.getLastModified() != null) {
+				requestHeaders.put(ValidationCache.HEADER_IF_MODIFIED_SINCE, cached.getLastModified());
+			}
+		}
+	}
+
+	/**
+	 * Computes the key of this operation in the validation cache, made of the URL and the query string.
+	 *
+	 * @return The key of this operation in the cache.
+	 */
+	protected String getCacheKey() {
+		StringBuilder b = new StringBuilder(fullUrl);
+		char separator = '?';
+		for (Entry<String, String> entry : requestParameters.entries()) {
+			b.append(separator).append(entry.getKey()).append('=').append(entry.getValue());
+			separator = '&';
+		}
+		return b.toString();
+	}
+
+	/**
+	 * Run this operation by sending the relevant request as long as the retry policy asks for it, unless the
+	 * circuit breaker of the host rejects it. The circuit breaker records the outcome of the operation once,
+	 * after its last attempt, and records a failure if the operation does not complete.
+	 *
+	 * @param streaming
+	 *            Whether the body of the response must be streamed.
+	 * @return The response received from the server for the last attempt, or a response with the status
+	 *         {@link CircuitBreaker#CIRCUIT_OPEN_STATUS_CODE} if the request has been rejected.
+	 */
+	private ServerResponse resilientRun(boolean streaming) {
+		if (circuitBreaker == null) {
+			return retryingRun(streaming);
+		}
+		if (!circuitBreaker.allowRequest()) {
+			return new ServerResponse(CircuitBreaker.CIRCUIT_OPEN_STATUS_CODE, EMPTY_BODY, Maps
+					.<String, String> newHashMap());
+		}
+		ServerResponse response = null;
+		try {
+			response = retryingRun(streaming);
+		} finally {
+			if (response == null) {
+				// Do not leave a trial request in flight forever
+				circuitBreaker.recordFailure();
+			} else {
+				circuitBreaker.record(response.getStatus());
+			}
+		}
+		return response;
+	}
+
+	/**
+	 * Run this operation by sending the relevant request as long as the retry policy asks for it, and as
+	 * long as the monitor of the operation, if any, is not cancelled.
+	 *
+	 * @param streaming
+	 *            Whether the body of the response must be streamed.
+	 * @return The response received from the server for the last attempt.
+	 */
+	private ServerResponse retryingRun(boolean streaming) {
+		ServerResponse response = null;
+		int attempt = 1;
+		boolean retry = true;
+		while (retry) {
+			response = authenticatedRun(streaming);
+			retry = retryPolicy != null && retryPolicy.shouldRetry(method, response, attempt);
+			if (retry) {
+				long delay = retryPolicy.getDelay(response, attempt);
+				// Reading the (small) error body releases the connection while waiting
+				response.getBody();
+				try {
+					// A cancelled operation is not sent again
+					retry = retryPolicy.await(delay, monitor);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					retry = false;
+				}
+				attempt++;
+			}
+		}
+		return response;
+	}
+
+	/**
+	 * Run this operation by sending the relevant request, logging in again if the server answers 401
+	 * Unauthorized.
+	 *
+	 * @param streaming
+	 *            Whether the body of the response must be streamed.
+	 * @return The response received from the server after sending it the relevant request.
+	 */
+	private ServerResponse authenticatedRun(boolean streaming) {
+		TuleapToken token = null;
+		boolean renewalFailed = false;
 		if (authenticator != null) {
-			TuleapToken token = authenticator.getToken();
-			if (token != null) {
-				requestHeaders.put(X_AUTH_TOKEN, token.getToken());
-				requestHeaders.put(X_AUTH_USER_ID, token.getUserId());
+			token = authenticator.getToken();
+			if (token != null && token.isExpired(System.currentTimeMillis())) {
+				// Renew the token now rather than after a round-trip rejected by the server
+				try {
+					token = renewToken(token);
+				} catch (CoreException e) {
+					renewalFailed = true;
+					logInvalidCredentials();
+				}
 			}
+			setTokenHeaders(token);
 		}
 		HttpMethod httpMethod = createMethod();
-		ServerResponse response = connector.sendRequest(httpMethod);
+		ServerResponse response = send(httpMethod, streaming);
 		if (response.getStatus() == ServerResponse.STATUS_UNAUTHORIZED) {
-			// Try to login
-			if (authenticator != null) {
+			// Try to login, unless another request has already renewed the token
+			if (authenticator != null && !renewalFailed) {
 				try {
-					authenticator.login();
-					TuleapToken token = authenticator.getToken();
+					token = renewToken(token);
 					if (token != null) {
-						requestHeaders.put(X_AUTH_TOKEN, token.getToken());
-						requestHeaders.put(X_AUTH_USER_ID, token.getUserId());
+						setTokenHeaders(token);
 						httpMethod = createMethod();
-						response = connector.sendRequest(httpMethod);
+						response.close();
+						response = send(httpMethod, streaming);
 					}
 				} catch (CoreException e) {
-					logger.log(new Status(IStatus.ERROR, TuleapCoreActivator.PLUGIN_ID, TuleapCoreMessages
-							.getString(TuleapCoreKeys.invalidCredentials)));
+					logInvalidCredentials();
 				}
 			}
 		}
 		return response;
 	}
 
+	/**
+	 * Replaces the given token, or waits for its replacement if another request is already renewing it.
+	 *
+	 * @param rejectedToken
+	 *            The token rejected by the server or expired, can be <code>null</code>
+	 * @return The new token, can be <code>null</code> if there are no credentials.
+	 * @throws CoreException
+	 *             If the credentials are invalid.
+	 */
+	private TuleapToken renewToken(TuleapToken rejectedToken) throws CoreException {
+		authenticator.renewToken(rejectedToken);
+		return authenticator.getToken();
+	}
+
+	/**
+	 * Sets the authentication headers of the request.
+	 *
+	 * @param token
+	 *            The token to send, nothing is set if it is <code>null</code>
+	 */
+	private void setTokenHeaders(TuleapToken token) {
+		if (token != null) {
+			requestHeaders.put(X_AUTH_TOKEN, token.getToken());
+			requestHeaders.put(X_AUTH_USER_ID, token.getUserId());
+		}
+	}
+
+	/**
+	 * Logs that the credentials are invalid.
+	 */
+	private void logInvalidCredentials() {
+		logger.log(new Status(IStatus.ERROR, TuleapCoreActivator.PLUGIN_ID, TuleapCoreMessages
+				.getString(TuleapCoreKeys.invalidCredentials)));
+	}
+
+	/**
+	 * Sends the given method with the connector.
+	 *
+	 * @param httpMethod
+	 *            The method to send
+	 * @param streaming
+	 *            Whether the body of the response must be streamed.
+	 * @return The received response.
+	 */
+	private ServerResponse send(HttpMethod httpMethod, boolean streaming) {
+		if (throttle != null) {
+			try {
+				throttle.acquire();
+			} catch (InterruptedException e) {
+				// Send the request anyway, the caller will notice the interruption
+				Thread.currentThread().interrupt();
+			}
+		}
+		if (streaming) {
+			return connector.sendStreamingRequest(httpMethod);
+		}
+		return connector.sendRequest(httpMethod);
+	}
+
 	/**
 	 * Runs this operation by sending the relevant request, and checks the received response.
 	 *
@@ -320,6 +653,89 @@ public class RestOperation {
 		return response;
 	}
 
+	/**
+	 * Retrieves the number of elements of the paginated result of this operation without retrieving them:
+	 * a single element is asked for, and the size of the list is read from the {@code X-PAGINATION-SIZE}
+	 * header of the response.
+	 *
+	 * @return The number of elements of the result of this operation.
+	 * @throws CoreException
+	 *             If the received response status is not 200 OK, or if the result is not paginated.
+	 */
+	public int count() throws CoreException {
+		ServerResponse response = copy().withValidationCache(null).withoutQueryParameters(RestResource.OFFSET)
+				.withQueryParameter(RestResource.LIMIT, "1").checkedRun(); //$NON-NLS-1$
+		String size = response.getHeaders().get(RestResource.HEADER_X_PAGINATION_SIZE);
+		if (size != null) {
+			try {
+				return Integer.parseInt(size);
+			} catch (NumberFormatException e) {
+				// Reported below
+			}
+		}
+		throw new CoreException(new Status(IStatus.ERROR, TuleapCoreActivator.PLUGIN_ID, TuleapCoreMessages
+				.getString(TuleapCoreKeys.invalidPaginationHeader)));
+	}
+
+	/**
+	 * Runs this operation without blocking the caller. The operation is run as soon as the limit of
+	 * requests in flight of the connector allows it, and behaves exactly like {@link #run()}.
+	 *
+	 * @return The future response received from the server.
+	 */
+	public ListenableFuture<ServerResponse> runAsync() {
+		return runAsync(new AtomicBoolean());
+	}
+
+	/**
+	 * Runs this operation without blocking the caller, unless the operation is claimed by someone else
+	 * before it starts.
+	 *
+	 * @param claim
+	 *            The flag that the operation sets when it starts, and that someone else can set beforehand to
+	 *            prevent it from being sent
+	 * @return The future response received from the server, or a future <code>null</code> if the operation
+	 *         has been claimed by someone else.
+	 */
+	ListenableFuture<ServerResponse> runAsync(final AtomicBoolean claim) {
+		final boolean foreground = RequestThrottle.isForeground();
+		return connector.submit(new Callable<ServerResponse>() {
+			@Override
+			public ServerResponse call() {
+				if (!claim.compareAndSet(false, true)) {
+					return null;
+				}
+				boolean previous = RequestThrottle.setForeground(foreground);
+				try {
+					return run();
+				} finally {
+					RequestThrottle.setForeground(previous);
+				}
+			}
+		});
+	}
+
+	/**
+	 * Runs this operation without blocking the caller, and checks the received response like
+	 * {@link #checkedRun()}. If the response is an error, the future fails with a {@link CoreException}.
+	 *
+	 * @return The future response received from the server.
+	 */
+	public ListenableFuture<ServerResponse> checkedRunAsync() {
+		final boolean foreground = RequestThrottle.isForeground();
+		return connector.submit(new Callable<ServerResponse>() {
+			@Override
+			public ServerResponse call() throws CoreException {
+				boolean previous = RequestThrottle.setForeground(foreground);
+				try {
+					return checkedRun();
+				} finally {
+					RequestThrottle.setForeground(previous);
+				}
+			}
+		});
+	}
+
 	/**
 	 * Provides an iterable view of this operation. Use this for operation that return JSON arrays.
 	 *
@@ -329,6 +745,35 @@ public class RestOperation {
 		return new RestOperationIterable(this);
 	}
 
+	/**
+	 * Provides a typed iterable view of this operation. Use this for operation that return JSON arrays. Each
+	 * element is decoded with the {@link Gson} of this operation straight from the body of the response,
+	 * while it is iterated, so that the elements can be processed as they arrive.
+	 *
+	 * @param type
+	 *            The type of the elements
+	 * @param <T>
+	 *            The type of the elements
+	 * @return a new {@link TypedRestOperationIterable} that wraps this operation.
+	 */
+	public <T> Iterable<T> iterable(Class<T> type) {
+		return new TypedRestOperationIterable<T>(this, gson.getAdapter(type));
+	}
+
+	/**
+	 * Provides a typed iterable view of this operation, whose elements are decoded with the given adapter
+	 * instead of the {@link Gson} of this operation. Use this for operation that return JSON arrays.
+	 *
+	 * @param adapter
+	 *            The adapter that decodes the elements
+	 * @param <T>
+	 *            The type of the elements
+	 * @return a new {@link TypedRestOperationIterable} that wraps this operation.
+	 */
+	public <T> Iterable<T> iterable(TypeAdapter<T> adapter) {
+		return new TypedRestOperationIterable<T>(this, adapter);
+	}
+
 	/**
 	 * Throws a CoreException that encapsulates useful info about a server error.
 	 *
@@ -349,7 +794,9 @@ public class RestOperation {
 			}
 			String msg;
 			int statusCode = response.getStatus();
-			if (statusCode >= 1000) {
+			if (statusCode == CircuitBreaker.CIRCUIT_OPEN_STATUS_CODE && circuitBreaker != null) {
+				msg = TuleapCoreMessages.getString(TuleapCoreKeys.circuitOpen, circuitBreaker.getHostKey());
+			} else if (statusCode >= 1000) {
 				// Communication error
 				msg = TuleapCoreMessages.getString(TuleapCoreKeys.communicationError, Integer
 						.toString(statusCode));
@@ -382,6 +829,20 @@ public class RestOperation {
 		}
 	}
 
+	/**
+	 * Creates a CoreException that reports a response body that could not be read until its end, because
+	 * the connection has been lost or because the body is malformed.
+	 *
+	 * @param e
+	 *            The error raised while the body was read
+	 * @return A CoreException with an I/O error status.
+	 */
+	protected CoreException bodyError(JsonParseException e) {
+		String msg = TuleapCoreMessages.getString(TuleapCoreKeys.ioError, method.name() + ' ' + fullUrl, e
+				.getMessage());
+		return new CoreException(new Status(IStatus.ERROR, TuleapCoreActivator.PLUGIN_ID, msg, e));
+	}
+
 	/**
 	 * Sets the authentication token to use for the request.
 	 *
@@ -403,6 +864,186 @@ public class RestOperation {
 	 */
 	public RestOperation withBody(String someBody) {
 		this.body = someBody;
+		this.bodySource = null;
+		this.jsonEntity = null;
+		return this;
+	}
+
+	/**
+	 * Sets the object to serialize in JSON in the body of the request. The object is serialized directly in
+	 * the request stream when the request is sent, and must not be modified until then.
+	 *
+	 * @param source
+	 *            The object to send.
+	 * @param sourceType
+	 *            The type to use to serialize the object.
+	 * @return The instance on which this method has been called, for a fluent API.
+	 */
+	public RestOperation withBody(Object source, Type sourceType) {
+		Assert.isNotNull(source);
+		Assert.isNotNull(sourceType);
+		this.body = null;
+		this.bodySource = source;
+		this.bodySourceType = sourceType;
+		this.jsonEntity = null;
+		return this;
+	}
+
+	/**
+	 * Sets the cache to use to send conditional GET requests and to replay the cached responses that the
+	 * server reports as not modified.
+	 *
+	 * @param cache
+	 *            The cache to use, <code>null</code> to disable caching.
+	 * @return The instance on which this method has been called, for a fluent API.
+	 */
+	public RestOperation withValidationCache(ValidationCache cache) {
+		this.validationCache = cache;
+		return this;
+	}
+
+	/**
+	 * Sets the policy used to send the request again after a failure.
+	 *
+	 * @param policy
+	 *            The policy to use, <code>null</code> to never send the request again.
+	 * @return The instance on which this method has been called, for a fluent API.
+	 */
+	public RestOperation withRetryPolicy(RetryPolicy policy) {
+		this.retryPolicy = policy;
+		return this;
+	}
+
+	/**
+	 * Sets the circuit breaker that rejects the requests while the host is failing.
+	 *
+	 * @param breaker
+	 *            The circuit breaker of the host, <code>null</code> to always send the request.
+	 * @return The instance on which this method has been called, for a fluent API.
+	 */
+	public RestOperation withCircuitBreaker(CircuitBreaker breaker) {
+		this.circuitBreaker = breaker;
+		return this;
+	}
+
+	/**
+	 * Sets the throttle that limits the rate of the requests. The requests of the operations run in the
+	 * {@link RequestThrottle#setForeground(boolean) foreground} take precedence over the others.
+	 *
+	 * @param aThrottle
+	 *            The throttle to use, <code>null</code> to send the requests without limit.
+	 * @return The instance on which this method has been called, for a fluent API.
+	 */
+	public RestOperation withThrottle(RequestThrottle aThrottle) {
+		this.throttle = aThrottle;
+		return this;
+	}
+
+	/**
+	 * Sets the maximum number of pages fetched ahead, concurrently, when the paginated result of this
+	 * operation is iterated. The elements are still provided in order.
+	 *
+	 * @param limit
+	 *            The maximum number of pages fetched ahead, 0 to fetch the pages one at a time.
+	 * @return The instance on which this method has been called, for a fluent API.
+	 */
+	public RestOperation withPrefetchLimit(int limit) {
+		Assert.isLegal(limit >= 0);
+		this.prefetchLimit = limit;
+		return this;
+	}
+
+	/**
+	 * Sets the advisor that chooses the number of elements of the pages when the paginated result of this
+	 * operation is iterated without an explicit limit.
+	 *
+	 * @param advisor
+	 *            The advisor, <code>null</code> to ask for the maximum allowed by the server.
+	 * @return The instance on which this method has been called, for a fluent API.
+	 */
+	public RestOperation withPageSizeAdvisor(PageSizeAdvisor advisor) {
+		this.pageSizeAdvisor = advisor;
+		return this;
+	}
+
+	/**
+	 * Sets the checkpoints in which the iteration over the paginated result of this operation records the
+	 * elements retrieved before a failure, so that the next iteration of the same list only retrieves the
+	 * missing pages.
+	 *
+	 * @param someCheckpoints
+	 *            The checkpoints, <code>null</code> to start again from the first page after a failure.
+	 * @return The instance on which this method has been called, for a fluent API.
+	 */
+	public RestOperation withPaginationCheckpoints(PaginationCheckpoints someCheckpoints) {
+		this.checkpoints = someCheckpoints;
+		return this;
+	}
+
+	/**
+	 * Sets the monitor whose cancellation stops the iteration over the result of this operation, cancels
+	 * the pages being fetched ahead and stops the retries of the failed requests.
+	 *
+	 * @param aMonitor
+	 *            The monitor, can be <code>null</code>.
+	 * @return The instance on which this method has been called, for a fluent API.
+	 */
+	public RestOperation withProgressMonitor(IProgressMonitor aMonitor) {
+		this.monitor = aMonitor;
+		return this;
+	}
+
+	/**
+	 * Creates a copy of this operation, with the same configuration, headers, query parameters and body,
+	 * that can be modified and run independently.
+	 *
+	 * @return A new operation.
+	 */
+	public RestOperation copy() {
+		RestOperation copy = new RestOperation(fullUrl, connector, method, gson, logger);
+		copy.body = body;
+		copy.bodySource = bodySource;
+		copy.bodySourceType = bodySourceType;
+		copy.compressBody = compressBody;
+		copy.validationCache = validationCache;
+		copy.retryPolicy = retryPolicy;
+		copy.circuitBreaker = circuitBreaker;
+		copy.metrics = metrics;
+		copy.throttle = throttle;
+		copy.prefetchLimit = prefetchLimit;
+		copy.pageSizeAdvisor = pageSizeAdvisor;
+		copy.checkpoints = checkpoints;
+		copy.monitor = monitor;
+		copy.authenticator = authenticator;
+		copy.requestHeaders.putAll(requestHeaders);
+		copy.requestParameters.putAll(requestParameters);
+		return copy;
+	}
+
+	/**
+	 * Sets the metrics in which the operation is recorded.
+	 *
+	 * @param someMetrics
+	 *            The metrics to use, <code>null</code> to record nothing.
+	 * @return The instance on which this method has been called, for a fluent API.
+	 */
+	public RestOperation withMetrics(RestMetrics someMetrics) {
+		this.metrics = someMetrics;
+		return this;
+	}
+
+	/**
+	 * Enables or disables the gzip compression of the body. When enabled, only bodies larger than a few
+	 * kilobytes are compressed, since compressing small bodies is not worth it. The server must accept gzip
+	 * encoded requests.
+	 *
+	 * @param compress
+	 *            <code>true</code> to compress large bodies.
+	 * @return The instance on which this method has been called, for a fluent API.
+	 */
+	public RestOperation withBodyCompression(boolean compress) {
+		this.compressBody = compress;
+		this.jsonEntity = null;
 		return this;
 	}
 
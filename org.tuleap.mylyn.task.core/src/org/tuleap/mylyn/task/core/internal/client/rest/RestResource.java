@@ -152,6 +152,36 @@ public class RestResource {
 	 */
 	private IAuthenticator authenticator;
 
+	/**
+	 * The retry policy of the operations, can be <code>null</code>.
+	 */
+	private RetryPolicy retryPolicy;
+
+	/**
+	 * The circuit breaker of the operations, can be <code>null</code>.
+	 */
+	private CircuitBreaker circuitBreaker;
+
+	/**
+	 * The metrics of the operations, can be <code>null</code>.
+	 */
+	private RestMetrics metrics;
+
+	/**
+	 * The throttle of the operations, can be <code>null</code>.
+	 */
+	private RequestThrottle throttle;
+
+	/**
+	 * The maximum number of pages fetched ahead by the operations, 0 to fetch them one at a time.
+	 */
+	private int prefetchLimit;
+
+	/**
+	 * The advisor that chooses the size of the pages of the operations, can be <code>null</code>.
+	 */
+	private PageSizeAdvisor pageSizeAdvisor;
+
 	/**
 	 * Constructor.
 	 *
@@ -202,7 +232,7 @@ public class RestResource {
 			throw new UnsupportedOperationException(TuleapCoreMessages.getString(
 					TuleapCoreKeys.operationNotAllowedOnResource, "DELETE", url)); //$NON-NLS-1$
 		}
-		return RestOperation.delete(url, connector, gson, logger).withAuthenticator(authenticator);
+		return configure(RestOperation.delete(url, connector, gson, logger));
 	}
 
 	/**
@@ -219,9 +249,7 @@ public class RestResource {
 			throw new UnsupportedOperationException(TuleapCoreMessages.getString(
 					TuleapCoreKeys.operationNotAllowedOnResource, "GET", getUrl())); //$NON-NLS-1$
 		}
-		RestOperation operation = RestOperation.get(url, connector, gson, logger).withAuthenticator(
-				authenticator);
-		return operation;
+		return configure(RestOperation.get(url, connector, gson, logger));
 	}
 
 	/**
@@ -230,7 +258,7 @@ public class RestResource {
 	 * @return A new instance of {@link RestOperation} created with this resource operation factory.
 	 */
 	public RestOperation options() {
-		return RestOperation.options(url, connector, gson, logger).withAuthenticator(authenticator);
+		return configure(RestOperation.options(url, connector, gson, logger));
 	}
 
 	/**
@@ -247,7 +275,7 @@ public class RestResource {
 			throw new UnsupportedOperationException(TuleapCoreMessages.getString(
 					TuleapCoreKeys.operationNotAllowedOnResource, "POST", getUrl())); //$NON-NLS-1$
 		}
-		return RestOperation.post(url, connector, gson, logger).withAuthenticator(authenticator);
+		return configure(RestOperation.post(url, connector, gson, logger));
 	}
 
 	/**
@@ -264,7 +292,95 @@ public class RestResource {
 			throw new UnsupportedOperationException(TuleapCoreMessages.getString(
 					TuleapCoreKeys.operationNotAllowedOnResource, "PUT", getUrl())); //$NON-NLS-1$
 		}
-		return RestOperation.put(url, connector, gson, logger).withAuthenticator(authenticator);
+		return configure(RestOperation.put(url, connector, gson, logger));
+	}
+
+	/**
+	 * Configures a new operation of this resource.
+	 *
+	 * @param operation
+	 *            The operation
+	 * @return The given operation, configured with the authenticator, the retry policy, the circuit
+	 *         breaker, the metrics, the throttle, the prefetch limit and the page size advisor of this
+	 *         resource.
+	 */
+	private RestOperation configure(RestOperation operation) {
+		return operation.withAuthenticator(authenticator).withRetryPolicy(retryPolicy).withCircuitBreaker(
+				circuitBreaker).withMetrics(metrics).withThrottle(throttle).withPrefetchLimit(prefetchLimit)
+				.withPageSizeAdvisor(pageSizeAdvisor);
+	}
+
+	/**
+	 * Sets the retry policy of the operations of this resource.
+	 *
+	 * @param policy
+	 *            The policy, can be <code>null</code>.
+	 * @return this, for a fluent API.
+	 */
+	public RestResource withRetryPolicy(RetryPolicy policy) {
+		this.retryPolicy = policy;
+		return this;
+	}
+
+	/**
+	 * Sets the circuit breaker of the operations of this resource.
+	 *
+	 * @param breaker
+	 *            The circuit breaker, can be <code>null</code>.
+	 * @return this, for a fluent API.
+	 */
+	public RestResource withCircuitBreaker(CircuitBreaker breaker) {
+		this.circuitBreaker = breaker;
+		return this;
+	}
+
+	/**
+	 * Sets the metrics of the operations of this resource.
+	 *
+	 * @param someMetrics
+	 *            The metrics, can be <code>null</code>.
+	 * @return this, for a fluent API.
+	 */
+	public RestResource withMetrics(RestMetrics someMetrics) {
+		this.metrics = someMetrics;
+		return this;
+	}
+
+	/**
+	 * Sets the throttle of the operations of this resource.
+	 *
+	 * @param aThrottle
+	 *            The throttle, can be <code>null</code>.
+	 * @return this, for a fluent API.
+	 */
+	public RestResource withThrottle(RequestThrottle aThrottle) {
+		this.throttle = aThrottle;
+		return this;
+	}
+
+	/**
+	 * Sets the maximum number of pages fetched ahead by the operations of this resource.
+	 *
+	 * @param limit
+	 *            The maximum number of pages fetched ahead, 0 to fetch them one at a time.
+	 * @return this, for a fluent API.
+	 */
+	public RestResource withPrefetchLimit(int limit) {
+		Assert.isLegal(limit >= 0);
+		this.prefetchLimit = limit;
+		return this;
+	}
+
+	/**
+	 * Sets the advisor that chooses the size of the pages of the operations of this resource.
+	 *
+	 * @param advisor
+	 *            The advisor, <code>null</code> to ask for the maximum allowed by the server.
+	 * @return this, for a fluent API.
+	 */
+	public RestResource withPageSizeAdvisor(PageSizeAdvisor advisor) {
+		this.pageSizeAdvisor = advisor;
+		return this;
 	}
 
 	/**
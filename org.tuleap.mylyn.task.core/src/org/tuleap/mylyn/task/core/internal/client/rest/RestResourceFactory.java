@@ -63,6 +63,36 @@ public final class RestResourceFactory {
 	 */
 	private final Gson gson;
 
+	/**
+	 * The retry policy of the resources, can be <code>null</code>.
+	 */
+	private RetryPolicy retryPolicy;
+
+	/**
+	 * The circuit breaker of the resources, can be <code>null</code>.
+	 */
+	private CircuitBreaker circuitBreaker;
+
+	/**
+	 * The metrics of the resources, can be <code>null</code>.
+	 */
+	private RestMetrics metrics;
+
+	/**
+	 * The throttle of the resources, can be <code>null</code>.
+	 */
+	private RequestThrottle throttle;
+
+	/**
+	 * The maximum number of pages fetched ahead by the resources.
+	 */
+	private int prefetchLimit;
+
+	/**
+	 * The advisor that chooses the size of the pages of the resources, can be <code>null</code>.
+	 */
+	private PageSizeAdvisor pageSizeAdvisor;
+
 	/**
 	 * Constructor.
 	 *
@@ -240,7 +270,84 @@ public final class RestResourceFactory {
 	 */
 	public RestResource resource(int supportedMethods, String... urlFragments) {
 		final String url = url(urlFragments);
-		return new RestResource(url, supportedMethods, connector, gson, logger);
+		return new RestResource(url, supportedMethods, connector, gson, logger).withRetryPolicy(retryPolicy)
+				.withCircuitBreaker(circuitBreaker).withMetrics(metrics).withThrottle(throttle)
+				.withPrefetchLimit(prefetchLimit).withPageSizeAdvisor(pageSizeAdvisor);
+	}
+
+	/**
+	 * Sets the retry policy of the resources created by this factory.
+	 *
+	 * @param policy
+	 *            The policy, <code>null</code> to never send requests again after a failure.
+	 * @return this, for a fluent API.
+	 */
+	public RestResourceFactory withRetryPolicy(RetryPolicy policy) {
+		this.retryPolicy = policy;
+		return this;
+	}
+
+	/**
+	 * Sets the circuit breaker of the resources created by this factory.
+	 *
+	 * @param breaker
+	 *            The circuit breaker of the host, <code>null</code> to always send the requests.
+	 * @return this, for a fluent API.
+	 */
+	public RestResourceFactory withCircuitBreaker(CircuitBreaker breaker) {
+		this.circuitBreaker = breaker;
+		return this;
+	}
+
+	/**
+	 * Sets the metrics in which the operations of the resources created by this factory are recorded.
+	 *
+	 * @param someMetrics
+	 *            The metrics, <code>null</code> to record nothing.
+	 * @return this, for a fluent API.
+	 */
+	public RestResourceFactory withMetrics(RestMetrics someMetrics) {
+		this.metrics = someMetrics;
+		return this;
+	}
+
+	/**
+	 * Sets the throttle that limits the rate of the requests of the resources created by this factory.
+	 *
+	 * @param aThrottle
+	 *            The throttle, <code>null</code> to send the requests without limit.
+	 * @return this, for a fluent API.
+	 */
+	public RestResourceFactory withThrottle(RequestThrottle aThrottle) {
+		this.throttle = aThrottle;
+		return this;
+	}
+
+	/**
+	 * Sets the maximum number of pages fetched ahead when the paginated lists of the resources created by
+	 * this factory are iterated.
+	 *
+	 * @param limit
+	 *            The maximum number of pages fetched ahead, 0 to fetch them one at a time.
+	 * @return this, for a fluent API.
+	 */
+	public RestResourceFactory withPrefetchLimit(int limit) {
+		Assert.isLegal(limit >= 0);
+		this.prefetchLimit = limit;
+		return this;
+	}
+
+	/**
+	 * Sets the advisor that chooses the size of the pages of the paginated lists of the resources created by
+	 * this factory.
+	 *
+	 * @param advisor
+	 *            The advisor, <code>null</code> to ask for the maximum allowed by the server.
+	 * @return this, for a fluent API.
+	 */
+	public RestResourceFactory withPageSizeAdvisor(PageSizeAdvisor advisor) {
+		this.pageSizeAdvisor = advisor;
+		return this;
 	}
 
 	/**
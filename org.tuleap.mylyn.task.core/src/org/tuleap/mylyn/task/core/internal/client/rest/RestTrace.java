@@ -0,0 +1,226 @@
+/*******************************************************************************
+ * Copyright (c) 2014 Obeo.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.tuleap.mylyn.task.core.internal.client.rest;
+
+/**
+ * Immutable record of a REST request traced by a {@link RestTracer}. The bodies are already truncated, but
+ * not yet masked.
+ *
+ * @author <a href="mailto:laurent.delaigue@obeo.fr">Laurent Delaigue</a>
+ */
+public final class RestTrace {
+
+	/**
+	 * The time when the request has completed, in milliseconds.
+	 */
+	private final long time;
+
+	/**
+	 * The name of the thread that has sent the request.
+	 */
+	private final String thread;
+
+	/**
+	 * The HTTP method.
+	 */
+	private final String method;
+
+	/**
+	 * The path of the request, with its query string.
+	 */
+	private final String uri;
+
+	/**
+	 * The status of the response.
+	 */
+	private final int status;
+
+	/**
+	 * The duration of the request, in milliseconds.
+	 */
+	private final long elapsed;
+
+	/**
+	 * The number of bytes sent, -1 if unknown.
+	 */
+	private final long bytesOut;
+
+	/**
+	 * The number of bytes received.
+	 */
+	private final long bytesIn;
+
+	/**
+	 * The body of the request, <code>null</code> if there is none.
+	 */
+	private final String requestBody;
+
+	/**
+	 * The body of the response, <code>null</code> if it has been streamed.
+	 */
+	private final String responseBody;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param time
+	 *            The time when the request has completed, in milliseconds
+	 * @param thread
+	 *            The name of the thread that has sent the request
+	 * @param method
+	 *            The HTTP method
+	 * @param uri
+	 *            The path of the request, with its query string
+	 * @param status
+	 *            The status of the response
+	 * @param elapsed
+	 *            The duration of the request, in milliseconds
+	 * @param bytesOut
+	 *            The number of bytes sent, -1 if unknown
+	 * @param bytesIn
+	 *            The number of bytes received
+	 * @param requestBody
+	 *            The body of the request, <code>null</code> if there is none
+	 * @param responseBody
+	 *            The body of the response, <code>null</code> if it has been streamed
+	 */
+	// CHECKSTYLE:OFF (A record has many fields)
+	public RestTrace(long time, String thread, String method, String uri, int status, long elapsed,
+			long bytesOut, long bytesIn, String requestBody, String responseBody) {
+		// CHECKSTYLE:ON
+		this.time = time;
+		this.thread = thread;
+		this.method = method;
+		this.uri = uri;
+		this.status = status;
+		this.elapsed = elapsed;
+		this.bytesOut = bytesOut;
+		this.bytesIn = bytesIn;
+		this.requestBody = requestBody;
+		this.responseBody = responseBody;
+	}
+
+	/**
+	 * Time getter.
+	 *
+	 * @return The time when the request has completed, in milliseconds.
+	 */
+	public long getTime() {
+		return time;
+	}
+
+	/**
+	 * Thread getter.
+	 *
+	 * @return The name of the thread that has sent the request.
+	 */
+	public String getThread() {
+		return thread;
+	}
+
+	/**
+	 * Method getter.
+	 *
+	 * @return The HTTP method.
+	 */
+	public String getMethod() {
+		return method;
+	}
+
+	/**
+	 * URI getter.
+	 *
+	 * @return The path of the request, with its query string.
+	 */
+	public String getUri() {
+		return uri;
+	}
+
+	/**
+	 * Status getter.
+	 *
+	 * @return The status of the response.
+	 */
+	public int getStatus() {
+		return status;
+	}
+
+	/**
+	 * Elapsed time getter.
+	 *
+	 * @return The duration of the request, in milliseconds.
+	 */
+	public long getElapsed() {
+		return elapsed;
+	}
+
+	/**
+	 * Bytes sent getter.
+	 *
+	 * @return The number of bytes sent, -1 if unknown.
+	 */
+	public long getBytesOut() {
+		return bytesOut;
+	}
+
+	/**
+	 * Bytes received getter.
+	 *
+	 * @return The number of bytes received.
+	 */
+	public long getBytesIn() {
+		return bytesIn;
+	}
+
+	/**
+	 * Request body getter.
+	 *
+	 * @return The truncated body of the request, <code>null</code> if there is none.
+	 */
+	public String getRequestBody() {
+		return requestBody;
+	}
+
+	/**
+	 * Response body getter.
+	 *
+	 * @return The truncated body of the response, <code>null</code> if it has been streamed.
+	 */
+	public String getResponseBody() {
+		return responseBody;
+	}
+
+	/**
+	 * Indicates whether the request has failed.
+	 *
+	 * @return <code>true</code> if the server has answered with an error or if the request could not be sent.
+	 */
+	public boolean isError() {
+		return status >= ServerResponse.STATUS_BAD_REQUEST;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		StringBuilder b = new StringBuilder();
+		b.append(method).append(' ').append(uri);
+		b.append(" -> ").append(status); //$NON-NLS-1$
+		b.append(" (").append(elapsed).append(" ms, "); //$NON-NLS-1$ //$NON-NLS-2$
+		b.append(bytesOut).append(" bytes out, "); //$NON-NLS-1$
+		b.append(bytesIn).append(" bytes in, "); //$NON-NLS-1$
+		b.append(thread).append(')');
+		return b.toString();
+	}
+}
@@ -0,0 +1,379 @@
+/*******************************************************************************
+ * Copyright (c) 2014 Obeo.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.tuleap.mylyn.task.core.internal.client.rest;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+import org.apache.commons.httpclient.HttpMethod;
+import org.apache.commons.httpclient.methods.EntityEnclosingMethod;
+import org.apache.commons.httpclient.methods.RequestEntity;
+import org.apache.commons.httpclient.methods.StringRequestEntity;
+import org.eclipse.core.runtime.Assert;
+import org.eclipse.core.runtime.ILog;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.tuleap.mylyn.task.core.internal.TuleapCoreActivator;
+import org.tuleap.mylyn.task.core.internal.util.TuleapCoreKeys;
+import org.tuleap.mylyn.task.core.internal.util.TuleapCoreMessages;
+
+/**
+ * Traces the REST requests in the log without slowing them down. The requests thread only decides whether
+ * the request is sampled and copies the beginning of its bodies into a {@link RestTrace}, kept in a bounded
+ * ring buffer. A background thread, started when needed, masks the passwords, formats the traces and logs
+ * them. When the log cannot keep up, the oldest traces are dropped and their number is logged.
+ * <p>
+ * The failed requests are always traced, the other ones are sampled at the configured rate.
+ * </p>
+ *
+ * @author <a href="mailto:laurent.delaigue@obeo.fr">Laurent Delaigue</a>
+ */
+public final class RestTracer {
+
+	/**
+	 * Default sampling rate of the successful requests, all of them are traced.
+	 */
+	public static final double DEFAULT_SAMPLING_RATE = 1d;
+
+	/**
+	 * Default maximum number of characters of each traced body.
+	 */
+	public static final int DEFAULT_MAX_BODY_LENGTH = 4096;
+
+	/**
+	 * Default number of traces kept while waiting to be logged.
+	 */
+	public static final int DEFAULT_CAPACITY = 256;
+
+	/**
+	 * Matches the value of the password properties, possibly truncated, in a JSON body.
+	 */
+	private static final Pattern PASSWORD = Pattern
+			.compile("(\"password\"\\s*:\\s*\")(?:[^\"\\\\]|\\\\.)*(\"|$)"); //$NON-NLS-1$
+
+	/**
+	 * Replacement of the password values.
+	 */
+	private static final String HIDDEN_PASSWORD = "$1(hidden in debug)$2"; //$NON-NLS-1$
+
+	/**
+	 * Delay, in seconds, after which the idle writer thread is stopped.
+	 */
+	private static final long WRITER_KEEP_ALIVE = 30L;
+
+	/**
+	 * The logger.
+	 */
+	private final ILog logger;
+
+	/**
+	 * The ring buffer of the traces waiting to be logged.
+	 */
+	private final RestTrace[] buffer;
+
+	/**
+	 * The index of the oldest trace in the buffer.
+	 */
+	private int head;
+
+	/**
+	 * The number of traces in the buffer.
+	 */
+	private int size;
+
+	/**
+	 * The number of traces dropped since the last time it has been logged.
+	 */
+	private long dropped;
+
+	/**
+	 * The number of successful requests seen, used to sample them.
+	 */
+	private final AtomicLong successes = new AtomicLong();
+
+	/**
+	 * The sampling rate of the successful requests, between 0 and 1.
+	 */
+	private volatile double samplingRate = DEFAULT_SAMPLING_RATE;
+
+	/**
+	 * The maximum number of characters of each traced body.
+	 */
+	private volatile int maxBodyLength = DEFAULT_MAX_BODY_LENGTH;
+
+	/**
+	 * Whether a write of the buffer is scheduled.
+	 */
+	private final AtomicBoolean writeScheduled = new AtomicBoolean();
+
+	/**
+	 * Serializes the writes of the buffer in the log, to keep the traces in order.
+	 */
+	private final Object writeLock = new Object();
+
+	/**
+	 * The writer thread, stopped when idle.
+	 */
+	private final ThreadPoolExecutor writer;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param logger
+	 *            The logger
+	 */
+	public RestTracer(ILog logger) {
+		this(logger, DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Constructor.
+	 *
+	 * @param logger
+	 *            The logger
+	 * @param capacity
+	 *            The number of traces kept while waiting to be logged, must be strictly positive
+	 */
+	public RestTracer(ILog logger, int capacity) {
+		Assert.isNotNull(logger);
+		Assert.isLegal(capacity > 0);
+		this.logger = logger;
+		this.buffer = new RestTrace[capacity];
+		this.writer = new ThreadPoolExecutor(1, 1, WRITER_KEEP_ALIVE, TimeUnit.SECONDS,
+				new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+					@Override
+					public Thread newThread(Runnable r) {
+						Thread thread = new Thread(r, "Tuleap REST trace"); //$NON-NLS-1$
+						thread.setDaemon(true);
+						return thread;
+					}
+				});
+		this.writer.allowCoreThreadTimeOut(true);
+	}
+
+	/**
+	 * Changes the sampling rate and the truncation of the traces.
+	 *
+	 * @param rate
+	 *            The sampling rate of the successful requests, between 0 (none) and 1 (all)
+	 * @param maxLength
+	 *            The maximum number of characters of each traced body, must be positive
+	 */
+	public void configure(double rate, int maxLength) {
+		Assert.isLegal(rate >= 0d && rate <= 1d && maxLength >= 0);
+		this.samplingRate = rate;
+		this.maxBodyLength = maxLength;
+	}
+
+	/**
+	 * Traces a request if it is sampled. The body of the request is only read if it is available as a
+	 * string, other entities are described by their type and length.
+	 *
+	 * @param method
+	 *            The method that has been sent
+	 * @param status
+	 *            The status of the response
+	 * @param elapsed
+	 *            The duration of the request, in milliseconds
+	 * @param bytesOut
+	 *            The number of bytes sent, -1 if unknown
+	 * @param bytesIn
+	 *            The number of bytes received
+	 * @param responseBody
+	 *            The body of the response, <code>null</code> if it has been streamed
+	 * @return <code>true</code> if the request has been sampled.
+	 */
+	public boolean trace(HttpMethod method, int status, long elapsed, long bytesOut, long bytesIn,
+			String responseBody) {
+		if (status < ServerResponse.STATUS_BAD_REQUEST && !isSampled()) {
+			return false;
+		}
+		int max = maxBodyLength;
+		String uri = method.getPath();
+		String query = method.getQueryString();
+		if (query != null && query.length() > 0) {
+			uri = uri + '?' + query;
+		}
+		add(new RestTrace(System.currentTimeMillis(), Thread.currentThread().getName(), method.getName(), uri,
+				status, elapsed, bytesOut, bytesIn, truncate(getRequestBody(method), max), truncate(
+						responseBody, max)));
+		return true;
+	}
+
+	/**
+	 * Decides whether the next successful request is sampled, so that a rate r traces r requests out of 1
+	 * evenly.
+	 *
+	 * @return <code>true</code> if the request must be traced.
+	 */
+	private boolean isSampled() {
+		double rate = samplingRate;
+		if (rate >= 1d) {
+			return true;
+		}
+		long n = successes.incrementAndGet();
+		return Math.floor(n * rate) != Math.floor((n - 1) * rate);
+	}
+
+	/**
+	 * Provides the body of a request without copying it.
+	 *
+	 * @param method
+	 *            The method
+	 * @return The body of the request or its description, <code>null</code> if there is none.
+	 */
+	private String getRequestBody(HttpMethod method) {
+		if (!(method instanceof EntityEnclosingMethod)) {
+			return null;
+		}
+		RequestEntity entity = ((EntityEnclosingMethod)method).getRequestEntity();
+		if (entity == null) {
+			return null;
+		}
+		if (entity instanceof StringRequestEntity) {
+			return ((StringRequestEntity)entity).getContent();
+		}
+		if (entity instanceof GzipRequestEntity) {
+			return ((GzipRequestEntity)entity).getContent();
+		}
+		return '(' + entity.getContentType() + ", " + entity.getContentLength() //$NON-NLS-1$
+				+ " bytes)"; //$NON-NLS-1$
+	}
+
+	/**
+	 * Adds a trace in the buffer, dropping the oldest one if it is full, and schedules the write of the
+	 * buffer.
+	 *
+	 * @param trace
+	 *            The trace
+	 */
+	private void add(RestTrace trace) {
+		synchronized (buffer) {
+			if (size == buffer.length) {
+				buffer[head] = trace;
+				head = (head + 1) % buffer.length;
+				dropped++;
+			} else {
+				buffer[(head + size) % buffer.length] = trace;
+				size++;
+			}
+		}
+		if (writeScheduled.compareAndSet(false, true)) {
+			writer.execute(new Runnable() {
+				@Override
+				public void run() {
+					writeScheduled.set(false);
+					flush();
+				}
+			});
+		}
+	}
+
+	/**
+	 * Logs the traces of the buffer on the current thread, after the traces being logged by the background
+	 * thread.
+	 */
+	public void flush() {
+		synchronized (writeLock) {
+			RestTrace[] traces;
+			long droppedTraces;
+			synchronized (buffer) {
+				traces = new RestTrace[size];
+				for (int i = 0; i < size; i++) {
+					traces[i] = buffer[(head + i) % buffer.length];
+					buffer[(head + i) % buffer.length] = null;
+				}
+				head = 0;
+				size = 0;
+				droppedTraces = dropped;
+				dropped = 0L;
+			}
+			if (droppedTraces > 0L) {
+				logger.log(new Status(IStatus.WARNING, TuleapCoreActivator.PLUGIN_ID, TuleapCoreMessages
+						.getString(TuleapCoreKeys.restTracesDropped, Long.valueOf(droppedTraces))));
+			}
+			for (RestTrace trace : traces) {
+				int severity = IStatus.INFO;
+				if (trace.isError()) {
+					severity = IStatus.ERROR;
+				}
+				logger.log(new Status(severity, TuleapCoreActivator.PLUGIN_ID, format(trace)));
+			}
+		}
+	}
+
+	/**
+	 * Number of traces waiting to be logged.
+	 *
+	 * @return The number of traces in the buffer.
+	 */
+	public int getPendingCount() {
+		synchronized (buffer) {
+			return size;
+		}
+	}
+
+	/**
+	 * Formats a trace for the log, with its bodies and their passwords masked.
+	 *
+	 * @param trace
+	 *            The trace
+	 * @return The message to log.
+	 */
+	public static String format(RestTrace trace) {
+		StringBuilder b = new StringBuilder(trace.toString());
+		if (trace.getRequestBody() != null) {
+			b.append("\nbody:\n").append(maskPasswords(trace.getRequestBody())); //$NON-NLS-1$
+		}
+		b.append("\n__________\nresponse:\n"); //$NON-NLS-1$
+		if (trace.getResponseBody() == null) {
+			b.append("(streamed)"); //$NON-NLS-1$
+		} else {
+			b.append(trace.getResponseBody());
+		}
+		return b.toString();
+	}
+
+	/**
+	 * Hides the values of the passwords of a JSON body, even if the body has been truncated in a password.
+	 *
+	 * @param body
+	 *            The body
+	 * @return The body without the passwords.
+	 */
+	public static String maskPasswords(String body) {
+		return PASSWORD.matcher(body).replaceAll(HIDDEN_PASSWORD);
+	}
+
+	/**
+	 * Keeps the beginning of a body, copied so that the whole body is not retained by the trace.
+	 *
+	 * @param body
+	 *            The body, can be <code>null</code>
+	 * @param max
+	 *            The maximum number of characters to keep
+	 * @return The truncated body, <code>null</code> if the body is <code>null</code>.
+	 */
+	public static String truncate(String body, int max) {
+		if (body == null || body.length() <= max) {
+			return body;
+		}
+		StringBuilder b = new StringBuilder(max + 32);
+		b.append(body, 0, max);
+		b.append("... (").append(body.length() - max).append(" more characters)"); //$NON-NLS-1$ //$NON-NLS-2$
+		return b.toString();
+	}
+}
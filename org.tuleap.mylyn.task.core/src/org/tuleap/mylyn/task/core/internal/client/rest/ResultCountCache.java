@@ -0,0 +1,128 @@
+/*******************************************************************************
+ * Copyright (c) 2014 Obeo.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.tuleap.mylyn.task.core.internal.client.rest;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import org.eclipse.core.runtime.Assert;
+
+/**
+ * Short-lived cache of the number of elements of lists, so that a preview that is refreshed while criteria
+ * are edited does not ask the server again for a list it has just counted. This class is thread-safe.
+ *
+ * @author <a href="mailto:laurent.delaigue@obeo.fr">Laurent Delaigue</a>
+ */
+public class ResultCountCache {
+
+	/**
+	 * Default time during which a count is used, in milliseconds.
+	 */
+	public static final long DEFAULT_TIME_TO_LIVE = 30L * 1000L;
+
+	/**
+	 * The time during which a count is used, in milliseconds.
+	 */
+	private final long timeToLive;
+
+	/**
+	 * The counts, by key of list.
+	 */
+	private final Map<String, Count> counts = new HashMap<String, Count>();
+
+	/**
+	 * Constructor.
+	 *
+	 * @param timeToLive
+	 *            The time during which a count is used, in milliseconds
+	 */
+	public ResultCountCache(long timeToLive) {
+		Assert.isLegal(timeToLive > 0L);
+		this.timeToLive = timeToLive;
+	}
+
+	/**
+	 * Provides the count of a list.
+	 *
+	 * @param key
+	 *            The key of the list
+	 * @return The number of elements of the list, <code>null</code> if it is unknown or if it has expired.
+	 */
+	public synchronized Integer get(String key) {
+		Count count = counts.get(key);
+		if (count == null) {
+			return null;
+		}
+		if (System.currentTimeMillis() - count.createdAt >= timeToLive) {
+			counts.remove(key);
+			return null;
+		}
+		return Integer.valueOf(count.value);
+	}
+
+	/**
+	 * Records the count of a list. The expired counts are forgotten at the same time.
+	 *
+	 * @param key
+	 *            The key of the list
+	 * @param value
+	 *            The number of elements of the list
+	 */
+	public synchronized void put(String key, int value) {
+		long now = System.currentTimeMillis();
+		Iterator<Count> it = counts.values().iterator();
+		while (it.hasNext()) {
+			if (now - it.next().createdAt >= timeToLive) {
+				it.remove();
+			}
+		}
+		counts.put(key, new Count(value, now));
+	}
+
+	/**
+	 * Forgets all the counts.
+	 */
+	public synchronized void clear() {
+		counts.clear();
+	}
+
+	/**
+	 * A number of elements, and the time when it has been retrieved.
+	 *
+	 * @author <a href="mailto:laurent.delaigue@obeo.fr">Laurent Delaigue</a>
+	 */
+	private static final class Count {
+
+		/**
+		 * The number of elements.
+		 */
+		private final int value;
+
+		/**
+		 * The time when the number has been retrieved.
+		 */
+		private final long createdAt;
+
+		/**
+		 * Constructor.
+		 *
+		 * @param value
+		 *            The number of elements
+		 * @param createdAt
+		 *            The time when the number has been retrieved
+		 */
+		private Count(int value, long createdAt) {
+			this.value = value;
+			this.createdAt = createdAt;
+		}
+	}
+}
@@ -0,0 +1,282 @@
+/*******************************************************************************
+ * Copyright (c) 2014 Obeo.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.tuleap.mylyn.task.core.internal.client.rest;
+
+import java.util.Date;
+import java.util.Random;
+
+import org.apache.commons.httpclient.util.DateParseException;
+import org.apache.commons.httpclient.util.DateUtil;
+import org.eclipse.core.runtime.Assert;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.tuleap.mylyn.task.core.internal.client.rest.RestOperation.Method;
+
+/**
+ * Policy that decides whether a failed request must be sent again, and how long to wait before sending it.
+ * The delay grows exponentially with the number of attempts, with a random jitter so that clients that
+ * failed at the same time do not retry in lockstep, and the delay requested by the server with the
+ * Retry-After header is honored.
+ * <p>
+ * Only GET, OPTIONS and DELETE requests are retried after a network failure, a 429 Too Many Requests or a
+ * 5xx status, since a request may have been processed even if its response reports a failure: a 503 sent
+ * by a proxy can arrive after the server has processed the request. PUT is not considered idempotent
+ * because updating a Tuleap artifact creates a new changeset. The only exception is a 429 with a
+ * Retry-After header, which tells that the request has been refused by rate limiting before being
+ * processed, and which is retried whatever the method.
+ * </p>
+ *
+ * @author <a href="mailto:laurent.delaigue@obeo.fr">Laurent Delaigue</a>
+ */
+public class RetryPolicy {
+
+	/**
+	 * Default maximum number of attempts, including the first one.
+	 */
+	public static final int DEFAULT_MAX_ATTEMPTS = 3;
+
+	/**
+	 * Default delay before the first retry, in milliseconds.
+	 */
+	public static final long DEFAULT_BASE_DELAY = 500L;
+
+	/**
+	 * Default maximum delay between two attempts, in milliseconds.
+	 */
+	public static final long DEFAULT_MAX_DELAY = 30000L;
+
+	/**
+	 * The Retry-After header.
+	 */
+	public static final String HEADER_RETRY_AFTER = "Retry-After"; //$NON-NLS-1$
+
+	/**
+	 * Status 429 Too Many Requests.
+	 */
+	public static final int STATUS_TOO_MANY_REQUESTS = 429;
+
+	/**
+	 * Status 503 Service Unavailable.
+	 */
+	public static final int STATUS_SERVICE_UNAVAILABLE = 503;
+
+	/**
+	 * Policy that never retries.
+	 */
+	public static final RetryPolicy NONE = new RetryPolicy(1, 0L, 0L);
+
+	/**
+	 * Number of milliseconds in a second.
+	 */
+	private static final long MILLIS_PER_SECOND = 1000L;
+
+	/**
+	 * Interval between two checks of the cancellation of the monitor while waiting, in milliseconds.
+	 */
+	private static final long CANCELLATION_CHECK_INTERVAL = 100L;
+
+	/**
+	 * Random generator used for the jitter, shared since it is thread-safe.
+	 */
+	private static final Random RANDOM = new Random();
+
+	/**
+	 * The maximum number of attempts.
+	 */
+	private final int maxAttempts;
+
+	/**
+	 * The delay before the first retry.
+	 */
+	private final long baseDelay;
+
+	/**
+	 * The maximum delay between two attempts.
+	 */
+	private final long maxDelay;
+
+	/**
+	 * Constructor with the default values.
+	 */
+	public RetryPolicy() {
+		this(DEFAULT_MAX_ATTEMPTS, DEFAULT_BASE_DELAY, DEFAULT_MAX_DELAY);
+	}
+
+	/**
+	 * Constructor.
+	 *
+	 * @param maxAttempts
+	 *            The maximum number of attempts, including the first one, must be at least 1
+	 * @param baseDelay
+	 *            The delay before the first retry, in milliseconds, doubled at each retry
+	 * @param maxDelay
+	 *            The maximum delay between two attempts, in milliseconds, including the delay requested by
+	 *            the server
+	 */
+	public RetryPolicy(int maxAttempts, long baseDelay, long maxDelay) {
+		Assert.isLegal(maxAttempts > 0);
+		Assert.isLegal(baseDelay >= 0 && maxDelay >= baseDelay);
+		this.maxAttempts = maxAttempts;
+		this.baseDelay = baseDelay;
+		this.maxDelay = maxDelay;
+	}
+
+	/**
+	 * Maximum number of attempts getter.
+	 *
+	 * @return The maximum number of attempts, including the first one.
+	 */
+	public int getMaxAttempts() {
+		return maxAttempts;
+	}
+
+	/**
+	 * Indicates whether a request must be sent again after the given response.
+	 *
+	 * @param method
+	 *            The method of the request
+	 * @param response
+	 *            The response received for the last attempt
+	 * @param attempt
+	 *            The number of the last attempt, starting at 1
+	 * @return <code>true</code> if the request must be sent again.
+	 */
+	public boolean shouldRetry(Method method, ServerResponse response, int attempt) {
+		if (attempt >= maxAttempts) {
+			return false;
+		}
+		int status = response.getStatus();
+		if (status == STATUS_TOO_MANY_REQUESTS
+				&& ValidationCache.getHeader(response.getHeaders(), HEADER_RETRY_AFTER) != null) {
+			// The request has been refused before being processed
+			return true;
+		}
+		return isFailure(status) && isIdempotent(method);
+	}
+
+	/**
+	 * Indicates whether the given status denotes a failure of the server or of the network, which is
+	 * counted by the circuit breakers.
+	 *
+	 * @param status
+	 *            The status of a response
+	 * @return <code>true</code> for network failures, 429 and 5xx statuses.
+	 */
+	public static boolean isFailure(int status) {
+		return status == TuleapRestConnector.IO_ERROR_STATUS_CODE || status == STATUS_TOO_MANY_REQUESTS
+				|| (status >= 500 && status < 600);
+	}
+
+	/**
+	 * Indicates whether requests with the given method can be sent again safely after a failure.
+	 *
+	 * @param method
+	 *            The method
+	 * @return <code>true</code> for GET, OPTIONS and DELETE.
+	 */
+	public static boolean isIdempotent(Method method) {
+		return method == Method.GET || method == Method.OPTIONS || method == Method.DELETE;
+	}
+
+	/**
+	 * Computes the delay to wait before the next attempt. The delay requested by the server takes
+	 * precedence, otherwise the exponential delay is randomized between half of its value and its value.
+	 *
+	 * @param response
+	 *            The response received for the last attempt
+	 * @param attempt
+	 *            The number of the last attempt, starting at 1
+	 * @return The delay to wait before the next attempt, in milliseconds.
+	 */
+	public long getDelay(ServerResponse response, int attempt) {
+		long retryAfter = getRetryAfter(response, System.currentTimeMillis());
+		if (retryAfter >= 0) {
+			return Math.min(retryAfter, maxDelay);
+		}
+		long delay = baseDelay;
+		for (int i = 1; i < attempt && delay < maxDelay; i++) {
+			delay *= 2;
+		}
+		delay = Math.min(delay, maxDelay);
+		long half = delay / 2;
+		return half + (long)(RANDOM.nextDouble() * (delay - half));
+	}
+
+	/**
+	 * Waits before the next attempt, unless the given monitor is cancelled. The delay is waited in short
+	 * slices, so that a cancellation is noticed without waiting for the whole delay, which can last as long
+	 * as the maximum delay when the server asks for it.
+	 *
+	 * @param delay
+	 *            The delay to wait, in milliseconds
+	 * @param monitor
+	 *            The monitor of the operation, can be <code>null</code>
+	 * @return <code>true</code> if the whole delay has elapsed, <code>false</code> if the monitor has been
+	 *         cancelled, in which case the request must not be sent again.
+	 * @throws InterruptedException
+	 *             If the thread is interrupted while waiting
+	 */
+	public boolean await(long delay, IProgressMonitor monitor) throws InterruptedException {
+		if (monitor == null) {
+			sleep(delay);
+			return true;
+		}
+		long remaining = delay;
+		while (remaining > 0 && !monitor.isCanceled()) {
+			long slice = Math.min(remaining, CANCELLATION_CHECK_INTERVAL);
+			sleep(slice);
+			remaining -= slice;
+		}
+		return !monitor.isCanceled();
+	}
+
+	/**
+	 * Waits before the next attempt. Can be overridden for tests.
+	 *
+	 * @param delay
+	 *            The delay to wait, in milliseconds
+	 * @throws InterruptedException
+	 *             If the thread is interrupted while waiting
+	 */
+	protected void sleep(long delay) throws InterruptedException {
+		if (delay > 0) {
+			Thread.sleep(delay);
+		}
+	}
+
+	/**
+	 * Reads the Retry-After header of the given response, which is either a number of seconds or an HTTP
+	 * date.
+	 *
+	 * @param response
+	 *            The response
+	 * @param now
+	 *            The current time, in milliseconds
+	 * @return The delay requested by the server in milliseconds, or -1 if the response has no valid
+	 *         Retry-After header.
+	 */
+	public static long getRetryAfter(ServerResponse response, long now) {
+		String value = ValidationCache.getHeader(response.getHeaders(), HEADER_RETRY_AFTER);
+		if (value == null) {
+			return -1L;
+		}
+		String trimmed = value.trim();
+		try {
+			return Math.max(0L, Long.parseLong(trimmed) * MILLIS_PER_SECOND);
+		} catch (NumberFormatException e) {
+			try {
+				Date date = DateUtil.parseDate(trimmed);
+				return Math.max(0L, date.getTime() - now);
+			} catch (DateParseException ex) {
+				return -1L;
+			}
+		}
+	}
+}
@@ -10,6 +10,11 @@
  *******************************************************************************/
 package org.tuleap.mylyn.task.core.internal.client.rest;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UnsupportedEncodingException;
 import java.util.Map;
 
 /**
@@ -29,6 +34,11 @@ public class ServerResponse {
 	 */
 	public static final int STATUS_MOVED = 301;
 
+	/**
+	 * Not Modified - 304.
+	 */
+	public static final int STATUS_NOT_MODIFIED = 304;
+
 	/**
 	 * Bad Request - 400.
 	 */
@@ -132,6 +142,47 @@ public class ServerResponse {
 		return this.headers;
 	}
 
+	/**
+	 * Provides a reader on the body. Streaming responses read the body directly from the connection, so the
+	 * body can be read only once, either with this reader or with {@link #getInputStream()}.
+	 * 
+	 * @return A reader on the body, never <code>null</code>.
+	 */
+	public Reader getReader() {
+		String content = getBody();
+		if (content == null) {
+			return new StringReader(""); //$NON-NLS-1$
+		}
+		return new StringReader(content);
+	}
+
+	/**
+	 * Provides the bytes of the body, encoded in UTF-8. Streaming responses read the body directly from the
+	 * connection, so the body can be read only once, either with this stream or with {@link #getReader()}.
+	 * 
+	 * @return A stream on the body, never <code>null</code>.
+	 */
+	public InputStream getInputStream() {
+		String content = getBody();
+		if (content == null) {
+			return new ByteArrayInputStream(new byte[0]);
+		}
+		try {
+			return new ByteArrayInputStream(content.getBytes("UTF-8")); //$NON-NLS-1$
+		} catch (UnsupportedEncodingException e) {
+			// UTF-8 is always supported
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Releases the resources held by this response, such as the connection of a streaming response whose
+	 * body has not been entirely read. Does nothing for a response whose body is already in memory.
+	 */
+	public void close() {
+		// Nothing to release
+	}
+
 	/**
 	 * Indicates whether the status code of this response is OK (200).
 	 * 
@@ -0,0 +1,162 @@
+/*******************************************************************************
+ * Copyright (c) 2014 Obeo.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.tuleap.mylyn.task.core.internal.client.rest;
+
+import com.google.common.util.concurrent.SettableFuture;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.tuleap.mylyn.task.core.internal.TuleapCoreActivator;
+
+/**
+ * De-duplicates identical calls made concurrently: while a call is in flight for a key, the other callers
+ * of the same key wait for it and share its result, or its exception, instead of sending the same request
+ * again. Once the call is over, the next call for the key is executed again. The shared results must
+ * therefore not be modified by the callers.
+ *
+ * @author <a href="mailto:laurent.delaigue@obeo.fr">Laurent Delaigue</a>
+ */
+public class SingleFlight {
+
+	/**
+	 * The calls in flight, by key.
+	 */
+	private final Map<String, SettableFuture<Object>> inFlight = new HashMap<String,
+			SettableFuture<Object>>();
+
+	/**
+	 * The number of callers waiting for the outcome of a call in flight.
+	 */
+	private final AtomicInteger waiters = new AtomicInteger();
+
+	/**
+	 * Executes the given call, unless a call with the same key is already in flight, in which case its
+	 * outcome is awaited and shared.
+	 *
+	 * @param <V>
+	 *            The type of the result, which must be the same for all the calls of a key
+	 * @param key
+	 *            The key that identifies identical calls, such as the URL of a GET request
+	 * @param call
+	 *            The call
+	 * @return The result of the call, or of the identical call that was in flight.
+	 * @throws CoreException
+	 *             If the call fails, or if the thread is interrupted while waiting.
+	 */
+	@SuppressWarnings("unchecked")
+	public <V> V execute(String key, Callable<V> call) throws CoreException {
+		SettableFuture<Object> future;
+		boolean leader = false;
+		synchronized (inFlight) {
+			future = inFlight.get(key);
+			if (future == null) {
+				future = SettableFuture.create();
+				inFlight.put(key, future);
+				leader = true;
+			}
+		}
+		if (leader) {
+			return (V)lead(key, call, future);
+		}
+		waiters.incrementAndGet();
+		try {
+			return (V)future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new CoreException(new Status(IStatus.CANCEL, TuleapCoreActivator.PLUGIN_ID, e
+					.getMessage(), e));
+		} catch (ExecutionException e) {
+			throw propagate(e.getCause());
+		} finally {
+			waiters.decrementAndGet();
+		}
+	}
+
+	/**
+	 * Executes a call and publishes its outcome to the callers waiting for it.
+	 *
+	 * @param key
+	 *            The key of the call
+	 * @param call
+	 *            The call
+	 * @param future
+	 *            The future awaited by the other callers
+	 * @return The result of the call.
+	 * @throws CoreException
+	 *             If the call fails. Unchecked exceptions and errors are rethrown as they are, after being
+	 *             published.
+	 */
+	private Object lead(String key, Callable<?> call, SettableFuture<Object> future) throws CoreException {
+		try {
+			Object result = call.call();
+			future.set(result);
+			return result;
+			// CHECKSTYLE:OFF (The outcome of the call, whatever it is, is shared, or the others wait forever)
+		} catch (Throwable t) {
+			// CHECKSTYLE:ON
+			future.setException(t);
+			throw propagate(t);
+		} finally {
+			synchronized (inFlight) {
+				inFlight.remove(key);
+			}
+		}
+	}
+
+	/**
+	 * Rethrows the given failure as is if it is unchecked, or as a {@link CoreException}.
+	 *
+	 * @param t
+	 *            The failure
+	 * @return Never returns, declared for the callers to write {@code throw propagate(t)}.
+	 * @throws CoreException
+	 *             If the failure is a {@link CoreException} or a checked exception.
+	 */
+	private CoreException propagate(Throwable t) throws CoreException {
+		if (t instanceof CoreException) {
+			throw (CoreException)t;
+		}
+		if (t instanceof RuntimeException) {
+			throw (RuntimeException)t;
+		}
+		if (t instanceof Error) {
+			throw (Error)t;
+		}
+		throw new CoreException(new Status(IStatus.ERROR, TuleapCoreActivator.PLUGIN_ID, t.getMessage(), t));
+	}
+
+	/**
+	 * Number of calls in flight.
+	 *
+	 * @return The number of calls currently in flight.
+	 */
+	public int getInFlightCount() {
+		synchronized (inFlight) {
+			return inFlight.size();
+		}
+	}
+
+	/**
+	 * Number of waiting callers.
+	 *
+	 * @return The number of callers currently waiting for the outcome of a call in flight.
+	 */
+	public int getWaiterCount() {
+		return waiters.get();
+	}
+}
@@ -0,0 +1,186 @@
+/*******************************************************************************
+ * Copyright (c) 2014 Obeo.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.tuleap.mylyn.task.core.internal.client.rest;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UnsupportedEncodingException;
+import java.util.Map;
+
+import org.eclipse.core.runtime.Assert;
+
+/**
+ * Server response whose body is read directly from the connection, so that it can be parsed while it is
+ * received instead of being held in memory as a whole. The body can be consumed only once, either as a
+ * stream, as a reader or as a String with {@link #getBody()}, which reads the whole body and keeps it.
+ *
+ * @author <a href="mailto:laurent.delaigue@obeo.fr">Laurent Delaigue</a>
+ */
+public class StreamingServerResponse extends ServerResponse {
+
+	/**
+	 * The stream of the (decoded) body.
+	 */
+	private final InputStream content;
+
+	/**
+	 * The charset of the body.
+	 */
+	private final String charset;
+
+	/**
+	 * Releases the connection, called when the response is closed.
+	 */
+	private final Closeable connectionReleaser;
+
+	/**
+	 * The body, once it has been read as a String.
+	 */
+	private String bufferedBody;
+
+	/**
+	 * Whether the content has already been handed out as a stream or as a reader.
+	 */
+	private boolean consumed;
+
+	/**
+	 * Whether this response is closed.
+	 */
+	private boolean closed;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param status
+	 *            The status
+	 * @param headers
+	 *            The headers
+	 * @param content
+	 *            The stream of the decoded body, can be <code>null</code> if the response has no body
+	 * @param charset
+	 *            The charset of the body
+	 * @param connectionReleaser
+	 *            Called once to release the connection when the response is closed
+	 */
+	public StreamingServerResponse(int status, Map<String, String> headers, InputStream content,
+			String charset, Closeable connectionReleaser) {
+		super(status, null, headers);
+		Assert.isNotNull(charset);
+		Assert.isNotNull(connectionReleaser);
+		this.content = content;
+		this.charset = charset;
+		this.connectionReleaser = connectionReleaser;
+	}
+
+	/**
+	 * Reads the whole body, if it has not been consumed as a stream yet, and closes the response.
+	 *
+	 * @return The body, or an empty String if it has already been consumed as a stream or cannot be read.
+	 * @see org.tuleap.mylyn.task.core.internal.client.rest.ServerResponse#getBody()
+	 */
+	@Override
+	public synchronized String getBody() {
+		if (bufferedBody == null) {
+			if (consumed) {
+				bufferedBody = ""; //$NON-NLS-1$
+			} else {
+				consumed = true;
+				try {
+					bufferedBody = ContentEncodings.read(content, charset);
+				} catch (IOException e) {
+					bufferedBody = ""; //$NON-NLS-1$
+				} finally {
+					close();
+				}
+			}
+		}
+		return bufferedBody;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @see org.tuleap.mylyn.task.core.internal.client.rest.ServerResponse#getInputStream()
+	 */
+	@Override
+	public synchronized InputStream getInputStream() {
+		if (bufferedBody != null) {
+			return super.getInputStream();
+		}
+		checkNotConsumed();
+		if (content == null) {
+			bufferedBody = ""; //$NON-NLS-1$
+			return super.getInputStream();
+		}
+		return content;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @see org.tuleap.mylyn.task.core.internal.client.rest.ServerResponse#getReader()
+	 */
+	@Override
+	public synchronized Reader getReader() {
+		if (bufferedBody != null) {
+			return super.getReader();
+		}
+		checkNotConsumed();
+		if (content == null) {
+			bufferedBody = ""; //$NON-NLS-1$
+			return super.getReader();
+		}
+		try {
+			return new InputStreamReader(content, charset);
+		} catch (UnsupportedEncodingException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Charset getter.
+	 *
+	 * @return The charset of the body.
+	 */
+	public String getCharset() {
+		return charset;
+	}
+
+	/**
+	 * Checks that the content has not been handed out yet, and marks it as handed out.
+	 */
+	private void checkNotConsumed() {
+		if (consumed) {
+			throw new IllegalStateException("The body of a streaming response can only be read once"); //$NON-NLS-1$
+		}
+		consumed = true;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @see org.tuleap.mylyn.task.core.internal.client.rest.ServerResponse#close()
+	 */
+	@Override
+	public synchronized void close() {
+		if (!closed) {
+			closed = true;
+			try {
+				connectionReleaser.close();
+			} catch (IOException e) {
+				// Nothing to do, the connection will be reclaimed by the pool
+			}
+		}
+	}
+}
@@ -0,0 +1,255 @@
+/*******************************************************************************
+ * Copyright (c) 2014 Obeo.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.tuleap.mylyn.task.core.internal.client.rest;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.httpclient.HttpClient;
+import org.apache.commons.httpclient.MultiThreadedHttpConnectionManager;
+import org.apache.commons.httpclient.params.HttpConnectionManagerParams;
+import org.apache.commons.httpclient.util.IdleConnectionTimeoutThread;
+import org.eclipse.core.runtime.Assert;
+import org.eclipse.mylyn.commons.net.WebUtil;
+
+/**
+ * Bounded pool of keep-alive HTTP connections to one Tuleap host. All the connectors that target the same
+ * host (same scheme, host name and port) share the same pool, so that connections are re-used across
+ * requests and across clients instead of being re-established for each repository. Idle connections are
+ * evicted in the background.
+ *
+ * @author <a href="mailto:laurent.delaigue@obeo.fr">Laurent Delaigue</a>
+ */
+public final class TuleapConnectionPool {
+
+	/**
+	 * Default maximum number of connections per route (i.e. per host configuration, including the proxy).
+	 */
+	public static final int DEFAULT_MAX_CONNECTIONS_PER_ROUTE = 4;
+
+	/**
+	 * Default maximum number of connections of a pool.
+	 */
+	public static final int DEFAULT_MAX_TOTAL_CONNECTIONS = 10;
+
+	/**
+	 * Default delay, in milliseconds, after which an idle connection is closed.
+	 */
+	public static final long DEFAULT_IDLE_TIMEOUT = 60000L;
+
+	/**
+	 * Delay, in milliseconds, between two evictions of idle connections.
+	 */
+	private static final long EVICTION_INTERVAL = 15000L;
+
+	/**
+	 * The pools, by host key.
+	 */
+	private static final Map<String, TuleapConnectionPool> POOLS = new HashMap<String, TuleapConnectionPool>();
+
+	/**
+	 * The thread that evicts idle connections of all the pools, lazily started.
+	 */
+	private static IdleConnectionTimeoutThread evictionThread;
+
+	/**
+	 * The host key of this pool.
+	 */
+	private final String hostKey;
+
+	/**
+	 * The underlying connection manager.
+	 */
+	private final MultiThreadedHttpConnectionManager connectionManager;
+
+	/**
+	 * The maximum number of connections per route.
+	 */
+	private final int maxConnectionsPerRoute;
+
+	/**
+	 * The maximum number of connections.
+	 */
+	private final int maxTotalConnections;
+
+	/**
+	 * Number of requests currently executing with a connection of this pool.
+	 */
+	private final AtomicInteger activeRequests = new AtomicInteger();
+
+	/**
+	 * Number of requests executed with a connection of this pool since its creation.
+	 */
+	private final AtomicLong executedRequests = new AtomicLong();
+
+	/**
+	 * Constructor.
+	 *
+	 * @param hostKey
+	 *            The host key
+	 * @param maxConnectionsPerRoute
+	 *            The maximum number of connections per route
+	 * @param maxTotalConnections
+	 *            The maximum number of connections
+	 */
+	TuleapConnectionPool(String hostKey, int maxConnectionsPerRoute, int maxTotalConnections) {
+		Assert.isNotNull(hostKey);
+		this.hostKey = hostKey;
+		this.maxConnectionsPerRoute = maxConnectionsPerRoute;
+		this.maxTotalConnections = maxTotalConnections;
+		this.connectionManager = new MultiThreadedHttpConnectionManager();
+		applyLimits();
+	}
+
+	/**
+	 * Provides the pool shared by all the connectors of the host of the given repository URL, creating it if
+	 * necessary.
+	 *
+	 * @param repositoryUrl
+	 *            The URL of the repository
+	 * @return The pool to use for this URL, never <code>null</code>.
+	 */
+	public static TuleapConnectionPool forUrl(String repositoryUrl) {
+		String key = hostKey(repositoryUrl);
+		synchronized (POOLS) {
+			TuleapConnectionPool pool = POOLS.get(key);
+			if (pool == null) {
+				pool = new TuleapConnectionPool(key, DEFAULT_MAX_CONNECTIONS_PER_ROUTE,
+						DEFAULT_MAX_TOTAL_CONNECTIONS);
+				POOLS.put(key, pool);
+				if (evictionThread == null) {
+					evictionThread = new IdleConnectionTimeoutThread();
+					evictionThread.setName("Tuleap idle connections eviction"); //$NON-NLS-1$
+					evictionThread.setTimeoutInterval(EVICTION_INTERVAL);
+					evictionThread.setConnectionTimeout(DEFAULT_IDLE_TIMEOUT);
+					evictionThread.start();
+				}
+				evictionThread.addConnectionManager(pool.connectionManager);
+			}
+			return pool;
+		}
+	}
+
+	/**
+	 * Closes all the pools and stops the eviction of idle connections. Pools requested afterwards are
+	 * re-created.
+	 */
+	public static void shutdownAll() {
+		synchronized (POOLS) {
+			for (TuleapConnectionPool pool : POOLS.values()) {
+				pool.connectionManager.shutdown();
+			}
+			POOLS.clear();
+			if (evictionThread != null) {
+				evictionThread.shutdown();
+				evictionThread = null;
+			}
+		}
+	}
+
+	/**
+	 * Computes the key that identifies the host of the given URL, made of its scheme, host name and port.
+	 *
+	 * @param repositoryUrl
+	 *            The URL
+	 * @return The key of the host of the given URL, or the URL itself if it cannot be parsed.
+	 */
+	static String hostKey(String repositoryUrl) {
+		Assert.isNotNull(repositoryUrl);
+		try {
+			URL url = new URL(repositoryUrl);
+			int port = url.getPort();
+			if (port < 0) {
+				port = url.getDefaultPort();
+			}
+			return url.getProtocol().toLowerCase(Locale.ENGLISH) + "://" //$NON-NLS-1$
+					+ url.getHost().toLowerCase(Locale.ENGLISH) + ':' + port;
+		} catch (MalformedURLException e) {
+			return repositoryUrl;
+		}
+	}
+
+	/**
+	 * Creates a new HTTP client that uses the connections of this pool. The client is configured once and
+	 * for all with the given user agent, it does not need to be re-configured before each request.
+	 *
+	 * @param userAgent
+	 *            The user agent to use
+	 * @return A new configured HTTP client backed by this pool.
+	 */
+	public HttpClient createHttpClient(String userAgent) {
+		HttpClient httpClient = new HttpClient(connectionManager);
+		WebUtil.configureHttpClient(httpClient, userAgent);
+		// The configuration of mylyn overrides the limits of the connection manager
+		applyLimits();
+		return httpClient;
+	}
+
+	/**
+	 * Applies the limits of this pool to the underlying connection manager.
+	 */
+	private void applyLimits() {
+		HttpConnectionManagerParams params = connectionManager.getParams();
+		params.setDefaultMaxConnectionsPerHost(maxConnectionsPerRoute);
+		params.setMaxTotalConnections(maxTotalConnections);
+		params.setStaleCheckingEnabled(true);
+	}
+
+	/**
+	 * Must be called when a request starts using a connection of this pool.
+	 */
+	void requestStarted() {
+		activeRequests.incrementAndGet();
+		executedRequests.incrementAndGet();
+	}
+
+	/**
+	 * Must be called when a request has released its connection to this pool.
+	 */
+	void requestEnded() {
+		activeRequests.decrementAndGet();
+	}
+
+	/**
+	 * Closes the connections that have been idle for longer than the given delay.
+	 *
+	 * @param idleTimeout
+	 *            The delay in milliseconds
+	 */
+	public void closeIdleConnections(long idleTimeout) {
+		connectionManager.closeIdleConnections(idleTimeout);
+		connectionManager.deleteClosedConnections();
+	}
+
+	/**
+	 * Host key getter.
+	 *
+	 * @return The key of the host served by this pool.
+	 */
+	public String getHostKey() {
+		return hostKey;
+	}
+
+	/**
+	 * Provides a snapshot of the statistics of this pool.
+	 *
+	 * @return A new statistics object.
+	 */
+	public TuleapConnectionPoolStatistics getStatistics() {
+		return new TuleapConnectionPoolStatistics(hostKey, maxConnectionsPerRoute, maxTotalConnections,
+				connectionManager.getConnectionsInPool(), activeRequests.get(), executedRequests.get());
+	}
+}
@@ -0,0 +1,141 @@
+/*******************************************************************************
+ * Copyright (c) 2014 Obeo.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.tuleap.mylyn.task.core.internal.client.rest;
+
+/**
+ * Immutable snapshot of the statistics of a {@link TuleapConnectionPool}.
+ *
+ * @author <a href="mailto:laurent.delaigue@obeo.fr">Laurent Delaigue</a>
+ */
+public final class TuleapConnectionPoolStatistics {
+
+	/**
+	 * The host key of the pool.
+	 */
+	private final String hostKey;
+
+	/**
+	 * The maximum number of connections per route.
+	 */
+	private final int maxConnectionsPerRoute;
+
+	/**
+	 * The maximum number of connections.
+	 */
+	private final int maxTotalConnections;
+
+	/**
+	 * The number of connections currently open in the pool, idle or leased.
+	 */
+	private final int openConnections;
+
+	/**
+	 * The number of requests being executed.
+	 */
+	private final int activeRequests;
+
+	/**
+	 * The number of requests executed since the creation of the pool.
+	 */
+	private final long executedRequests;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param hostKey
+	 *            The host key of the pool
+	 * @param maxConnectionsPerRoute
+	 *            The maximum number of connections per route
+	 * @param maxTotalConnections
+	 *            The maximum number of connections
+	 * @param openConnections
+	 *            The number of connections currently open in the pool
+	 * @param activeRequests
+	 *            The number of requests being executed
+	 * @param executedRequests
+	 *            The number of requests executed since the creation of the pool
+	 */
+	public TuleapConnectionPoolStatistics(String hostKey, int maxConnectionsPerRoute,
+			int maxTotalConnections, int openConnections, int activeRequests, long executedRequests) {
+		this.hostKey = hostKey;
+		this.maxConnectionsPerRoute = maxConnectionsPerRoute;
+		this.maxTotalConnections = maxTotalConnections;
+		this.openConnections = openConnections;
+		this.activeRequests = activeRequests;
+		this.executedRequests = executedRequests;
+	}
+
+	/**
+	 * Host key getter.
+	 *
+	 * @return the hostKey
+	 */
+	public String getHostKey() {
+		return hostKey;
+	}
+
+	/**
+	 * Max connections per route getter.
+	 *
+	 * @return the maxConnectionsPerRoute
+	 */
+	public int getMaxConnectionsPerRoute() {
+		return maxConnectionsPerRoute;
+	}
+
+	/**
+	 * Max total connections getter.
+	 *
+	 * @return the maxTotalConnections
+	 */
+	public int getMaxTotalConnections() {
+		return maxTotalConnections;
+	}
+
+	/**
+	 * Open connections getter.
+	 *
+	 * @return the number of connections currently open in the pool, idle or leased.
+	 */
+	public int getOpenConnections() {
+		return openConnections;
+	}
+
+	/**
+	 * Active requests getter.
+	 *
+	 * @return the number of requests being executed.
+	 */
+	public int getActiveRequests() {
+		return activeRequests;
+	}
+
+	/**
+	 * Executed requests getter.
+	 *
+	 * @return the number of requests executed since the creation of the pool.
+	 */
+	public long getExecutedRequests() {
+		return executedRequests;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return hostKey + " [open=" + openConnections + ", active=" + activeRequests //$NON-NLS-1$ //$NON-NLS-2$
+				+ ", executed=" + executedRequests + ", maxPerRoute=" + maxConnectionsPerRoute //$NON-NLS-1$ //$NON-NLS-2$
+				+ ", maxTotal=" + maxTotalConnections + ']'; //$NON-NLS-1$
+	}
+}
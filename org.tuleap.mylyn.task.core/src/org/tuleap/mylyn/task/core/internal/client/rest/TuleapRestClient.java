@@ -15,12 +15,17 @@ import com.google.gson.Gson;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
 import com.google.gson.JsonParser;
 import com.google.gson.JsonPrimitive;
+import com.google.gson.TypeAdapter;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
 
+import org.eclipse.core.runtime.Assert;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
@@ -50,6 +55,7 @@ import org.tuleap.mylyn.task.core.internal.model.data.TuleapArtifactWithComment;
 import org.tuleap.mylyn.task.core.internal.model.data.TuleapElementComment;
 import org.tuleap.mylyn.task.core.internal.model.data.TuleapFile;
 import org.tuleap.mylyn.task.core.internal.model.data.TuleapReference;
+import org.tuleap.mylyn.task.core.internal.parser.TuleapArtifactAdapter;
 import org.tuleap.mylyn.task.core.internal.util.ITuleapConstants;
 import org.tuleap.mylyn.task.core.internal.util.TuleapCoreKeys;
 import org.tuleap.mylyn.task.core.internal.util.TuleapCoreMessages;
@@ -69,6 +75,32 @@ import org.tuleap.mylyn.task.core.internal.util.TuleapCoreMessages;
  */
 public class TuleapRestClient implements IAuthenticator {
 
+	/**
+	 * Default lifetime of the tokens, in milliseconds, after which they are renewed before being used.
+	 */
+	public static final long DEFAULT_TOKEN_LIFETIME = TimeUnit.HOURS.toMillis(24);
+
+	/**
+	 * Minimum lifetime of the tokens, in milliseconds, learnt from the tokens rejected by the server, so that
+	 * a revoked token does not make every request log in again.
+	 */
+	public static final long MIN_TOKEN_LIFETIME = TimeUnit.MINUTES.toMillis(5);
+
+	/**
+	 * Delay before the end of the lifetime of a token after which it is renewed, in milliseconds.
+	 */
+	private static final long TOKEN_RENEWAL_MARGIN = TimeUnit.MINUTES.toMillis(1);
+
+	/**
+	 * The key of the login in the single flight.
+	 */
+	private static final String LOGIN_KEY = "POST tokens"; //$NON-NLS-1$
+
+	/**
+	 * Maximum number of times the retrieval of a list of artifacts resumes from the page that failed.
+	 */
+	private static final int MAX_ARTIFACT_LIST_RESUMPTIONS = 2;
+
 	/**
 	 * The JSON parser.
 	 */
@@ -85,9 +117,36 @@ public class TuleapRestClient implements IAuthenticator {
 	private RestResourceFactory restResourceFactory;
 
 	/**
-	 * The current authentication token.
+	 * The current authentication token, replaced as a whole by each login.
+	 */
+	private volatile TuleapToken token;
+
+	/**
+	 * The lifetime of the tokens, in milliseconds, shortened when the server rejects a younger token.
+	 */
+	private volatile long tokenLifetime = DEFAULT_TOKEN_LIFETIME;
+
+	/**
+	 * The cache used to validate configuration resources with conditional requests, can be
+	 * <code>null</code>.
+	 */
+	private final ValidationCache validationCache;
+
+	/**
+	 * De-duplicates the identical GET requests sent concurrently by several synchronization jobs.
+	 */
+	private final SingleFlight singleFlight = new SingleFlight();
+
+	/**
+	 * The checkpoints from which the retrieval of the configuration lists resumes after a failure. The lists
+	 * of artifacts use checkpoints of their own retrieval only, see {@link #toArtifactList}.
+	 */
+	private final PaginationCheckpoints checkpoints;
+
+	/**
+	 * The numbers of artifacts of the reports and queries counted recently.
 	 */
-	private TuleapToken token;
+	private final ResultCountCache resultCounts = new ResultCountCache(ResultCountCache.DEFAULT_TIME_TO_LIVE);
 
 	/**
 	 * The constructor.
@@ -100,9 +159,33 @@ public class TuleapRestClient implements IAuthenticator {
 	 *            The task repository
 	 */
 	public TuleapRestClient(RestResourceFactory resourceFactory, Gson gson, TaskRepository taskRepository) {
+		this(resourceFactory, gson, taskRepository, null);
+	}
+
+	/**
+	 * The constructor.
+	 *
+	 * @param resourceFactory
+	 *            The RESt resource factory to use
+	 * @param gson
+	 *            The JSON parser
+	 * @param taskRepository
+	 *            The task repository
+	 * @param validationCache
+	 *            The cache used to validate configuration resources (trackers, projects, reports) with
+	 *            conditional requests, <code>null</code> to always download them.
+	 */
+	public TuleapRestClient(RestResourceFactory resourceFactory, Gson gson, TaskRepository taskRepository,
+			ValidationCache validationCache) {
 		this.restResourceFactory = resourceFactory;
 		this.gson = gson;
 		this.taskRepository = taskRepository;
+		this.validationCache = validationCache;
+		if (taskRepository != null) {
+			this.checkpoints = PaginationCheckpoints.forUrl(taskRepository.getRepositoryUrl());
+		} else {
+			this.checkpoints = new PaginationCheckpoints(PaginationCheckpoints.DEFAULT_TIME_TO_LIVE);
+		}
 	}
 
 	/**
@@ -144,7 +227,14 @@ public class TuleapRestClient implements IAuthenticator {
 			// It is on purpose that there is no authenticator here!
 			RestOperation postOperation = restTokens.post().withBody(credentialsToPost);
 			ServerResponse response = postOperation.checkedRun();
-			this.token = gson.fromJson(response.getBody(), TuleapToken.class);
+			TuleapToken newToken = gson.fromJson(response.getBody(), TuleapToken.class);
+			if (newToken != null) {
+				long now = System.currentTimeMillis();
+				long lifetime = tokenLifetime;
+				newToken.setCreationTime(now);
+				newToken.setExpirationTime(now + Math.max(lifetime - TOKEN_RENEWAL_MARGIN, lifetime / 2));
+			}
+			this.token = newToken;
 		} else {
 			token = null;
 		}
@@ -160,6 +250,75 @@ public class TuleapRestClient implements IAuthenticator {
 		return token;
 	}
 
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @see org.tuleap.mylyn.task.core.internal.client.rest.IAuthenticator#renewToken(org.tuleap.mylyn.task.core.internal.model.TuleapToken)
+	 */
+	@Override
+	public void renewToken(final TuleapToken rejectedToken) throws CoreException {
+		if (isReplaced(rejectedToken)) {
+			return;
+		}
+		singleFlight.execute(LOGIN_KEY, new Callable<Object>() {
+			@Override
+			public Object call() throws CoreException {
+				// A login may have completed since the check above
+				if (!isReplaced(rejectedToken)) {
+					learnTokenLifetime(rejectedToken);
+					login();
+				}
+				return null;
+			}
+		});
+	}
+
+	/**
+	 * Indicates whether the given token has already been replaced by a login.
+	 *
+	 * @param rejectedToken
+	 *            The token to replace, can be <code>null</code>
+	 * @return <code>true</code> if the current token is another token.
+	 */
+	private boolean isReplaced(TuleapToken rejectedToken) {
+		TuleapToken current = token;
+		return current != null && current != rejectedToken;
+	}
+
+	/**
+	 * Shortens the lifetime of the next tokens if the server has rejected a token before its expiration.
+	 *
+	 * @param rejectedToken
+	 *            The token to replace, can be <code>null</code>
+	 */
+	private void learnTokenLifetime(TuleapToken rejectedToken) {
+		long now = System.currentTimeMillis();
+		if (rejectedToken != null && rejectedToken.getCreationTime() > 0 && !rejectedToken.isExpired(now)) {
+			long age = now - rejectedToken.getCreationTime();
+			tokenLifetime = Math.max(MIN_TOKEN_LIFETIME, Math.min(tokenLifetime, age));
+		}
+	}
+
+	/**
+	 * Lifetime of the tokens getter.
+	 *
+	 * @return The lifetime of the tokens, in milliseconds.
+	 */
+	public long getTokenLifetime() {
+		return tokenLifetime;
+	}
+
+	/**
+	 * Lifetime of the tokens setter, applied to the next tokens.
+	 *
+	 * @param lifetime
+	 *            The lifetime of the tokens, in milliseconds, must be strictly positive
+	 */
+	public void setTokenLifetime(long lifetime) {
+		Assert.isLegal(lifetime > 0L);
+		this.tokenLifetime = lifetime;
+	}
+
 	/**
 	 * Create the POST token body.
 	 *
@@ -216,7 +375,8 @@ public class TuleapRestClient implements IAuthenticator {
 		}
 		RestResource artifactResource = restResourceFactory.artifact(artifact.getId().intValue())
 				.withAuthenticator(this);
-		artifactResource.put().withBody(gson.toJson(artifact, TuleapArtifactWithComment.class)).checkedRun();
+		artifactResource.put().withBodyCompression(isBodyCompressionEnabled()).withBody(artifact,
+				TuleapArtifactWithComment.class).checkedRun();
 	}
 
 	/**
@@ -236,8 +396,8 @@ public class TuleapRestClient implements IAuthenticator {
 		}
 		RestResource artifactResource = restResourceFactory.artifact(artifact.getId().intValue())
 				.withAuthenticator(this);
-		artifactResource.put().withBody(gson.toJson(artifact, TuleapArtifactWithAttachment.class))
-		.checkedRun();
+		artifactResource.put().withBodyCompression(isBodyCompressionEnabled()).withBody(artifact,
+				TuleapArtifactWithAttachment.class).checkedRun();
 	}
 
 	/**
@@ -257,12 +417,22 @@ public class TuleapRestClient implements IAuthenticator {
 			monitor.subTask(TuleapCoreMessages.getString(TuleapCoreKeys.creatingArtifact));
 		}
 		RestResource artifactResource = restResourceFactory.artifacts().withAuthenticator(this);
-		ServerResponse response = artifactResource.post().withBody(
-				gson.toJson(artifact, TuleapArtifact.class)).checkedRun();
+		ServerResponse response = artifactResource.post().withBodyCompression(isBodyCompressionEnabled())
+				.withBody(artifact, TuleapArtifact.class).checkedRun();
 		ArtifactReference ref = gson.fromJson(response.getBody(), ArtifactReference.class);
 		return TuleapTaskId.forArtifact(artifact.getProject().getId(), ref.getTracker().getId(), ref.getId());
 	}
 
+	/**
+	 * Indicates whether large request bodies must be sent compressed, which is optional since the server
+	 * must be configured to accept gzip encoded requests.
+	 *
+	 * @return <code>true</code> if the task repository enables the compression of requests.
+	 */
+	private boolean isBodyCompressionEnabled() {
+		return Boolean.parseBoolean(taskRepository.getProperty(ITuleapConstants.PROPERTY_COMPRESS_REQUESTS));
+	}
+
 	/**
 	 * Retrieve an artifact file attachment that is characterized by the data it contains.
 	 *
@@ -324,7 +494,8 @@ public class TuleapRestClient implements IAuthenticator {
 		json.add(ITuleapConstants.CONTENT, new JsonPrimitive(content));
 
 		String changesToPost = json.toString();
-		RestOperation operation = restFiles.post().withBody(changesToPost);
+		RestOperation operation = restFiles.post().withBodyCompression(isBodyCompressionEnabled()).withBody(
+				changesToPost);
 		ServerResponse response = operation.checkedRun();
 		TuleapReference ref = gson.fromJson(response.getBody(), TuleapReference.class);
 		return ref;
@@ -353,7 +524,8 @@ public class TuleapRestClient implements IAuthenticator {
 		json.add(ITuleapConstants.OFFSET, new JsonPrimitive(Integer.valueOf(offset)));
 
 		String changesToPut = json.toString();
-		RestOperation operation = restFile.put().withBody(changesToPut);
+		RestOperation operation = restFile.put().withBodyCompression(isBodyCompressionEnabled()).withBody(
+				changesToPut);
 		operation.checkedRun();
 	}
 
@@ -390,13 +562,42 @@ public class TuleapRestClient implements IAuthenticator {
 	 */
 	public List<TuleapUserGroup> getProjectUserGroups(int projectId, IProgressMonitor monitor)
 			throws CoreException {
+		return toList(projectUserGroupsOperation(projectId, monitor).withPaginationCheckpoints(checkpoints)
+				.iterable(TuleapUserGroup.class));
+	}
+
+	/**
+	 * Retrieve a project's user groups as they arrive, without building the list of all of them. The
+	 * request is sent each time the result is iterated.
+	 *
+	 * @param projectId
+	 *            ID of the project
+	 * @param monitor
+	 *            Progress monitor to use
+	 * @return An iterable, never null but possibly empty, over the project's user groups.
+	 * @throws CoreException
+	 *             If the server returns a status code different from 200 OK.
+	 */
+	public Iterable<TuleapUserGroup> streamProjectUserGroups(int projectId, IProgressMonitor monitor)
+			throws CoreException {
+		return projectUserGroupsOperation(projectId, monitor).iterable(TuleapUserGroup.class);
+	}
+
+	/**
+	 * Creates the operation that retrieves a project's user groups.
+	 *
+	 * @param projectId
+	 *            ID of the project
+	 * @param monitor
+	 *            Progress monitor to use
+	 * @return The operation to iterate.
+	 * @throws CoreException
+	 *             If a problem occurs while checking whether the GET method is supported.
+	 */
+	private RestOperation projectUserGroupsOperation(int projectId, IProgressMonitor monitor)
+			throws CoreException {
 		RestResource r = restResourceFactory.projectUserGroups(projectId).withAuthenticator(this);
-		RestOperation operation = r.get();
-		List<TuleapUserGroup> userGroups = Lists.newArrayList();
-		for (JsonElement e : operation.iterable()) {
-			userGroups.add(gson.fromJson(e, TuleapUserGroup.class));
-		}
-		return userGroups;
+		return r.get().withProgressMonitor(monitor);
 	}
 
 	/**
@@ -412,13 +613,42 @@ public class TuleapRestClient implements IAuthenticator {
 	 */
 	public List<TuleapUser> getUserGroupUsers(String userGroupId, IProgressMonitor monitor)
 			throws CoreException {
+		return toList(userGroupUsersOperation(userGroupId, monitor).withPaginationCheckpoints(checkpoints)
+				.iterable(TuleapUser.class));
+	}
+
+	/**
+	 * Retrieve a user group users as they arrive, without building the list of all of them. The request is
+	 * sent each time the result is iterated.
+	 *
+	 * @param userGroupId
+	 *            ID of the user group
+	 * @param monitor
+	 *            Progress monitor to use
+	 * @return An iterable, never null but possibly empty, over the user groups's users.
+	 * @throws CoreException
+	 *             If the server returns a status code different from 200 OK.
+	 */
+	public Iterable<TuleapUser> streamUserGroupUsers(String userGroupId, IProgressMonitor monitor)
+			throws CoreException {
+		return userGroupUsersOperation(userGroupId, monitor).iterable(TuleapUser.class);
+	}
+
+	/**
+	 * Creates the operation that retrieves a user group users.
+	 *
+	 * @param userGroupId
+	 *            ID of the user group
+	 * @param monitor
+	 *            Progress monitor to use
+	 * @return The operation to iterate.
+	 * @throws CoreException
+	 *             If a problem occurs while checking whether the GET method is supported.
+	 */
+	private RestOperation userGroupUsersOperation(String userGroupId, IProgressMonitor monitor)
+			throws CoreException {
 		RestResource r = restResourceFactory.userGroupUsers(userGroupId).withAuthenticator(this);
-		RestOperation operation = r.get();
-		List<TuleapUser> users = Lists.newArrayList();
-		for (JsonElement e : operation.iterable()) {
-			users.add(gson.fromJson(e, TuleapUser.class));
-		}
-		return users;
+		return r.get().withProgressMonitor(monitor);
 	}
 
 	/**
@@ -434,13 +664,21 @@ public class TuleapRestClient implements IAuthenticator {
 	 */
 	public List<TuleapTrackerReport> getTrackerReports(int trackerId, IProgressMonitor monitor)
 			throws CoreException {
-		RestResource r = restResourceFactory.trackerReports(trackerId).withAuthenticator(this);
-		RestOperation operation = r.get();
-		List<TuleapTrackerReport> reports = Lists.newArrayList();
-		for (JsonElement e : operation.iterable()) {
-			reports.add(gson.fromJson(e, TuleapTrackerReport.class));
-		}
-		return reports;
+		final RestResource r = restResourceFactory.trackerReports(trackerId).withAuthenticator(this);
+		List<TuleapTrackerReport> shared = singleFlight.execute(r.getUrl(),
+				new Callable<List<TuleapTrackerReport>>() {
+					@Override
+					public List<TuleapTrackerReport> call() throws CoreException {
+						RestOperation operation = r.get().withValidationCache(validationCache)
+								.withPaginationCheckpoints(checkpoints);
+						List<TuleapTrackerReport> reports = Lists.newArrayList();
+						for (JsonElement e : toList(operation.iterable())) {
+							reports.add(gson.fromJson(e, TuleapTrackerReport.class));
+						}
+						return reports;
+					}
+				});
+		return Lists.newArrayList(shared);
 	}
 
 	/**
@@ -453,13 +691,36 @@ public class TuleapRestClient implements IAuthenticator {
 	 *             If the server returns a status code different from 200 OK.
 	 */
 	public List<TuleapProject> getProjects(IProgressMonitor monitor) throws CoreException {
+		return toList(projectsOperation(monitor).withPaginationCheckpoints(checkpoints).iterable(
+				TuleapProject.class));
+	}
+
+	/**
+	 * Retrieve the projects as they arrive, without building the list of all of them. The request is sent
+	 * each time the result is iterated.
+	 *
+	 * @param monitor
+	 *            Progress monitor to use
+	 * @return An iterable, never null but possibly empty, over the projects.
+	 * @throws CoreException
+	 *             If the server returns a status code different from 200 OK.
+	 */
+	public Iterable<TuleapProject> streamProjects(IProgressMonitor monitor) throws CoreException {
+		return projectsOperation(monitor).iterable(TuleapProject.class);
+	}
+
+	/**
+	 * Creates the operation that retrieves the projects.
+	 *
+	 * @param monitor
+	 *            Progress monitor to use
+	 * @return The operation to iterate.
+	 * @throws CoreException
+	 *             If a problem occurs while checking whether the GET method is supported.
+	 */
+	private RestOperation projectsOperation(IProgressMonitor monitor) throws CoreException {
 		RestResource r = restResourceFactory.projects().withAuthenticator(this);
-		RestOperation operation = r.get();
-		List<TuleapProject> projects = Lists.newArrayList();
-		for (JsonElement e : operation.iterable()) {
-			projects.add(gson.fromJson(e, TuleapProject.class));
-		}
-		return projects;
+		return r.get().withValidationCache(validationCache).withProgressMonitor(monitor);
 	}
 
 	/**
@@ -475,13 +736,42 @@ public class TuleapRestClient implements IAuthenticator {
 	 */
 	public List<TuleapTracker> getProjectTrackers(int projectId, IProgressMonitor monitor)
 			throws CoreException {
+		return toList(projectTrackersOperation(projectId, monitor).withPaginationCheckpoints(checkpoints)
+				.iterable(TuleapTracker.class));
+	}
+
+	/**
+	 * Retrieve a project trackers as they arrive, without building the list of all of them. The request is
+	 * sent each time the result is iterated.
+	 *
+	 * @param projectId
+	 *            The project id
+	 * @param monitor
+	 *            Progress monitor to use
+	 * @return An iterable, never null but possibly empty, over the project trackers.
+	 * @throws CoreException
+	 *             If the server returns a status code different from 200 OK.
+	 */
+	public Iterable<TuleapTracker> streamProjectTrackers(int projectId, IProgressMonitor monitor)
+			throws CoreException {
+		return projectTrackersOperation(projectId, monitor).iterable(TuleapTracker.class);
+	}
+
+	/**
+	 * Creates the operation that retrieves a project trackers.
+	 *
+	 * @param projectId
+	 *            The project id
+	 * @param monitor
+	 *            Progress monitor to use
+	 * @return The operation to iterate.
+	 * @throws CoreException
+	 *             If a problem occurs while checking whether the GET method is supported.
+	 */
+	private RestOperation projectTrackersOperation(int projectId, IProgressMonitor monitor)
+			throws CoreException {
 		RestResource r = restResourceFactory.projectsTrackers(projectId).withAuthenticator(this);
-		RestOperation operation = r.get();
-		List<TuleapTracker> trackers = Lists.newArrayList();
-		for (JsonElement e : operation.iterable()) {
-			trackers.add(gson.fromJson(e, TuleapTracker.class));
-		}
-		return trackers;
+		return r.get().withValidationCache(validationCache).withProgressMonitor(monitor);
 	}
 
 	/**
@@ -497,15 +787,65 @@ public class TuleapRestClient implements IAuthenticator {
 	 */
 	public List<TuleapArtifact> getTrackerReportArtifacts(int trackerReportId, IProgressMonitor monitor)
 			throws CoreException {
+		return toArtifactList(trackerReportArtifactsOperation(trackerReportId, monitor), gson
+				.getAdapter(TuleapArtifact.class));
+	}
+
+	/**
+	 * Retrieve a tracker report artifacts with the values of their semantic fields only, which are enough to
+	 * list them. The values of the other fields are skipped while the response is decoded.
+	 *
+	 * @param trackerReportId
+	 *            ID of the tracker report
+	 * @param tracker
+	 *            The tracker of the report
+	 * @param monitor
+	 *            Progress monitor to use
+	 * @return A list, never null but possibly empty, containing the partial tracker report artifacts.
+	 * @throws CoreException
+	 *             If the server returns a status code different from 200 OK.
+	 */
+	public List<TuleapArtifact> getTrackerReportArtifactSummaries(int trackerReportId,
+			TuleapTracker tracker, IProgressMonitor monitor) throws CoreException {
+		return toArtifactList(trackerReportArtifactsOperation(trackerReportId, monitor),
+				summaryAdapter(tracker));
+	}
+
+	/**
+	 * Retrieve a tracker report artifacts as they arrive, without building the list of all of them. The
+	 * request is sent each time the result is iterated.
+	 *
+	 * @param trackerReportId
+	 *            ID of the tracker report
+	 * @param monitor
+	 *            Progress monitor to use
+	 * @return An iterable, never null but possibly empty, over the tracker report artifacts.
+	 * @throws CoreException
+	 *             If the server returns a status code different from 200 OK.
+	 */
+	public Iterable<TuleapArtifact> streamTrackerReportArtifacts(int trackerReportId,
+			IProgressMonitor monitor) throws CoreException {
+		return trackerReportArtifactsOperation(trackerReportId, monitor).iterable(TuleapArtifact.class);
+	}
+
+	/**
+	 * Creates the operation that retrieves a tracker report artifacts.
+	 *
+	 * @param trackerReportId
+	 *            ID of the tracker report
+	 * @param monitor
+	 *            Progress monitor to use
+	 * @return The operation to iterate.
+	 * @throws CoreException
+	 *             If a problem occurs while checking whether the GET method is supported.
+	 */
+	private RestOperation trackerReportArtifactsOperation(int trackerReportId, IProgressMonitor monitor)
+			throws CoreException {
 		RestResource r = restResourceFactory.trackerReportArtifacts(trackerReportId).withAuthenticator(this);
 		// The /tracker_reports/:id/artifacts returns no values by default
 		// So it's necessary to add the parameter ?values=all
-		RestOperation operation = r.get().withQueryParameter("values", "all"); //$NON-NLS-1$//$NON-NLS-2$
-		List<TuleapArtifact> artifacts = Lists.newArrayList();
-		for (JsonElement e : operation.iterable()) {
-			artifacts.add(gson.fromJson(e, TuleapArtifact.class));
-		}
-		return artifacts;
+		return r.get().withQueryParameter("values", "all") //$NON-NLS-1$//$NON-NLS-2$
+				.withProgressMonitor(monitor);
 	}
 
 	/**
@@ -523,6 +863,77 @@ public class TuleapRestClient implements IAuthenticator {
 	 */
 	public List<TuleapArtifact> getArtifactsFromQuery(IRepositoryQuery query, TuleapTracker tracker,
 			IProgressMonitor monitor) throws CoreException {
+		return toArtifactList(artifactsFromQueryOperation(query, tracker, monitor), gson
+				.getAdapter(TuleapArtifact.class));
+	}
+
+	/**
+	 * Retrieves the {@link TuleapArtifact} from a query run on the server, with the values of their semantic
+	 * fields only, which are enough to list them. The values of the other fields are skipped while the
+	 * response is decoded.
+	 *
+	 * @param query
+	 *            The query to run
+	 * @param tracker
+	 *            The tracker of the query
+	 * @param monitor
+	 *            the progress monitor
+	 * @return The list of the partial Tuleap artifacts
+	 * @throws CoreException
+	 *             If communication fails.
+	 */
+	public List<TuleapArtifact> getArtifactSummariesFromQuery(IRepositoryQuery query, TuleapTracker tracker,
+			IProgressMonitor monitor) throws CoreException {
+		return toArtifactList(artifactsFromQueryOperation(query, tracker, monitor),
+				summaryAdapter(tracker));
+	}
+
+	/**
+	 * Creates the adapter that decodes the artifacts of a tracker with the values of their semantic fields
+	 * only.
+	 *
+	 * @param tracker
+	 *            The tracker
+	 * @return The adapter to use to decode the artifact summaries.
+	 */
+	private TypeAdapter<TuleapArtifact> summaryAdapter(TuleapTracker tracker) {
+		return new TuleapArtifactAdapter(gson, tracker.getSemanticFieldIds());
+	}
+
+	/**
+	 * Retrieves the {@link TuleapArtifact} from a query run on the server as they arrive, without building
+	 * the list of all of them. The request is sent each time the result is iterated.
+	 *
+	 * @param query
+	 *            The query to run
+	 * @param tracker
+	 *            The configuration used to analyze the data from the SOAP responses
+	 * @param monitor
+	 *            the progress monitor
+	 * @return An iterable over the Tuleap artifacts
+	 * @throws CoreException
+	 *             If communication fails.
+	 */
+	public Iterable<TuleapArtifact> streamArtifactsFromQuery(IRepositoryQuery query, TuleapTracker tracker,
+			IProgressMonitor monitor) throws CoreException {
+		return artifactsFromQueryOperation(query, tracker, monitor).iterable(TuleapArtifact.class);
+	}
+
+	/**
+	 * Creates the operation that retrieves the {@link TuleapArtifact} from a query run on the server.
+	 *
+	 * @param query
+	 *            The query to run
+	 * @param tracker
+	 *            The configuration used to analyze the data from the SOAP responses
+	 * @param monitor
+	 *            the progress monitor
+	 * @return The operation to iterate.
+	 * @throws CoreException
+	 *             If the query is not compatible.
+	 */
+	private RestOperation artifactsFromQueryOperation(IRepositoryQuery query, TuleapTracker tracker,
+			IProgressMonitor monitor) throws CoreException {
 		RestResource r = restResourceFactory.trackerArtifacts(tracker.getIdentifier())
 				.withAuthenticator(this);
 		RestOperation op = r.get().withQueryParameter("values", "all"); //$NON-NLS-1$//$NON-NLS-2$
@@ -560,12 +971,128 @@ public class TuleapRestClient implements IAuthenticator {
 			}
 		}
 
-		op.withQueryParameter(RestResource.QUERY, criteriaToSend.toString());
-		List<TuleapArtifact> artifacts = Lists.newArrayList();
-		for (JsonElement e : op.iterable()) {
-			artifacts.add(gson.fromJson(e, TuleapArtifact.class));
+		return op.withQueryParameter(RestResource.QUERY, criteriaToSend.toString()).withProgressMonitor(
+				monitor);
+	}
+
+	/**
+	 * Counts the artifacts of a tracker report, without retrieving them. The count is kept for a short time,
+	 * during which it is not asked for again.
+	 *
+	 * @param trackerReportId
+	 *            ID of the tracker report
+	 * @param monitor
+	 *            Progress monitor to use
+	 * @return The number of artifacts of the tracker report.
+	 * @throws CoreException
+	 *             If the server returns a status code different from 200 OK.
+	 */
+	public int countTrackerReportArtifacts(int trackerReportId, IProgressMonitor monitor)
+			throws CoreException {
+		return count(trackerReportArtifactsOperation(trackerReportId, monitor));
+	}
+
+	/**
+	 * Counts the artifacts that match a query, without retrieving them. The count is kept for a short time,
+	 * during which it is not asked for again.
+	 *
+	 * @param query
+	 *            The query to run
+	 * @param tracker
+	 *            The configuration used to analyze the criteria of the query
+	 * @param monitor
+	 *            the progress monitor
+	 * @return The number of artifacts that match the query.
+	 * @throws CoreException
+	 *             If communication fails.
+	 */
+	public int countArtifactsFromQuery(IRepositoryQuery query, TuleapTracker tracker,
+			IProgressMonitor monitor) throws CoreException {
+		return count(artifactsFromQueryOperation(query, tracker, monitor));
+	}
+
+	/**
+	 * Counts the elements of a list, without their values, unless they have been counted recently.
+	 * Concurrent identical counts share the same request.
+	 *
+	 * @param operation
+	 *            The operation that retrieves the list
+	 * @return The number of elements of the list.
+	 * @throws CoreException
+	 *             If the server returns a status code different from 200 OK.
+	 */
+	private int count(RestOperation operation) throws CoreException {
+		// Only the X-PAGINATION-SIZE header is needed
+		final RestOperation op = operation.withoutQueryParameters("values"); //$NON-NLS-1$
+		final String key = op.getCacheKey();
+		Integer count = resultCounts.get(key);
+		if (count == null) {
+			count = singleFlight.execute("count " + key, new Callable<Integer>() { //$NON-NLS-1$
+						@Override
+						public Integer call() throws CoreException {
+							int value = op.count();
+							resultCounts.put(key, value);
+							return Integer.valueOf(value);
+						}
+					});
+		}
+		return count.intValue();
+	}
+
+	/**
+	 * Retrieves all the elements of a list.
+	 *
+	 * @param <T>
+	 *            The type of the elements
+	 * @param iterable
+	 *            The list to retrieve
+	 * @return A new list of all the elements.
+	 * @throws CoreException
+	 *             If a page of the list cannot be retrieved. The elements already retrieved are kept in
+	 *             the checkpoints of the operation, if any, so that the next retrieval resumes from this
+	 *             page. Also thrown if the body of a response cannot be read until its end.
+	 */
+	private <T> List<T> toList(Iterable<T> iterable) throws CoreException {
+		try {
+			return Lists.newArrayList(iterable);
+		} catch (PaginationException e) {
+			throw new CoreException(e.getStatus());
+		} catch (JsonParseException e) {
+			// The connection has been lost or the body is malformed
+			throw new CoreException(new Status(IStatus.ERROR, TuleapCoreActivator.PLUGIN_ID,
+					TuleapCoreMessages.getString(TuleapCoreKeys.communicationError, e.getMessage()), e));
+		}
+	}
+
+	/**
+	 * Retrieves all the artifacts of a list. The artifacts feed the task data, so a page that cannot be
+	 * retrieved is only resumed within this retrieval, up to {@link #MAX_ARTIFACT_LIST_RESUMPTIONS} times,
+	 * and never from the checkpoint of a previous synchronization: the artifacts may have been modified
+	 * since, and their stale copies would overwrite the newer task data.
+	 *
+	 * @param operation
+	 *            The operation that retrieves the list
+	 * @param adapter
+	 *            The adapter that decodes the artifacts
+	 * @return A new list of all the artifacts.
+	 * @throws CoreException
+	 *             If a page of the list still cannot be retrieved after the last resumption.
+	 */
+	private List<TuleapArtifact> toArtifactList(RestOperation operation, TypeAdapter<TuleapArtifact> adapter)
+			throws CoreException {
+		PaginationCheckpoints retrievalCheckpoints = new PaginationCheckpoints(
+				PaginationCheckpoints.DEFAULT_TIME_TO_LIVE);
+		Iterable<TuleapArtifact> iterable = operation.withPaginationCheckpoints(retrievalCheckpoints)
+				.iterable(adapter);
+		for (int resumption = 0;; resumption++) {
+			try {
+				return toList(iterable);
+			} catch (CoreException e) {
+				if (resumption >= MAX_ARTIFACT_LIST_RESUMPTIONS || retrievalCheckpoints.size() == 0) {
+					throw e;
+				}
+			}
 		}
-		return artifacts;
 	}
 
 	/**
@@ -612,17 +1139,43 @@ public class TuleapRestClient implements IAuthenticator {
 	 * @throws CoreException
 	 *             If the server returns a status code different from 200 OK.
 	 */
-	public List<TuleapElementComment> getArtifactComments(int artifactId, TuleapServer server,
+	public List<TuleapElementComment> getArtifactComments(int artifactId, final TuleapServer server,
 			IProgressMonitor monitor) throws CoreException {
-		RestResource r = restResourceFactory.artifactChangesets(artifactId).withAuthenticator(this);
+		final RestResource r = restResourceFactory.artifactChangesets(artifactId).withAuthenticator(this);
+		// Concurrent identical calls share the same request, each caller gets its own comments
+		String key = r.getUrl() + "?fields=comments"; //$NON-NLS-1$
+		List<TuleapElementComment> shared = singleFlight.execute(key,
+				new Callable<List<TuleapElementComment>>() {
+					@Override
+					public List<TuleapElementComment> call() throws CoreException {
+						return fetchArtifactComments(r);
+					}
+				});
+		List<TuleapElementComment> comments = Lists.newArrayListWithCapacity(shared.size());
+		for (TuleapElementComment comment : shared) {
+			TuleapUser submitter = server.getUser(comment.getSubmitter().getId());
+			comments.add(new TuleapElementComment(comment.getBody(), submitter, comment.getSubmittedOn()));
+		}
+		return comments;
+	}
+
+	/**
+	 * Sends the request that retrieves an artifact comments.
+	 *
+	 * @param r
+	 *            The changesets resource of the artifact
+	 * @return A list, never null but possibly empty, containing the artifact comments, whose submitters
+	 *         only have an identifier.
+	 * @throws CoreException
+	 *             If the server returns a status code different from 200 OK.
+	 */
+	private List<TuleapElementComment> fetchArtifactComments(RestResource r) throws CoreException {
 		// Only retrieve comments, not full changes
-		RestOperation operation = r.get().withHeader("fields", "comments"); //$NON-NLS-1$//$NON-NLS-2$
+		RestOperation operation = r.get().withHeader("fields", "comments") //$NON-NLS-1$//$NON-NLS-2$
+				.withPaginationCheckpoints(checkpoints);
 		List<TuleapElementComment> comments = Lists.newArrayList();
-		for (JsonElement e : operation.iterable()) {
+		for (JsonElement e : toList(operation.iterable())) {
 			TuleapElementComment comment = gson.fromJson(e, TuleapElementComment.class);
-			int submitterId = comment.getSubmitter().getId();
-			TuleapUser submitter = server.getUser(submitterId);
-			comment.setSubmitter(submitter);
 			if (comment.getBody() != null && !comment.getBody().isEmpty()) {
 				comments.add(comment);
 			}
@@ -646,10 +1199,15 @@ public class TuleapRestClient implements IAuthenticator {
 			monitor.subTask(TuleapCoreMessages.getString(TuleapCoreKeys.retrievingTracker, Integer
 					.valueOf(trackerId)));
 		}
-		RestResource restTracker = restResourceFactory.tracker(trackerId).withAuthenticator(this);
-		RestOperation operation = restTracker.get();
-		ServerResponse response = operation.checkedRun();
-		TuleapTracker tracker = gson.fromJson(response.getBody(), TuleapTracker.class);
-		return tracker;
+		final RestResource restTracker = restResourceFactory.tracker(trackerId).withAuthenticator(this);
+		// Concurrent refreshes of the same tracker share the same request and tracker
+		return singleFlight.execute(restTracker.getUrl(), new Callable<TuleapTracker>() {
+			@Override
+			public TuleapTracker call() throws CoreException {
+				RestOperation operation = restTracker.get().withValidationCache(validationCache);
+				ServerResponse response = operation.checkedRun();
+				return gson.fromJson(response.getBody(), TuleapTracker.class);
+			}
+		});
 	}
 }
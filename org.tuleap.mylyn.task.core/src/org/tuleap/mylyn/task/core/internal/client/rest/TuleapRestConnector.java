@@ -10,10 +10,11 @@
  *******************************************************************************/
 package org.tuleap.mylyn.task.core.internal.client.rest;
 
-import java.io.ByteArrayOutputStream;
+import com.google.common.io.CountingInputStream;
+
+import java.io.Closeable;
 import java.io.IOException;
-import java.io.UnsupportedEncodingException;
-import java.util.Collections;
+import java.io.InputStream;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
@@ -21,23 +22,11 @@ import org.apache.commons.httpclient.Header;
 import org.apache.commons.httpclient.HostConfiguration;
 import org.apache.commons.httpclient.HttpClient;
 import org.apache.commons.httpclient.HttpMethod;
-import org.apache.commons.httpclient.methods.EntityEnclosingMethod;
-import org.apache.commons.httpclient.methods.RequestEntity;
-import org.apache.commons.httpclient.util.HttpURLConnection;
+import org.apache.commons.httpclient.HttpMethodBase;
+import org.eclipse.core.runtime.Assert;
 import org.eclipse.core.runtime.ILog;
-import org.eclipse.core.runtime.IStatus;
-import org.eclipse.core.runtime.Platform;
-import org.eclipse.core.runtime.Status;
-import org.eclipse.core.runtime.preferences.IEclipsePreferences;
-import org.eclipse.core.runtime.preferences.InstanceScope;
 import org.eclipse.mylyn.commons.net.AbstractWebLocation;
 import org.eclipse.mylyn.commons.net.WebUtil;
-import org.osgi.framework.Bundle;
-import org.osgi.framework.Version;
-import org.tuleap.mylyn.task.core.internal.TuleapCoreActivator;
-import org.tuleap.mylyn.task.core.internal.util.ITuleapConstants;
-import org.tuleap.mylyn.task.core.internal.util.TuleapCoreKeys;
-import org.tuleap.mylyn.task.core.internal.util.TuleapCoreMessages;
 
 /**
  * This class will be used to establish the connection with the HTTP based Tuleap server.
@@ -45,25 +34,15 @@ import org.tuleap.mylyn.task.core.internal.util.TuleapCoreMessages;
  * @author <a href="mailto:stephane.begaudeau@obeo.fr">Stephane Begaudeau</a>
  * @author <a href="mailto:laurent.delaigue@obeo.fr">Laurent Delaigue</a>
  */
-public class TuleapRestConnector implements IRestConnector {
-
-	/**
-	 * Status code used to indicate an IO error during REST communication.
-	 */
-	public static final int IO_ERROR_STATUS_CODE = 1001;
-
-	/**
-	 * The serverUrl of the server.
-	 */
-	private final AbstractWebLocation location;
+public class TuleapRestConnector extends AbstractRestConnector {
 
 	/**
-	 * The logger.
+	 * The pool of connections to the host of the location.
 	 */
-	private final ILog logger;
+	private final TuleapConnectionPool connectionPool;
 
 	/**
-	 * The HTTP client.
+	 * The HTTP client, backed by the connection pool and configured once.
 	 */
 	private final HttpClient httpClient;
 
@@ -73,7 +52,7 @@ public class TuleapRestConnector implements IRestConnector {
 	private HostConfiguration hostConfiguration;
 
 	/**
-	 * the constructor.
+	 * the constructor, which uses the connection pool shared by all the connectors of the location's host.
 	 *
 	 * @param location
 	 *            The abstract web location, to support proxies.
@@ -81,9 +60,24 @@ public class TuleapRestConnector implements IRestConnector {
 	 *            The logger.
 	 */
 	public TuleapRestConnector(AbstractWebLocation location, ILog logger) {
-		this.location = location;
-		this.logger = logger;
-		this.httpClient = new HttpClient(WebUtil.getConnectionManager());
+		this(location, logger, TuleapConnectionPool.forUrl(location.getUrl()));
+	}
+
+	/**
+	 * the constructor.
+	 *
+	 * @param location
+	 *            The abstract web location, to support proxies.
+	 * @param logger
+	 *            The logger.
+	 * @param connectionPool
+	 *            The pool of connections to use.
+	 */
+	public TuleapRestConnector(AbstractWebLocation location, ILog logger, TuleapConnectionPool connectionPool) {
+		super(location, logger);
+		Assert.isNotNull(connectionPool);
+		this.connectionPool = connectionPool;
+		this.httpClient = connectionPool.createHttpClient(getUserAgent());
 	}
 
 	/**
@@ -93,147 +87,164 @@ public class TuleapRestConnector implements IRestConnector {
 	 */
 	@Override
 	public ServerResponse sendRequest(HttpMethod method) {
-		// debug mode
-		boolean debug = false;
-		IEclipsePreferences node = InstanceScope.INSTANCE.getNode(ITuleapConstants.TULEAP_PREFERENCE_NODE);
-		if (node != null) {
-			debug = node.getBoolean(ITuleapConstants.TULEAP_PREFERENCE_DEBUG_MODE, false);
-		}
+		boolean debug = isDebugMode();
+		prepare(method);
 
-		if (hostConfiguration == null) {
-			hostConfiguration = WebUtil.createHostConfiguration(httpClient, location, null);
-		}
-
-		method.setRequestHeader("Accept", "application/json"); //$NON-NLS-1$ //$NON-NLS-2$
-		method.setRequestHeader("Accept-Charset", "UTF-8"); //$NON-NLS-1$ //$NON-NLS-2$
-		method.setRequestHeader("Content-Type", "application/json"); //$NON-NLS-1$ //$NON-NLS-2$
-
-		WebUtil.configureHttpClient(httpClient, getUserAgent());
-
-		Header[] responseHeaders = null;
 		String responseBody = null;
 		ServerResponse serverResponse = null;
+		CountingInputStream rawBody = null;
+		long start = System.nanoTime();
+		connectionPool.requestStarted();
 		try {
 			int code = WebUtil.execute(httpClient, hostConfiguration, method, null);
-			responseBody = method.getResponseBodyAsString();
-			responseHeaders = method.getResponseHeaders();
-			if (debug) {
-				debugRestCall(method, responseBody);
-			}
-			Map<String, String> rHeaders = new LinkedHashMap<String, String>();
-			for (Header h : responseHeaders) {
-				rHeaders.put(h.getName(), h.getValue());
-			}
-			serverResponse = new ServerResponse(code, responseBody, rHeaders);
+			rawBody = countBody(method);
+			responseBody = ContentEncodings.read(getResponseStream(method, rawBody), getResponseCharset(method));
+			serverResponse = new ServerResponse(code, responseBody, getResponseHeaders(method));
 		} catch (IOException e) {
-			logger.log(new Status(IStatus.ERROR, TuleapCoreActivator.PLUGIN_ID, TuleapCoreMessages.getString(
-					TuleapCoreKeys.ioError, method.getName() + ' ' + method.getPath(), e.getMessage())));
-			serverResponse = new ServerResponse(IO_ERROR_STATUS_CODE, "", Collections //$NON-NLS-1$
-					.<String, String> emptyMap());
+			serverResponse = ioError(method, e);
 		} finally {
 			method.releaseConnection();
+			connectionPool.requestEnded();
 		}
+		recordRequest(method, start, rawBody, serverResponse.getStatus(), debug, responseBody);
 
 		return serverResponse;
 	}
 
 	/**
-	 * Logs a debug message of the REST request/response.
+	 * {@inheritDoc}
 	 *
-	 * @param method
-	 *            The method executed
-	 * @param bodyReceived
-	 *            The response body received
+	 * @see org.tuleap.mylyn.task.core.internal.client.rest.IRestConnector#sendStreamingRequest(org.apache.commons.httpclient.HttpMethod)
 	 */
-	private void debugRestCall(HttpMethod method, String bodyReceived) {
-		int responseStatus = method.getStatusCode();
-		StringBuilder b = new StringBuilder();
-		b.append(method.getName());
-		b.append(" ").append(method.getPath()); //$NON-NLS-1$
-		String qs = method.getQueryString();
-		if (qs != null && !qs.isEmpty()) {
-			b.append('?').append(method.getQueryString());
-		}
-		if (method instanceof EntityEnclosingMethod) {
-			RequestEntity requestEntity = ((EntityEnclosingMethod)method).getRequestEntity();
-			String body = ""; //$NON-NLS-1$
-			if (requestEntity.isRepeatable()) {
-				ByteArrayOutputStream os = new ByteArrayOutputStream();
-				try {
-					requestEntity.writeRequest(os);
-					body = os.toString("UTF-8"); //$NON-NLS-1$
-				} catch (UnsupportedEncodingException e) {
-					// Nothing to do
-				} catch (IOException e) {
-					// Nothing to do
+	@Override
+	public ServerResponse sendStreamingRequest(final HttpMethod method) {
+		final boolean debug = isDebugMode();
+		prepare(method);
+
+		ServerResponse serverResponse = null;
+		boolean released = true;
+		final long start = System.nanoTime();
+		connectionPool.requestStarted();
+		try {
+			final int code = WebUtil.execute(httpClient, hostConfiguration, method, null);
+			final CountingInputStream rawBody = countBody(method);
+			serverResponse = new StreamingServerResponse(code, getResponseHeaders(method),
+					getResponseStream(method, rawBody), getResponseCharset(method), new Closeable() {
+						@Override
+						public void close() {
+							method.releaseConnection();
+							connectionPool.requestEnded();
+							recordRequest(method, start, rawBody, code, debug, null);
+						}
+					});
+			released = false;
+		} catch (IOException e) {
+			serverResponse = ioError(method, e);
+		} finally {
+			if (released) {
+				method.releaseConnection();
+				connectionPool.requestEnded();
+				int status = IO_ERROR_STATUS_CODE;
+				if (serverResponse != null) {
+					status = serverResponse.getStatus();
 				}
+				recordRequest(method, start, null, status, debug, null);
 			}
-			b.append("\nbody:\n").append(body.replaceAll(//$NON-NLS-1$
-					"\"password\" *: *\".*\"", "\"password\":\"(hidden in debug)\"")); //$NON-NLS-1$ //$NON-NLS-2$
-		}
-		b.append("\n__________\nresponse:\n"); //$NON-NLS-1$
-		b.append(method.getStatusLine()).append("\n"); //$NON-NLS-1$
-		b.append("body:\n"); //$NON-NLS-1$
-		b.append(bodyReceived);
-		int status = IStatus.INFO;
-		if (responseStatus != HttpURLConnection.HTTP_OK) {
-			status = IStatus.ERROR;
 		}
-		this.logger.log(new Status(status, TuleapCoreActivator.PLUGIN_ID, b.toString()));
+
+		return serverResponse;
 	}
 
 	/**
-	 * Returns the user agent to use for the connection.
+	 * Sets the headers common to all the requests on the given method.
 	 *
-	 * @return The user agent to use for the connection
+	 * @param method
+	 *            The method to send
 	 */
-	private String getUserAgent() {
-		// Mylyn Connector for Tuleap v2.0.0; Eclipse v3.8; Windows 7 6.1; Java v1.7.0_17 Oracle Corporation
-		StringBuilder stringBuilder = new StringBuilder();
-		stringBuilder.append("Mylyn Connector for Tuleap"); //$NON-NLS-1$
-
-		Bundle bundle = Platform.getBundle(TuleapCoreActivator.PLUGIN_ID);
-		if (bundle != null) {
-			Version version = bundle.getVersion();
-			if (version != null) {
-				stringBuilder.append(" v"); //$NON-NLS-1$
-				stringBuilder.append(version.getMajor());
-				stringBuilder.append('.');
-				stringBuilder.append(version.getMinor());
-				stringBuilder.append('.');
-				stringBuilder.append(version.getMicro());
-			}
+	private void prepare(HttpMethod method) {
+		if (hostConfiguration == null) {
+			hostConfiguration = WebUtil.createHostConfiguration(httpClient, location, null);
 		}
 
-		final String separator = "; "; //$NON-NLS-1$
-
-		bundle = Platform.getBundle("org.eclipse.core.runtime"); //$NON-NLS-1$
-		if (bundle != null) {
-			Version version = bundle.getVersion();
-			if (version != null) {
-				stringBuilder.append(separator);
-				stringBuilder.append(" Eclipse v"); //$NON-NLS-1$
-				stringBuilder.append(version.getMajor());
-				stringBuilder.append('.');
-				stringBuilder.append(version.getMinor());
-				stringBuilder.append('.');
-				stringBuilder.append(version.getMicro());
-			}
-		}
+		setCommonHeaders(method);
+	}
 
-		stringBuilder.append(separator);
+	/**
+	 * Collects the headers of the response.
+	 *
+	 * @param method
+	 *            The executed method
+	 * @return The headers of the response, by name.
+	 */
+	private Map<String, String> getResponseHeaders(HttpMethod method) {
+		Map<String, String> rHeaders = new LinkedHashMap<String, String>();
+		for (Header h : method.getResponseHeaders()) {
+			rHeaders.put(h.getName(), h.getValue());
+		}
+		return rHeaders;
+	}
 
-		stringBuilder.append(System.getProperty("os.name")); //$NON-NLS-1$
-		stringBuilder.append(' ');
-		stringBuilder.append(System.getProperty("os.version")); //$NON-NLS-1$
+	/**
+	 * Provides the stream of the body of the response as received, which counts the bytes read.
+	 *
+	 * @param method
+	 *            The executed method
+	 * @return The counting response stream, <code>null</code> if the response has no body.
+	 * @throws IOException
+	 *             If the body cannot be read.
+	 */
+	private CountingInputStream countBody(HttpMethod method) throws IOException {
+		InputStream in = method.getResponseBodyAsStream();
+		if (in == null) {
+			return null;
+		}
+		return new CountingInputStream(in);
+	}
 
-		stringBuilder.append(separator);
+	/**
+	 * Provides the stream of the body of the response, decompressed on the fly if the server has compressed
+	 * it.
+	 *
+	 * @param method
+	 *            The executed method
+	 * @param in
+	 *            The stream of the body as received, can be <code>null</code>
+	 * @return The decoded response stream, <code>null</code> if the response has no body.
+	 * @throws IOException
+	 *             If the body cannot be read.
+	 */
+	private InputStream getResponseStream(HttpMethod method, InputStream in) throws IOException {
+		if (in == null) {
+			return null;
+		}
+		Header encodingHeader = method.getResponseHeader(ContentEncodings.HEADER_CONTENT_ENCODING);
+		String encoding = null;
+		if (encodingHeader != null) {
+			encoding = encodingHeader.getValue();
+		}
+		return ContentEncodings.decode(in, encoding);
+	}
 
-		stringBuilder.append(" Java v"); //$NON-NLS-1$
-		stringBuilder.append(System.getProperty("java.version")); //$NON-NLS-1$
-		stringBuilder.append(' ');
-		stringBuilder.append(System.getProperty("java.vendor")); //$NON-NLS-1$
+	/**
+	 * Provides the charset of the body of the response.
+	 *
+	 * @param method
+	 *            The executed method
+	 * @return The charset of the body of the response.
+	 */
+	private String getResponseCharset(HttpMethod method) {
+		if (method instanceof HttpMethodBase) {
+			return ((HttpMethodBase)method).getResponseCharSet();
+		}
+		return ENCODING_UTF8;
+	}
 
-		return stringBuilder.toString();
+	/**
+	 * Connection pool getter.
+	 *
+	 * @return The pool of connections used by this connector.
+	 */
+	public TuleapConnectionPool getConnectionPool() {
+		return connectionPool;
 	}
 }
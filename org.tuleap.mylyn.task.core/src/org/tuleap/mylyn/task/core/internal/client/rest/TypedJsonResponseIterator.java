@@ -0,0 +1,292 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Obeo.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.tuleap.mylyn.task.core.internal.client.rest;
+
+import com.google.gson.JsonIOException;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.MalformedJsonException;
+
+import java.io.EOFException;
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import org.eclipse.core.runtime.Assert;
+
+/**
+ * Iterates over the elements of a JSON array received in a ServerResponse, when no pagination is involved.
+ * Each element is decoded by a type adapter straight from the body of the response, so that neither the
+ * whole array nor an intermediate JSON tree of the element needs to be held in memory. If the body is not a
+ * JSON array, the iterator provides the body as a single element. An empty body is decoded as
+ * <code>null</code>, and a <code>null</code> single element is not provided. The response is closed as soon
+ * as all its elements have been read, or as soon as the body cannot be read or decoded, so that its
+ * connection is always returned to the pool.
+ *
+ * @param <T>
+ *            The type of the elements
+ * @author <a href="mailto:laurent.delaigue@obeo.fr">Laurent Delaigue</a>
+ */
+public class TypedJsonResponseIterator<T> implements Iterator<T> {
+
+	/**
+	 * The response whose elements are read.
+	 */
+	private final ServerResponse response;
+
+	/**
+	 * The reader of the response body.
+	 */
+	private final JsonReader reader;
+
+	/**
+	 * The reader that counts the characters of the response body.
+	 */
+	private final CountingReader counter;
+
+	/**
+	 * The number of elements read.
+	 */
+	private int count;
+
+	/**
+	 * The adapter that decodes each element.
+	 */
+	private final TypeAdapter<T> adapter;
+
+	/**
+	 * Whether the body is a JSON array.
+	 */
+	private boolean array;
+
+	/**
+	 * The element to return when the body is not an array, <code>null</code> once it has been returned.
+	 */
+	private T singleElement;
+
+	/**
+	 * Whether all the elements have been read.
+	 */
+	private boolean finished;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param response
+	 *            The first response received from the server.
+	 * @param adapter
+	 *            The adapter that decodes each element.
+	 */
+	public TypedJsonResponseIterator(ServerResponse response, TypeAdapter<T> adapter) {
+		Assert.isNotNull(response);
+		Assert.isNotNull(adapter);
+		this.response = response;
+		this.adapter = adapter;
+		this.counter = new CountingReader(response.getReader());
+		this.reader = new JsonReader(counter);
+		reader.setLenient(true);
+		try {
+			if (reader.peek() == JsonToken.BEGIN_ARRAY) {
+				reader.beginArray();
+				array = true;
+			} else {
+				singleElement = read();
+			}
+		} catch (EOFException e) {
+			// Empty body
+			try {
+				singleElement = adapter.fromJsonTree(JsonNull.INSTANCE);
+			} catch (RuntimeException e2) {
+				finish();
+				throw e2;
+			}
+		} catch (IOException e) {
+			finish();
+			throw new JsonIOException(e);
+		} catch (RuntimeException e) {
+			finish();
+			throw e;
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @see java.util.Iterator#hasNext()
+	 */
+	@Override
+	public boolean hasNext() {
+		if (finished) {
+			return false;
+		}
+		boolean result;
+		if (array) {
+			try {
+				result = reader.hasNext();
+			} catch (IOException e) {
+				finish();
+				throw new JsonIOException(e);
+			} catch (RuntimeException e) {
+				finish();
+				throw e;
+			}
+		} else {
+			result = singleElement != null;
+		}
+		if (!result) {
+			finish();
+		}
+		return result;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @see java.util.Iterator#next()
+	 */
+	@Override
+	public T next() {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		count++;
+		if (array) {
+			try {
+				return read();
+			} catch (IOException e) {
+				finish();
+				throw new JsonIOException(e);
+			} catch (RuntimeException e) {
+				// The rest of the body cannot be trusted, and the connection must be released
+				finish();
+				throw e;
+			}
+		}
+		T result = singleElement;
+		singleElement = null;
+		finish();
+		return result;
+	}
+
+	/**
+	 * Decodes the next value of the body.
+	 *
+	 * @return The decoded value.
+	 * @throws IOException
+	 *             If the body cannot be read.
+	 */
+	private T read() throws IOException {
+		try {
+			return adapter.read(reader);
+		} catch (MalformedJsonException e) {
+			throw new JsonSyntaxException(e);
+		} catch (EOFException e) {
+			// The body ends in the middle of a value
+			throw new JsonSyntaxException(e);
+		} catch (IllegalStateException e) {
+			// The value does not have the expected structure
+			throw new JsonSyntaxException(e);
+		}
+	}
+
+	/**
+	 * Count getter.
+	 *
+	 * @return The number of elements provided so far.
+	 */
+	public int getCount() {
+		return count;
+	}
+
+	/**
+	 * Length getter.
+	 *
+	 * @return The number of characters of the body read so far, which is the length of the body once all
+	 *         the elements have been read.
+	 */
+	public long getLength() {
+		return counter.length;
+	}
+
+	/**
+	 * Releases the response once all the elements have been read.
+	 */
+	private void finish() {
+		finished = true;
+		response.close();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @see java.util.Iterator#remove()
+	 */
+	@Override
+	public void remove() {
+		throw new UnsupportedOperationException();
+	}
+
+	/**
+	 * Reader that counts the characters read.
+	 *
+	 * @author <a href="mailto:laurent.delaigue@obeo.fr">Laurent Delaigue</a>
+	 */
+	private static final class CountingReader extends FilterReader {
+
+		/**
+		 * The number of characters read.
+		 */
+		private long length;
+
+		/**
+		 * Constructor.
+		 *
+		 * @param in
+		 *            The reader to count
+		 */
+		private CountingReader(Reader in) {
+			super(in);
+		}
+
+		/**
+		 * {@inheritDoc}
+		 *
+		 * @see java.io.FilterReader#read()
+		 */
+		@Override
+		public int read() throws IOException {
+			int c = super.read();
+			if (c >= 0) {
+				length++;
+			}
+			return c;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 *
+		 * @see java.io.FilterReader#read(char[], int, int)
+		 */
+		@Override
+		public int read(char[] cbuf, int off, int len) throws IOException {
+			int n = super.read(cbuf, off, len);
+			if (n > 0) {
+				length += n;
+			}
+			return n;
+		}
+	}
+}
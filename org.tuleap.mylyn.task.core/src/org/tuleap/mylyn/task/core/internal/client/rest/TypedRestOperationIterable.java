@@ -0,0 +1,270 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Obeo.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.tuleap.mylyn.task.core.internal.client.rest;
+
+import com.google.common.collect.Iterators;
+import com.google.gson.TypeAdapter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.core.runtime.Assert;
+import org.eclipse.core.runtime.CoreException;
+import org.tuleap.mylyn.task.core.internal.TuleapCoreActivator;
+
+/**
+ * Iterable over the elements of an operation response, that takes care of pagination if needed. Each
+ * element is decoded straight from the body of the response by a type adapter, while it is iterated.
+ * <p>
+ * When the operation has {@link PaginationCheckpoints checkpoints}, an iteration that fails on a page
+ * records the elements already retrieved, and the next iteration of the same list provides them again
+ * before resuming from the page that failed, as long as the size of the list has not changed. A page whose
+ * connection is lost while it is read is resumed from the first element that has not been provided. If
+ * that page still cannot be retrieved, the checkpoint is kept and a {@link PaginationException} is thrown.
+ * </p>
+ *
+ * @param <T>
+ *            The type of the elements
+ * @author <a href="mailto:laurent.delaigue@obeo.fr">Laurent Delaigue</a>
+ */
+public class TypedRestOperationIterable<T> implements Iterable<T> {
+
+	/**
+	 * The RESt operation.
+	 */
+	private RestOperation operation;
+
+	/**
+	 * The adapter that decodes each element.
+	 */
+	private final TypeAdapter<T> adapter;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param operation
+	 *            the REST operation to iterate over.
+	 * @param adapter
+	 *            The adapter that decodes each element.
+	 */
+	public TypedRestOperationIterable(RestOperation operation, TypeAdapter<T> adapter) {
+		Assert.isNotNull(adapter);
+		this.operation = operation;
+		this.adapter = adapter;
+		if (!operation.hasQueryParameter(RestResource.LIMIT)) {
+			String limit = RestResource.LIMIT_DEFAULT;
+			if (operation.pageSizeAdvisor != null) {
+				// Use what has been learned about this kind of list from the first request
+				limit = Integer.toString(operation.pageSizeAdvisor.getPageSize(PageSizeAdvisor.key(
+						operation.fullUrl, operation.requestParameters)));
+			}
+			operation.withQueryParameter(RestResource.LIMIT, limit);
+		}
+	}
+
+	/**
+	 * Provides an iterator that will retrieve all the elements. Each iterator runs its own copy of the
+	 * operation, so that this iterable can be iterated several times.
+	 *
+	 * @return An iterator that will provide all the elements, taking care of pagination if needed.
+	 * @throws PaginationException
+	 *             If the iteration resumes from a checkpoint and the page of the checkpoint still cannot be
+	 *             retrieved.
+	 */
+	@Override
+	public Iterator<T> iterator() {
+		if (operation.checkpoints == null || operation.hasQueryParameter(RestResource.OFFSET)) {
+			return iterator(operation.copy());
+		}
+		String key = PaginationCheckpoints.key(operation.method.name(), operation.fullUrl,
+				operation.requestParameters);
+		PaginationCheckpoints.Checkpoint checkpoint = operation.checkpoints.get(key);
+		if (checkpoint != null && adapter.equals(checkpoint.getDecoder())) {
+			RestOperation op = operation.copy().withQueryParameter(RestResource.OFFSET,
+					Integer.toString(checkpoint.getOffset()));
+			ServerResponse response = op.runStreaming();
+			Iterator<T> it;
+			try {
+				it = iterator(op, response);
+			} catch (CoreException e) {
+				// Nothing says the list has changed, the checkpoint is kept for the next attempt
+				throw new PaginationException(checkpoint.getOffset(), e);
+			}
+			if (it instanceof JsonResponsePaginatedIterator<?>
+					&& ((JsonResponsePaginatedIterator<T>)it).getSize() == checkpoint.getSize()) {
+				@SuppressWarnings("unchecked")
+				List<T> elements = (List<T>)checkpoint.getElements();
+				return new CheckpointingIterator(key, elements, (JsonResponsePaginatedIterator<T>)it);
+			}
+			// The list has changed in the meantime, it must be retrieved again
+			if (it instanceof JsonResponsePaginatedIterator<?>) {
+				((JsonResponsePaginatedIterator<T>)it).cancel();
+			}
+			operation.checkpoints.remove(key);
+		}
+		Iterator<T> it = iterator(operation.copy());
+		if (it instanceof JsonResponsePaginatedIterator<?>) {
+			return new CheckpointingIterator(key, Collections.<T> emptyList(),
+					(JsonResponsePaginatedIterator<T>)it);
+		}
+		return it;
+	}
+
+	/**
+	 * Runs the given operation and provides an iterator over its result.
+	 *
+	 * @param op
+	 *            The operation to run, which is not shared with other iterators
+	 * @return An iterator that will provide all the elements from the offset of the operation, taking care
+	 *         of pagination if needed, or an empty iterator if the first request fails.
+	 */
+	private Iterator<T> iterator(RestOperation op) {
+		ServerResponse response = op.runStreaming();
+		Iterator<T> it;
+		try {
+			it = iterator(op, response);
+		} catch (CoreException e) {
+			TuleapCoreActivator.log(e.getStatus());
+			it = Iterators.emptyIterator();
+		}
+		return it;
+	}
+
+	/**
+	 * Provides an iterator over the result of the given operation.
+	 *
+	 * @param op
+	 *            The operation that has been run, which is not shared with other iterators
+	 * @param response
+	 *            The response of its first request
+	 * @return An iterator that will provide all the elements from the offset of the operation, taking care
+	 *         of pagination if needed.
+	 * @throws CoreException
+	 *             If the first request has failed.
+	 */
+	private Iterator<T> iterator(RestOperation op, ServerResponse response) throws CoreException {
+		op.checkServerError(response);
+		Map<String, String> responseHeaders = response.getHeaders();
+		// ONLY X-PAGINATION-SIZE needs be checked, other values are not mandatory
+		if (responseHeaders.containsKey(RestResource.HEADER_X_PAGINATION_SIZE)) {
+			return new JsonResponsePaginatedIterator<T>(op, response, adapter);
+		}
+		return new TypedJsonResponseIterator<T>(response, adapter);
+	}
+
+	/**
+	 * Iterator that provides the elements of a checkpoint, then the elements retrieved from the offset of
+	 * the checkpoint, and that records a new checkpoint if the retrieval fails.
+	 *
+	 * @author <a href="mailto:laurent.delaigue@obeo.fr">Laurent Delaigue</a>
+	 */
+	private final class CheckpointingIterator implements Iterator<T> {
+
+		/**
+		 * The key of the list in the checkpoints.
+		 */
+		private final String key;
+
+		/**
+		 * The elements provided so far, from the first element of the list.
+		 */
+		private final List<T> elements;
+
+		/**
+		 * The elements of the checkpoint that remain to be provided.
+		 */
+		private final Iterator<T> replayed;
+
+		/**
+		 * The iterator over the elements retrieved from the server.
+		 */
+		private final JsonResponsePaginatedIterator<T> delegate;
+
+		/**
+		 * Whether the retrieval has failed, in which case the checkpoint must be kept.
+		 */
+		private boolean failed;
+
+		/**
+		 * Constructor.
+		 *
+		 * @param key
+		 *            The key of the list in the checkpoints
+		 * @param checkpointElements
+		 *            The elements of the checkpoint, from the first element of the list
+		 * @param delegate
+		 *            The iterator over the elements retrieved from the offset of the checkpoint
+		 */
+		private CheckpointingIterator(String key, List<T> checkpointElements,
+				JsonResponsePaginatedIterator<T> delegate) {
+			this.key = key;
+			this.elements = new ArrayList<T>(checkpointElements);
+			this.replayed = checkpointElements.iterator();
+			this.delegate = delegate;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 *
+		 * @see java.util.Iterator#hasNext()
+		 */
+		@Override
+		public boolean hasNext() {
+			if (replayed.hasNext()) {
+				return true;
+			}
+			if (delegate.hasNext()) {
+				return true;
+			}
+			if (!failed) {
+				// The whole list has been retrieved
+				operation.checkpoints.remove(key);
+			}
+			return false;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 *
+		 * @see java.util.Iterator#next()
+		 */
+		@Override
+		public T next() {
+			if (replayed.hasNext()) {
+				return replayed.next();
+			}
+			T element;
+			try {
+				element = delegate.next();
+			} catch (PaginationException e) {
+				failed = true;
+				operation.checkpoints.put(key, new PaginationCheckpoints.Checkpoint(delegate.getSize(),
+						elements, adapter));
+				throw e;
+			}
+			elements.add(element);
+			return element;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 *
+		 * @see java.util.Iterator#remove()
+		 */
+		@Override
+		public void remove() {
+			throw new UnsupportedOperationException();
+		}
+	}
+}
@@ -0,0 +1,373 @@
+/*******************************************************************************
+ * Copyright (c) 2014 Obeo.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.tuleap.mylyn.task.core.internal.client.rest;
+
+import com.google.common.io.CountingInputStream;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.HttpURLConnection;
+import java.net.Proxy;
+import java.net.URL;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.apache.commons.codec.binary.Base64;
+import org.apache.commons.httpclient.Header;
+import org.apache.commons.httpclient.HttpMethod;
+import org.apache.commons.httpclient.methods.EntityEnclosingMethod;
+import org.apache.commons.httpclient.methods.RequestEntity;
+import org.eclipse.core.runtime.ILog;
+import org.eclipse.mylyn.commons.net.AbstractWebLocation;
+import org.eclipse.mylyn.commons.net.AuthenticationCredentials;
+import org.eclipse.mylyn.commons.net.AuthenticationType;
+import org.eclipse.mylyn.commons.net.WebUtil;
+
+/**
+ * Connector that sends the requests with the HTTP client of the JDK instead of commons-httpclient. The JDK
+ * keeps the connections alive and reuses them for the following requests to the same host, as long as the
+ * bodies of the responses are read until the end, which this connector always does. The methods are only
+ * used to describe the requests, so that this connector can replace {@link TuleapRestConnector} without
+ * any change in the operations.
+ * <p>
+ * Only the proxy and the HTTP credentials of the location are used. This connector does not support
+ * proxies that require credentials, see {@link #supports(AbstractWebLocation)}, and the certificates of
+ * the servers are checked by the JDK against its own trust store, without the SSL settings of Mylyn. It
+ * does not bring HTTP/2 either, which the JDK of JavaSE-1.6 does not support.
+ * </p>
+ *
+ * @author <a href="mailto:laurent.delaigue@obeo.fr">Laurent Delaigue</a>
+ */
+public class UrlConnectionRestConnector extends AbstractRestConnector {
+
+	/**
+	 * The type of the proxies of the HTTP URLs.
+	 */
+	private static final String PROXY_TYPE_HTTP = "HTTP"; //$NON-NLS-1$
+
+	/**
+	 * The type of the proxies of the HTTPS URLs.
+	 */
+	private static final String PROXY_TYPE_HTTPS = "HTTPS"; //$NON-NLS-1$
+
+	/**
+	 * The HTTPS protocol.
+	 */
+	private static final String HTTPS = "https"; //$NON-NLS-1$
+
+	/**
+	 * The prefix of the value of the Authorization header for the basic authentication.
+	 */
+	private static final String BASIC = "Basic "; //$NON-NLS-1$
+
+	/**
+	 * The charset parameter of the Content-Type header.
+	 */
+	private static final String CHARSET_PARAMETER = "charset="; //$NON-NLS-1$
+
+	/**
+	 * The user agent sent with all the requests.
+	 */
+	private final String userAgent;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param location
+	 *            The abstract web location, to support proxies.
+	 * @param logger
+	 *            The logger.
+	 */
+	public UrlConnectionRestConnector(AbstractWebLocation location, ILog logger) {
+		super(location, logger);
+		this.userAgent = getUserAgent();
+	}
+
+	/**
+	 * Indicates whether this connector can send the requests of the given location. The credentials of a
+	 * proxy cannot be given to the JDK for a single connection, so the locations that have proxy
+	 * credentials must use {@link TuleapRestConnector}.
+	 *
+	 * @param location
+	 *            The location
+	 * @return <code>true</code> if this connector supports the settings of the location.
+	 */
+	public static boolean supports(AbstractWebLocation location) {
+		return location.getCredentials(AuthenticationType.PROXY) == null;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @see org.tuleap.mylyn.task.core.internal.client.rest.IRestConnector#sendRequest(org.apache.commons.httpclient.HttpMethod)
+	 */
+	@Override
+	public ServerResponse sendRequest(HttpMethod method) {
+		boolean debug = isDebugMode();
+		setCommonHeaders(method);
+
+		String responseBody = null;
+		ServerResponse serverResponse = null;
+		CountingInputStream rawBody = null;
+		long start = System.nanoTime();
+		HttpURLConnection connection = null;
+		try {
+			connection = send(method);
+			int code = connection.getResponseCode();
+			rawBody = countBody(connection, code);
+			// Reading the body until the end, which closes it, gives the connection back to the JDK
+			responseBody = ContentEncodings.read(getResponseStream(connection, rawBody),
+					getResponseCharset(connection));
+			serverResponse = new ServerResponse(code, responseBody, getResponseHeaders(connection));
+		} catch (IOException e) {
+			serverResponse = ioError(method, e);
+			if (connection != null) {
+				connection.disconnect();
+			}
+		}
+		recordRequest(method, start, rawBody, serverResponse.getStatus(), debug, responseBody);
+
+		return serverResponse;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @see org.tuleap.mylyn.task.core.internal.client.rest.IRestConnector#sendStreamingRequest(org.apache.commons.httpclient.HttpMethod)
+	 */
+	@Override
+	public ServerResponse sendStreamingRequest(final HttpMethod method) {
+		final boolean debug = isDebugMode();
+		setCommonHeaders(method);
+
+		ServerResponse serverResponse = null;
+		final long start = System.nanoTime();
+		HttpURLConnection connection = null;
+		try {
+			connection = send(method);
+			final int code = connection.getResponseCode();
+			final CountingInputStream rawBody = countBody(connection, code);
+			serverResponse = new StreamingServerResponse(code, getResponseHeaders(connection),
+					getResponseStream(connection, rawBody), getResponseCharset(connection), new Closeable() {
+						@Override
+						public void close() throws IOException {
+							try {
+								if (rawBody != null) {
+									rawBody.close();
+								}
+							} finally {
+								recordRequest(method, start, rawBody, code, debug, null);
+							}
+						}
+					});
+		} catch (IOException e) {
+			serverResponse = ioError(method, e);
+			if (connection != null) {
+				connection.disconnect();
+			}
+			recordRequest(method, start, null, serverResponse.getStatus(), debug, null);
+		}
+
+		return serverResponse;
+	}
+
+	/**
+	 * Opens a connection for the given method, sends its headers and its body, if any.
+	 *
+	 * @param method
+	 *            The method that describes the request
+	 * @return The connection, whose response can be read.
+	 * @throws IOException
+	 *             If the request cannot be sent.
+	 */
+	private HttpURLConnection send(HttpMethod method) throws IOException {
+		URL url = getUrl(method);
+		String proxyType = PROXY_TYPE_HTTP;
+		if (HTTPS.equalsIgnoreCase(url.getProtocol())) {
+			proxyType = PROXY_TYPE_HTTPS;
+		}
+		Proxy proxy = location.getProxyForHost(url.getHost(), proxyType);
+		HttpURLConnection connection;
+		if (proxy == null) {
+			connection = (HttpURLConnection)url.openConnection();
+		} else {
+			connection = (HttpURLConnection)url.openConnection(proxy);
+		}
+		connection.setConnectTimeout(WebUtil.getConnectionTimeout());
+		connection.setReadTimeout(WebUtil.getSocketTimeout());
+		connection.setUseCaches(false);
+		connection.setInstanceFollowRedirects(method.getFollowRedirects());
+		connection.setRequestMethod(method.getName());
+		connection.setRequestProperty("User-Agent", userAgent); //$NON-NLS-1$
+		AuthenticationCredentials credentials = location.getCredentials(AuthenticationType.HTTP);
+		if (credentials != null) {
+			connection.setRequestProperty("Authorization", basicAuthorization(credentials)); //$NON-NLS-1$
+		}
+		for (Header header : method.getRequestHeaders()) {
+			connection.setRequestProperty(header.getName(), header.getValue());
+		}
+		RequestEntity entity = null;
+		if (method instanceof EntityEnclosingMethod) {
+			entity = ((EntityEnclosingMethod)method).getRequestEntity();
+		}
+		if (entity != null) {
+			if (entity.getContentType() != null) {
+				connection.setRequestProperty("Content-Type", entity.getContentType()); //$NON-NLS-1$
+			}
+			connection.setDoOutput(true);
+			long length = entity.getContentLength();
+			if (length >= 0 && length <= Integer.MAX_VALUE) {
+				connection.setFixedLengthStreamingMode((int)length);
+			} else {
+				connection.setChunkedStreamingMode(0);
+			}
+			OutputStream out = connection.getOutputStream();
+			try {
+				entity.writeRequest(out);
+			} finally {
+				out.close();
+			}
+		}
+		return connection;
+	}
+
+	/**
+	 * Computes the value of the Authorization header for the basic authentication with the given
+	 * credentials.
+	 *
+	 * @param credentials
+	 *            The credentials
+	 * @return The value of the Authorization header.
+	 * @throws UnsupportedEncodingException
+	 *             If UTF-8 is not supported.
+	 */
+	private String basicAuthorization(AuthenticationCredentials credentials)
+			throws UnsupportedEncodingException {
+		String userPass = credentials.getUserName() + ':' + credentials.getPassword();
+		return BASIC + Base64.encodeBase64String(userPass.getBytes(ENCODING_UTF8));
+	}
+
+	/**
+	 * Computes the URL of the request described by the given method, relative to the URL of the location.
+	 *
+	 * @param method
+	 *            The method
+	 * @return The absolute URL of the request, with its query string.
+	 * @throws IOException
+	 *             If the URL is malformed.
+	 */
+	private URL getUrl(HttpMethod method) throws IOException {
+		String pathAndQuery = method.getPath();
+		String query = method.getQueryString();
+		if (query != null && query.length() > 0) {
+			pathAndQuery = pathAndQuery + '?' + query;
+		}
+		return new URL(new URL(location.getUrl()), pathAndQuery);
+	}
+
+	/**
+	 * Provides the stream of the body of the response as received, which counts the bytes read. The body of
+	 * the errors is read from the error stream of the connection.
+	 *
+	 * @param connection
+	 *            The connection
+	 * @param code
+	 *            The status of the response
+	 * @return The counting response stream, <code>null</code> if the response has no body.
+	 * @throws IOException
+	 *             If the body cannot be read.
+	 */
+	private CountingInputStream countBody(HttpURLConnection connection, int code) throws IOException {
+		InputStream in;
+		if (code >= ServerResponse.STATUS_BAD_REQUEST) {
+			in = connection.getErrorStream();
+		} else {
+			in = connection.getInputStream();
+		}
+		if (in == null) {
+			return null;
+		}
+		return new CountingInputStream(in);
+	}
+
+	/**
+	 * Provides the stream of the body of the response, decompressed on the fly if the server has compressed
+	 * it.
+	 *
+	 * @param connection
+	 *            The connection
+	 * @param in
+	 *            The stream of the body as received, can be <code>null</code>
+	 * @return The decoded response stream, <code>null</code> if the response has no body.
+	 * @throws IOException
+	 *             If the body cannot be read.
+	 */
+	private InputStream getResponseStream(HttpURLConnection connection, InputStream in) throws IOException {
+		if (in == null) {
+			return null;
+		}
+		return ContentEncodings.decode(in, connection.getContentEncoding());
+	}
+
+	/**
+	 * Provides the charset of the body of the response, declared in its content type.
+	 *
+	 * @param connection
+	 *            The connection
+	 * @return The charset of the body of the response, UTF-8 if the server does not declare it.
+	 */
+	private String getResponseCharset(HttpURLConnection connection) {
+		String contentType = connection.getContentType();
+		if (contentType != null) {
+			for (String parameter : contentType.split(";")) { //$NON-NLS-1$
+				String trimmed = parameter.trim();
+				if (trimmed.regionMatches(true, 0, CHARSET_PARAMETER, 0, CHARSET_PARAMETER.length())) {
+					String charset = trimmed.substring(CHARSET_PARAMETER.length()).replace("\"", //$NON-NLS-1$
+							""); //$NON-NLS-1$
+					if (charset.length() > 0) {
+						return charset;
+					}
+				}
+			}
+		}
+		return ENCODING_UTF8;
+	}
+
+	/**
+	 * Collects the headers of the response, the values of a repeated header being separated by commas. The
+	 * names are compared regardless of their case, since proxies may change it.
+	 *
+	 * @param connection
+	 *            The connection
+	 * @return The headers of the response, by name.
+	 */
+	private Map<String, String> getResponseHeaders(HttpURLConnection connection) {
+		Map<String, String> rHeaders = new TreeMap<String, String>(String.CASE_INSENSITIVE_ORDER);
+		for (Map.Entry<String, List<String>> entry : connection.getHeaderFields().entrySet()) {
+			// The status line is stored with a null key
+			if (entry.getKey() != null && !entry.getValue().isEmpty()) {
+				StringBuilder value = new StringBuilder();
+				for (String v : entry.getValue()) {
+					if (value.length() > 0) {
+						value.append(", "); //$NON-NLS-1$
+					}
+					value.append(v);
+				}
+				rHeaders.put(entry.getKey(), value.toString());
+			}
+		}
+		return rHeaders;
+	}
+}
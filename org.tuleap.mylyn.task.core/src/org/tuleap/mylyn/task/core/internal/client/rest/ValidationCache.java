@@ -0,0 +1,373 @@
+/*******************************************************************************
+ * Copyright (c) 2014 Obeo.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.tuleap.mylyn.task.core.internal.client.rest;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.eclipse.core.runtime.Assert;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.tuleap.mylyn.task.core.internal.TuleapCoreActivator;
+import org.tuleap.mylyn.task.core.internal.util.TuleapCoreKeys;
+import org.tuleap.mylyn.task.core.internal.util.TuleapCoreMessages;
+
+/**
+ * Bounded cache of the responses received for GET requests, along with their validators (ETag and
+ * Last-Modified), used to send conditional requests and to replay the cached body when the server answers
+ * 304 Not Modified. Entries are keyed by URL and query string, and the least recently used entries are
+ * evicted when the cache exceeds its number of entries or its total body size. The cache can be saved to
+ * and loaded from a file.
+ *
+ * @author <a href="mailto:laurent.delaigue@obeo.fr">Laurent Delaigue</a>
+ */
+public class ValidationCache implements Serializable {
+
+	/**
+	 * Default maximum number of entries.
+	 */
+	public static final int DEFAULT_MAX_ENTRIES = 500;
+
+	/**
+	 * Default maximum total size of the bodies, in characters.
+	 */
+	public static final long DEFAULT_MAX_SIZE = 16L * 1024 * 1024;
+
+	/**
+	 * The ETag header.
+	 */
+	public static final String HEADER_ETAG = "ETag"; //$NON-NLS-1$
+
+	/**
+	 * The Last-Modified header.
+	 */
+	public static final String HEADER_LAST_MODIFIED = "Last-Modified"; //$NON-NLS-1$
+
+	/**
+	 * The If-None-Match header.
+	 */
+	public static final String HEADER_IF_NONE_MATCH = "If-None-Match"; //$NON-NLS-1$
+
+	/**
+	 * The If-Modified-Since header.
+	 */
+	public static final String HEADER_IF_MODIFIED_SINCE = "If-Modified-Since"; //$NON-NLS-1$
+
+	/**
+	 * Serial version UID.
+	 */
+	private static final long serialVersionUID = -2707357216837473870L;
+
+	/**
+	 * The entries, in access order.
+	 */
+	private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<String, Entry>(16, 0.75f, true);
+
+	/**
+	 * The maximum number of entries.
+	 */
+	private final int maxEntries;
+
+	/**
+	 * The maximum total size of the bodies.
+	 */
+	private final long maxSize;
+
+	/**
+	 * The current total size of the bodies.
+	 */
+	private long size;
+
+	/**
+	 * Constructor with default limits.
+	 */
+	public ValidationCache() {
+		this(DEFAULT_MAX_ENTRIES, DEFAULT_MAX_SIZE);
+	}
+
+	/**
+	 * Constructor.
+	 *
+	 * @param maxEntries
+	 *            The maximum number of entries
+	 * @param maxSize
+	 *            The maximum total size of the cached bodies, in characters
+	 */
+	public ValidationCache(int maxEntries, long maxSize) {
+		this.maxEntries = maxEntries;
+		this.maxSize = maxSize;
+	}
+
+	/**
+	 * Provides the entry cached for the given key.
+	 *
+	 * @param key
+	 *            The key, made of the URL and the query string
+	 * @return The cached entry, or <code>null</code> if there is none.
+	 */
+	public synchronized Entry get(String key) {
+		return entries.get(key);
+	}
+
+	/**
+	 * Caches the given response if it has validators, otherwise removes the entry for the given key, which
+	 * is outdated.
+	 *
+	 * @param key
+	 *            The key, made of the URL and the query string
+	 * @param response
+	 *            A 200 OK response
+	 */
+	public synchronized void put(String key, ServerResponse response) {
+		Assert.isNotNull(key);
+		remove(key);
+		String etag = getHeader(response.getHeaders(), HEADER_ETAG);
+		String lastModified = getHeader(response.getHeaders(), HEADER_LAST_MODIFIED);
+		String body = response.getBody();
+		if ((etag == null && lastModified == null) || body == null || body.length() > maxSize) {
+			return;
+		}
+		Map<String, String> headers = new LinkedHashMap<String, String>();
+		if (response.getHeaders() != null) {
+			headers.putAll(response.getHeaders());
+		}
+		entries.put(key, new Entry(etag, lastModified, body, headers));
+		size += body.length();
+		evict();
+	}
+
+	/**
+	 * Removes the entry of the given key.
+	 *
+	 * @param key
+	 *            The key
+	 */
+	public synchronized void remove(String key) {
+		Entry removed = entries.remove(key);
+		if (removed != null) {
+			size -= removed.body.length();
+		}
+	}
+
+	/**
+	 * Removes all the entries.
+	 */
+	public synchronized void clear() {
+		entries.clear();
+		size = 0;
+	}
+
+	/**
+	 * Number of entries.
+	 *
+	 * @return The number of cached entries.
+	 */
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	/**
+	 * Evicts the least recently used entries until the cache respects its limits.
+	 */
+	private void evict() {
+		Iterator<Entry> it = entries.values().iterator();
+		while ((entries.size() > maxEntries || size > maxSize) && it.hasNext()) {
+			Entry eldest = it.next();
+			size -= eldest.body.length();
+			it.remove();
+		}
+	}
+
+	/**
+	 * Looks up a header without considering the case of its name.
+	 *
+	 * @param headers
+	 *            The headers, can be <code>null</code>
+	 * @param name
+	 *            The name of the header
+	 * @return The value of the header, or <code>null</code> if it is not present.
+	 */
+	static String getHeader(Map<String, String> headers, String name) {
+		if (headers == null) {
+			return null;
+		}
+		String value = headers.get(name);
+		if (value == null) {
+			for (Map.Entry<String, String> header : headers.entrySet()) {
+				if (name.equalsIgnoreCase(header.getKey())) {
+					return header.getValue();
+				}
+			}
+		}
+		return value;
+	}
+
+	/**
+	 * Saves this cache in the given file.
+	 *
+	 * @param file
+	 *            The file to write
+	 */
+	public synchronized void save(File file) {
+		ObjectOutputStream out = null;
+		try {
+			File parent = file.getParentFile();
+			if (parent != null && !parent.exists()) {
+				parent.mkdirs();
+			}
+			out = new ObjectOutputStream(new FileOutputStream(file));
+			out.writeObject(this);
+		} catch (IOException e) {
+			TuleapCoreActivator.log(new Status(IStatus.WARNING, TuleapCoreActivator.PLUGIN_ID,
+					TuleapCoreMessages.getString(TuleapCoreKeys.cannotSaveValidationCache, file
+							.getAbsolutePath()), e));
+		} finally {
+			if (out != null) {
+				try {
+					out.close();
+				} catch (IOException e) {
+					// ignore
+				}
+			}
+		}
+	}
+
+	/**
+	 * Loads a cache from the given file. If the file does not exist or cannot be read, an empty cache is
+	 * returned and the invalid file is deleted.
+	 *
+	 * @param file
+	 *            The file to read
+	 * @return The loaded cache, never <code>null</code>.
+	 */
+	public static ValidationCache load(File file) {
+		if (file == null || !file.exists()) {
+			return new ValidationCache();
+		}
+		ObjectInputStream in = null;
+		try {
+			in = new ObjectInputStream(new FileInputStream(file));
+			return (ValidationCache)in.readObject();
+			// CHECKSTYLE:OFF (All exceptions are treated equally since we can't do anything about them)
+		} catch (Exception e) {
+			// CHECKSTYLE:ON
+			TuleapCoreActivator.log(new Status(IStatus.WARNING, TuleapCoreActivator.PLUGIN_ID,
+					TuleapCoreMessages.getString(TuleapCoreKeys.cannotLoadValidationCache, file
+							.getAbsolutePath()), e));
+			if (in != null) {
+				try {
+					in.close();
+					in = null;
+				} catch (IOException ex) {
+					// ignore
+				}
+			}
+			file.delete();
+			return new ValidationCache();
+		} finally {
+			if (in != null) {
+				try {
+					in.close();
+				} catch (IOException e) {
+					// ignore
+				}
+			}
+		}
+	}
+
+	/**
+	 * A cached response with its validators.
+	 *
+	 * @author <a href="mailto:laurent.delaigue@obeo.fr">Laurent Delaigue</a>
+	 */
+	public static final class Entry implements Serializable {
+
+		/**
+		 * Serial version UID.
+		 */
+		private static final long serialVersionUID = 3931386574930398217L;
+
+		/**
+		 * The ETag, can be <code>null</code>.
+		 */
+		private final String etag;
+
+		/**
+		 * The Last-Modified date, can be <code>null</code>.
+		 */
+		private final String lastModified;
+
+		/**
+		 * The cached body.
+		 */
+		private final String body;
+
+		/**
+		 * The cached headers.
+		 */
+		private final Map<String, String> headers;
+
+		/**
+		 * Constructor.
+		 *
+		 * @param etag
+		 *            The ETag
+		 * @param lastModified
+		 *            The Last-Modified date
+		 * @param body
+		 *            The body
+		 * @param headers
+		 *            The headers
+		 */
+		private Entry(String etag, String lastModified, String body, Map<String, String> headers) {
+			this.etag = etag;
+			this.lastModified = lastModified;
+			this.body = body;
+			this.headers = headers;
+		}
+
+		/**
+		 * ETag getter.
+		 *
+		 * @return The ETag, can be <code>null</code>.
+		 */
+		public String getEtag() {
+			return etag;
+		}
+
+		/**
+		 * Last-Modified getter.
+		 *
+		 * @return The Last-Modified date, can be <code>null</code>.
+		 */
+		public String getLastModified() {
+			return lastModified;
+		}
+
+		/**
+		 * Creates a 200 OK response with the cached body and headers.
+		 *
+		 * @return A new response replaying the cached one.
+		 */
+		public ServerResponse toResponse() {
+			return new ServerResponse(ServerResponse.STATUS_OK, body, Collections.unmodifiableMap(headers));
+		}
+	}
+}
@@ -466,6 +466,25 @@ public class TuleapArtifactMapper extends TaskMapper {
 		}
 	}
 
+	/**
+	 * Sets the values representing who this task is assigned to if a relevant field with this semantic for
+	 * mylyn exists. Such a field uses {@code TaskAttribute.USER_ASSIGNED} for id.
+	 *
+	 * @param value
+	 *            The value of the contributor field
+	 */
+	public void setAssignedTo(BoundFieldValue value) {
+		TaskAttribute attribute = getMappedAttribute(TaskAttribute.USER_ASSIGNED);
+		if (attribute != null) {
+			int count = value.getValueIdCount();
+			List<String> values = new ArrayList<String>(count);
+			for (int i = 0; i < count; i++) {
+				values.add(String.valueOf(value.getValueId(i)));
+			}
+			attribute.setValues(values);
+		}
+	}
+
 	/**
 	 * Sets the initial effort of the task.
 	 *
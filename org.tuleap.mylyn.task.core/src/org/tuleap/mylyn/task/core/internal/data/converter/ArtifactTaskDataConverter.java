@@ -134,11 +134,9 @@ public class ArtifactTaskDataConverter {
 			AbstractFieldValue fieldValue = element.getFieldValue(statusField.getIdentifier());
 			if (fieldValue instanceof BoundFieldValue) {
 				BoundFieldValue boundFieldValue = (BoundFieldValue)fieldValue;
-				List<Integer> valueIds = boundFieldValue.getValueIds();
-
-				if (valueIds.size() > 0) {
+				if (boundFieldValue.getValueIdCount() > 0) {
 					// Only support one status
-					tuleapArtifactMapper.setStatus(valueIds.get(0).intValue());
+					tuleapArtifactMapper.setStatus(boundFieldValue.getValueId(0));
 				}
 			}
 		}
@@ -149,7 +147,7 @@ public class ArtifactTaskDataConverter {
 			AbstractFieldValue abstractFieldValue = element.getFieldValue(contributorField.getIdentifier());
 			if (abstractFieldValue instanceof BoundFieldValue) {
 				BoundFieldValue boundFieldValue = (BoundFieldValue)abstractFieldValue;
-				tuleapArtifactMapper.setAssignedTo(boundFieldValue.getValueIds());
+				tuleapArtifactMapper.setAssignedTo(boundFieldValue);
 			}
 		}
 
@@ -32,6 +32,17 @@ public class TuleapToken {
 	 */
 	private String uri;
 
+	/**
+	 * The time when the token has been received, in milliseconds, 0 if unknown. Not sent by the server.
+	 */
+	private transient long creationTime;
+
+	/**
+	 * The time after which the token must be renewed, in milliseconds, 0 if unknown. Not sent by the
+	 * server.
+	 */
+	private transient long expirationTime;
+
 	/**
 	 * userId getter.
 	 * 
@@ -89,4 +100,52 @@ public class TuleapToken {
 		this.uri = uri;
 	}
 
+	/**
+	 * creationTime getter.
+	 * 
+	 * @return the time when the token has been received, in milliseconds, 0 if unknown
+	 */
+	public long getCreationTime() {
+		return creationTime;
+	}
+
+	/**
+	 * creationTime setter.
+	 * 
+	 * @param creationTime
+	 *            the time when the token has been received, in milliseconds
+	 */
+	public void setCreationTime(long creationTime) {
+		this.creationTime = creationTime;
+	}
+
+	/**
+	 * expirationTime getter.
+	 * 
+	 * @return the time after which the token must be renewed, in milliseconds, 0 if unknown
+	 */
+	public long getExpirationTime() {
+		return expirationTime;
+	}
+
+	/**
+	 * expirationTime setter.
+	 * 
+	 * @param expirationTime
+	 *            the time after which the token must be renewed, in milliseconds, 0 if unknown
+	 */
+	public void setExpirationTime(long expirationTime) {
+		this.expirationTime = expirationTime;
+	}
+
+	/**
+	 * Indicates whether the token must be renewed before being used.
+	 * 
+	 * @param now
+	 *            The current time, in milliseconds
+	 * @return <code>true</code> if the expiration time of the token is known and has been reached.
+	 */
+	public boolean isExpired(long now) {
+		return expirationTime > 0 && now >= expirationTime;
+	}
 }
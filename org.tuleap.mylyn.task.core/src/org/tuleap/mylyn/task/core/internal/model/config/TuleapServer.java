@@ -12,12 +12,16 @@ package org.tuleap.mylyn.task.core.internal.model.config;
 
 import com.google.common.collect.Maps;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import org.tuleap.mylyn.task.core.internal.util.StringPool;
+
 /**
  * This class will hold the configuration of a Tuleap server instance.
  * 
@@ -51,6 +55,11 @@ public class TuleapServer implements Serializable {
 	 */
 	private Map<Integer, TuleapProject> projectsById = new HashMap<Integer, TuleapProject>();
 
+	/**
+	 * The string pool of the Tuleap instance, looked up when it is first needed.
+	 */
+	private transient StringPool stringPool;
+
 	/**
 	 * The constructor.
 	 * 
@@ -184,7 +193,57 @@ public class TuleapServer implements Serializable {
 	 */
 	public void register(TuleapUser person) {
 		if (person != null) {
-			personsById.put(Integer.valueOf(person.getId()), person);
+			personsById.put(Integer.valueOf(person.getId()), share(person));
+		}
+	}
+
+	/**
+	 * Provides the string pool of the Tuleap instance, which is also used by the clients of the instance.
+	 *
+	 * @return The string pool of the Tuleap instance.
+	 */
+	public StringPool getStringPool() {
+		if (stringPool == null) {
+			stringPool = StringPool.forUrl(url);
+		}
+		return stringPool;
+	}
+
+	/**
+	 * Provides a user whose strings are the instances of the string pool.
+	 *
+	 * @param person
+	 *            The user
+	 * @return The given user if its strings are already pooled, or an equivalent user otherwise.
+	 */
+	private TuleapUser share(TuleapUser person) {
+		StringPool pool = getStringPool();
+		String userName = pool.get(person.getUserName());
+		String realName = pool.get(person.getRealName());
+		String email = pool.get(person.getEmail());
+		String ldapId = pool.get(person.getLdapId());
+		if (userName == person.getUserName() && realName == person.getRealName()
+				&& email == person.getEmail() && ldapId == person.getLdapId()) {
+			return person;
+		}
+		return new TuleapUser(userName, realName, person.getId(), email, ldapId);
+	}
+
+	/**
+	 * Reads a server from the configuration cache, and shares the strings of its users with those read
+	 * from the Tuleap instance since the start.
+	 *
+	 * @param in
+	 *            The stream
+	 * @throws IOException
+	 *             If the server cannot be read.
+	 * @throws ClassNotFoundException
+	 *             If the class of a serialized object cannot be found.
+	 */
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		for (Map.Entry<Integer, TuleapUser> entry : personsById.entrySet()) {
+			entry.setValue(share(entry.getValue()));
 		}
 	}
 
@@ -11,6 +11,7 @@
 package org.tuleap.mylyn.task.core.internal.model.config;
 
 import java.io.Serializable;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
@@ -394,6 +395,28 @@ public class TuleapTracker implements Serializable {
 		return contributorField;
 	}
 
+	/**
+	 * Provides the identifiers of the fields with the "title", "status" and "contributor" semantics, which
+	 * are the fields needed to present the artifacts of this tracker in a list. To use only after tracker
+	 * creation.
+	 *
+	 * @return The identifiers of the semantic fields of this tracker, possibly empty.
+	 */
+	public int[] getSemanticFieldIds() {
+		int[] ids = new int[3];
+		int count = 0;
+		if (titleField != null) {
+			ids[count++] = titleField.getIdentifier();
+		}
+		if (statusField != null) {
+			ids[count++] = statusField.getIdentifier();
+		}
+		if (contributorField != null) {
+			ids[count++] = contributorField.getIdentifier();
+		}
+		return Arrays.copyOf(ids, count);
+	}
+
 	/**
 	 * Provides access to the cached initial effort field. To use only used after tracker creation.
 	 *
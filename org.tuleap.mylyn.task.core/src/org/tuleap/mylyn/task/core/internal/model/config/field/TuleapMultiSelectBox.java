@@ -77,10 +77,10 @@ public class TuleapMultiSelectBox extends AbstractTuleapSelectBox {
 	public void setValue(TaskAttribute attribute, AbstractFieldValue value) {
 		Assert.isTrue(value instanceof BoundFieldValue);
 		BoundFieldValue boundFieldValue = (BoundFieldValue)value;
-		List<Integer> bindValueIds = boundFieldValue.getValueIds();
-		List<String> values = new ArrayList<String>();
-		for (Integer bindValueId : bindValueIds) {
-			values.add(bindValueId.toString());
+		int count = boundFieldValue.getValueIdCount();
+		List<String> values = new ArrayList<String>(count);
+		for (int i = 0; i < count; i++) {
+			values.add(String.valueOf(boundFieldValue.getValueId(i)));
 		}
 		attribute.setValues(values);
 	}
@@ -114,15 +114,14 @@ public class TuleapOpenList extends AbstractTuleapField {
 			attribute.setValue(b.toString());
 		} else {
 			BoundFieldValue boundFieldValue = (BoundFieldValue)value;
-			List<Integer> values = boundFieldValue.getValueIds();
+			int count = boundFieldValue.getValueIdCount();
 			attribute.clearValues();
 			StringBuilder b = new StringBuilder();
-			if (!values.isEmpty()) {
-				Iterator<Integer> it = values.iterator();
-				b.append(it.next());
-				while (it.hasNext()) {
-					b.append(", ").append(it.next()); //$NON-NLS-1$
+			for (int i = 0; i < count; i++) {
+				if (i > 0) {
+					b.append(", "); //$NON-NLS-1$
 				}
+				b.append(boundFieldValue.getValueId(i));
 			}
 			attribute.setValue(b.toString());
 		}
@@ -174,9 +174,8 @@ public class TuleapSelectBox extends AbstractTuleapSelectBox {
 	public void setValue(TaskAttribute attribute, AbstractFieldValue value) {
 		Assert.isTrue(value instanceof BoundFieldValue);
 		BoundFieldValue boundFieldValue = (BoundFieldValue)value;
-		List<Integer> bindValueIds = boundFieldValue.getValueIds();
-		if (!bindValueIds.isEmpty() && bindValueIds.get(0) != null) {
-			attribute.setValue(bindValueIds.get(0).toString());
+		if (boundFieldValue.getValueIdCount() > 0) {
+			attribute.setValue(String.valueOf(boundFieldValue.getValueId(0)));
 			updateOptionsWithWorkflow(attribute);
 		}
 	}
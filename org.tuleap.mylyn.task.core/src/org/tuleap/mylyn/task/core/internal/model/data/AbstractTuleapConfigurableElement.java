@@ -10,8 +10,6 @@
  *******************************************************************************/
 package org.tuleap.mylyn.task.core.internal.model.data;
 
-import com.google.common.collect.Maps;
-
 import java.util.Collection;
 import java.util.Date;
 import java.util.LinkedHashMap;
@@ -23,6 +21,7 @@ import org.tuleap.mylyn.task.core.internal.model.config.field.TuleapFileUpload;
 import org.tuleap.mylyn.task.core.internal.model.config.field.TuleapFloat;
 import org.tuleap.mylyn.task.core.internal.model.config.field.TuleapSelectBoxItem;
 import org.tuleap.mylyn.task.core.internal.model.config.field.TuleapString;
+import org.tuleap.mylyn.task.core.internal.util.IntKeyedMap;
 
 /**
  * Configurable element that contains fields (ex: artifact). Fields need a tracker to be interpreted
@@ -81,9 +80,9 @@ public abstract class AbstractTuleapConfigurableElement<T> extends AbstractTulea
 	private Map<Integer, AbstractTuleapField> fields = new LinkedHashMap<Integer, AbstractTuleapField>();
 
 	/**
-	 * The configurable values.
+	 * The configurable values, by field id, in the order in which they have been added.
 	 */
-	private Map<Integer, AbstractFieldValue> fieldTypeIdToValue = Maps.newHashMap();
+	private IntKeyedMap<AbstractFieldValue> fieldTypeIdToValue = new IntKeyedMap<AbstractFieldValue>();
 
 	/**
 	 * Default constructor for deserialization.
@@ -278,7 +277,7 @@ public abstract class AbstractTuleapConfigurableElement<T> extends AbstractTulea
 	 *            The value to set.
 	 */
 	public void addFieldValue(AbstractFieldValue value) {
-		fieldTypeIdToValue.put(Integer.valueOf(value.getFieldId()), value);
+		fieldTypeIdToValue.put(value.getFieldId(), value);
 	}
 
 	/**
@@ -289,7 +288,7 @@ public abstract class AbstractTuleapConfigurableElement<T> extends AbstractTulea
 	 * @return the value of the given field.
 	 */
 	public AbstractFieldValue getFieldValue(int fieldTypeId) {
-		return fieldTypeIdToValue.get(Integer.valueOf(fieldTypeId));
+		return fieldTypeIdToValue.get(fieldTypeId);
 	}
 
 	/**
@@ -10,8 +10,9 @@
  *******************************************************************************/
 package org.tuleap.mylyn.task.core.internal.model.data;
 
-import java.util.Collections;
+import java.util.AbstractList;
 import java.util.List;
+import java.util.RandomAccess;
 
 /**
  * Utility class used to store the identifiers of the value selected for a select box, checkbox or
@@ -22,9 +23,9 @@ import java.util.List;
 public class BoundFieldValue extends AbstractFieldValue {
 
 	/**
-	 * The list of value ids.
+	 * The value ids.
 	 */
-	private List<Integer> bindValueIds;
+	private final int[] bindValueIds;
 
 	/**
 	 * The constructor.
@@ -32,11 +33,36 @@ public class BoundFieldValue extends AbstractFieldValue {
 	 * @param fieldId
 	 *            The identifier of the field
 	 * @param valueIds
-	 *            The list of value ids
+	 *            The list of value ids, <code>null</code> for no value
 	 */
 	public BoundFieldValue(int fieldId, List<Integer> valueIds) {
 		super(fieldId);
-		this.bindValueIds = Collections.unmodifiableList(valueIds);
+		if (valueIds == null) {
+			this.bindValueIds = new int[0];
+		} else {
+			this.bindValueIds = new int[valueIds.size()];
+			int i = 0;
+			for (Integer valueId : valueIds) {
+				this.bindValueIds[i++] = valueId.intValue();
+			}
+		}
+	}
+
+	/**
+	 * The constructor.
+	 * 
+	 * @param fieldId
+	 *            The identifier of the field
+	 * @param valueIds
+	 *            The value ids, used as is and not to be modified afterwards, <code>null</code> for no value
+	 */
+	public BoundFieldValue(int fieldId, int[] valueIds) {
+		super(fieldId);
+		if (valueIds == null) {
+			this.bindValueIds = new int[0];
+		} else {
+			this.bindValueIds = valueIds;
+		}
 	}
 
 	/**
@@ -45,6 +71,69 @@ public class BoundFieldValue extends AbstractFieldValue {
 	 * @return An unmodifiable view of the value ids
 	 */
 	public List<Integer> getValueIds() {
-		return this.bindValueIds;
+		return new ValueIdList(bindValueIds);
+	}
+
+	/**
+	 * Returns the number of value ids.
+	 * 
+	 * @return The number of value ids
+	 */
+	public int getValueIdCount() {
+		return bindValueIds.length;
+	}
+
+	/**
+	 * Returns a value id.
+	 * 
+	 * @param index
+	 *            The index of the value id, between 0 and {@link #getValueIdCount()} excluded
+	 * @return The value id at the given index
+	 */
+	public int getValueId(int index) {
+		return bindValueIds[index];
+	}
+
+	/**
+	 * Unmodifiable list of value ids, backed by an array.
+	 * 
+	 * @author <a href="mailto:laurent.delaigue@obeo.fr">Laurent Delaigue</a>
+	 */
+	private static final class ValueIdList extends AbstractList<Integer> implements RandomAccess {
+
+		/**
+		 * The value ids.
+		 */
+		private final int[] valueIds;
+
+		/**
+		 * Constructor.
+		 * 
+		 * @param valueIds
+		 *            The value ids
+		 */
+		private ValueIdList(int[] valueIds) {
+			this.valueIds = valueIds;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 * 
+		 * @see java.util.AbstractList#get(int)
+		 */
+		@Override
+		public Integer get(int index) {
+			return Integer.valueOf(valueIds[index]);
+		}
+
+		/**
+		 * {@inheritDoc}
+		 * 
+		 * @see java.util.AbstractCollection#size()
+		 */
+		@Override
+		public int size() {
+			return valueIds.length;
+		}
 	}
 }
@@ -20,46 +20,18 @@ import com.google.gson.JsonSerializer;
 
 import java.lang.reflect.Type;
 import java.text.ParseException;
-import java.text.SimpleDateFormat;
 import java.util.Date;
-import java.util.TimeZone;
 
 import org.tuleap.mylyn.task.core.internal.util.TuleapCoreKeys;
 import org.tuleap.mylyn.task.core.internal.util.TuleapCoreMessages;
 
 /**
- * Date JSON TypeAdapter for dates in ISO8601.
+ * Date JSON TypeAdapter for dates in ISO8601, parsed and formatted by {@link Iso8601Codec}.
  *
  * @author <a href="mailto:laurent.delaigue@obeo.fr">Laurent Delaigue</a>
  */
 public class DateIso8601Adapter implements JsonDeserializer<Date>, JsonSerializer<Date> {
 
-	/**
-	 * Date format ISO-8601 without time.
-	 */
-	private static final String DATE_FORMAT = "yyyy-MM-dd"; //$NON-NLS-1$
-
-	/**
-	 * Date format ISO-8601 when using a timezone with a sign and 4 digits separated by a colon.
-	 */
-	private static final String TIMESTAMP_FORMAT_WITH_TIMEZONE = "yyyy-MM-dd'T'HH:mm:ssZ"; //$NON-NLS-1$
-
-	/**
-	 * Date format ISO-8601 with milliseconds when using a timezone with a sign and 4 digits separated by a
-	 * colon.
-	 */
-	private static final String TIMESTAMP_FORMAT_MILLIS_WITH_TIMEZONE = "yyyy-MM-dd'T'HH:mm:ss.SSSZ"; //$NON-NLS-1$
-
-	/**
-	 * Date format ISO-8601 with milliseconds when using the default timezone.
-	 */
-	private static final String TIMESTAMP_FORMAT_MILLIS_WITH_DEFAULT_TIMEZONE = "yyyy-MM-dd'T'HH:mm:ss.SSS'Z'"; //$NON-NLS-1$
-
-	/**
-	 * Date format ISO-8601 when using the default timezone.
-	 */
-	private static final String TIMESTAMP_FORMAT_WITH_DEFAULT_TIMEZONE = "yyyy-MM-dd'T'HH:mm:ss'Z'"; //$NON-NLS-1$
-
 	/**
 	 * {@inheritDoc}
 	 *
@@ -80,7 +52,7 @@ public class DateIso8601Adapter implements JsonDeserializer<Date>, JsonSerialize
 	 */
 	public static String toIso8601String(Date date) {
 		// Tuleap updatable dates are actually dates without timestamps
-		return new SimpleDateFormat(DATE_FORMAT).format(date);
+		return Iso8601Codec.formatDate(date);
 	}
 
 	/**
@@ -113,38 +85,7 @@ public class DateIso8601Adapter implements JsonDeserializer<Date>, JsonSerialize
 	 *             if the given date is not in the right format.
 	 */
 	public static Date parseIso8601Date(String dateIso8601) throws ParseException {
-		if (dateIso8601.indexOf('T') > 0) {
-			return parseTimestamp(dateIso8601);
-		}
-		return new SimpleDateFormat(DATE_FORMAT).parse(dateIso8601);
-	}
-
-	/**
-	 * Parses a timestamp in ISO 8601 format, without Joda time or JDK7...
-	 *
-	 * @param dateIso8601
-	 *            Timestamp to parse.
-	 * @return The parsed date.
-	 * @throws ParseException
-	 *             if the given date is not in the right format.
-	 */
-	private static Date parseTimestamp(String dateIso8601) throws ParseException {
-		SimpleDateFormat format;
-		if (dateIso8601.endsWith("Z")) { //$NON-NLS-1$
-			if (dateIso8601.indexOf('.') > 0) {
-				format = new SimpleDateFormat(TIMESTAMP_FORMAT_MILLIS_WITH_DEFAULT_TIMEZONE);
-			} else {
-				format = new SimpleDateFormat(TIMESTAMP_FORMAT_WITH_DEFAULT_TIMEZONE);
-			}
-			format.setTimeZone(TimeZone.getTimeZone("UTC")); //$NON-NLS-1$
-			return format.parse(dateIso8601);
-		}
-		if (dateIso8601.indexOf('.') > 0) {
-			format = new SimpleDateFormat(TIMESTAMP_FORMAT_MILLIS_WITH_TIMEZONE);
-		} else {
-			format = new SimpleDateFormat(TIMESTAMP_FORMAT_WITH_TIMEZONE);
-		}
-		return format.parse(dateIso8601.replaceFirst(":(\\d\\d)$", "$1")); //$NON-NLS-1$//$NON-NLS-2$
+		return Iso8601Codec.parse(dateIso8601);
 	}
 
 }
@@ -0,0 +1,500 @@
+/*******************************************************************************
+ * Copyright (c) 2014 Obeo.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.tuleap.mylyn.task.core.internal.parser;
+
+import java.text.ParseException;
+import java.util.Date;
+import java.util.TimeZone;
+
+import org.tuleap.mylyn.task.core.internal.util.TuleapCoreKeys;
+import org.tuleap.mylyn.task.core.internal.util.TuleapCoreMessages;
+
+/**
+ * Parser and formatter of the ISO-8601 dates exchanged with Tuleap, which computes the dates from their
+ * fields instead of going through {@link java.text.SimpleDateFormat} and {@link java.util.Calendar}. The
+ * supported formats are:
+ * <ul>
+ * <li>{@code yyyy-MM-dd}, in the default time zone,</li>
+ * <li>{@code yyyy-MM-dd'T'HH:mm:ss'Z'} and {@code yyyy-MM-dd'T'HH:mm:ss.SSS'Z'}, in UTC,</li>
+ * <li>{@code yyyy-MM-dd'T'HH:mm:ss+hh:mm} and {@code yyyy-MM-dd'T'HH:mm:ss.SSS+hh:mm}, where the colon of
+ * the offset is optional.</li>
+ * </ul>
+ * The last timestamps parsed are cached, since the changesets of an artifact often share their timestamp.
+ * This class is thread-safe.
+ *
+ * @author <a href="mailto:laurent.delaigue@obeo.fr">Laurent Delaigue</a>
+ */
+public final class Iso8601Codec {
+
+	/**
+	 * Number of milliseconds in a second.
+	 */
+	private static final long SECOND = 1000L;
+
+	/**
+	 * Number of milliseconds in a minute.
+	 */
+	private static final long MINUTE = 60L * SECOND;
+
+	/**
+	 * Number of milliseconds in an hour.
+	 */
+	private static final long HOUR = 60L * MINUTE;
+
+	/**
+	 * Number of milliseconds in a day.
+	 */
+	private static final long DAY = 24L * HOUR;
+
+	/**
+	 * Number of entries of the cache of timestamps, a power of 2.
+	 */
+	private static final int CACHE_SIZE = 64;
+
+	/**
+	 * The timestamps parsed last, by hash of their text. Entries are immutable, so they can be replaced
+	 * concurrently without locking: a thread sees either an old or a new entry, and the text of the entry
+	 * tells whether it is the one looked for.
+	 */
+	private static final CachedTimestamp[] CACHE = new CachedTimestamp[CACHE_SIZE];
+
+	/**
+	 * Utility classes don't need to (and shouldn't) be instantiated.
+	 */
+	private Iso8601Codec() {
+		// prevents instantiation
+	}
+
+	/**
+	 * Parses a date or a timestamp.
+	 *
+	 * @param text
+	 *            The text to parse, in one of the supported formats
+	 * @return The parsed date.
+	 * @throws ParseException
+	 *             If the text is not in one of the supported formats.
+	 */
+	public static Date parse(String text) throws ParseException {
+		if (text.indexOf('T') > 0) {
+			return new Date(parseTimestamp(text));
+		}
+		return new Date(parseDate(text));
+	}
+
+	/**
+	 * Parses a date without time, which is the midnight of that day in the default time zone.
+	 *
+	 * @param text
+	 *            The text to parse, in {@code yyyy-MM-dd} format
+	 * @return The number of milliseconds since the epoch.
+	 * @throws ParseException
+	 *             If the text is not in the expected format.
+	 */
+	private static long parseDate(String text) throws ParseException {
+		if (text.length() != 10) {
+			throw error(text, Math.min(text.length(), 10));
+		}
+		long local = parseDay(text) * DAY;
+		TimeZone timeZone = TimeZone.getDefault();
+		int offset = timeZone.getOffset(local - timeZone.getRawOffset());
+		long result = local - offset;
+		int actualOffset = timeZone.getOffset(result);
+		if (actualOffset != offset) {
+			// The day starts on the other side of a daylight saving time change
+			result = local - actualOffset;
+		}
+		return result;
+	}
+
+	/**
+	 * Parses a timestamp, from the cache if it has been parsed recently.
+	 *
+	 * @param text
+	 *            The text to parse, in one of the supported timestamp formats
+	 * @return The number of milliseconds since the epoch.
+	 * @throws ParseException
+	 *             If the text is not in one of the supported formats.
+	 */
+	private static long parseTimestamp(String text) throws ParseException {
+		int index = text.hashCode() & (CACHE_SIZE - 1);
+		CachedTimestamp cached = CACHE[index];
+		if (cached != null && cached.text.equals(text)) {
+			return cached.time;
+		}
+		long time = doParseTimestamp(text);
+		CACHE[index] = new CachedTimestamp(text, time);
+		return time;
+	}
+
+	/**
+	 * Parses a timestamp.
+	 *
+	 * @param text
+	 *            The text to parse, in one of the supported timestamp formats
+	 * @return The number of milliseconds since the epoch.
+	 * @throws ParseException
+	 *             If the text is not in one of the supported formats.
+	 */
+	private static long doParseTimestamp(String text) throws ParseException {
+		int length = text.length();
+		if (length < 20 || text.charAt(10) != 'T' || text.charAt(13) != ':' || text.charAt(16) != ':') {
+			throw error(text, Math.min(length, 10));
+		}
+		int hour = parseInt(text, 11, 13);
+		int minute = parseInt(text, 14, 16);
+		int second = parseInt(text, 17, 19);
+		if (hour > 23 || minute > 59 || second > 59) {
+			throw error(text, 11);
+		}
+		long time = parseDay(text) * DAY + hour * HOUR + minute * MINUTE + second * SECOND;
+		int pos = 19;
+		if (text.charAt(pos) == '.') {
+			// Fraction of a second, of which only the milliseconds are kept
+			pos++;
+			int start = pos;
+			int millis = 0;
+			while (pos < length && isDigit(text.charAt(pos))) {
+				if (pos - start < 3) {
+					millis = millis * 10 + text.charAt(pos) - '0';
+				}
+				pos++;
+			}
+			if (pos == start) {
+				throw error(text, pos);
+			}
+			for (int i = pos - start; i < 3; i++) {
+				millis *= 10;
+			}
+			time += millis;
+		}
+		return time - parseOffset(text, pos);
+	}
+
+	/**
+	 * Parses the offset of a timestamp from UTC, which ends the timestamp.
+	 *
+	 * @param text
+	 *            The timestamp
+	 * @param pos
+	 *            The position of the offset in the timestamp
+	 * @return The offset in milliseconds, positive east of Greenwich.
+	 * @throws ParseException
+	 *             If the offset is not {@code Z}, {@code +hh:mm} or {@code +hhmm}, or is followed by other
+	 *             characters.
+	 */
+	private static long parseOffset(String text, int pos) throws ParseException {
+		int length = text.length();
+		if (pos >= length) {
+			throw error(text, pos);
+		}
+		char sign = text.charAt(pos);
+		if (sign == 'Z' && pos + 1 == length) {
+			return 0L;
+		}
+		if (sign != '+' && sign != '-') {
+			throw error(text, pos);
+		}
+		int minutesPos = pos + 3;
+		if (length == pos + 6 && text.charAt(minutesPos) == ':') {
+			minutesPos++;
+		} else if (length != pos + 5) {
+			throw error(text, pos);
+		}
+		int hours = parseInt(text, pos + 1, pos + 3);
+		int minutes = parseInt(text, minutesPos, minutesPos + 2);
+		if (minutes > 59) {
+			throw error(text, minutesPos);
+		}
+		long offset = hours * HOUR + minutes * MINUTE;
+		if (sign == '-') {
+			return -offset;
+		}
+		return offset;
+	}
+
+	/**
+	 * Parses the {@code yyyy-MM-dd} day at the beginning of a date or timestamp.
+	 *
+	 * @param text
+	 *            The date or timestamp, which is at least 10 characters long
+	 * @return The number of days since the epoch.
+	 * @throws ParseException
+	 *             If the day is not in the expected format or does not exist.
+	 */
+	private static long parseDay(String text) throws ParseException {
+		if (text.charAt(4) != '-' || text.charAt(7) != '-') {
+			throw error(text, 4);
+		}
+		int year = parseInt(text, 0, 4);
+		int month = parseInt(text, 5, 7);
+		int day = parseInt(text, 8, 10);
+		if (month < 1 || month > 12) {
+			throw error(text, 5);
+		}
+		if (day < 1 || day > daysInMonth(year, month)) {
+			throw error(text, 8);
+		}
+		return daysSinceEpoch(year, month, day);
+	}
+
+	/**
+	 * Parses a positive integer written with a fixed number of digits.
+	 *
+	 * @param text
+	 *            The text
+	 * @param start
+	 *            The position of the first digit
+	 * @param end
+	 *            The position after the last digit
+	 * @return The integer.
+	 * @throws ParseException
+	 *             If one of the characters is not a digit.
+	 */
+	private static int parseInt(String text, int start, int end) throws ParseException {
+		int result = 0;
+		for (int i = start; i < end; i++) {
+			char c = text.charAt(i);
+			if (!isDigit(c)) {
+				throw error(text, i);
+			}
+			result = result * 10 + c - '0';
+		}
+		return result;
+	}
+
+	/**
+	 * Indicates whether a character is an ASCII digit.
+	 *
+	 * @param c
+	 *            The character
+	 * @return <code>true</code> if and only if the character is between '0' and '9'.
+	 */
+	private static boolean isDigit(char c) {
+		return c >= '0' && c <= '9';
+	}
+
+	/**
+	 * Creates the exception thrown when a text cannot be parsed.
+	 *
+	 * @param text
+	 *            The text
+	 * @param errorOffset
+	 *            The position where the error was found
+	 * @return The exception to throw.
+	 */
+	private static ParseException error(String text, int errorOffset) {
+		return new ParseException(TuleapCoreMessages.getString(TuleapCoreKeys.invalidDate, text),
+				errorOffset);
+	}
+
+	/**
+	 * Formats a date without time, as the day it is in the default time zone.
+	 *
+	 * @param date
+	 *            The date
+	 * @return The date in {@code yyyy-MM-dd} format.
+	 */
+	public static String formatDate(Date date) {
+		long time = date.getTime();
+		long local = time + TimeZone.getDefault().getOffset(time);
+		StringBuilder b = new StringBuilder(10);
+		appendDay(b, floorDiv(local, DAY));
+		return b.toString();
+	}
+
+	/**
+	 * Formats a timestamp in UTC, with milliseconds.
+	 *
+	 * @param date
+	 *            The date
+	 * @return The date in {@code yyyy-MM-dd'T'HH:mm:ss.SSS'Z'} format.
+	 */
+	public static String formatTimestamp(Date date) {
+		long time = date.getTime();
+		long days = floorDiv(time, DAY);
+		long millisOfDay = time - days * DAY;
+		StringBuilder b = new StringBuilder(24);
+		appendDay(b, days);
+		b.append('T');
+		appendPadded(b, (int)(millisOfDay / HOUR), 2);
+		b.append(':');
+		appendPadded(b, (int)(millisOfDay % HOUR / MINUTE), 2);
+		b.append(':');
+		appendPadded(b, (int)(millisOfDay % MINUTE / SECOND), 2);
+		b.append('.');
+		appendPadded(b, (int)(millisOfDay % SECOND), 3);
+		b.append('Z');
+		return b.toString();
+	}
+
+	/**
+	 * Appends a day in {@code yyyy-MM-dd} format.
+	 *
+	 * @param b
+	 *            The builder
+	 * @param days
+	 *            The number of days since the epoch
+	 */
+	private static void appendDay(StringBuilder b, long days) {
+		// Inverse of daysSinceEpoch, in eras of 400 years starting on March 1st
+		long z = days + 719468L;
+		long era;
+		if (z >= 0) {
+			era = z / 146097L;
+		} else {
+			era = (z - 146096L) / 146097L;
+		}
+		long dayOfEra = z - era * 146097L;
+		long yearOfEra = (dayOfEra - dayOfEra / 1460L + dayOfEra / 36524L - dayOfEra / 146096L) / 365L;
+		long dayOfYear = dayOfEra - (365L * yearOfEra + yearOfEra / 4L - yearOfEra / 100L);
+		long shiftedMonth = (5L * dayOfYear + 2L) / 153L;
+		int day = (int)(dayOfYear - (153L * shiftedMonth + 2L) / 5L + 1L);
+		int month;
+		if (shiftedMonth < 10L) {
+			month = (int)shiftedMonth + 3;
+		} else {
+			month = (int)shiftedMonth - 9;
+		}
+		int year = (int)(yearOfEra + era * 400L);
+		if (month <= 2) {
+			year++;
+		}
+		appendPadded(b, year, 4);
+		b.append('-');
+		appendPadded(b, month, 2);
+		b.append('-');
+		appendPadded(b, day, 2);
+	}
+
+	/**
+	 * Appends a positive integer, padded with zeros.
+	 *
+	 * @param b
+	 *            The builder
+	 * @param value
+	 *            The integer
+	 * @param width
+	 *            The minimum number of digits
+	 */
+	private static void appendPadded(StringBuilder b, int value, int width) {
+		int limit = 1;
+		for (int i = 1; i < width; i++) {
+			limit *= 10;
+			if (value < limit) {
+				b.append('0');
+			}
+		}
+		b.append(value);
+	}
+
+	/**
+	 * Computes the number of days between the epoch and a day of the proleptic Gregorian calendar.
+	 *
+	 * @param year
+	 *            The year
+	 * @param month
+	 *            The month, from 1 to 12
+	 * @param day
+	 *            The day of the month
+	 * @return The number of days since the epoch, negative before 1970.
+	 */
+	private static long daysSinceEpoch(int year, int month, int day) {
+		// Years start on March 1st, so that February 29th is the last day of its year
+		long y = year;
+		int shiftedMonth;
+		if (month <= 2) {
+			y--;
+			shiftedMonth = month + 9;
+		} else {
+			shiftedMonth = month - 3;
+		}
+		long era;
+		if (y >= 0) {
+			era = y / 400L;
+		} else {
+			era = (y - 399L) / 400L;
+		}
+		long yearOfEra = y - era * 400L;
+		long dayOfYear = (153L * shiftedMonth + 2L) / 5L + day - 1L;
+		long dayOfEra = yearOfEra * 365L + yearOfEra / 4L - yearOfEra / 100L + dayOfYear;
+		return era * 146097L + dayOfEra - 719468L;
+	}
+
+	/**
+	 * Computes the number of days of a month.
+	 *
+	 * @param year
+	 *            The year
+	 * @param month
+	 *            The month, from 1 to 12
+	 * @return The number of days of the month.
+	 */
+	private static int daysInMonth(int year, int month) {
+		if (month == 2) {
+			if (year % 4 == 0 && (year % 100 != 0 || year % 400 == 0)) {
+				return 29;
+			}
+			return 28;
+		}
+		if (month == 4 || month == 6 || month == 9 || month == 11) {
+			return 30;
+		}
+		return 31;
+	}
+
+	/**
+	 * Divides and rounds towards negative infinity.
+	 *
+	 * @param dividend
+	 *            The dividend
+	 * @param divisor
+	 *            The divisor, positive
+	 * @return The largest integer that is less than or equal to the quotient.
+	 */
+	private static long floorDiv(long dividend, long divisor) {
+		long quotient = dividend / divisor;
+		if (dividend % divisor < 0) {
+			quotient--;
+		}
+		return quotient;
+	}
+
+	/**
+	 * A timestamp and the text it has been parsed from.
+	 *
+	 * @author <a href="mailto:laurent.delaigue@obeo.fr">Laurent Delaigue</a>
+	 */
+	private static final class CachedTimestamp {
+
+		/**
+		 * The text.
+		 */
+		private final String text;
+
+		/**
+		 * The number of milliseconds since the epoch.
+		 */
+		private final long time;
+
+		/**
+		 * Constructor.
+		 *
+		 * @param text
+		 *            The text
+		 * @param time
+		 *            The number of milliseconds since the epoch
+		 */
+		private CachedTimestamp(String text, long time) {
+			this.text = text;
+			this.time = time;
+		}
+	}
+}
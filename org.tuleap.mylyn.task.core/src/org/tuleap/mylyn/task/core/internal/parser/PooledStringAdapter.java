@@ -0,0 +1,74 @@
+/*******************************************************************************
+ * Copyright (c) 2014 Obeo.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.tuleap.mylyn.task.core.internal.parser;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+import org.eclipse.core.runtime.Assert;
+import org.tuleap.mylyn.task.core.internal.util.StringPool;
+
+/**
+ * String JSON TypeAdapter that reads the strings like Gson does, and replaces them by their instance in the
+ * string pool of the repository.
+ *
+ * @author <a href="mailto:laurent.delaigue@obeo.fr">Laurent Delaigue</a>
+ */
+public class PooledStringAdapter extends TypeAdapter<String> {
+
+	/**
+	 * The string pool.
+	 */
+	private final StringPool pool;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param pool
+	 *            The string pool
+	 */
+	public PooledStringAdapter(StringPool pool) {
+		Assert.isNotNull(pool);
+		this.pool = pool;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @see com.google.gson.TypeAdapter#write(com.google.gson.stream.JsonWriter, java.lang.Object)
+	 */
+	@Override
+	public void write(JsonWriter out, String value) throws IOException {
+		out.value(value);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @see com.google.gson.TypeAdapter#read(com.google.gson.stream.JsonReader)
+	 */
+	@Override
+	public String read(JsonReader in) throws IOException {
+		JsonToken token = in.peek();
+		if (token == JsonToken.NULL) {
+			in.nextNull();
+			return null;
+		}
+		if (token == JsonToken.BOOLEAN) {
+			return Boolean.toString(in.nextBoolean());
+		}
+		return pool.get(in.nextString());
+	}
+}
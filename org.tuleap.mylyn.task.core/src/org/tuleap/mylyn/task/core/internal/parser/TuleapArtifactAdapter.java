@@ -0,0 +1,550 @@
+/*******************************************************************************
+ * Copyright (c) 2014 Obeo.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.tuleap.mylyn.task.core.internal.parser;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import org.tuleap.mylyn.task.core.internal.TuleapCoreActivator;
+import org.tuleap.mylyn.task.core.internal.model.data.ArtifactLinkFieldValue;
+import org.tuleap.mylyn.task.core.internal.model.data.AttachmentFieldValue;
+import org.tuleap.mylyn.task.core.internal.model.data.AttachmentValue;
+import org.tuleap.mylyn.task.core.internal.model.data.BoundFieldValue;
+import org.tuleap.mylyn.task.core.internal.model.data.LiteralFieldValue;
+import org.tuleap.mylyn.task.core.internal.model.data.OpenListFieldValue;
+import org.tuleap.mylyn.task.core.internal.model.data.TuleapArtifact;
+import org.tuleap.mylyn.task.core.internal.model.data.TuleapReference;
+import org.tuleap.mylyn.task.core.internal.util.ITuleapConstants;
+import org.tuleap.mylyn.task.core.internal.util.TuleapCoreKeys;
+import org.tuleap.mylyn.task.core.internal.util.TuleapCoreMessages;
+
+/**
+ * Streaming decoder of the JSON representation of a Tuleap artifact. The artifact and its field values are
+ * decoded token by token, straight from the reader, without building the tree of the JSON representation.
+ * <p>
+ * A field value is decoded as:
+ * <ul>
+ * <li>a {@link LiteralFieldValue} if it has a {@code value}, which is ignored unless it is a primitive,</li>
+ * <li>else a {@link BoundFieldValue} if it has a {@code bind_value_id} or numeric
+ * {@code bind_value_ids},</li>
+ * <li>else an {@link OpenListFieldValue} if it has textual {@code bind_value_ids},</li>
+ * <li>else an {@link ArtifactLinkFieldValue} if it has {@code links},</li>
+ * <li>else an {@link AttachmentFieldValue} if it has an array of {@code file_descriptions}.</li>
+ * </ul>
+ * </p>
+ * The artifacts are only read by this adapter, they are written by the {@code TuleapArtifactSerializer}
+ * registered after it. An adapter can be restricted to the values of some fields, the values of the other
+ * fields are then skipped without being decoded.
+ *
+ * @author <a href="mailto:laurent.delaigue@obeo.fr">Laurent Delaigue</a>
+ */
+public class TuleapArtifactAdapter extends TypeAdapter<TuleapArtifact> {
+
+	/**
+	 * The factory to register in a {@link com.google.gson.GsonBuilder}, which provides this adapter for
+	 * {@link TuleapArtifact} only, not for its sub-classes.
+	 */
+	public static final TypeAdapterFactory FACTORY = new TypeAdapterFactory() {
+		@SuppressWarnings("unchecked")
+		@Override
+		public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+			if (type.getRawType() != TuleapArtifact.class) {
+				return null;
+			}
+			return (TypeAdapter<T>)new TuleapArtifactAdapter(gson);
+		}
+	};
+
+	/**
+	 * The adapter of the references to the project and tracker.
+	 */
+	private final TypeAdapter<TuleapReference> referenceAdapter;
+
+	/**
+	 * The adapter of the file descriptions.
+	 */
+	private final TypeAdapter<AttachmentValue> attachmentAdapter;
+
+	/**
+	 * The adapter of the strings, which shares them through the string pool of the repository if any.
+	 */
+	private final TypeAdapter<String> stringAdapter;
+
+	/**
+	 * The adapter used to write artifacts, if nothing else has been registered to write them.
+	 */
+	private final TypeAdapter<TuleapArtifact> writer;
+
+	/**
+	 * The sorted identifiers of the fields whose values are kept, <code>null</code> to keep all of them.
+	 */
+	private final int[] projection;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param gson
+	 *            The Gson that provides the adapters of the nested elements
+	 */
+	public TuleapArtifactAdapter(Gson gson) {
+		this(gson, null);
+	}
+
+	/**
+	 * Constructor of an adapter that only keeps the values of some fields.
+	 *
+	 * @param gson
+	 *            The Gson that provides the adapters of the nested elements
+	 * @param fieldIds
+	 *            The identifiers of the fields whose values are kept, <code>null</code> to keep all of them
+	 */
+	public TuleapArtifactAdapter(Gson gson, int[] fieldIds) {
+		if (fieldIds == null) {
+			this.projection = null;
+		} else {
+			this.projection = fieldIds.clone();
+			Arrays.sort(this.projection);
+		}
+		this.referenceAdapter = gson.getAdapter(TuleapReference.class);
+		this.attachmentAdapter = gson.getAdapter(AttachmentValue.class);
+		this.stringAdapter = gson.getAdapter(String.class);
+		this.writer = gson.getDelegateAdapter(FACTORY, TypeToken.get(TuleapArtifact.class));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @see com.google.gson.TypeAdapter#write(com.google.gson.stream.JsonWriter, java.lang.Object)
+	 */
+	@Override
+	public void write(JsonWriter out, TuleapArtifact value) throws IOException {
+		writer.write(out, value);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @see com.google.gson.TypeAdapter#read(com.google.gson.stream.JsonReader)
+	 */
+	@Override
+	public TuleapArtifact read(JsonReader in) throws IOException {
+		if (in.peek() == JsonToken.NULL) {
+			in.nextNull();
+			return null;
+		}
+		TuleapArtifact artifact = new TuleapArtifact();
+		in.beginObject();
+		while (in.hasNext()) {
+			String name = in.nextName();
+			if (ITuleapConstants.ID.equals(name)) {
+				String id = readString(in);
+				if (id != null) {
+					artifact.setId(Integer.valueOf(id));
+				}
+			} else if (ITuleapConstants.LABEL.equals(name)) {
+				artifact.setLabel(readString(in));
+			} else if (ITuleapConstants.URI.equals(name)) {
+				artifact.setUri(readString(in));
+			} else if (ITuleapConstants.HTML_URL.equals(name)) {
+				artifact.setHtmlUrl(readString(in));
+			} else if (ITuleapConstants.JSON_PROJECT.equals(name)) {
+				artifact.setProject(referenceAdapter.read(in));
+			} else if (ITuleapConstants.JSON_TRACKER.equals(name)) {
+				artifact.setTracker(referenceAdapter.read(in));
+			} else if (ITuleapConstants.SUBMITTED_ON.equals(name)) {
+				artifact.setSubmittedOn(readDate(in));
+			} else if (ITuleapConstants.LAST_MODIFIED_DATE.equals(name)) {
+				artifact.setLastModifiedDate(readDate(in));
+			} else if (ITuleapConstants.SUBMITTED_BY.equals(name)) {
+				JsonToken token = in.peek();
+				if (token == JsonToken.NUMBER || token == JsonToken.STRING) {
+					artifact.setSubmittedBy(in.nextInt());
+				} else {
+					in.skipValue();
+				}
+			} else if (ITuleapConstants.VALUES.equals(name) && in.peek() == JsonToken.BEGIN_ARRAY) {
+				readFieldValues(in, artifact);
+			} else {
+				in.skipValue();
+			}
+		}
+		in.endObject();
+		return artifact;
+	}
+
+	/**
+	 * Reads a textual value.
+	 *
+	 * @param in
+	 *            The reader
+	 * @return The value, <code>null</code> if it is null.
+	 * @throws IOException
+	 *             If the value cannot be read.
+	 */
+	private String readString(JsonReader in) throws IOException {
+		return stringAdapter.read(in);
+	}
+
+	/**
+	 * Reads a date in ISO-8601 format. An invalid date is logged and ignored.
+	 *
+	 * @param in
+	 *            The reader
+	 * @return The date, <code>null</code> if it is null or invalid.
+	 * @throws IOException
+	 *             If the value cannot be read.
+	 */
+	private static Date readDate(JsonReader in) throws IOException {
+		JsonToken token = in.peek();
+		if (token == JsonToken.NULL) {
+			in.nextNull();
+			return null;
+		}
+		if (token == JsonToken.STRING || token == JsonToken.NUMBER || token == JsonToken.BOOLEAN) {
+			String date = in.nextString();
+			try {
+				return DateIso8601Adapter.parseIso8601Date(date);
+			} catch (ParseException e) {
+				TuleapCoreActivator.log(new JsonParseException(e), false);
+				return null;
+			}
+		}
+		in.skipValue();
+		TuleapCoreActivator.log(new JsonParseException(TuleapCoreMessages.getString(
+				TuleapCoreKeys.invalidDate, token.toString())), false);
+		return null;
+	}
+
+	/**
+	 * Two adapters are equal if they keep the values of the same fields, since they then decode the artifacts
+	 * the same way. This lets the retrieval of a list resume from a checkpoint recorded with another
+	 * adapter.
+	 *
+	 * @see java.lang.Object#equals(java.lang.Object)
+	 */
+	@Override
+	public boolean equals(Object obj) {
+		boolean result;
+		if (this == obj) {
+			result = true;
+		} else if (obj == null || obj.getClass() != getClass()) {
+			result = false;
+		} else {
+			result = Arrays.equals(projection, ((TuleapArtifactAdapter)obj).projection);
+		}
+		return result;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @see java.lang.Object#hashCode()
+	 */
+	@Override
+	public int hashCode() {
+		return Arrays.hashCode(projection);
+	}
+
+	/**
+	 * Indicates whether the value of a field is kept.
+	 *
+	 * @param fieldId
+	 *            The identifier of the field
+	 * @return <code>true</code> if the value of the field must be added to the artifact.
+	 */
+	private boolean isProjected(int fieldId) {
+		return projection == null || Arrays.binarySearch(projection, fieldId) >= 0;
+	}
+
+	/**
+	 * Reads the array of the field values of an artifact.
+	 *
+	 * @param in
+	 *            The reader, positioned at the beginning of the array
+	 * @param artifact
+	 *            The artifact to which the field values are added
+	 * @throws IOException
+	 *             If the values cannot be read.
+	 */
+	private void readFieldValues(JsonReader in, TuleapArtifact artifact) throws IOException {
+		FieldValueReader field = new FieldValueReader();
+		in.beginArray();
+		while (in.hasNext()) {
+			field.read(in);
+			field.addTo(artifact);
+		}
+		in.endArray();
+	}
+
+	/**
+	 * Decodes the field values of an artifact one after the other. The members of a field value can come in
+	 * any order, so they are all read before the field value is created.
+	 *
+	 * @author <a href="mailto:laurent.delaigue@obeo.fr">Laurent Delaigue</a>
+	 */
+	private final class FieldValueReader {
+
+		/**
+		 * The identifier of the field.
+		 */
+		private int fieldId;
+
+		/**
+		 * Whether the field value has a {@code value} member.
+		 */
+		private boolean hasValue;
+
+		/**
+		 * The literal value, <code>null</code> if it is not a primitive.
+		 */
+		private String literal;
+
+		/**
+		 * Whether the field value has a non-null {@code bind_value_id} member.
+		 */
+		private boolean hasBindValueId;
+
+		/**
+		 * The single bind value identifier.
+		 */
+		private int bindValueId;
+
+		/**
+		 * The numeric bind value identifiers, <code>null</code> if there are none.
+		 */
+		private int[] bindValueIds;
+
+		/**
+		 * The number of numeric bind value identifiers.
+		 */
+		private int bindValueIdCount;
+
+		/**
+		 * The textual bind value identifiers of an open list, <code>null</code> if there are none.
+		 */
+		private List<String> openListValues;
+
+		/**
+		 * The identifiers of the linked artifacts, <code>null</code> if there are no links.
+		 */
+		private int[] links;
+
+		/**
+		 * The number of linked artifacts.
+		 */
+		private int linkCount;
+
+		/**
+		 * The file descriptions, <code>null</code> if there are none.
+		 */
+		private List<AttachmentValue> attachments;
+
+		/**
+		 * Reads a field value, after forgetting the previous one.
+		 *
+		 * @param in
+		 *            The reader, positioned at the beginning of the field value
+		 * @throws IOException
+		 *             If the field value cannot be read.
+		 */
+		private void read(JsonReader in) throws IOException {
+			fieldId = 0;
+			hasValue = false;
+			literal = null;
+			hasBindValueId = false;
+			bindValueIds = null;
+			bindValueIdCount = 0;
+			openListValues = null;
+			links = null;
+			linkCount = 0;
+			attachments = null;
+			in.beginObject();
+			while (in.hasNext()) {
+				String name = in.nextName();
+				JsonToken token = in.peek();
+				if (token == JsonToken.NULL) {
+					in.nextNull();
+					hasValue |= ITuleapConstants.FIELD_VALUE.equals(name);
+				} else if (ITuleapConstants.FIELD_ID.equals(name)) {
+					fieldId = in.nextInt();
+					if (!isProjected(fieldId)) {
+						skipMembers(in);
+					}
+				} else if (ITuleapConstants.FIELD_VALUE.equals(name)) {
+					hasValue = true;
+					readLiteral(in, token);
+				} else if (ITuleapConstants.FIELD_BIND_VALUE_ID.equals(name)) {
+					hasBindValueId = true;
+					bindValueId = in.nextInt();
+				} else if (ITuleapConstants.FIELD_BIND_VALUE_IDS.equals(name)
+						&& token == JsonToken.BEGIN_ARRAY) {
+					readBindValueIds(in);
+				} else if (ITuleapConstants.FIELD_LINKS.equals(name)) {
+					readLinks(in, token);
+				} else if (ITuleapConstants.FILE_DESCRIPTIONS.equals(name)
+						&& token == JsonToken.BEGIN_ARRAY) {
+					attachments = new ArrayList<AttachmentValue>();
+					in.beginArray();
+					while (in.hasNext()) {
+						attachments.add(attachmentAdapter.read(in));
+					}
+					in.endArray();
+				} else {
+					in.skipValue();
+				}
+			}
+			in.endObject();
+		}
+
+		/**
+		 * Reads the {@code value} member, which is ignored unless it is a primitive.
+		 *
+		 * @param in
+		 *            The reader
+		 * @param token
+		 *            The next token
+		 * @throws IOException
+		 *             If the value cannot be read.
+		 */
+		private void readLiteral(JsonReader in, JsonToken token) throws IOException {
+			if (token == JsonToken.STRING || token == JsonToken.NUMBER || token == JsonToken.BOOLEAN) {
+				// Numbers are kept as they have been written
+				literal = readString(in);
+			} else {
+				in.skipValue();
+			}
+		}
+
+		/**
+		 * Skips the remaining members of a field value that is not kept.
+		 *
+		 * @param in
+		 *            The reader, positioned inside the field value
+		 * @throws IOException
+		 *             If the members cannot be skipped.
+		 */
+		private void skipMembers(JsonReader in) throws IOException {
+			while (in.hasNext()) {
+				in.nextName();
+				in.skipValue();
+			}
+		}
+
+		/**
+		 * Reads the {@code bind_value_ids} array, whose identifiers are textual for open lists.
+		 *
+		 * @param in
+		 *            The reader, positioned at the beginning of the array
+		 * @throws IOException
+		 *             If the identifiers cannot be read.
+		 */
+		private void readBindValueIds(JsonReader in) throws IOException {
+			in.beginArray();
+			if (in.hasNext() && in.peek() == JsonToken.STRING) {
+				openListValues = new ArrayList<String>();
+				while (in.hasNext()) {
+					openListValues.add(readString(in));
+				}
+			} else {
+				bindValueIds = new int[0];
+				while (in.hasNext()) {
+					if (bindValueIdCount == bindValueIds.length) {
+						bindValueIds = Arrays.copyOf(bindValueIds, Math.max(4, bindValueIdCount * 2));
+					}
+					bindValueIds[bindValueIdCount++] = in.nextInt();
+				}
+			}
+			in.endArray();
+		}
+
+		/**
+		 * Reads the {@code links} member, whose elements are references to the linked artifacts.
+		 *
+		 * @param in
+		 *            The reader
+		 * @param token
+		 *            The next token
+		 * @throws IOException
+		 *             If the links cannot be read.
+		 */
+		private void readLinks(JsonReader in, JsonToken token) throws IOException {
+			links = new int[0];
+			if (token != JsonToken.BEGIN_ARRAY) {
+				in.skipValue();
+				return;
+			}
+			in.beginArray();
+			while (in.hasNext()) {
+				in.beginObject();
+				while (in.hasNext()) {
+					if (ITuleapConstants.ID.equals(in.nextName())) {
+						if (linkCount == links.length) {
+							links = Arrays.copyOf(links, Math.max(4, linkCount * 2));
+						}
+						links[linkCount++] = in.nextInt();
+					} else {
+						in.skipValue();
+					}
+				}
+				in.endObject();
+			}
+			in.endArray();
+		}
+
+		/**
+		 * Adds the field value that has been read to an artifact.
+		 *
+		 * @param artifact
+		 *            The artifact
+		 */
+		private void addTo(TuleapArtifact artifact) {
+			if (!isProjected(fieldId)) {
+				return;
+			}
+			if (hasValue) {
+				if (literal != null) {
+					artifact.addFieldValue(new LiteralFieldValue(fieldId, literal));
+				}
+			} else if (hasBindValueId) {
+				artifact.addFieldValue(new BoundFieldValue(fieldId, new int[] {bindValueId }));
+			} else if (openListValues != null) {
+				artifact.addFieldValue(new OpenListFieldValue(fieldId, openListValues));
+			} else if (bindValueIds != null) {
+				int[] values = bindValueIds;
+				if (values.length != bindValueIdCount) {
+					values = Arrays.copyOf(bindValueIds, bindValueIdCount);
+				}
+				artifact.addFieldValue(new BoundFieldValue(fieldId, values));
+			} else if (links != null) {
+				int[] values = links;
+				if (values.length != linkCount) {
+					values = Arrays.copyOf(links, linkCount);
+				}
+				artifact.addFieldValue(new ArtifactLinkFieldValue(fieldId, values));
+			} else if (attachments != null) {
+				artifact.addFieldValue(new AttachmentFieldValue(fieldId, attachments));
+			}
+		}
+	}
+}
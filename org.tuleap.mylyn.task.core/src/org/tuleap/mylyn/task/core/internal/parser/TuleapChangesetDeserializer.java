@@ -76,7 +76,8 @@ public class TuleapChangesetDeserializer implements JsonDeserializer<TuleapEleme
 
 		theElement = jsonObject.get(EMAIL);
 		if (theElement != null && theElement.isJsonPrimitive()) {
-			email = theElement.getAsString();
+			// Through the context, so that the e-mails are shared with the string pool of the repository
+			email = context.deserialize(theElement, String.class);
 		}
 
 		JsonObject lastComment = jsonObject.get(LAST_COMMENT).getAsJsonObject();
@@ -16,7 +16,6 @@ import com.google.gson.GsonBuilder;
 
 import java.util.Date;
 
-import org.tuleap.mylyn.task.core.internal.model.config.TuleapTracker;
 import org.tuleap.mylyn.task.core.internal.model.config.TuleapWorkflowTransition;
 import org.tuleap.mylyn.task.core.internal.model.data.ArtifactLinkFieldValue;
 import org.tuleap.mylyn.task.core.internal.model.data.AttachmentFieldValue;
@@ -32,6 +31,7 @@ import org.tuleap.mylyn.task.core.internal.serializer.LiteralFieldValueSerialize
 import org.tuleap.mylyn.task.core.internal.serializer.TuleapArtifactSerializer;
 import org.tuleap.mylyn.task.core.internal.serializer.TuleapArtifactWithAttachmentSerializer;
 import org.tuleap.mylyn.task.core.internal.serializer.TuleapArtifactWithCommentSerializer;
+import org.tuleap.mylyn.task.core.internal.util.StringPool;
 
 /**
  * Utility class to configure the Gson instance(s) used by the connector for Tuleap.
@@ -57,6 +57,17 @@ public final class TuleapGsonProvider {
 		return defaultBuilder().disableHtmlEscaping().create();
 	}
 
+	/**
+	 * Provides a Gson that is like the default but shares the strings it reads through the given pool.
+	 *
+	 * @param pool
+	 *            The string pool of the repository
+	 * @return A properly configured new instance of Gson.
+	 */
+	public static Gson defaultGson(StringPool pool) {
+		return defaultBuilder(pool).disableHtmlEscaping().create();
+	}
+
 	/**
 	 * Provides a Gson that is like the default but does perform html escaping.
 	 *
@@ -72,13 +83,28 @@ public final class TuleapGsonProvider {
 	 * @return A new instance of GsonBuilder, properly configured for Tuleap.
 	 */
 	public static GsonBuilder defaultBuilder() {
+		return defaultBuilder(null);
+	}
+
+	/**
+	 * Provides the default {@link GsonBuilder}, whose Gson shares the strings it reads through the given
+	 * pool.
+	 *
+	 * @param pool
+	 *            The string pool of the repository, <code>null</code> to keep the strings as they are read
+	 * @return A new instance of GsonBuilder, properly configured for Tuleap.
+	 */
+	public static GsonBuilder defaultBuilder(StringPool pool) {
 		GsonBuilder gsonBuilder = new GsonBuilder();
-		gsonBuilder.registerTypeAdapter(TuleapTracker.class, new TuleapTrackerDeserializer());
+		if (pool != null) {
+			gsonBuilder.registerTypeAdapter(String.class, new PooledStringAdapter(pool));
+		}
+		gsonBuilder.registerTypeAdapterFactory(TuleapTrackerAdapter.FACTORY);
 		gsonBuilder.registerTypeAdapter(TuleapElementComment.class, new TuleapChangesetDeserializer());
 		gsonBuilder.registerTypeAdapter(TuleapWorkflowTransition.class,
 				new TuleapWorkflowTransitionDeserializer());
 		gsonBuilder.registerTypeAdapter(Date.class, new DateIso8601Adapter());
-		gsonBuilder.registerTypeAdapter(TuleapArtifact.class, new TuleapArtifactDeserializer());
+		gsonBuilder.registerTypeAdapterFactory(TuleapArtifactAdapter.FACTORY);
 		gsonBuilder.registerTypeAdapter(TuleapArtifact.class, new TuleapArtifactSerializer());
 		gsonBuilder.registerTypeAdapter(TuleapArtifactWithComment.class,
 				new TuleapArtifactWithCommentSerializer<TuleapArtifactWithComment>());
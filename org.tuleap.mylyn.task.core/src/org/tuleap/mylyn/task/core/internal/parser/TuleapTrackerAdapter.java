@@ -0,0 +1,819 @@
+/*******************************************************************************
+ * Copyright (c) 2014 Obeo.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.tuleap.mylyn.task.core.internal.parser;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import org.tuleap.mylyn.task.core.internal.TuleapCoreActivator;
+import org.tuleap.mylyn.task.core.internal.model.config.AbstractTuleapField;
+import org.tuleap.mylyn.task.core.internal.model.config.ITuleapTrackerConstants;
+import org.tuleap.mylyn.task.core.internal.model.config.TuleapResource;
+import org.tuleap.mylyn.task.core.internal.model.config.TuleapTracker;
+import org.tuleap.mylyn.task.core.internal.model.config.TuleapWorkflowTransition;
+import org.tuleap.mylyn.task.core.internal.model.config.field.AbstractTuleapSelectBox;
+import org.tuleap.mylyn.task.core.internal.model.config.field.TuleapArtifactLink;
+import org.tuleap.mylyn.task.core.internal.model.config.field.TuleapComputedValue;
+import org.tuleap.mylyn.task.core.internal.model.config.field.TuleapDate;
+import org.tuleap.mylyn.task.core.internal.model.config.field.TuleapFileUpload;
+import org.tuleap.mylyn.task.core.internal.model.config.field.TuleapFloat;
+import org.tuleap.mylyn.task.core.internal.model.config.field.TuleapInteger;
+import org.tuleap.mylyn.task.core.internal.model.config.field.TuleapMultiSelectBox;
+import org.tuleap.mylyn.task.core.internal.model.config.field.TuleapOpenList;
+import org.tuleap.mylyn.task.core.internal.model.config.field.TuleapSelectBox;
+import org.tuleap.mylyn.task.core.internal.model.config.field.TuleapSelectBoxItem;
+import org.tuleap.mylyn.task.core.internal.model.config.field.TuleapString;
+import org.tuleap.mylyn.task.core.internal.model.config.field.TuleapText;
+import org.tuleap.mylyn.task.core.internal.util.ITuleapConstants;
+import org.tuleap.mylyn.task.core.internal.util.TuleapCoreKeys;
+import org.tuleap.mylyn.task.core.internal.util.TuleapCoreMessages;
+
+/**
+ * Streaming decoder of the JSON representation of a tracker. The tracker is decoded in a single pass over
+ * the reader, without building the tree of its JSON representation.
+ * <p>
+ * The semantics and the workflow of the tracker can come before or after its fields. They are applied to
+ * each field as soon as both are known, so the fields are only added to the tracker once the whole tracker
+ * has been read, when the semantic of each of them is final.
+ * </p>
+ * The trackers are only read by this adapter, they are written by the reflective adapter of the Gson.
+ *
+ * @author <a href="mailto:laurent.delaigue@obeo.fr">Laurent Delaigue</a>
+ */
+public class TuleapTrackerAdapter extends TypeAdapter<TuleapTracker> {
+
+	/**
+	 * The factory to register in a {@link com.google.gson.GsonBuilder}, which provides this adapter for
+	 * {@link TuleapTracker} only, not for its sub-classes.
+	 */
+	public static final TypeAdapterFactory FACTORY = new TypeAdapterFactory() {
+		@SuppressWarnings("unchecked")
+		@Override
+		public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+			if (type.getRawType() != TuleapTracker.class) {
+				return null;
+			}
+			return (TypeAdapter<T>)new TuleapTrackerAdapter(gson);
+		}
+	};
+
+	/**
+	 * The JSON field for the item name.
+	 */
+	private static final String ITEM_NAME = "item_name"; //$NON-NLS-1$
+
+	/**
+	 * The fields keyword.
+	 */
+	private static final String FIELDS = "fields"; //$NON-NLS-1$
+
+	/**
+	 * The type keyword, of fields and bindings.
+	 */
+	private static final String TYPE = "type"; //$NON-NLS-1$
+
+	/**
+	 * The permissions keyword.
+	 */
+	private static final String PERMISSIONS = "permissions"; //$NON-NLS-1$
+
+	/**
+	 * The create keyword.
+	 */
+	private static final String CREATE = "create"; //$NON-NLS-1$
+
+	/**
+	 * The binding keyword.
+	 */
+	private static final String BINDINGS = "bindings"; //$NON-NLS-1$
+
+	/**
+	 * The title keyword.
+	 */
+	private static final String TITLE = "title"; //$NON-NLS-1$
+
+	/**
+	 * The transitions keyword.
+	 */
+	private static final String TRANSITIONS = "transitions"; //$NON-NLS-1$
+
+	/**
+	 * The contributor keyword.
+	 */
+	private static final String JSON_CONTRIBUTOR = "contributor"; //$NON-NLS-1$
+
+	/**
+	 * The open status values field keyword.
+	 */
+	private static final String JSON_STATUS_IDS = "value_ids"; //$NON-NLS-1$
+
+	/**
+	 * The status keyword.
+	 */
+	private static final String STATUS = "status"; //$NON-NLS-1$
+
+	/**
+	 * Indicates that the user can submit a newly created artifact with the field set.
+	 */
+	private static final String PERMISSION_SUBMIT = "submit"; //$NON-NLS-1$
+
+	/**
+	 * The resources keyword.
+	 */
+	private static final String RESOURCES = "resources"; //$NON-NLS-1$
+
+	/**
+	 * The identifier used when a semantic or the workflow does not concern any field.
+	 */
+	private static final int NO_FIELD = -1;
+
+	/**
+	 * Set of known field types.
+	 */
+	private static final ImmutableSet<String> KNOWN_FIELD_TYPES = ImmutableSet.of(
+			ITuleapTrackerConstants.TYPE_AID, ITuleapTrackerConstants.TYPE_ARTIFACT_LINK,
+			ITuleapTrackerConstants.TYPE_BURNDOWN, ITuleapTrackerConstants.TYPE_CB,
+			ITuleapTrackerConstants.TYPE_COMPUTED, ITuleapTrackerConstants.TYPE_CROSS_REFERENCES,
+			ITuleapTrackerConstants.TYPE_DATE, ITuleapTrackerConstants.TYPE_FILE,
+			ITuleapTrackerConstants.TYPE_FLOAT, ITuleapTrackerConstants.TYPE_INT,
+			ITuleapTrackerConstants.TYPE_LAST_UPDATED_ON, ITuleapTrackerConstants.TYPE_MSB,
+			ITuleapTrackerConstants.TYPE_PERM, ITuleapTrackerConstants.TYPE_SB,
+			ITuleapTrackerConstants.TYPE_STRING, ITuleapTrackerConstants.TYPE_SUBMITTED_BY,
+			ITuleapTrackerConstants.TYPE_SUBMITTED_ON, ITuleapTrackerConstants.TYPE_TBL,
+			ITuleapTrackerConstants.TYPE_TEXT);
+
+	/**
+	 * The adapter of the workflow transitions.
+	 */
+	private final TypeAdapter<TuleapWorkflowTransition> transitionAdapter;
+
+	/**
+	 * The adapter of the resources.
+	 */
+	private final TypeAdapter<TuleapResource> resourceAdapter;
+
+	/**
+	 * The adapter of the strings, which shares them through the string pool of the repository if any.
+	 */
+	private final TypeAdapter<String> stringAdapter;
+
+	/**
+	 * The adapter used to write trackers.
+	 */
+	private final TypeAdapter<TuleapTracker> writer;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param gson
+	 *            The Gson that provides the adapters of the nested elements
+	 */
+	public TuleapTrackerAdapter(Gson gson) {
+		this.transitionAdapter = gson.getAdapter(TuleapWorkflowTransition.class);
+		this.resourceAdapter = gson.getAdapter(TuleapResource.class);
+		this.stringAdapter = gson.getAdapter(String.class);
+		this.writer = gson.getDelegateAdapter(FACTORY, TypeToken.get(TuleapTracker.class));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @see com.google.gson.TypeAdapter#write(com.google.gson.stream.JsonWriter, java.lang.Object)
+	 */
+	@Override
+	public void write(JsonWriter out, TuleapTracker value) throws IOException {
+		writer.write(out, value);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @see com.google.gson.TypeAdapter#read(com.google.gson.stream.JsonReader)
+	 */
+	@Override
+	public TuleapTracker read(JsonReader in) throws IOException {
+		if (in.peek() == JsonToken.NULL) {
+			in.nextNull();
+			return null;
+		}
+		TrackerReader reader = new TrackerReader();
+		reader.read(in);
+		return reader.createTracker();
+	}
+
+	/**
+	 * Reads a textual value.
+	 *
+	 * @param in
+	 *            The reader
+	 * @return The value, <code>null</code> if it is not a primitive.
+	 * @throws IOException
+	 *             If the value cannot be read.
+	 */
+	private String readString(JsonReader in) throws IOException {
+		JsonToken token = in.peek();
+		if (token == JsonToken.STRING || token == JsonToken.NUMBER || token == JsonToken.BOOLEAN) {
+			return stringAdapter.read(in);
+		}
+		in.skipValue();
+		return null;
+	}
+
+	/**
+	 * Reads the {@code field_id} of an object, which identifies the field concerned by a semantic or by the
+	 * workflow.
+	 *
+	 * @param in
+	 *            The reader, positioned on the object
+	 * @return The identifier of the field, {@link #NO_FIELD} if there is none.
+	 * @throws IOException
+	 *             If the object cannot be read.
+	 */
+	private static int readFieldIdOf(JsonReader in) throws IOException {
+		int fieldId = NO_FIELD;
+		if (in.peek() != JsonToken.BEGIN_OBJECT) {
+			in.skipValue();
+			return fieldId;
+		}
+		in.beginObject();
+		while (in.hasNext()) {
+			if (ITuleapConstants.FIELD_ID.equals(in.nextName()) && in.peek() != JsonToken.NULL) {
+				fieldId = in.nextInt();
+			} else {
+				in.skipValue();
+			}
+		}
+		in.endObject();
+		return fieldId;
+	}
+
+	/**
+	 * Creates the right kind of {@link AbstractTuleapField}.
+	 *
+	 * @param fieldId
+	 *            The ID of the field to create
+	 * @param fieldType
+	 *            The JSON type of the field to create
+	 * @return A new instance if the given type is known, or <code>null</code> otherwise.
+	 */
+	private static AbstractTuleapField createField(int fieldId, String fieldType) {
+		AbstractTuleapField tuleapField = null;
+		if (ITuleapTrackerConstants.TYPE_STRING.equals(fieldType)) {
+			tuleapField = new TuleapString(fieldId);
+		} else if (ITuleapTrackerConstants.TYPE_TEXT.equals(fieldType)) {
+			tuleapField = new TuleapText(fieldId);
+		} else if (ITuleapTrackerConstants.TYPE_COMPUTED.equals(fieldType)) {
+			tuleapField = new TuleapComputedValue(fieldId);
+		} else if (ITuleapTrackerConstants.TYPE_SB.equals(fieldType)) {
+			tuleapField = new TuleapSelectBox(fieldId);
+		} else if (ITuleapTrackerConstants.TYPE_MSB.equals(fieldType)) {
+			tuleapField = new TuleapMultiSelectBox(fieldId);
+		} else if (ITuleapTrackerConstants.TYPE_CB.equals(fieldType)) {
+			tuleapField = new TuleapMultiSelectBox(fieldId);
+		} else if (ITuleapTrackerConstants.TYPE_DATE.equals(fieldType)) {
+			tuleapField = new TuleapDate(fieldId);
+		} else if (ITuleapTrackerConstants.TYPE_INT.equals(fieldType)) {
+			tuleapField = new TuleapInteger(fieldId);
+		} else if (ITuleapTrackerConstants.TYPE_FLOAT.equals(fieldType)) {
+			tuleapField = new TuleapFloat(fieldId);
+		} else if (ITuleapTrackerConstants.TYPE_TBL.equals(fieldType)) {
+			tuleapField = new TuleapOpenList(fieldId);
+		} else if (ITuleapTrackerConstants.TYPE_ARTIFACT_LINK.equals(fieldType)) {
+			tuleapField = new TuleapArtifactLink(fieldId);
+		} else if (ITuleapTrackerConstants.TYPE_FILE.equals(fieldType)) {
+			tuleapField = new TuleapFileUpload(fieldId);
+		} else if (!KNOWN_FIELD_TYPES.contains(fieldType)) {
+			TuleapCoreActivator.log(TuleapCoreMessages.getString(TuleapCoreKeys.unsupportedTrackerFieldType,
+					fieldType), false);
+		}
+		return tuleapField;
+	}
+
+	/**
+	 * The state of the decoding of one tracker.
+	 *
+	 * @author <a href="mailto:laurent.delaigue@obeo.fr">Laurent Delaigue</a>
+	 */
+	private final class TrackerReader {
+
+		/**
+		 * The identifier of the tracker.
+		 */
+		private int identifier;
+
+		/**
+		 * The URL of the tracker.
+		 */
+		private String url;
+
+		/**
+		 * The URI of the tracker.
+		 */
+		private String uri;
+
+		/**
+		 * The label of the tracker.
+		 */
+		private String label;
+
+		/**
+		 * The item name of the tracker.
+		 */
+		private String itemName;
+
+		/**
+		 * The description of the tracker.
+		 */
+		private String description;
+
+		/**
+		 * The fields read so far, in their order of appearance.
+		 */
+		private final List<AbstractTuleapField> fields = new ArrayList<AbstractTuleapField>();
+
+		/**
+		 * The resources of the tracker, <code>null</code> if they have not been read.
+		 */
+		private List<TuleapResource> resources;
+
+		/**
+		 * Whether the semantics have been read.
+		 */
+		private boolean hasSemantics;
+
+		/**
+		 * The identifier of the field with the title semantic.
+		 */
+		private int titleFieldId = NO_FIELD;
+
+		/**
+		 * The identifier of the field with the status semantic.
+		 */
+		private int statusFieldId = NO_FIELD;
+
+		/**
+		 * The identifiers of the open statuses.
+		 */
+		private int[] openStatusIds = new int[0];
+
+		/**
+		 * The identifier of the field with the contributor semantic.
+		 */
+		private int contributorFieldId = NO_FIELD;
+
+		/**
+		 * The identifier of the field that has the workflow.
+		 */
+		private int workflowFieldId = NO_FIELD;
+
+		/**
+		 * The transitions of the workflow, <code>null</code> if the workflow has not been read.
+		 */
+		private List<TuleapWorkflowTransition> transitions;
+
+		/**
+		 * Reads the tracker.
+		 *
+		 * @param in
+		 *            The reader, positioned at the beginning of the tracker
+		 * @throws IOException
+		 *             If the tracker cannot be read.
+		 */
+		private void read(JsonReader in) throws IOException {
+			in.beginObject();
+			while (in.hasNext()) {
+				String name = in.nextName();
+				if (ITuleapConstants.ID.equals(name)) {
+					identifier = in.nextInt();
+				} else if (ITuleapConstants.HTML_URL.equals(name)) {
+					url = readString(in);
+				} else if (ITuleapConstants.URI.equals(name)) {
+					uri = readString(in);
+				} else if (ITuleapConstants.LABEL.equals(name)) {
+					label = readString(in);
+				} else if (ITEM_NAME.equals(name)) {
+					itemName = readString(in);
+				} else if (ITuleapConstants.DESCRIPTION.equals(name)) {
+					description = readString(in);
+				} else if (FIELDS.equals(name)) {
+					readFields(in);
+				} else if (ITuleapTrackerConstants.SEMANTICS.equals(name)) {
+					readSemantics(in);
+				} else if (ITuleapTrackerConstants.WORKFLOW.equals(name)) {
+					readWorkflow(in);
+				} else if (RESOURCES.equals(name)) {
+					readResources(in);
+				} else {
+					in.skipValue();
+				}
+			}
+			in.endObject();
+		}
+
+		/**
+		 * Creates the tracker that has been read.
+		 *
+		 * @return The tracker.
+		 */
+		private TuleapTracker createTracker() {
+			TuleapTracker tracker = new TuleapTracker(identifier, url, label, itemName, description,
+					new Date());
+			tracker.setUri(uri);
+			for (AbstractTuleapField field : fields) {
+				tracker.addField(field);
+			}
+			if (resources != null) {
+				tracker.setTrackerResources(resources.toArray(new TuleapResource[resources.size()]));
+			}
+			return tracker;
+		}
+
+		/**
+		 * Reads the fields, which are either in an array or in an object.
+		 *
+		 * @param in
+		 *            The reader
+		 * @throws IOException
+		 *             If the fields cannot be read.
+		 */
+		private void readFields(JsonReader in) throws IOException {
+			JsonToken token = in.peek();
+			if (token == JsonToken.BEGIN_ARRAY) {
+				in.beginArray();
+				while (in.hasNext()) {
+					readField(in);
+				}
+				in.endArray();
+			} else if (token == JsonToken.BEGIN_OBJECT) {
+				in.beginObject();
+				while (in.hasNext()) {
+					in.nextName();
+					readField(in);
+				}
+				in.endObject();
+			} else {
+				in.skipValue();
+			}
+		}
+
+		/**
+		 * Reads a field and resolves its semantics and workflow if they are already known.
+		 *
+		 * @param in
+		 *            The reader, positioned at the beginning of the field
+		 * @throws IOException
+		 *             If the field cannot be read.
+		 */
+		private void readField(JsonReader in) throws IOException {
+			int fieldId = 0;
+			String type = null;
+			String fieldLabel = null;
+			String fieldName = null;
+			String[] permissions = null;
+			List<TuleapSelectBoxItem> items = null;
+			String binding = null;
+			in.beginObject();
+			while (in.hasNext()) {
+				String name = in.nextName();
+				JsonToken token = in.peek();
+				if (token == JsonToken.NULL) {
+					in.nextNull();
+				} else if (ITuleapConstants.FIELD_ID.equals(name)) {
+					fieldId = in.nextInt();
+				} else if (TYPE.equals(name)) {
+					type = readString(in);
+				} else if (ITuleapConstants.LABEL.equals(name)) {
+					fieldLabel = readString(in);
+				} else if (ITuleapConstants.NAME.equals(name)) {
+					fieldName = readString(in);
+				} else if (PERMISSIONS.equals(name) && token == JsonToken.BEGIN_ARRAY) {
+					permissions = readPermissions(in);
+				} else if (ITuleapConstants.VALUES.equals(name) && token == JsonToken.BEGIN_ARRAY) {
+					items = readItems(in);
+				} else if (BINDINGS.equals(name) && token == JsonToken.BEGIN_OBJECT) {
+					binding = readBindingType(in);
+				} else {
+					in.skipValue();
+				}
+			}
+			in.endObject();
+
+			AbstractTuleapField field = createField(fieldId, type);
+			if (field == null) {
+				return;
+			}
+			field.setLabel(fieldLabel);
+			field.setName(fieldName);
+			if (permissions != null) {
+				field.setPermissions(permissions);
+			}
+			if (field instanceof AbstractTuleapSelectBox) {
+				AbstractTuleapSelectBox selectBox = (AbstractTuleapSelectBox)field;
+				if (items != null) {
+					for (TuleapSelectBoxItem item : items) {
+						selectBox.addItem(item);
+					}
+				}
+				if (binding != null) {
+					selectBox.setBinding(binding);
+				}
+			}
+			fields.add(field);
+			if (hasSemantics) {
+				applySemantics(field);
+			}
+			if (transitions != null) {
+				applyWorkflow(field);
+			}
+		}
+
+		/**
+		 * Reads the permissions of a field.
+		 *
+		 * @param in
+		 *            The reader, positioned at the beginning of the array of permissions
+		 * @return The permissions, where the permission to create is the permission to submit.
+		 * @throws IOException
+		 *             If the permissions cannot be read.
+		 */
+		private String[] readPermissions(JsonReader in) throws IOException {
+			List<String> permissions = new ArrayList<String>(3);
+			in.beginArray();
+			while (in.hasNext()) {
+				String permission = readString(in);
+				if (CREATE.equals(permission)) {
+					permissions.add(PERMISSION_SUBMIT);
+				} else {
+					permissions.add(permission);
+				}
+			}
+			in.endArray();
+			return permissions.toArray(new String[permissions.size()]);
+		}
+
+		/**
+		 * Reads the items of a select box.
+		 *
+		 * @param in
+		 *            The reader, positioned at the beginning of the array of items
+		 * @return The items, in their order of appearance.
+		 * @throws IOException
+		 *             If the items cannot be read.
+		 */
+		private List<TuleapSelectBoxItem> readItems(JsonReader in) throws IOException {
+			List<TuleapSelectBoxItem> items = new ArrayList<TuleapSelectBoxItem>();
+			in.beginArray();
+			while (in.hasNext()) {
+				int itemId = 0;
+				String itemLabel = null;
+				in.beginObject();
+				while (in.hasNext()) {
+					String name = in.nextName();
+					if (in.peek() == JsonToken.NULL) {
+						in.nextNull();
+					} else if (ITuleapConstants.ID.equals(name)) {
+						itemId = in.nextInt();
+					} else if (ITuleapConstants.LABEL.equals(name)) {
+						itemLabel = readString(in);
+					} else {
+						in.skipValue();
+					}
+				}
+				in.endObject();
+				TuleapSelectBoxItem item = new TuleapSelectBoxItem(itemId);
+				item.setLabel(itemLabel);
+				items.add(item);
+			}
+			in.endArray();
+			return items;
+		}
+
+		/**
+		 * Reads the type of the binding of a select box.
+		 *
+		 * @param in
+		 *            The reader, positioned at the beginning of the binding
+		 * @return The type of the binding, <code>null</code> if there is none.
+		 * @throws IOException
+		 *             If the binding cannot be read.
+		 */
+		private String readBindingType(JsonReader in) throws IOException {
+			String binding = null;
+			in.beginObject();
+			while (in.hasNext()) {
+				if (TYPE.equals(in.nextName())) {
+					binding = readString(in);
+				} else {
+					in.skipValue();
+				}
+			}
+			in.endObject();
+			return binding;
+		}
+
+		/**
+		 * Reads the semantics and applies them to the fields already read.
+		 *
+		 * @param in
+		 *            The reader
+		 * @throws IOException
+		 *             If the semantics cannot be read.
+		 */
+		private void readSemantics(JsonReader in) throws IOException {
+			if (in.peek() != JsonToken.BEGIN_OBJECT) {
+				in.skipValue();
+				return;
+			}
+			in.beginObject();
+			while (in.hasNext()) {
+				String name = in.nextName();
+				if (TITLE.equals(name)) {
+					titleFieldId = readFieldIdOf(in);
+				} else if (JSON_CONTRIBUTOR.equals(name)) {
+					contributorFieldId = readFieldIdOf(in);
+				} else if (STATUS.equals(name) && in.peek() == JsonToken.BEGIN_OBJECT) {
+					readStatusSemantic(in);
+				} else {
+					in.skipValue();
+				}
+			}
+			in.endObject();
+			hasSemantics = true;
+			for (AbstractTuleapField field : fields) {
+				applySemantics(field);
+			}
+		}
+
+		/**
+		 * Reads the status semantic, which is the identifier of the status field and of its open statuses.
+		 *
+		 * @param in
+		 *            The reader, positioned at the beginning of the status semantic
+		 * @throws IOException
+		 *             If the status semantic cannot be read.
+		 */
+		private void readStatusSemantic(JsonReader in) throws IOException {
+			in.beginObject();
+			while (in.hasNext()) {
+				String name = in.nextName();
+				if (ITuleapConstants.FIELD_ID.equals(name) && in.peek() != JsonToken.NULL) {
+					statusFieldId = in.nextInt();
+				} else if (JSON_STATUS_IDS.equals(name) && in.peek() == JsonToken.BEGIN_ARRAY) {
+					int count = 0;
+					in.beginArray();
+					while (in.hasNext()) {
+						if (count == openStatusIds.length) {
+							int[] grown = new int[Math.max(8, count * 2)];
+							System.arraycopy(openStatusIds, 0, grown, 0, count);
+							openStatusIds = grown;
+						}
+						openStatusIds[count++] = in.nextInt();
+					}
+					in.endArray();
+					if (count != openStatusIds.length) {
+						int[] trimmed = new int[count];
+						System.arraycopy(openStatusIds, 0, trimmed, 0, count);
+						openStatusIds = trimmed;
+					}
+				} else {
+					in.skipValue();
+				}
+			}
+			in.endObject();
+		}
+
+		/**
+		 * Reads the workflow and applies it to the field already read that it concerns.
+		 *
+		 * @param in
+		 *            The reader
+		 * @throws IOException
+		 *             If the workflow cannot be read.
+		 */
+		private void readWorkflow(JsonReader in) throws IOException {
+			if (in.peek() != JsonToken.BEGIN_OBJECT) {
+				in.skipValue();
+				return;
+			}
+			List<TuleapWorkflowTransition> workflowTransitions = new ArrayList<TuleapWorkflowTransition>();
+			in.beginObject();
+			while (in.hasNext()) {
+				String name = in.nextName();
+				if (ITuleapConstants.FIELD_ID.equals(name) && in.peek() != JsonToken.NULL) {
+					workflowFieldId = in.nextInt();
+				} else if (TRANSITIONS.equals(name) && in.peek() == JsonToken.BEGIN_ARRAY) {
+					in.beginArray();
+					while (in.hasNext()) {
+						workflowTransitions.add(transitionAdapter.read(in));
+					}
+					in.endArray();
+				} else {
+					in.skipValue();
+				}
+			}
+			in.endObject();
+			transitions = workflowTransitions;
+			for (AbstractTuleapField field : fields) {
+				applyWorkflow(field);
+			}
+		}
+
+		/**
+		 * Reads the resources of the tracker.
+		 *
+		 * @param in
+		 *            The reader
+		 * @throws IOException
+		 *             If the resources cannot be read.
+		 */
+		private void readResources(JsonReader in) throws IOException {
+			if (in.peek() != JsonToken.BEGIN_ARRAY) {
+				in.skipValue();
+				return;
+			}
+			resources = new ArrayList<TuleapResource>();
+			in.beginArray();
+			while (in.hasNext()) {
+				resources.add(resourceAdapter.read(in));
+			}
+			in.endArray();
+		}
+
+		/**
+		 * Applies the semantics to a field.
+		 *
+		 * @param field
+		 *            The field
+		 */
+		private void applySemantics(AbstractTuleapField field) {
+			int fieldId = field.getIdentifier();
+			if (field instanceof TuleapString) {
+				if (fieldId == titleFieldId) {
+					((TuleapString)field).setSemanticTitle(true);
+				}
+			} else if (field instanceof AbstractTuleapSelectBox) {
+				AbstractTuleapSelectBox selectBox = (AbstractTuleapSelectBox)field;
+				if (fieldId == statusFieldId) {
+					for (TuleapSelectBoxItem item : selectBox.getItems()) {
+						if (isOpenStatus(item.getIdentifier())) {
+							selectBox.getOpenStatus().add(item);
+						}
+					}
+				}
+				if (fieldId == contributorFieldId) {
+					selectBox.setSemanticContributor(true);
+				}
+			}
+		}
+
+		/**
+		 * Indicates whether an item of the status field is an open status.
+		 *
+		 * @param itemId
+		 *            The identifier of the item
+		 * @return <code>true</code> if and only if the item is one of the open statuses.
+		 */
+		private boolean isOpenStatus(int itemId) {
+			for (int openStatusId : openStatusIds) {
+				if (openStatusId == itemId) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		/**
+		 * Adds the workflow transitions to the field, if it is the select box that has the workflow.
+		 *
+		 * @param field
+		 *            The field
+		 */
+		private void applyWorkflow(AbstractTuleapField field) {
+			if (field instanceof TuleapSelectBox && field.getIdentifier() == workflowFieldId) {
+				TuleapSelectBox selectBox = (TuleapSelectBox)field;
+				for (TuleapWorkflowTransition transition : transitions) {
+					selectBox.getWorkflow().addTransition(transition);
+				}
+			}
+		}
+	}
+}
@@ -347,7 +347,11 @@ public class TuleapRepositoryConnector extends AbstractRepositoryConnector imple
 		}
 		ArtifactTaskDataConverter artifactTaskDataConverter = new ArtifactTaskDataConverter(tracker,
 				taskRepository, this);
-		List<TuleapArtifact> artifacts = getRawArtifacts(query, tracker, client, monitor);
+		// With the projection, the query results are partial task data, Mylyn retrieves the complete task
+		// data of the tasks that are opened or have changed
+		boolean partial = Boolean.parseBoolean(taskRepository
+				.getProperty(ITuleapConstants.PROPERTY_QUERY_PROJECTION));
+		List<TuleapArtifact> artifacts = getRawArtifacts(query, tracker, client, partial, monitor);
 		if (artifacts != null) {
 			for (TuleapArtifact artifact : artifacts) {
 				if (monitor != null && monitor.isCanceled()) {
@@ -355,14 +359,16 @@ public class TuleapRepositoryConnector extends AbstractRepositoryConnector imple
 				}
 				TuleapTaskId taskDataId = TuleapTaskId.forArtifact(tracker.getProject().getIdentifier(),
 						artifact.getTracker().getId(), artifact.getId().intValue());
-				try {
-					List<TuleapElementComment> artifactComments = client.getArtifactComments(artifact.getId()
-							.intValue(), server, monitor);
-					for (TuleapElementComment comment : artifactComments) {
-						artifact.addComment(comment);
+				if (!partial) {
+					try {
+						List<TuleapElementComment> artifactComments = client.getArtifactComments(artifact
+								.getId().intValue(), server, monitor);
+						for (TuleapElementComment comment : artifactComments) {
+							artifact.addComment(comment);
+						}
+					} catch (CoreException e) {
+						TuleapCoreActivator.log(e, true);
 					}
-				} catch (CoreException e) {
-					TuleapCoreActivator.log(e, true);
 				}
 
 				TaskAttributeMapper attributeMapper = this.getTaskDataHandler().getAttributeMapper(
@@ -370,6 +376,7 @@ public class TuleapRepositoryConnector extends AbstractRepositoryConnector imple
 				TaskData taskData = new TaskData(attributeMapper, this.getConnectorKind(), taskRepository
 						.getRepositoryUrl(), taskDataId.toString());
 				artifactTaskDataConverter.populateTaskData(taskData, artifact, monitor);
+				taskData.setPartial(partial);
 				try {
 					collector.accept(taskData);
 				} catch (IllegalArgumentException exception) {
@@ -389,6 +396,8 @@ public class TuleapRepositoryConnector extends AbstractRepositoryConnector imple
 	 *            The tracker
 	 * @param client
 	 *            The Client to use.
+	 * @param summaries
+	 *            <code>true</code> to retrieve the values of the semantic fields only
 	 * @param monitor
 	 *            The progress monitor
 	 * @throws CoreException
@@ -396,15 +405,23 @@ public class TuleapRepositoryConnector extends AbstractRepositoryConnector imple
 	 * @return The list of artifacts, without their comments.
 	 */
 	private List<TuleapArtifact> getRawArtifacts(IRepositoryQuery query, TuleapTracker tracker,
-			TuleapRestClient client, IProgressMonitor monitor) throws CoreException {
+			TuleapRestClient client, boolean summaries, IProgressMonitor monitor) throws CoreException {
 		List<TuleapArtifact> artifacts = null;
 		String queryKind = query.getAttribute(ITuleapQueryConstants.QUERY_KIND);
 		if (ITuleapQueryConstants.QUERY_KIND_REPORT.equals(queryKind)) {
 			String queryReportId = query.getAttribute(ITuleapQueryConstants.QUERY_REPORT_ID);
 			int reportId = Integer.valueOf(queryReportId).intValue();
-			artifacts = client.getTrackerReportArtifacts(reportId, monitor);
+			if (summaries) {
+				artifacts = client.getTrackerReportArtifactSummaries(reportId, tracker, monitor);
+			} else {
+				artifacts = client.getTrackerReportArtifacts(reportId, monitor);
+			}
 		} else if (ITuleapQueryConstants.QUERY_KIND_CUSTOM.equals(queryKind)) {
-			artifacts = client.getArtifactsFromQuery(query, tracker, monitor);
+			if (summaries) {
+				artifacts = client.getArtifactSummariesFromQuery(query, tracker, monitor);
+			} else {
+				artifacts = client.getArtifactsFromQuery(query, tracker, monitor);
+			}
 		} else {
 			throw new CoreException(new Status(IStatus.ERROR, TuleapCoreActivator.PLUGIN_ID,
 					"Invalid state: unknown query kind.")); //$NON-NLS-1$
@@ -716,5 +733,8 @@ public class TuleapRepositoryConnector extends AbstractRepositoryConnector imple
 	 */
 	public void stop() {
 		this.writeRepositoryConfigFile();
+		if (clientManager != null) {
+			clientManager.saveValidationCaches();
+		}
 	}
 }
@@ -25,6 +25,7 @@ import org.eclipse.mylyn.tasks.core.data.AbstractTaskDataHandler;
 import org.eclipse.mylyn.tasks.core.data.TaskAttribute;
 import org.eclipse.mylyn.tasks.core.data.TaskAttributeMapper;
 import org.eclipse.mylyn.tasks.core.data.TaskData;
+import org.tuleap.mylyn.task.core.internal.client.rest.RequestThrottle;
 import org.tuleap.mylyn.task.core.internal.client.rest.TuleapRestClient;
 import org.tuleap.mylyn.task.core.internal.data.TuleapArtifactMapper;
 import org.tuleap.mylyn.task.core.internal.data.TuleapTaskId;
@@ -190,21 +191,27 @@ public class TuleapTaskDataHandler extends AbstractTaskDataHandler {
 	 */
 	public TaskData getTaskData(TaskRepository taskRepository, TuleapTaskId taskId, IProgressMonitor monitor)
 			throws CoreException {
-		TuleapServer server = this.connector.getServer(taskRepository);
+		// The user is waiting for this task, its requests go before those of the background synchronizations
+		boolean wasForeground = RequestThrottle.setForeground(true);
+		try {
+			TuleapServer server = this.connector.getServer(taskRepository);
 
-		int trackerId = taskId.getTrackerId();
+			int trackerId = taskId.getTrackerId();
 
-		TaskData taskData = null;
-		if (trackerId == -1 && taskId.getArtifactId() == -1) {
-			// Workaround linked artifacts v1.0
-			// The taskId's projectId is actually the artifact id
-			TuleapTaskId actualTaskId = TuleapTaskId.forArtifact(-1, -1, taskId.getProjectId());
-			taskData = this.getArtifactTaskData(actualTaskId, server, taskRepository, true, monitor);
-		} else {
-			taskData = this.getArtifactTaskData(taskId, server, taskRepository, false, monitor);
-		}
+			TaskData taskData = null;
+			if (trackerId == -1 && taskId.getArtifactId() == -1) {
+				// Workaround linked artifacts v1.0
+				// The taskId's projectId is actually the artifact id
+				TuleapTaskId actualTaskId = TuleapTaskId.forArtifact(-1, -1, taskId.getProjectId());
+				taskData = this.getArtifactTaskData(actualTaskId, server, taskRepository, true, monitor);
+			} else {
+				taskData = this.getArtifactTaskData(taskId, server, taskRepository, false, monitor);
+			}
 
-		return taskData;
+			return taskData;
+		} finally {
+			RequestThrottle.setForeground(wasForeground);
+		}
 	}
 
 	/**
@@ -60,7 +60,7 @@ public abstract class AbstractTuleapSerializer<T extends AbstractTuleapConfigura
 						fieldValue = new ArtifactLinkFieldValue(field.getIdentifier(), null);
 					} else if (field instanceof TuleapOpenList || field instanceof TuleapSelectBox
 							|| field instanceof TuleapMultiSelectBox) {
-						fieldValue = new BoundFieldValue(field.getIdentifier(), null);
+						fieldValue = new BoundFieldValue(field.getIdentifier(), new int[0]);
 					} else {
 						fieldValue = new LiteralFieldValue(field.getIdentifier(), null);
 					}
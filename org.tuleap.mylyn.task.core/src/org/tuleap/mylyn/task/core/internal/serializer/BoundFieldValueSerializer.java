@@ -40,8 +40,8 @@ public class BoundFieldValueSerializer implements JsonSerializer<BoundFieldValue
 		JsonObject result = new JsonObject();
 		result.add(ITuleapConstants.FIELD_ID, new JsonPrimitive(Integer.valueOf(src.getFieldId())));
 		JsonElement fieldValues = new JsonArray();
-		for (Integer valueId : src.getValueIds()) {
-			fieldValues.getAsJsonArray().add(new JsonPrimitive(valueId));
+		for (int i = 0; i < src.getValueIdCount(); i++) {
+			fieldValues.getAsJsonArray().add(new JsonPrimitive(Integer.valueOf(src.getValueId(i))));
 		}
 		result.add(ITuleapConstants.FIELD_BIND_VALUE_IDS, fieldValues);
 		return result;
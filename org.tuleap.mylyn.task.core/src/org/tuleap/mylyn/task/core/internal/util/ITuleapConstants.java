@@ -223,6 +223,118 @@ public interface ITuleapConstants {
 	 */
 	String TULEAP_PREFERENCE_DEBUG_MODE = "tuleap_preference_debug_mode"; //$NON-NLS-1$
 
+	/**
+	 * The key of the task repository property that enables the gzip compression of large request bodies.
+	 */
+	String PROPERTY_COMPRESS_REQUESTS = "tuleap_compress_requests"; //$NON-NLS-1$
+
+	/**
+	 * The key of the task repository property that sets the maximum number of asynchronous requests in
+	 * flight for the repository.
+	 */
+	String PROPERTY_MAX_IN_FLIGHT_REQUESTS = "tuleap_max_in_flight_requests"; //$NON-NLS-1$
+
+	/**
+	 * The key of the task repository property that sets the maximum number of attempts of the requests
+	 * that fail, 1 to disable the retries.
+	 */
+	String PROPERTY_MAX_REQUEST_ATTEMPTS = "tuleap_max_request_attempts"; //$NON-NLS-1$
+
+	/**
+	 * The key of the task repository property that disables the circuit breaker of the repository host
+	 * when set to "false".
+	 */
+	String PROPERTY_CIRCUIT_BREAKER = "tuleap_circuit_breaker"; //$NON-NLS-1$
+
+	/**
+	 * The key of the task repository property that sets the maximum rate of the requests sent to the
+	 * repository, in requests per second, such as "20". The requests are not throttled when it is not set
+	 * or set to 0.
+	 */
+	String PROPERTY_REQUEST_RATE = "tuleap_request_rate"; //$NON-NLS-1$
+
+	/**
+	 * The key of the task repository property that sets the maximum number of requests that can be sent at
+	 * once to the repository, before the rate applies. It is only used when the rate is set, and defaults to
+	 * {@link org.tuleap.mylyn.task.core.internal.client.rest.RequestThrottle#DEFAULT_BURST}.
+	 */
+	String PROPERTY_REQUEST_BURST = "tuleap_request_burst"; //$NON-NLS-1$
+
+	/**
+	 * The key of the task repository property that sets the lifetime of the authentication tokens, in
+	 * minutes, after which they are renewed before being sent.
+	 */
+	String PROPERTY_TOKEN_LIFETIME = "tuleap_token_lifetime"; //$NON-NLS-1$
+
+	/**
+	 * The key of the task repository property that sets the proportion of the successful requests traced
+	 * in debug mode, between 0 and 1. The failed requests are always traced.
+	 */
+	String PROPERTY_TRACE_SAMPLING_RATE = "tuleap_trace_sampling_rate"; //$NON-NLS-1$
+
+	/**
+	 * The key of the task repository property that sets the maximum number of characters of the request
+	 * and response bodies traced in debug mode.
+	 */
+	String PROPERTY_TRACE_MAX_BODY_LENGTH = "tuleap_trace_max_body_length"; //$NON-NLS-1$
+
+	/**
+	 * The key of the task repository property that selects the HTTP client used to send the requests, either
+	 * {@link #REST_CONNECTOR_HTTPCLIENT} (the default), {@link #REST_CONNECTOR_URLCONNECTION} or
+	 * {@link #REST_CONNECTOR_REPLAY}.
+	 */
+	String PROPERTY_REST_CONNECTOR = "tuleap_rest_connector"; //$NON-NLS-1$
+
+	/**
+	 * The value of the {@link #PROPERTY_REST_CONNECTOR} property that selects commons-httpclient.
+	 */
+	String REST_CONNECTOR_HTTPCLIENT = "httpclient"; //$NON-NLS-1$
+
+	/**
+	 * The value of the {@link #PROPERTY_REST_CONNECTOR} property that selects the HTTP client of the JDK. It
+	 * is ignored for the repositories whose proxy requires credentials, and does not use the SSL settings
+	 * of Mylyn.
+	 */
+	String REST_CONNECTOR_URLCONNECTION = "urlconnection"; //$NON-NLS-1$
+
+	/**
+	 * The value of the {@link #PROPERTY_REST_CONNECTOR} property that answers the requests with the
+	 * responses recorded in the archive of the {@link #PROPERTY_REST_ARCHIVE} property, without any server.
+	 */
+	String REST_CONNECTOR_REPLAY = "replay"; //$NON-NLS-1$
+
+	/**
+	 * The key of the task repository property that sets the path of the archive of REST exchanges. The
+	 * requests sent to the server and their responses are recorded in this archive, unless the
+	 * {@link #PROPERTY_REST_CONNECTOR} property selects the {@link #REST_CONNECTOR_REPLAY replay}.
+	 */
+	String PROPERTY_REST_ARCHIVE = "tuleap_rest_archive"; //$NON-NLS-1$
+
+	/**
+	 * The key of the task repository property that sets the factor applied to the recorded latencies when
+	 * an archive is replayed, 0 to answer immediately.
+	 */
+	String PROPERTY_REPLAY_LATENCY_SCALE = "tuleap_replay_latency_scale"; //$NON-NLS-1$
+
+	/**
+	 * The key of the task repository property that sets the maximum number of pages of a paginated list
+	 * fetched ahead while the list is iterated, 0 to fetch the pages one at a time.
+	 */
+	String PROPERTY_PAGE_PREFETCH = "tuleap_page_prefetch"; //$NON-NLS-1$
+
+	/**
+	 * The key of the task repository property that disables the adaptive size of the pages of the paginated
+	 * lists when set to "false". The pages then contain as many elements as the server allows.
+	 */
+	String PROPERTY_ADAPTIVE_PAGE_SIZE = "tuleap_adaptive_page_size"; //$NON-NLS-1$
+
+	/**
+	 * The key of the task repository property that makes the queries retrieve the values of the semantic
+	 * fields only when set to "true". The task data of the query results are then partial, and the complete
+	 * task data are retrieved when the tasks are opened or have changed.
+	 */
+	String PROPERTY_QUERY_PROJECTION = "tuleap_query_projection"; //$NON-NLS-1$
+
 	/**
 	 * The key used for the Tuleap tracker reference.
 	 */
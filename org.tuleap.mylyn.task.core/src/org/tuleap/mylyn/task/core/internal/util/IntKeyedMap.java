@@ -0,0 +1,249 @@
+/*******************************************************************************
+ * Copyright (c) 2014 Obeo.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.tuleap.mylyn.task.core.internal.util;
+
+import java.io.Serializable;
+import java.util.AbstractCollection;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Map whose keys are primitive integers, that does not box its keys nor allocate an entry per mapping.
+ * <p>
+ * The keys and values are stored in two arrays, in insertion order, and an open-addressing table with linear
+ * probing gives the position of each key in these arrays. Mappings cannot be removed. This class is not
+ * thread-safe.
+ * </p>
+ *
+ * @param <V>
+ *            The type of the values
+ * @author <a href="mailto:laurent.delaigue@obeo.fr">Laurent Delaigue</a>
+ */
+public final class IntKeyedMap<V> implements Serializable {
+
+	/**
+	 * The serial version UID.
+	 */
+	private static final long serialVersionUID = -3197536813466474425L;
+
+	/**
+	 * The initial number of mappings that can be stored without growing.
+	 */
+	private static final int INITIAL_CAPACITY = 8;
+
+	/**
+	 * Multiplier used to spread the keys over the table.
+	 */
+	private static final int HASH_MULTIPLIER = 0x9E3779B9;
+
+	/**
+	 * The keys, in insertion order.
+	 */
+	private int[] keys;
+
+	/**
+	 * The values, at the same positions as their keys.
+	 */
+	private Object[] values;
+
+	/**
+	 * The number of mappings.
+	 */
+	private int size;
+
+	/**
+	 * The open-addressing table, that contains the position of each key plus one, 0 for free slots. Its
+	 * length is a power of 2, twice the length of the keys.
+	 */
+	private int[] table;
+
+	/**
+	 * Constructor.
+	 */
+	public IntKeyedMap() {
+		keys = new int[INITIAL_CAPACITY];
+		values = new Object[INITIAL_CAPACITY];
+		table = new int[INITIAL_CAPACITY * 2];
+	}
+
+	/**
+	 * Associates a value to a key, replacing the value previously associated to this key if any.
+	 *
+	 * @param key
+	 *            The key
+	 * @param value
+	 *            The value
+	 * @return The value previously associated to the key, or <code>null</code> if there was none.
+	 */
+	public V put(int key, V value) {
+		int slot = slotOf(key);
+		int position = table[slot] - 1;
+		if (position >= 0) {
+			V previous = valueAt(position);
+			values[position] = value;
+			return previous;
+		}
+		if (size == keys.length) {
+			grow();
+			slot = slotOf(key);
+		}
+		keys[size] = key;
+		values[size] = value;
+		size++;
+		table[slot] = size;
+		return null;
+	}
+
+	/**
+	 * Provides the value associated to a key.
+	 *
+	 * @param key
+	 *            The key
+	 * @return The value associated to the key, or <code>null</code> if there is none.
+	 */
+	public V get(int key) {
+		int position = table[slotOf(key)] - 1;
+		if (position >= 0) {
+			return valueAt(position);
+		}
+		return null;
+	}
+
+	/**
+	 * Indicates whether a value is associated to a key.
+	 *
+	 * @param key
+	 *            The key
+	 * @return <code>true</code> if and only if a value is associated to the key.
+	 */
+	public boolean containsKey(int key) {
+		return table[slotOf(key)] != 0;
+	}
+
+	/**
+	 * Provides the number of mappings.
+	 *
+	 * @return The number of mappings.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Provides a view of the values, in the order in which their keys have been added. The view reflects the
+	 * mappings added afterwards, and cannot be used to remove mappings.
+	 *
+	 * @return A view of the values.
+	 */
+	public Collection<V> values() {
+		return new AbstractCollection<V>() {
+			@Override
+			public Iterator<V> iterator() {
+				return new ValueIterator();
+			}
+
+			@Override
+			public int size() {
+				return size;
+			}
+		};
+	}
+
+	/**
+	 * Provides the value at a given position.
+	 *
+	 * @param position
+	 *            The position
+	 * @return The value at the given position.
+	 */
+	@SuppressWarnings("unchecked")
+	private V valueAt(int position) {
+		return (V)values[position];
+	}
+
+	/**
+	 * Computes the slot of the table that contains, or would contain, a key.
+	 *
+	 * @param key
+	 *            The key
+	 * @return The slot of the key, or the free slot where it would be added.
+	 */
+	private int slotOf(int key) {
+		int mask = table.length - 1;
+		int hash = key * HASH_MULTIPLIER;
+		int slot = (hash ^ (hash >>> 16)) & mask;
+		while (table[slot] != 0 && keys[table[slot] - 1] != key) {
+			slot = (slot + 1) & mask;
+		}
+		return slot;
+	}
+
+	/**
+	 * Doubles the capacity of the map and re-computes the table.
+	 */
+	private void grow() {
+		int capacity = keys.length * 2;
+		keys = Arrays.copyOf(keys, capacity);
+		values = Arrays.copyOf(values, capacity);
+		table = new int[capacity * 2];
+		for (int position = 0; position < size; position++) {
+			table[slotOf(keys[position])] = position + 1;
+		}
+	}
+
+	/**
+	 * Iterator over the values.
+	 *
+	 * @author <a href="mailto:laurent.delaigue@obeo.fr">Laurent Delaigue</a>
+	 */
+	private final class ValueIterator implements Iterator<V> {
+
+		/**
+		 * The position of the next value.
+		 */
+		private int next;
+
+		/**
+		 * {@inheritDoc}
+		 *
+		 * @see java.util.Iterator#hasNext()
+		 */
+		@Override
+		public boolean hasNext() {
+			return next < size;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 *
+		 * @see java.util.Iterator#next()
+		 */
+		@Override
+		public V next() {
+			if (next >= size) {
+				throw new NoSuchElementException();
+			}
+			return valueAt(next++);
+		}
+
+		/**
+		 * {@inheritDoc}
+		 *
+		 * @see java.util.Iterator#remove()
+		 */
+		@Override
+		public void remove() {
+			throw new UnsupportedOperationException();
+		}
+	}
+}
@@ -0,0 +1,104 @@
+/*******************************************************************************
+ * Copyright (c) 2014 Obeo.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.tuleap.mylyn.task.core.internal.util;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Pool of the strings that repeat across the elements retrieved from a repository, like labels, names, user
+ * names, e-mails, URIs and MIME types, so that all the elements share a single instance of each of them.
+ * <p>
+ * The strings are weakly referenced, they are forgotten once no element uses them anymore. Only short
+ * strings are pooled, long ones like comments and descriptions are rarely repeated. This class is
+ * thread-safe.
+ * </p>
+ *
+ * @author <a href="mailto:laurent.delaigue@obeo.fr">Laurent Delaigue</a>
+ */
+public final class StringPool {
+
+	/**
+	 * Default maximum length of the pooled strings.
+	 */
+	public static final int DEFAULT_MAX_LENGTH = 256;
+
+	/**
+	 * The pools, by repository URL.
+	 */
+	private static final Map<String, StringPool> REPOSITORIES = new HashMap<String, StringPool>();
+
+	/**
+	 * The maximum length of the pooled strings.
+	 */
+	private final int maxLength;
+
+	/**
+	 * The canonical instances of the strings.
+	 */
+	private final Interner<String> interner = Interners.newWeakInterner();
+
+	/**
+	 * Constructor.
+	 *
+	 * @param maxLength
+	 *            The maximum length of the pooled strings, longer strings are used as they are
+	 */
+	public StringPool(int maxLength) {
+		this.maxLength = maxLength;
+	}
+
+	/**
+	 * Provides the pool of the given repository.
+	 *
+	 * @param repositoryUrl
+	 *            The URL of the repository
+	 * @return The pool of the repository, created the first time it is needed.
+	 */
+	public static StringPool forUrl(String repositoryUrl) {
+		synchronized (REPOSITORIES) {
+			StringPool result = REPOSITORIES.get(repositoryUrl);
+			if (result == null) {
+				result = new StringPool(DEFAULT_MAX_LENGTH);
+				REPOSITORIES.put(repositoryUrl, result);
+			}
+			return result;
+		}
+	}
+
+	/**
+	 * Forgets the pools of all the repositories.
+	 */
+	public static void resetAll() {
+		synchronized (REPOSITORIES) {
+			REPOSITORIES.clear();
+		}
+	}
+
+	/**
+	 * Provides the pooled instance of a string.
+	 *
+	 * @param value
+	 *            The string, can be <code>null</code>
+	 * @return The instance of the pool that is equal to the given string, which becomes the pooled instance
+	 *         if there is none, or the given string itself if it is <code>null</code> or too long to be
+	 *         pooled.
+	 */
+	public String get(String value) {
+		if (value == null || value.length() > maxLength) {
+			return value;
+		}
+		return interner.intern(value);
+	}
+}
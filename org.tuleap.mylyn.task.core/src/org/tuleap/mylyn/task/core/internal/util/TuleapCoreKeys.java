@@ -375,6 +375,20 @@ public class TuleapCoreKeys extends NLS {
 	 */
 	public static String communicationError;
 
+	/**
+	 * Error reported when a request is rejected because the circuit breaker of the host is open. A parameter,
+	 * the host.
+	 */
+	public static String circuitOpen;
+
+	/**
+	 * Warning logged when REST traces have been dropped because the log could not keep up. 1 parameter:
+	 * <ol>
+	 * <li>The number of dropped traces (long)</li>
+	 * </ol>
+	 */
+	public static String restTracesDropped;
+
 	/**
 	 * Label used for a select box entry that represents "unselected".
 	 */
@@ -451,6 +465,37 @@ public class TuleapCoreKeys extends NLS {
 	 */
 	public static String notAllowedToUploadAttachment;
 
+	/**
+	 * The cache of validated responses cannot be loaded. 1 parameter : the path of the file.
+	 */
+	public static String cannotLoadValidationCache;
+
+	/**
+	 * The cache of validated responses cannot be saved. 1 parameter : the path of the file.
+	 */
+	public static String cannotSaveValidationCache;
+
+	/**
+	 * A file is not an archive of REST exchanges, or is corrupted. No parameter.
+	 */
+	public static String invalidRestArchive;
+
+	/**
+	 * The REST exchanges cannot be recorded. 1 parameter : the path of the archive.
+	 */
+	public static String cannotRecordRestExchanges;
+
+	/**
+	 * An archive of REST exchanges cannot be replayed. 1 parameter : the path of the archive.
+	 */
+	public static String cannotReplayRestArchive;
+
+	/**
+	 * The HTTP client of the JDK does not support the settings of a repository. 1 parameter : the URL of the
+	 * repository.
+	 */
+	public static String urlConnectionUnsupported;
+
 	static {
 		// load message values from bundle file
 		reloadMessages();
@@ -132,6 +132,26 @@ public class TuleapUIKeys extends NLS {
 	 */
 	public static String tuleapQueryInvalidCriteria;
 
+	/**
+	 * Live preview of the number of artifacts that match a query. {0} The number of artifacts.
+	 */
+	public static String tuleapQueryResultCount;
+
+	/**
+	 * Live preview of the number of artifacts that match a query, while they are being counted.
+	 */
+	public static String tuleapQueryResultCountInProgress;
+
+	/**
+	 * Live preview of the number of artifacts that match a query, when they cannot be counted.
+	 */
+	public static String tuleapQueryResultCountUnavailable;
+
+	/**
+	 * Name of the job that counts the artifacts that match a query.
+	 */
+	public static String tuleapQueryResultCountJob;
+
 	/**
 	 * Message for invalid input in integer query criterion field.
 	 */
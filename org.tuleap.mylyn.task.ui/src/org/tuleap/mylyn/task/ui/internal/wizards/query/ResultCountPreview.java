@@ -0,0 +1,226 @@
+/*******************************************************************************
+ * Copyright (c) 2014 Obeo.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Obeo - initial API and implementation
+ *******************************************************************************/
+package org.tuleap.mylyn.task.ui.internal.wizards.query;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.jface.layout.GridDataFactory;
+import org.eclipse.mylyn.tasks.core.TaskRepository;
+import org.eclipse.mylyn.tasks.ui.TasksUi;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.events.DisposeEvent;
+import org.eclipse.swt.events.DisposeListener;
+import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.swt.widgets.Label;
+import org.tuleap.mylyn.task.core.internal.client.rest.TuleapRestClient;
+import org.tuleap.mylyn.task.core.internal.repository.ITuleapRepositoryConnector;
+import org.tuleap.mylyn.task.ui.internal.TuleapTasksUIPlugin;
+import org.tuleap.mylyn.task.ui.internal.util.TuleapUIKeys;
+import org.tuleap.mylyn.task.ui.internal.util.TuleapUIMessages;
+
+/**
+ * Label of a query wizard page that shows the number of artifacts that match the query being edited. The
+ * artifacts are counted in the background, a short time after the last modification of the query, so that
+ * the server is not asked for each keystroke, and the label is updated once they have been counted.
+ *
+ * @author <a href="mailto:laurent.delaigue@obeo.fr">Laurent Delaigue</a>
+ */
+public class ResultCountPreview {
+
+	/**
+	 * The delay between a modification of the query and the count of its artifacts, in milliseconds.
+	 */
+	private static final long DELAY = 500L;
+
+	/**
+	 * The label that shows the number of artifacts.
+	 */
+	private final Label label;
+
+	/**
+	 * The display of the label.
+	 */
+	private final Display display;
+
+	/**
+	 * The task repository.
+	 */
+	private final TaskRepository taskRepository;
+
+	/**
+	 * The job that counts the artifacts.
+	 */
+	private final CountJob job;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param parent
+	 *            The composite in which the label is created
+	 * @param taskRepository
+	 *            The task repository
+	 */
+	public ResultCountPreview(Composite parent, TaskRepository taskRepository) {
+		this.taskRepository = taskRepository;
+		this.label = new Label(parent, SWT.NONE);
+		this.display = parent.getDisplay();
+		GridDataFactory.fillDefaults().align(SWT.FILL, SWT.CENTER).grab(true, false).applyTo(label);
+		this.job = new CountJob();
+		label.addDisposeListener(new DisposeListener() {
+			@Override
+			public void widgetDisposed(DisposeEvent e) {
+				job.cancel();
+			}
+		});
+	}
+
+	/**
+	 * Counts the artifacts again, a short time after the last call, and shows their number.
+	 *
+	 * @param counter
+	 *            The counter of the artifacts of the query as it is now
+	 */
+	public void refresh(ICounter counter) {
+		job.cancel();
+		job.setCounter(counter);
+		label.setText(TuleapUIMessages.getString(TuleapUIKeys.tuleapQueryResultCountInProgress));
+		job.schedule(DELAY);
+	}
+
+	/**
+	 * Stops counting the artifacts, when the query is invalid, and clears the label.
+	 */
+	public void clear() {
+		job.cancel();
+		label.setText(""); //$NON-NLS-1$
+	}
+
+	/**
+	 * Shows a text in the label, unless it has been disposed.
+	 *
+	 * @param text
+	 *            The text to show
+	 */
+	private void show(final String text) {
+		if (display.isDisposed()) {
+			return;
+		}
+		display.asyncExec(new Runnable() {
+			@Override
+			public void run() {
+				if (!label.isDisposed()) {
+					label.setText(text);
+					label.getParent().layout();
+				}
+			}
+		});
+	}
+
+	/**
+	 * Provides the REST client of the task repository.
+	 *
+	 * @return The REST client, <code>null</code> if the repository is not a Tuleap repository.
+	 */
+	private TuleapRestClient getRestClient() {
+		Object connector = TasksUi.getRepositoryManager().getRepositoryConnector(
+				taskRepository.getConnectorKind());
+		if (connector instanceof ITuleapRepositoryConnector) {
+			return ((ITuleapRepositoryConnector)connector).getClientManager().getRestClient(taskRepository);
+		}
+		return null;
+	}
+
+	/**
+	 * Counts the artifacts of a query.
+	 *
+	 * @author <a href="mailto:laurent.delaigue@obeo.fr">Laurent Delaigue</a>
+	 */
+	public interface ICounter {
+
+		/**
+		 * Counts the artifacts of the query.
+		 *
+		 * @param client
+		 *            The REST client of the repository
+		 * @param monitor
+		 *            The progress monitor
+		 * @return The number of artifacts.
+		 * @throws CoreException
+		 *             If the artifacts cannot be counted.
+		 */
+		int count(TuleapRestClient client, IProgressMonitor monitor) throws CoreException;
+	}
+
+	/**
+	 * The job that counts the artifacts in the background.
+	 *
+	 * @author <a href="mailto:laurent.delaigue@obeo.fr">Laurent Delaigue</a>
+	 */
+	private final class CountJob extends Job {
+
+		/**
+		 * The counter of the latest version of the query.
+		 */
+		private volatile ICounter counter;
+
+		/**
+		 * Constructor.
+		 */
+		private CountJob() {
+			super(TuleapUIMessages.getString(TuleapUIKeys.tuleapQueryResultCountJob));
+			setSystem(true);
+		}
+
+		/**
+		 * Counter setter.
+		 *
+		 * @param aCounter
+		 *            The counter of the latest version of the query
+		 */
+		private void setCounter(ICounter aCounter) {
+			this.counter = aCounter;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 *
+		 * @see org.eclipse.core.runtime.jobs.Job#run(org.eclipse.core.runtime.IProgressMonitor)
+		 */
+		@Override
+		protected IStatus run(IProgressMonitor monitor) {
+			ICounter current = counter;
+			TuleapRestClient client = getRestClient();
+			if (current == null || client == null) {
+				return Status.OK_STATUS;
+			}
+			try {
+				int count = current.count(client, monitor);
+				if (!monitor.isCanceled() && current == counter) {
+					show(TuleapUIMessages.getString(TuleapUIKeys.tuleapQueryResultCount, Integer
+							.valueOf(count)));
+				}
+			} catch (CoreException e) {
+				if (current == counter) {
+					show(TuleapUIMessages.getString(TuleapUIKeys.tuleapQueryResultCountUnavailable));
+				}
+				TuleapTasksUIPlugin.log(e, false);
+			}
+			if (monitor.isCanceled()) {
+				return Status.CANCEL_STATUS;
+			}
+			return Status.OK_STATUS;
+		}
+	}
+}
@@ -16,6 +16,7 @@ import java.util.List;
 import java.util.Map;
 
 import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.jface.dialogs.Dialog;
 import org.eclipse.jface.layout.GridDataFactory;
 import org.eclipse.jface.wizard.IWizardPage;
@@ -36,6 +37,7 @@ import org.eclipse.swt.layout.GridLayout;
 import org.eclipse.swt.widgets.Composite;
 import org.eclipse.swt.widgets.Group;
 import org.tuleap.mylyn.task.core.internal.client.ITuleapQueryConstants;
+import org.tuleap.mylyn.task.core.internal.client.rest.TuleapRestClient;
 import org.tuleap.mylyn.task.core.internal.model.config.AbstractTuleapField;
 import org.tuleap.mylyn.task.core.internal.model.config.TuleapServer;
 import org.tuleap.mylyn.task.core.internal.model.config.TuleapTracker;
@@ -92,6 +94,11 @@ public class TuleapCustomQueryPage extends AbstractRepositoryQueryPage2 {
 	 */
 	private SelectionListener selectionListener;
 
+	/**
+	 * The preview of the number of artifacts that match the criteria.
+	 */
+	private ResultCountPreview countPreview;
+
 	/**
 	 * The constructor.
 	 *
@@ -193,6 +200,7 @@ public class TuleapCustomQueryPage extends AbstractRepositoryQueryPage2 {
 				field.accept(visitor);
 			}
 			this.elements = visitor.getQueryElements();
+			this.countPreview = new ResultCountPreview(composite, this.getTaskRepository());
 		}
 
 		Dialog.applyDialogFont(composite);
@@ -296,6 +304,36 @@ public class TuleapCustomQueryPage extends AbstractRepositoryQueryPage2 {
 	@Override
 	public void setVisible(boolean visible) {
 		this.getControl().setVisible(visible);
+		if (visible && this.countPreview != null) {
+			this.updateCount(this.isPageComplete());
+		}
+	}
+
+	/**
+	 * Counts the artifacts that match the criteria in the background, and shows their number.
+	 *
+	 * @param valid
+	 *            Whether the criteria are valid, the number is cleared otherwise
+	 */
+	private void updateCount(boolean valid) {
+		if (this.countPreview == null) {
+			return;
+		}
+		if (!valid) {
+			this.countPreview.clear();
+			return;
+		}
+		// The criteria are read from the widgets now, the artifacts are counted later
+		final IRepositoryQuery preview = TasksUi.getRepositoryModel().createRepositoryQuery(
+				this.getTaskRepository());
+		this.applyTo(preview);
+		final TuleapTracker tracker = this.tuleapTracker;
+		this.countPreview.refresh(new ResultCountPreview.ICounter() {
+			@Override
+			public int count(TuleapRestClient client, IProgressMonitor monitor) throws CoreException {
+				return client.countArtifactsFromQuery(preview, tracker, monitor);
+			}
+		});
 	}
 
 	/**
@@ -337,6 +375,7 @@ public class TuleapCustomQueryPage extends AbstractRepositoryQueryPage2 {
 						setPageComplete(false);
 						setErrorMessage(TuleapUIMessages.getString(TuleapUIKeys.tuleapQueryInvalidCriteria));
 					}
+					updateCount(ok);
 				}
 			};
 		}
@@ -363,6 +402,7 @@ public class TuleapCustomQueryPage extends AbstractRepositoryQueryPage2 {
 						setPageComplete(false);
 						setErrorMessage(TuleapUIMessages.getString(TuleapUIKeys.tuleapQueryInvalidCriteria));
 					}
+					updateCount(ok);
 				}
 
 				@Override
@@ -375,6 +415,7 @@ public class TuleapCustomQueryPage extends AbstractRepositoryQueryPage2 {
 						setPageComplete(false);
 						setErrorMessage(TuleapUIMessages.getString(TuleapUIKeys.tuleapQueryInvalidCriteria));
 					}
+					updateCount(ok);
 				}
 			};
 			// CHECKSTYLE:ON
@@ -75,6 +75,11 @@ public class TuleapReportPage extends AbstractRepositoryQueryPage2 {
 	 */
 	private TableViewer reportsTableViewer;
 
+	/**
+	 * The preview of the number of artifacts of the selected report.
+	 */
+	private ResultCountPreview countPreview;
+
 	/**
 	 * The title of the query.
 	 */
@@ -165,6 +170,7 @@ public class TuleapReportPage extends AbstractRepositoryQueryPage2 {
 			@Override
 			public void widgetSelected(SelectionEvent e) {
 				TuleapReportPage.this.getWizard().getContainer().updateButtons();
+				TuleapReportPage.this.refreshCount();
 			}
 
 			@Override
@@ -172,6 +178,7 @@ public class TuleapReportPage extends AbstractRepositoryQueryPage2 {
 				TuleapReportPage.this.getWizard().getContainer().updateButtons();
 			}
 		});
+		this.countPreview = new ResultCountPreview(composite, this.getTaskRepository());
 
 		Dialog.applyDialogFont(composite);
 
@@ -239,6 +246,40 @@ public class TuleapReportPage extends AbstractRepositoryQueryPage2 {
 			IStructuredSelection selection = new StructuredSelection(reports.get(0));
 			this.reportsTableViewer.setSelection(selection);
 		}
+		this.refreshCount();
+	}
+
+	/**
+	 * Provides the report selected in the table.
+	 *
+	 * @return The selected report, <code>null</code> if none is selected.
+	 */
+	private TuleapTrackerReport getSelectedReport() {
+		ISelection selection = this.reportsTableViewer.getSelection();
+		if (selection instanceof IStructuredSelection) {
+			Object element = ((IStructuredSelection)selection).getFirstElement();
+			if (element instanceof TuleapTrackerReport) {
+				return (TuleapTrackerReport)element;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Counts the artifacts of the selected report in the background, and shows their number.
+	 */
+	private void refreshCount() {
+		final TuleapTrackerReport report = this.getSelectedReport();
+		if (report == null) {
+			this.countPreview.clear();
+			return;
+		}
+		this.countPreview.refresh(new ResultCountPreview.ICounter() {
+			@Override
+			public int count(TuleapRestClient client, IProgressMonitor monitor) throws CoreException {
+				return client.countTrackerReportArtifacts(report.getId(), monitor);
+			}
+		});
 	}
 
 	/**
@@ -341,16 +382,10 @@ public class TuleapReportPage extends AbstractRepositoryQueryPage2 {
 		query.setAttribute(ITuleapQueryConstants.QUERY_KIND, ITuleapQueryConstants.QUERY_KIND_REPORT);
 
 		// Report id?
-		ISelection selection = this.reportsTableViewer.getSelection();
-		if (selection instanceof IStructuredSelection) {
-			IStructuredSelection iStructuredSelection = (IStructuredSelection)selection;
-			Object element = iStructuredSelection.getFirstElement();
-			if (element instanceof TuleapTrackerReport) {
-				TuleapTrackerReport tuleapTrackerReport = (TuleapTrackerReport)element;
-
-				query.setAttribute(ITuleapQueryConstants.QUERY_REPORT_ID, Integer.valueOf(
-						tuleapTrackerReport.getId()).toString());
-			}
+		TuleapTrackerReport tuleapTrackerReport = this.getSelectedReport();
+		if (tuleapTrackerReport != null) {
+			query.setAttribute(ITuleapQueryConstants.QUERY_REPORT_ID, Integer.valueOf(
+					tuleapTrackerReport.getId()).toString());
 		}
 	}
 }